@@ -36,6 +36,7 @@ import de.mirkosertic.gameengine.event.GameEventManager;
 import de.mirkosertic.gameengine.event.PropertyChanged;
 import de.mirkosertic.gameengine.event.SystemException;
 import de.mirkosertic.gameengine.input.DefaultGestureDetector;
+import de.mirkosertic.gameengine.javafx.JDKGameClock;
 import de.mirkosertic.gameengine.javafx.JavaFXGameView;
 import de.mirkosertic.gameengine.network.DefaultEventInterpreter;
 import de.mirkosertic.gameengine.network.NetworkGameView;
@@ -353,7 +354,7 @@ public class GameSceneEditorController implements ContentController<GameScene> {
 
         final JavaFXGameView thePreviewGameView = new JavaFXGameView(theRuntime, theCameraInstanceBehavior, new DefaultGestureDetector(theRuntime.getEventManager(), theCameraInstanceBehavior));
 
-        GameLoopFactory theGameLoopFactory = new GameLoopFactory();
+        GameLoopFactory theGameLoopFactory = new GameLoopFactory(new JDKGameClock(), GameLoop.VARIABLE_TIMESTEP);
         GameLoop theMainLoop = theGameLoopFactory.create(thePreviewScene, thePreviewGameView, theRuntime);
 
         // Register a local Network Game View
@@ -30,6 +30,7 @@ import de.mirkosertic.gameengine.core.GameScene;
 import de.mirkosertic.gameengine.core.GameSystem;
 import de.mirkosertic.gameengine.event.GameEventManager;
 import de.mirkosertic.gameengine.input.DefaultGestureDetector;
+import de.mirkosertic.gameengine.javafx.JDKGameClock;
 import de.mirkosertic.gameengine.physic.GamePhysicsManager;
 import de.mirkosertic.gameengine.type.Size;
 import javafx.fxml.FXMLLoader;
@@ -77,7 +78,7 @@ public class GameSceneEditorControllerFactory implements ContentAreaFactory<Game
 
         EditorFXGameView theGameView = new EditorFXGameView(theRuntime, theCameraBehavior, new DefaultGestureDetector(theEventManager, theCameraBehavior), thePhysicsManager);
 
-        GameLoopFactory theGameLoopFactory = new GameLoopFactory();
+        GameLoopFactory theGameLoopFactory = new GameLoopFactory(new JDKGameClock(), GameLoop.VARIABLE_TIMESTEP);
         GameLoop theMainLoop = theGameLoopFactory.create(aScene, theGameView, theRuntime);
 
         final CameraBehavior theFinalCameraComponent = theCameraBehavior;
@@ -25,6 +25,8 @@ import de.mirkosertic.gamecomposer.objectinspector.PersistentPropertyEditorItem;
 import de.mirkosertic.gamecomposer.objectinspector.PropertyEditorItem;
 import de.mirkosertic.gamecomposer.objectinspector.utils.ColorPropertyEditor;
 import de.mirkosertic.gamecomposer.objectinspector.utils.GameObjectPropertyEditor;
+import de.mirkosertic.gamecomposer.objectinspector.utils.PositiveIntegerPropertyEditor;
+import de.mirkosertic.gamecomposer.objectinspector.utils.PropertyChangeModePropertyEditor;
 import de.mirkosertic.gamecomposer.objectinspector.utils.StringPropertyEditor;
 import de.mirkosertic.gameengine.arcaderacer.ArcadeRacerGameSceneEffect;
 import de.mirkosertic.gameengine.core.GameScene;
@@ -69,6 +71,11 @@ public class GameSceneElementConfigurator implements ObjectInspectorElementConfi
         theResult.add(new PersistentPropertyEditorItem<>(persistenceManager, CATEGORY_NAME, aObject.cameraObjectProperty(), "Camera", "The default camera object", Optional.of(GameObjectPropertyEditor.class)));
         theResult.add(new PersistentPropertyEditorItem<>(persistenceManager, CATEGORY_NAME, aObject.defaultPlayerProperty(), "Default player", "The default player object", Optional.of(GameObjectPropertyEditor.class)));
         theResult.add(new PropertyEditorItem<>(CATEGORY_NAME, aObject.backgroundColorProperty(), "Background color", "The scene background color", Optional.of(ColorPropertyEditor.class)));
+        theResult.add(new PropertyEditorItem<>(CATEGORY_NAME, aObject.physicsStepRateProperty(), "Physics step rate", "Physics simulation steps per second", Optional.of(PositiveIntegerPropertyEditor.class)));
+        theResult.add(new PropertyEditorItem<>(CATEGORY_NAME, aObject.physicsVelocityIterationsProperty(), "Physics velocity iterations", "Velocity iterations per physics step", Optional.of(PositiveIntegerPropertyEditor.class)));
+        theResult.add(new PropertyEditorItem<>(CATEGORY_NAME, aObject.physicsPositionIterationsProperty(), "Physics position iterations", "Position iterations per physics step", Optional.of(PositiveIntegerPropertyEditor.class)));
+        theResult.add(new PropertyEditorItem<>(CATEGORY_NAME, aObject.propertyChangeModeProperty(), "Property changes", "How property changes are notified at runtime", Optional.of(PropertyChangeModePropertyEditor.class)));
+        theResult.add(new PropertyEditorItem<>(CATEGORY_NAME, aObject.logicalTimestampsProperty(), "Logical timestamps", "Use the tick number as property change time"));
 
         Map<Class<? extends GameSceneEffect>, EffectDescription> theAvailableEffects = new HashMap<>();
         theAvailableEffects.put(StarfieldGameSceneEffect.class, new EffectDescription() {
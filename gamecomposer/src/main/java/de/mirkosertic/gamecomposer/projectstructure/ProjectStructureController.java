@@ -45,6 +45,7 @@ import javafx.scene.control.TreeItem;
 import javafx.scene.control.TreeView;
 import javafx.scene.input.MouseEvent;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -275,7 +276,8 @@ public class ProjectStructureController implements Controller {
             theInstancesTreeItem.setValue(TreeObjectTypes.INSTANCES);
             theInstancesTreeItem.setExpanded(true);
 
-            List<GameObjectInstance> theSortedInstances = Arrays.asList(theLoadedScene.getInstances());
+            // Sort a copy, the scene snapshot must not be modified
+            List<GameObjectInstance> theSortedInstances = new ArrayList<>(Arrays.asList(theLoadedScene.getInstances()));
             Collections.sort(theSortedInstances, (o1, o2) -> o1.nameProperty().get().compareTo(o2.nameProperty().get()));
 
             for (GameObjectInstance theGameObjectInstance : theSortedInstances) {
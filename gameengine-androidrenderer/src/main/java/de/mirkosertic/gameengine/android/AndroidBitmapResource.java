@@ -31,4 +31,9 @@ public class AndroidBitmapResource implements GameResource {
     public GameResourceType getType() {
         return GameResourceType.BITMAP;
     }
+
+    @Override
+    public long getSizeInBytes() {
+        return (long) bitmap.getRowBytes() * (long) bitmap.getHeight();
+    }
 }
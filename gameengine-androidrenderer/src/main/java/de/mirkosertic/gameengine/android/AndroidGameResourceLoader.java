@@ -52,6 +52,7 @@ public class AndroidGameResourceLoader implements GameResourceLoader {
                     if (aResourceName.name.endsWith(".png")) {
                         InputStream theStream = assetManager.open(prefix + aResourceName.name);
                         aResolver.resolve(new AndroidBitmapResource(BitmapFactory.decodeStream(theStream)));
+                        return;
                     }
                     if (aResourceName.name.endsWith(".wav")) {
                         File theCachedFile = new File(cacheDir, prefix + aResourceName.name);
@@ -68,7 +69,9 @@ public class AndroidGameResourceLoader implements GameResourceLoader {
                         theFos.close();
                         AssetFileDescriptor theFileDescriptor = new AssetFileDescriptor(ParcelFileDescriptor.open(theCachedFile, ParcelFileDescriptor.MODE_READ_ONLY ), 0, -1);
                         aResolver.resolve(new AndroidSoundResource(new ResourceName(prefix + aResourceName.name), theFileDescriptor));
+                        return;
                     }
+                    aRejector.reject("Unsupported resource type : " + aResourceName.name, null);
                 } catch (Exception e) {
                     aRejector.reject(e.getMessage(), e);
                 }
@@ -86,6 +89,13 @@ public class AndroidGameResourceLoader implements GameResourceLoader {
         });
     }
 
+    @Override
+    public void release(GameResource aResource) {
+        if (aResource instanceof AndroidBitmapResource) {
+            ((AndroidBitmapResource) aResource).bitmap.recycle();
+        }
+    }
+
     @Override
     public void flush() {
     }
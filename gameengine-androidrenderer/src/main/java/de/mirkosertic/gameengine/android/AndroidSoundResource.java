@@ -34,4 +34,9 @@ public class AndroidSoundResource implements GameResource {
     public GameResourceType getType() {
         return GameResourceType.SOUND;
     }
+
+    @Override
+    public long getSizeInBytes() {
+        return Math.max(0, fileDescriptor.getLength());
+    }
 }
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2016 Mirko Sertic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.mirkosertic.gameengine.benchmarks;
+
+import de.mirkosertic.gameengine.action.ActionManager;
+import de.mirkosertic.gameengine.action.ActionManagerFactory;
+import de.mirkosertic.gameengine.core.GameRuntime;
+import de.mirkosertic.gameengine.core.GameScene;
+import de.mirkosertic.gameengine.core.GameSystem;
+import de.mirkosertic.gameengine.core.GameSystemWork;
+import de.mirkosertic.gameengine.process.GameProcessManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Measures the rule evaluation triggered by a single SystemTick. The tick is
+// dispatched through the event manager, so ActionManager.onEvent sees it the
+// same way it does inside the game loop. Fulfilled rules start their actions as
+// processes, so the process manager runs as well to keep the number of running
+// processes from growing during the measurement.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ActionManagerBenchmark {
+
+    @Param({"10", "100", "1000"})
+    int rules;
+
+    @Param({"0", "100"})
+    int instances;
+
+    private ActionManager actionManager;
+    private GameProcessManager processManager;
+    private CountingAction action;
+    private long tick;
+
+    @Setup
+    public void setup() {
+        GameRuntime theRuntime = BenchmarkScenes.createRuntime();
+        GameScene theScene = BenchmarkScenes.createScene(theRuntime);
+        BenchmarkScenes.addInstances(theScene, instances);
+        action = BenchmarkScenes.addRules(theScene, rules);
+        actionManager = new ActionManagerFactory().create(theScene, theRuntime.getEventManager());
+        for (GameSystem theSystem : theRuntime.getSystems()) {
+            if (theSystem instanceof GameProcessManager) {
+                processManager = (GameProcessManager) theSystem;
+            }
+        }
+    }
+
+    @Benchmark
+    public long tick() {
+        tick++;
+        actionManager.proceedGame(tick, tick * 16, 16).runInFrame();
+        GameSystemWork theProcesses = processManager.proceedGame(tick, tick * 16, 16);
+        theProcesses.runInFrame();
+        theProcesses.runAfterFrame();
+        return action.getInvocations();
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2016 Mirko Sertic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.mirkosertic.gameengine.benchmarks;
+
+import de.mirkosertic.gameengine.action.SystemTickCondition;
+import de.mirkosertic.gameengine.camera.CameraBehavior;
+import de.mirkosertic.gameengine.camera.CameraBehaviorTemplate;
+import de.mirkosertic.gameengine.camera.SetScreenResolution;
+import de.mirkosertic.gameengine.core.BehaviorType;
+import de.mirkosertic.gameengine.core.EventSheet;
+import de.mirkosertic.gameengine.core.Game;
+import de.mirkosertic.gameengine.core.GameObject;
+import de.mirkosertic.gameengine.core.GameObjectInstance;
+import de.mirkosertic.gameengine.core.GameRule;
+import de.mirkosertic.gameengine.core.GameRuntime;
+import de.mirkosertic.gameengine.core.GameScene;
+import de.mirkosertic.gameengine.core.SceneStartedCondition;
+import de.mirkosertic.gameengine.javafx.HeadlessGameRuntimeFactory;
+import de.mirkosertic.gameengine.physic.PhysicsBehaviorTemplate;
+import de.mirkosertic.gameengine.physic.StaticBehaviorTemplate;
+import de.mirkosertic.gameengine.type.Position;
+import de.mirkosertic.gameengine.type.Size;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Builds the scenes used by the benchmarks. Everything runs headless, there are
+// no resources, no sound and no renderer involved.
+final class BenchmarkScenes {
+
+    static final Size SCREEN_SIZE = new Size(800, 600);
+
+    private static final int GRID_SPACING = 80;
+
+    private BenchmarkScenes() {
+    }
+
+    static GameRuntime createRuntime() {
+        return new HeadlessGameRuntimeFactory().create();
+    }
+
+    static GameScene createScene(GameRuntime aRuntime) {
+        return new GameScene(new Game(), aRuntime);
+    }
+
+    static CameraBehavior addCamera(GameScene aScene) {
+        GameObject theCameraObject = aScene.createNewGameObject("Camera");
+        aScene.addBehaviorToObject(theCameraObject, new CameraBehaviorTemplate(aScene.getRuntime().getEventManager(), theCameraObject));
+        aScene.cameraObjectProperty().set(theCameraObject);
+
+        GameObjectInstance theCamera = aScene.createFrom(theCameraObject);
+        aScene.addInstance(theCamera);
+        aScene.getRuntime().getEventManager().fire(new SetScreenResolution(SCREEN_SIZE));
+        return theCamera.getBehavior(CameraBehavior.TYPE);
+    }
+
+    // The instances are layed out on a square grid, so only a part of them is visible
+    // to a camera placed at the origin once the grid grows beyond the screen size
+    static void addInstances(GameScene aScene, int aCount) {
+        GameObject theObject = aScene.createNewGameObject("Tile");
+        int theColumns = (int) Math.ceil(Math.sqrt(aCount));
+        for (int i = 0; i < aCount; i++) {
+            GameObjectInstance theInstance = aScene.createFrom(theObject);
+            theInstance.positionProperty().set(new Position((i % theColumns) * GRID_SPACING, (i / theColumns) * GRID_SPACING));
+            aScene.addInstance(theInstance);
+        }
+    }
+
+    // Dynamic bodies are dropped onto a static ground, so the physics world has
+    // contacts to resolve once the bodies come to rest
+    static void addPhysicsBodies(GameScene aScene, int aCount) {
+        if (aCount == 0) {
+            return;
+        }
+        GameObject theGroundObject = aScene.createNewGameObject("Ground");
+        int theColumns = (int) Math.ceil(Math.sqrt(aCount));
+        theGroundObject.sizeProperty().set(new Size(theColumns * GRID_SPACING, 32));
+        aScene.addBehaviorToObject(theGroundObject, new StaticBehaviorTemplate(aScene.getRuntime().getEventManager(), theGroundObject));
+
+        GameObjectInstance theGround = aScene.createFrom(theGroundObject);
+        theGround.positionProperty().set(new Position(0, (theColumns + 1) * GRID_SPACING));
+        aScene.addInstance(theGround);
+
+        GameObject theBoxObject = aScene.createNewGameObject("Box");
+        theBoxObject.sizeProperty().set(new Size(32, 32));
+        aScene.addBehaviorToObject(theBoxObject, new PhysicsBehaviorTemplate(aScene.getRuntime().getEventManager(), theBoxObject));
+
+        for (int i = 0; i < aCount; i++) {
+            GameObjectInstance theBox = aScene.createFrom(theBoxObject);
+            theBox.positionProperty().set(new Position((i % theColumns) * GRID_SPACING, (i / theColumns) * GRID_SPACING));
+            aScene.addInstance(theBox);
+        }
+    }
+
+    // Adds aCount rules fulfilled by every SystemTick, and the same number of rules
+    // which never match during a tick, as real scenes mix both of them
+    static CountingAction addRules(GameScene aScene, int aCount) {
+        CountingAction theAction = new CountingAction();
+        EventSheet theSheet = aScene.createNewEventSheet();
+        for (int i = 0; i < aCount; i++) {
+            GameRule theTickRule = new GameRule();
+            theTickRule.conditionProperty().set(new SystemTickCondition());
+            theTickRule.addAction(theAction);
+            theSheet.addRule(theTickRule);
+
+            GameRule theStartRule = new GameRule();
+            theStartRule.conditionProperty().set(new SceneStartedCondition());
+            theStartRule.addAction(theAction);
+            theSheet.addRule(theStartRule);
+        }
+        return theAction;
+    }
+
+    // Scene files store behavior types as plain strings, while serialize() keeps the
+    // BehaviorType instances. This gives the structure as it is read from a scene file.
+    static Map<String, Object> asStoredData(Map<String, Object> aSerializedData) {
+        Map<String, Object> theResult = new HashMap<>();
+        for (Map.Entry<String, Object> theEntry : aSerializedData.entrySet()) {
+            theResult.put(theEntry.getKey(), asStoredValue(theEntry.getValue()));
+        }
+        return theResult;
+    }
+
+    private static Object asStoredValue(Object aValue) {
+        if (aValue instanceof BehaviorType) {
+            return ((BehaviorType) aValue).getValue();
+        }
+        if (aValue instanceof Map) {
+            return asStoredData((Map<String, Object>) aValue);
+        }
+        if (aValue instanceof List) {
+            List<Object> theResult = new ArrayList<>();
+            for (Object theElement : (List<Object>) aValue) {
+                theResult.add(asStoredValue(theElement));
+            }
+            return theResult;
+        }
+        return aValue;
+    }
+}
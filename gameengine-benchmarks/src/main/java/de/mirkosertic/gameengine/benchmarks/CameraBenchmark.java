@@ -0,0 +1,73 @@
+/*
+ * Copyright 2016 Mirko Sertic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.mirkosertic.gameengine.benchmarks;
+
+import de.mirkosertic.gameengine.camera.Callback;
+import de.mirkosertic.gameengine.camera.CameraBehavior;
+import de.mirkosertic.gameengine.core.GameObjectInstance;
+import de.mirkosertic.gameengine.core.GameScene;
+import de.mirkosertic.gameengine.type.Position;
+import de.mirkosertic.gameengine.type.Size;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CameraBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    int instances;
+
+    private CameraBehavior camera;
+
+    @Setup
+    public void setup() {
+        GameScene theScene = BenchmarkScenes.createScene(BenchmarkScenes.createRuntime());
+        camera = BenchmarkScenes.addCamera(theScene);
+        BenchmarkScenes.addInstances(theScene, instances);
+    }
+
+    @Benchmark
+    public int processVisibleInstances(final Blackhole aBlackhole) {
+        return camera.processVisibleInstances(new Callback() {
+            @Override
+            public boolean accepts(GameObjectInstance aInstance) {
+                return aInstance.visibleProperty().get();
+            }
+
+            @Override
+            public void process(GameObjectInstance aInstance, Position aPositionOnScreen, Size aSize) {
+                aBlackhole.consume(aPositionOnScreen);
+            }
+        });
+    }
+}
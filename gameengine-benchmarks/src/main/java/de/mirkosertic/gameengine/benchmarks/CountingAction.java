@@ -0,0 +1,43 @@
+/*
+ * Copyright 2016 Mirko Sertic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.mirkosertic.gameengine.benchmarks;
+
+import de.mirkosertic.gameengine.core.Action;
+import de.mirkosertic.gameengine.core.ConditionResult;
+import de.mirkosertic.gameengine.core.GameScene;
+
+import java.util.Collections;
+import java.util.Map;
+
+// Action doing nothing but counting, so the benchmarks measure the rule dispatch only
+final class CountingAction implements Action {
+
+    private long invocations;
+
+    @Override
+    public void invoke(GameScene aScene, ConditionResult aResult) {
+        invocations++;
+    }
+
+    @Override
+    public Map<String, Object> serialize() {
+        return Collections.emptyMap();
+    }
+
+    long getInvocations() {
+        return invocations;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2016 Mirko Sertic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.mirkosertic.gameengine.benchmarks;
+
+import de.mirkosertic.gameengine.core.GameRuntime;
+import de.mirkosertic.gameengine.event.GameEvent;
+import de.mirkosertic.gameengine.event.GameEventListener;
+import de.mirkosertic.gameengine.event.GameEventManager;
+import de.mirkosertic.gameengine.event.GameEventType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventManagerBenchmark {
+
+    private static final GameEventType OBSERVED = new GameEventType("Observed");
+    private static final GameEventType UNOBSERVED = new GameEventType("Unobserved");
+
+    static class BenchmarkEvent extends GameEvent {
+
+        BenchmarkEvent(GameEventType aType) {
+            super(aType);
+        }
+    }
+
+    @Param({"1", "10", "100"})
+    int listeners;
+
+    private GameEventManager eventManager;
+    private GameEvent observedEvent;
+    private GameEvent unobservedEvent;
+    private long received;
+
+    @Setup
+    public void setup() {
+        GameRuntime theRuntime = BenchmarkScenes.createRuntime();
+        eventManager = theRuntime.getEventManager();
+        GameEventListener<GameEvent> theListener = new GameEventListener<GameEvent>() {
+            @Override
+            public void handleGameEvent(GameEvent aEvent) {
+                received++;
+            }
+        };
+        for (int i = 0; i < listeners; i++) {
+            eventManager.register(null, OBSERVED, theListener);
+        }
+        observedEvent = new BenchmarkEvent(OBSERVED);
+        unobservedEvent = new BenchmarkEvent(UNOBSERVED);
+    }
+
+    @Benchmark
+    public long fireObserved() {
+        eventManager.fire(observedEvent);
+        return received;
+    }
+
+    @Benchmark
+    public void fireUnobserved(Blackhole aBlackhole) {
+        eventManager.fire(unobservedEvent);
+        aBlackhole.consume(received);
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2016 Mirko Sertic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.mirkosertic.gameengine.benchmarks;
+
+import de.mirkosertic.gameengine.core.GameLoop;
+import de.mirkosertic.gameengine.core.GameLoopFactory;
+import de.mirkosertic.gameengine.core.GameRuntime;
+import de.mirkosertic.gameengine.core.GameScene;
+import de.mirkosertic.gameengine.core.ManualGameClock;
+import de.mirkosertic.gameengine.javafx.HeadlessGameRuntimeFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// A complete frame of a headless scene : systems, rules, physics and the visibility
+// computation of the stub view. The clock is advanced by exactly one fixed step per
+// invocation, so every singleRun() computes one game tick.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameLoopBenchmark {
+
+    private static final int TICKS_PER_SECOND = 60;
+    private static final long NANOS_PER_TICK = 1000000000L / TICKS_PER_SECOND;
+
+    @Param({"100", "1000"})
+    int instances;
+
+    @Param({"0", "10", "100"})
+    int rules;
+
+    @Param({"0", "50", "200"})
+    int physicsBodies;
+
+    private ManualGameClock clock;
+    private GameLoop gameLoop;
+    private HeadlessGameView gameView;
+
+    @Setup
+    public void setup() {
+        HeadlessGameRuntimeFactory theRuntimeFactory = new HeadlessGameRuntimeFactory();
+        GameRuntime theRuntime = theRuntimeFactory.create();
+        GameScene theScene = BenchmarkScenes.createScene(theRuntime);
+
+        gameView = new HeadlessGameView(theScene, BenchmarkScenes.addCamera(theScene));
+        BenchmarkScenes.addInstances(theScene, instances);
+        BenchmarkScenes.addPhysicsBodies(theScene, physicsBodies);
+        BenchmarkScenes.addRules(theScene, rules);
+
+        theRuntimeFactory.loadingFinished(theScene);
+
+        clock = new ManualGameClock();
+        gameLoop = new GameLoopFactory(clock, TICKS_PER_SECOND).create(theScene, gameView, theRuntime);
+        // The first run just starts the scene
+        gameLoop.singleRun();
+    }
+
+    @TearDown
+    public void shutdown() {
+        gameLoop.shutdown();
+    }
+
+    @Benchmark
+    public long singleRun() {
+        clock.advance(NANOS_PER_TICK);
+        gameLoop.singleRun();
+        return gameView.getRenderedInstances();
+    }
+}
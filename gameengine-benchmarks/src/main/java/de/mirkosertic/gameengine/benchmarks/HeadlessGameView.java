@@ -0,0 +1,67 @@
+/*
+ * Copyright 2016 Mirko Sertic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.mirkosertic.gameengine.benchmarks;
+
+import de.mirkosertic.gameengine.camera.Callback;
+import de.mirkosertic.gameengine.camera.CameraBehavior;
+import de.mirkosertic.gameengine.core.GameObjectInstance;
+import de.mirkosertic.gameengine.core.GameScene;
+import de.mirkosertic.gameengine.core.GameView;
+import de.mirkosertic.gameengine.core.GestureDetector;
+import de.mirkosertic.gameengine.core.RuntimeStatistics;
+import de.mirkosertic.gameengine.input.DefaultGestureDetector;
+import de.mirkosertic.gameengine.type.Position;
+import de.mirkosertic.gameengine.type.Size;
+
+// Stub view without any output. It still asks the camera for the visible instances
+// every frame, as a real view would do.
+final class HeadlessGameView implements GameView {
+
+    private final CameraBehavior cameraBehavior;
+    private final GestureDetector gestureDetector;
+    private final Callback callback;
+    private long renderedInstances;
+
+    HeadlessGameView(GameScene aScene, CameraBehavior aCameraBehavior) {
+        cameraBehavior = aCameraBehavior;
+        gestureDetector = new DefaultGestureDetector(aScene.getRuntime().getEventManager(), aCameraBehavior);
+        callback = new Callback() {
+            @Override
+            public boolean accepts(GameObjectInstance aInstance) {
+                return aInstance.visibleProperty().get();
+            }
+
+            @Override
+            public void process(GameObjectInstance aInstance, Position aPositionOnScreen, Size aSize) {
+                renderedInstances++;
+            }
+        };
+    }
+
+    @Override
+    public void renderGame(long aGameTime, long aElapsedTimeSinceLastLoop, float aInterpolationAlpha, GameScene aScene, RuntimeStatistics aStatistics) {
+        cameraBehavior.processVisibleInstances(callback);
+    }
+
+    @Override
+    public GestureDetector getGestureDetector() {
+        return gestureDetector;
+    }
+
+    long getRenderedInstances() {
+        return renderedInstances;
+    }
+}
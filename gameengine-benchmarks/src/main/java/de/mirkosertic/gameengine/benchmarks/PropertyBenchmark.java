@@ -0,0 +1,85 @@
+/*
+ * Copyright 2016 Mirko Sertic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.mirkosertic.gameengine.benchmarks;
+
+import de.mirkosertic.gameengine.core.GameObjectInstance;
+import de.mirkosertic.gameengine.core.GameRuntime;
+import de.mirkosertic.gameengine.core.GameScene;
+import de.mirkosertic.gameengine.event.GameEventManager;
+import de.mirkosertic.gameengine.event.Property;
+import de.mirkosertic.gameengine.event.PropertyChangeMode;
+import de.mirkosertic.gameengine.type.Position;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Measures the position update of an instance, including the change notification
+// of the event manager in the configured PropertyChangeMode
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PropertyBenchmark {
+
+    private static final Position FIRST = new Position(10, 10);
+    private static final Position SECOND = new Position(20, 20);
+
+    @Param({"IMMEDIATE", "COALESCED"})
+    PropertyChangeMode mode;
+
+    private GameEventManager eventManager;
+    private Property<Position> position;
+    private boolean toggle;
+
+    @Setup
+    public void setup() {
+        GameRuntime theRuntime = BenchmarkScenes.createRuntime();
+        GameScene theScene = BenchmarkScenes.createScene(theRuntime);
+        GameObjectInstance theInstance = theScene.createFrom(theScene.createNewGameObject("Moving"));
+        theScene.addInstance(theInstance);
+
+        eventManager = theRuntime.getEventManager();
+        eventManager.setPropertyChangeMode(mode);
+        position = theInstance.positionProperty();
+    }
+
+    @Benchmark
+    public Position setChanged() {
+        toggle = !toggle;
+        position.set(toggle ? FIRST : SECOND);
+        // Coalesced changes are delivered at the end of every frame
+        eventManager.flushPropertyChanges();
+        return position.get();
+    }
+
+    @Benchmark
+    public Position setUnchanged() {
+        position.set(position.get());
+        return position.get();
+    }
+}
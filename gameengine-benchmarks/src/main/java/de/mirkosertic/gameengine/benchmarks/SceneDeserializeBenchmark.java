@@ -0,0 +1,76 @@
+/*
+ * Copyright 2016 Mirko Sertic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.mirkosertic.gameengine.benchmarks;
+
+import de.mirkosertic.gameengine.core.Game;
+import de.mirkosertic.gameengine.core.GameRuntime;
+import de.mirkosertic.gameengine.core.GameScene;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SceneDeserializeBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    int instances;
+
+    @Param({"0", "100"})
+    int physicsBodies;
+
+    private Map<String, Object> serializedScene;
+    private Game game;
+    private GameRuntime runtime;
+
+    @Setup(Level.Trial)
+    public void serializeScene() {
+        GameScene theScene = BenchmarkScenes.createScene(BenchmarkScenes.createRuntime());
+        BenchmarkScenes.addCamera(theScene);
+        BenchmarkScenes.addInstances(theScene, instances);
+        BenchmarkScenes.addPhysicsBodies(theScene, physicsBodies);
+        serializedScene = BenchmarkScenes.asStoredData(theScene.serialize());
+        game = theScene.getGame();
+    }
+
+    // Every scene needs a runtime of its own, otherwise the listeners of all
+    // deserialized scenes would pile up in a single event manager
+    @Setup(Level.Invocation)
+    public void createRuntime() {
+        runtime = BenchmarkScenes.createRuntime();
+    }
+
+    @Benchmark
+    public GameScene deserialize() {
+        return GameScene.deserialize(game, runtime, serializedScene);
+    }
+}
@@ -28,18 +28,12 @@ import de.mirkosertic.gameengine.core.PromiseRejector;
 import de.mirkosertic.gameengine.core.PromiseResolver;
 import de.mirkosertic.gameengine.type.ResourceName;
 
-import java.util.HashMap;
-import java.util.Map;
-
 public class BytecoderGameResourceLoader implements GameResourceLoader {
 
     private final String sceneId;
-    private final Map<ResourceName, BytecoderTextureResource> textureResources;
-
 
     public BytecoderGameResourceLoader(String sceneId) {
         this.sceneId = sceneId;
-        this.textureResources = new HashMap<>();
     }
 
     @Override
@@ -83,21 +77,20 @@ public class BytecoderGameResourceLoader implements GameResourceLoader {
     }
 
     protected GameResource convert(ResourceName aOriginalResourceName, ResourceName aResourceName) {
-        BytecoderTextureResource theResource = textureResources.get(aResourceName);
-        if (theResource == null) {
-            Texture theTexture = Texture.createTextureFromImage(aResourceName.name);
-            theResource = new BytecoderTextureResource(theTexture, aResourceName.name);
-            textureResources.put(aResourceName, theResource);
-        }
+        // The resource cache keeps the texture, and releases it once it is evicted
+        Texture theTexture = Texture.createTextureFromImage(aResourceName.name);
+        return new BytecoderTextureResource(theTexture, aResourceName.name);
+    }
 
-        return theResource;
+    @Override
+    public void release(GameResource aResource) {
+        if (aResource instanceof BytecoderTextureResource) {
+            ((BytecoderTextureResource) aResource).getTexture().destroy();
+        }
     }
 
     @Override
     public void flush() {
-        for (Map.Entry<ResourceName, BytecoderTextureResource> aEntry : textureResources.entrySet()) {
-            aEntry.getValue().getTexture().destroy();
-        }
-        textureResources.clear();
+        // Everything loaded is owned by the resource cache, which releases it before flushing
     }
 }
@@ -54,4 +54,9 @@ public class BytecoderLoadedSpriteSheet implements LoadedSpriteSheet {
         String theFrameName = aResourceName.getOnlyFileName();
         return knownResources.get(theFrameName);
     }
+
+    @Override
+    public Map<String, BytecoderTextureResource> getResources() {
+        return knownResources;
+    }
 }
\ No newline at end of file
@@ -43,4 +43,17 @@ public class BytecoderLogger implements Logger {
     public void timeEnd(String aLabel) {
         //console.profileTimeEnd(aLabel);
     }
-}
\ No newline at end of file
+
+    @Override
+    public boolean isTracing() {
+        return false;
+    }
+
+    @Override
+    public void beginSpan(String aCategory, String aName) {
+    }
+
+    @Override
+    public void endSpan(String aCategory, String aName) {
+    }
+}
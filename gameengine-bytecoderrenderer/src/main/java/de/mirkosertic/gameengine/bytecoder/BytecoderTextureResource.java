@@ -41,4 +41,12 @@ public class BytecoderTextureResource implements GameResource {
     public GameResourceType getType() {
         return GameResourceType.BITMAP;
     }
+
+    @Override
+    public long getSizeInBytes() {
+        if (!texture.valid()) {
+            return 0;
+        }
+        return (long) texture.width() * (long) texture.height() * 4;
+    }
 }
@@ -15,6 +15,7 @@
  */
 package de.mirkosertic.gameengine.bytecoder.pixi;
 
+import de.mirkosertic.bytecoder.api.OpaqueProperty;
 import de.mirkosertic.bytecoder.api.OpaqueReferenceType;
 
 public abstract class Texture implements OpaqueReferenceType {
@@ -24,4 +25,14 @@ public abstract class Texture implements OpaqueReferenceType {
     public static native Texture createFromFrame(String aFrameName);
 
     public abstract void destroy();
+
+    @OpaqueProperty
+    public abstract int width();
+
+    @OpaqueProperty
+    public abstract int height();
+
+    // False until the underlying image is loaded
+    @OpaqueProperty
+    public abstract boolean valid();
 }
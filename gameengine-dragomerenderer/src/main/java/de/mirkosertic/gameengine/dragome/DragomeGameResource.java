@@ -37,6 +37,12 @@ public class DragomeGameResource implements GameResource {
         return type;
     }
 
+    @Override
+    public long getSizeInBytes() {
+        // Owned by the browser
+        return 0;
+    }
+
     public String getName() {
         return name;
     }
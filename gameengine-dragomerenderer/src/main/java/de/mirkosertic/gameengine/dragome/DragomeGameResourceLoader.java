@@ -55,6 +55,14 @@ public class DragomeGameResourceLoader implements GameResourceLoader {
         });
     }
 
+    @Override
+    public void release(GameResource aResource) {
+        Element theElement = ((DragomeGameResource) aResource).getElement();
+        if (theElement != null && theElement.getParentNode() != null) {
+            theElement.getParentNode().removeChild(theElement);
+        }
+    }
+
     @Override
     public void flush() {
         NodeList theChilds = cacheElement.getChildNodes();
@@ -102,14 +102,14 @@ public class GameEditorGameView extends TeaVMGameView {
     }
 
     @Override
-    public void renderGame(long aGameTime, long aElapsedTimeSinceLastLoop, GameScene aScene, RuntimeStatistics aStatistics) {
+    public void renderGame(long aGameTime, long aElapsedTimeSinceLastLoop, float aInterpolationAlpha, GameScene aScene, RuntimeStatistics aStatistics) {
         Position theCamera = getCameraBehavior().getInstance().positionProperty().get();
         GridUniforms.setXOffset(gridFilter, theCamera.x);
         GridUniforms.setYOffset(gridFilter, theCamera.y);
         GridUniforms.setWidth(gridFilter, (float) gridWidth.get());
         GridUniforms.setHeight(gridFilter, (float) gridHeight.get());
         GridUniforms.setScrenHeight(gridFilter, (float) getCurrentScreenSize().height);
-        super.renderGame(aGameTime, aElapsedTimeSinceLastLoop, aScene, aStatistics);
+        super.renderGame(aGameTime, aElapsedTimeSinceLastLoop, aInterpolationAlpha, aScene, aStatistics);
     }
 
     @Override
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2016 Mirko Sertic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.mirkosertic.gameengine.javafx;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// The most recent completed spans, kept in a ring buffer of fixed size. The content can be
+// written in the Chrome trace event format, as understood by chrome://tracing or Perfetto.
+class ChromeTraceBuffer {
+
+    private final long origin;
+    private final String[] categories;
+    private final String[] names;
+    private final long[] starts;
+    private final long[] durations;
+    private final long[] threads;
+    private final Map<Long, String> threadNames;
+    private int next;
+    private int size;
+
+    ChromeTraceBuffer(int aCapacity, long aOrigin) {
+        if (aCapacity <= 0) {
+            throw new IllegalArgumentException("The capacity must be positive : " + aCapacity);
+        }
+        origin = aOrigin;
+        categories = new String[aCapacity];
+        names = new String[aCapacity];
+        starts = new long[aCapacity];
+        durations = new long[aCapacity];
+        threads = new long[aCapacity];
+        threadNames = new LinkedHashMap<>();
+    }
+
+    synchronized void add(String aCategory, String aName, long aStartNanos, long aEndNanos, Thread aThread) {
+        categories[next] = aCategory;
+        names[next] = aName;
+        starts[next] = aStartNanos;
+        durations[next] = aEndNanos - aStartNanos;
+        threads[next] = aThread.getId();
+        if (!threadNames.containsKey(aThread.getId())) {
+            threadNames.put(aThread.getId(), aThread.getName());
+        }
+        next = (next + 1) % names.length;
+        if (size < names.length) {
+            size++;
+        }
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    synchronized void writeTo(Writer aWriter) throws IOException {
+        aWriter.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[");
+        boolean theFirst = true;
+        for (Map.Entry<Long, String> theThread : threadNames.entrySet()) {
+            if (!theFirst) {
+                aWriter.write(',');
+            }
+            theFirst = false;
+            aWriter.write("\n{\"ph\":\"M\",\"name\":\"thread_name\",\"pid\":1,\"tid\":" + theThread.getKey() + ",\"args\":{\"name\":");
+            writeString(aWriter, theThread.getValue());
+            aWriter.write("}}");
+        }
+        // The oldest span comes first
+        int theIndex = (next - size + names.length) % names.length;
+        for (int i = 0; i < size; i++) {
+            if (!theFirst) {
+                aWriter.write(',');
+            }
+            theFirst = false;
+            aWriter.write("\n{\"ph\":\"X\",\"pid\":1,\"tid\":" + threads[theIndex] + ",\"cat\":");
+            writeString(aWriter, categories[theIndex]);
+            aWriter.write(",\"name\":");
+            writeString(aWriter, names[theIndex]);
+            aWriter.write(",\"ts\":" + micros(starts[theIndex] - origin) + ",\"dur\":" + micros(durations[theIndex]) + "}");
+            theIndex = (theIndex + 1) % names.length;
+        }
+        aWriter.write("\n]}\n");
+        aWriter.flush();
+    }
+
+    // The trace format expects microseconds, the fraction keeps the nanosecond resolution
+    static String micros(long aNanos) {
+        long theNanos = Math.max(aNanos, 0);
+        String theFraction = Long.toString(theNanos % 1000);
+        while (theFraction.length() < 3) {
+            theFraction = "0" + theFraction;
+        }
+        return theNanos / 1000 + "." + theFraction;
+    }
+
+    static void writeString(Writer aWriter, String aValue) throws IOException {
+        aWriter.write('"');
+        if (aValue != null) {
+            for (int i = 0; i < aValue.length(); i++) {
+                char theChar = aValue.charAt(i);
+                switch (theChar) {
+                    case '"':
+                        aWriter.write("\\\"");
+                        break;
+                    case '\\':
+                        aWriter.write("\\\\");
+                        break;
+                    case '\n':
+                        aWriter.write("\\n");
+                        break;
+                    case '\r':
+                        aWriter.write("\\r");
+                        break;
+                    case '\t':
+                        aWriter.write("\\t");
+                        break;
+                    default:
+                        if (theChar < 0x20) {
+                            String theHex = Integer.toHexString(theChar);
+                            aWriter.write("\\u" + "0000".substring(theHex.length()) + theHex);
+                        } else {
+                            aWriter.write(theChar);
+                        }
+                }
+            }
+        }
+        aWriter.write('"');
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2016 Mirko Sertic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.mirkosertic.gameengine.javafx;
+
+import de.mirkosertic.gameengine.core.Logger;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Flight Recorder events for the spans reported to the TracingLogger. Every category has
+// its own event type, so a recording can enable the very frequent ones selectively.
+final class EngineEvents {
+
+    private EngineEvents() {
+    }
+
+    @StackTrace(false)
+    abstract static class SpanEvent extends Event {
+
+        @Label("Name")
+        String name;
+    }
+
+    @Name("de.mirkosertic.gameengine.Tick")
+    @Label("Game Tick")
+    @Description("The game systems proceeding a single tick")
+    @Category({"GameComposer", "Engine"})
+    static class TickEvent extends SpanEvent {
+    }
+
+    @Name("de.mirkosertic.gameengine.EventDispatch")
+    @Label("Event Dispatch")
+    @Description("A game event dispatched to all of its listeners")
+    @Category({"GameComposer", "Engine"})
+    static class EventDispatchEvent extends SpanEvent {
+    }
+
+    @Name("de.mirkosertic.gameengine.RuleFired")
+    @Label("Rule Fired")
+    @Description("The actions of a game rule started because its condition was fulfilled")
+    @Category({"GameComposer", "Engine"})
+    static class RuleEvent extends SpanEvent {
+    }
+
+    @Name("de.mirkosertic.gameengine.Script")
+    @Label("Script Execution")
+    @Description("A script or a scripted text expression executed")
+    @Category({"GameComposer", "Engine"})
+    static class ScriptEvent extends SpanEvent {
+    }
+
+    @Name("de.mirkosertic.gameengine.Timing")
+    @Label("Timing")
+    @Description("A span measured using Logger.time and Logger.timeEnd, for instance a rendering phase")
+    @Category({"GameComposer", "Rendering"})
+    static class TimingEvent extends SpanEvent {
+    }
+
+    static SpanEvent create(String aCategory) {
+        switch (aCategory) {
+            case Logger.SPAN_TICK:
+                return new TickEvent();
+            case Logger.SPAN_EVENT:
+                return new EventDispatchEvent();
+            case Logger.SPAN_RULE:
+                return new RuleEvent();
+            case Logger.SPAN_SCRIPT:
+                return new ScriptEvent();
+            default:
+                return new TimingEvent();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2016 Mirko Sertic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.mirkosertic.gameengine.javafx;
+
+import de.mirkosertic.gameengine.AbstractGameRuntimeFactory;
+import de.mirkosertic.gameengine.core.DefaultLogger;
+import de.mirkosertic.gameengine.core.GameResource;
+import de.mirkosertic.gameengine.core.GameResourceLoader;
+import de.mirkosertic.gameengine.core.GameRuntime;
+import de.mirkosertic.gameengine.core.LoadedSpriteSheet;
+import de.mirkosertic.gameengine.core.Logger;
+import de.mirkosertic.gameengine.core.NoThreadingThreadingManager;
+import de.mirkosertic.gameengine.core.Promise;
+import de.mirkosertic.gameengine.core.ThreadingManager;
+import de.mirkosertic.gameengine.physics.jbox2d.JBox2DGamePhysicsManagerFactory;
+import de.mirkosertic.gameengine.scriptengine.luaj.LuaJScriptEngineFactory;
+import de.mirkosertic.gameengine.sound.GameSoundSystem;
+import de.mirkosertic.gameengine.sound.GameSoundSystemFactory;
+import de.mirkosertic.gameengine.type.ResourceName;
+
+// Runtime factory for scenes without a renderer, for instance hosted by the HeadlessSceneServer.
+// There are no graphics or sounds, so every resource request is rejected.
+public class HeadlessGameRuntimeFactory extends AbstractGameRuntimeFactory {
+
+    private static final String NOT_AVAILABLE = "Resources are not available in a headless runtime";
+
+    private static final GameResourceLoader NO_RESOURCES = new GameResourceLoader() {
+        @Override
+        public Promise<GameResource, String> load(ResourceName aResourceName) {
+            return rejected();
+        }
+
+        @Override
+        public Promise<LoadedSpriteSheet, String> loadSpriteSheet(ResourceName aResourceName) {
+            return rejected();
+        }
+
+        @Override
+        public void release(GameResource aResource) {
+        }
+
+        @Override
+        public void flush() {
+        }
+    };
+
+    private static final GameSoundSystem<Object> NO_SOUND = new GameSoundSystem<Object>() {
+        @Override
+        public Promise<Object, String> play(ResourceName aResourceName) {
+            return rejected();
+        }
+
+        @Override
+        public void stop(Object aSoundObject) {
+        }
+    };
+
+    private static <T> Promise<T, String> rejected() {
+        Promise<T, String> thePromise = new Promise<>();
+        thePromise.reject(NOT_AVAILABLE, null);
+        return thePromise;
+    }
+
+    private final Logger logger;
+
+    public HeadlessGameRuntimeFactory() {
+        this(new DefaultLogger());
+    }
+
+    // All runtimes created by this factory share the given logger, for instance a TracingLogger
+    public HeadlessGameRuntimeFactory(Logger aLogger) {
+        logger = aLogger;
+    }
+
+    public GameRuntime create() {
+        return create(NO_RESOURCES, (GameSoundSystemFactory<Object>) aGameRuntime -> NO_SOUND);
+    }
+
+    @Override
+    protected Logger createLogger() {
+        return logger;
+    }
+
+    @Override
+    protected ThreadingManager createThreadingManager() {
+        // Scenes are the unit of parallelism on a server, so every scene
+        // runs its systems on the thread it is scheduled on
+        return new NoThreadingThreadingManager();
+    }
+
+    @Override
+    protected LuaJScriptEngineFactory createScriptEngine() {
+        return new LuaJScriptEngineFactory(new JDKBuiltInFunctions());
+    }
+
+    @Override
+    protected JBox2DGamePhysicsManagerFactory createPhysicsManagerFactory() {
+        return new JBox2DGamePhysicsManagerFactory();
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2016 Mirko Sertic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.mirkosertic.gameengine.javafx;
+
+import de.mirkosertic.gameengine.core.GameLoop;
+import de.mirkosertic.gameengine.core.GameLoopFactory;
+import de.mirkosertic.gameengine.core.GameRuntime;
+import de.mirkosertic.gameengine.core.GameScene;
+import de.mirkosertic.gameengine.event.GameEventListener;
+import de.mirkosertic.gameengine.event.GameEventManager;
+import de.mirkosertic.gameengine.event.SystemException;
+import de.mirkosertic.gameengine.network.DefaultEventInterpreter;
+import de.mirkosertic.gameengine.network.DefaultNetworkConnector;
+import de.mirkosertic.gameengine.network.NetworkConnector;
+import de.mirkosertic.gameengine.network.NetworkGameView;
+import de.mirkosertic.gameengine.network.NetworkGameViewFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Hosts many independent scenes without a renderer. Every scene has its own runtime
+// and fixed timestep game loop, and all loops share a bounded pool of threads. A loop
+// is not blocked while waiting for its next step, so one thread can drive many scenes.
+// Scene state is only sent to the clients using the network connector of the scene.
+public class HeadlessSceneServer {
+
+    private final HeadlessGameRuntimeFactory runtimeFactory;
+    private final ScheduledThreadPoolExecutor executor;
+    private final ConcurrentHashMap<String, HostedScene> scenes;
+    private final ThreadMXBean threadBean;
+    private final boolean cpuTimeSupported;
+
+    public HeadlessSceneServer() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public HeadlessSceneServer(int aThreads) {
+        this(new HeadlessGameRuntimeFactory(), aThreads);
+    }
+
+    public HeadlessSceneServer(HeadlessGameRuntimeFactory aRuntimeFactory, int aThreads) {
+        runtimeFactory = aRuntimeFactory;
+        final AtomicInteger theThreadCounter = new AtomicInteger();
+        executor = new ScheduledThreadPoolExecutor(aThreads, aRunnable -> {
+            Thread theThread = new Thread(aRunnable, "Scene server " + theThreadCounter.incrementAndGet());
+            theThread.setDaemon(true);
+            return theThread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        scenes = new ConcurrentHashMap<>();
+        threadBean = ManagementFactory.getThreadMXBean();
+        cpuTimeSupported = threadBean.isCurrentThreadCpuTimeSupported() && threadBean.isThreadCpuTimeEnabled();
+    }
+
+    // Scenes hosted by this server must be created using a runtime returned by this method
+    public GameRuntime createRuntime() {
+        return runtimeFactory.create();
+    }
+
+    public HostedScene host(String aId, GameScene aScene, int aTicksPerSecond) {
+        return host(aId, aScene, aTicksPerSecond, new DefaultNetworkConnector());
+    }
+
+    public HostedScene host(String aId, final GameScene aScene, int aTicksPerSecond, NetworkConnector aNetworkConnector) {
+        if (aTicksPerSecond <= 0) {
+            // A variable timestep would keep a pool thread busy all the time
+            throw new IllegalArgumentException("A hosted scene needs a fixed tick rate : " + aTicksPerSecond);
+        }
+
+        final GameRuntime theRuntime = aScene.getRuntime();
+        GameEventManager theEventManager = theRuntime.getEventManager();
+        theEventManager.register(null, SystemException.TYPE, new GameEventListener<SystemException>() {
+            @Override
+            public void handleGameEvent(SystemException aEvent) {
+                theRuntime.getLogger().error("Fatal system exception : " + aEvent.exception.getMessage());
+            }
+        });
+
+        runtimeFactory.loadingFinished(aScene);
+
+        // The network view is the only view, there is nothing to render
+        NetworkGameViewFactory theNetworkFactory = new NetworkGameViewFactory(aNetworkConnector, new DefaultEventInterpreter());
+        NetworkGameView theNetworkView = theNetworkFactory.createNetworkViewFor(theEventManager);
+
+        GameLoop theLoop = new GameLoopFactory(new JDKGameClock(), aTicksPerSecond).create(aScene, theNetworkView, theRuntime);
+        HostedScene theHostedScene = new HostedScene(aId, aScene, theLoop, aTicksPerSecond, this);
+        if (scenes.putIfAbsent(aId, theHostedScene) != null) {
+            throw new IllegalArgumentException("There is already a scene with id " + aId);
+        }
+        schedule(theHostedScene, 0, TimeUnit.NANOSECONDS);
+        return theHostedScene;
+    }
+
+    public HostedScene getScene(String aId) {
+        return scenes.get(aId);
+    }
+
+    public List<HostedScene> getScenes() {
+        return new ArrayList<>(scenes.values());
+    }
+
+    public void stop(String aId) {
+        HostedScene theScene = scenes.get(aId);
+        if (theScene != null) {
+            theScene.stop();
+        }
+    }
+
+    public void shutdown() throws InterruptedException {
+        for (HostedScene theScene : scenes.values()) {
+            theScene.stop();
+        }
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+        scenes.clear();
+    }
+
+    void schedule(HostedScene aScene, long aDelay, TimeUnit aUnit) {
+        try {
+            executor.schedule(aScene, Math.max(0, aDelay), aUnit);
+        } catch (RejectedExecutionException e) {
+            // Server is shutting down
+            stopped(aScene);
+        }
+    }
+
+    void stopped(HostedScene aScene) {
+        scenes.remove(aScene.getId(), aScene);
+    }
+
+    long currentThreadCpuTime() {
+        if (cpuTimeSupported) {
+            return threadBean.getCurrentThreadCpuTime();
+        }
+        return System.nanoTime();
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2016 Mirko Sertic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.mirkosertic.gameengine.javafx;
+
+import de.mirkosertic.gameengine.core.GameLoop;
+import de.mirkosertic.gameengine.core.GameScene;
+import de.mirkosertic.gameengine.core.RuntimeStatistics;
+
+import java.util.concurrent.TimeUnit;
+
+// A scene running on the HeadlessSceneServer. Every run schedules the next one,
+// so a scene is never processed by two pool threads at the same time.
+public class HostedScene implements Runnable {
+
+    private final String id;
+    private final GameScene scene;
+    private final GameLoop gameLoop;
+    private final int ticksPerSecond;
+    private final HeadlessSceneServer server;
+    private final long hostedSince;
+
+    // Written by the scheduled run only, read by monitoring
+    private volatile long runs;
+    private volatile long cpuTime;
+    private volatile long wallTime;
+    private volatile long maxRunTime;
+
+    HostedScene(String aId, GameScene aScene, GameLoop aGameLoop, int aTicksPerSecond, HeadlessSceneServer aServer) {
+        id = aId;
+        scene = aScene;
+        gameLoop = aGameLoop;
+        ticksPerSecond = aTicksPerSecond;
+        server = aServer;
+        hostedSince = System.nanoTime();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public GameScene getScene() {
+        return scene;
+    }
+
+    public GameLoop getGameLoop() {
+        return gameLoop;
+    }
+
+    public int getTicksPerSecond() {
+        return ticksPerSecond;
+    }
+
+    public RuntimeStatistics getStatistics() {
+        return gameLoop.getStatistics();
+    }
+
+    public long getRuns() {
+        return runs;
+    }
+
+    // CPU time in nanoseconds used by this scene, or wall time if the JVM cannot measure thread CPU time
+    public long getCpuTimeNanos() {
+        return cpuTime;
+    }
+
+    public long getWallTimeNanos() {
+        return wallTime;
+    }
+
+    public long getMaxRunTimeNanos() {
+        return maxRunTime;
+    }
+
+    // Fraction of a single core used by this scene since it was hosted
+    public double getLoad() {
+        long theHostedTime = System.nanoTime() - hostedSince;
+        return theHostedTime > 0 ? (double) cpuTime / theHostedTime : 0;
+    }
+
+    public boolean isRunning() {
+        return !gameLoop.isShutdown();
+    }
+
+    public void stop() {
+        gameLoop.shutdown();
+    }
+
+    @Override
+    public void run() {
+        if (gameLoop.isShutdown()) {
+            server.stopped(this);
+            return;
+        }
+        long theCpuStart = server.currentThreadCpuTime();
+        long theWallStart = System.nanoTime();
+        try {
+            gameLoop.singleRun();
+        } catch (RuntimeException e) {
+            scene.getRuntime().getLogger().error("Error in hosted scene " + id + " : " + e.getMessage());
+        } finally {
+            long theWallEnd = System.nanoTime();
+            long theRunTime = theWallEnd - theWallStart;
+            runs++;
+            cpuTime += server.currentThreadCpuTime() - theCpuStart;
+            wallTime += theRunTime;
+            if (theRunTime > maxRunTime) {
+                maxRunTime = theRunTime;
+            }
+            server.schedule(this, gameLoop.nextInvocationDue() - gameLoop.getClock().nanoTime(), TimeUnit.NANOSECONDS);
+        }
+    }
+}
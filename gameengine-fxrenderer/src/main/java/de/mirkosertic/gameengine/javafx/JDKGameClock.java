@@ -0,0 +1,32 @@
+/*
+ * Copyright 2016 Mirko Sertic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.mirkosertic.gameengine.javafx;
+
+import de.mirkosertic.gameengine.core.SystemGameClock;
+
+import java.util.concurrent.locks.LockSupport;
+
+public class JDKGameClock extends SystemGameClock {
+
+    @Override
+    public void waitUntil(long aNanoTime) {
+        long theRemaining = aNanoTime - nanoTime();
+        while (theRemaining > 0) {
+            LockSupport.parkNanos(theRemaining);
+            theRemaining = aNanoTime - nanoTime();
+        }
+    }
+}
@@ -0,0 +1,548 @@
+/*
+ * Copyright 2016 Mirko Sertic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.mirkosertic.gameengine.javafx;
+
+import de.mirkosertic.gameengine.core.DefaultLogger;
+import de.mirkosertic.gameengine.core.Logger;
+import de.mirkosertic.gameengine.network.DefaultNetworkConnector;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Frame based network connector using non blocking NIO channels. All socket work
+// is done by a dedicated I/O thread, the game loop only talks to it using single
+// producer single consumer queues, so a slow peer or socket never stalls a frame.
+// sendFrame and receiveFrame must therefore always be called by the same thread.
+// Frames that do not fit into a queue or into the write backlog of a peer are
+// dropped and counted, as the next loop cycle carries the most recent state anyway.
+// If the I/O thread fails, the error is logged and the connector stops running.
+public class JDKNetworkConnector extends DefaultNetworkConnector {
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+    public static final int MAX_TCP_FRAME_SIZE = 1024 * 1024;
+    public static final int MAX_UDP_FRAME_SIZE = 65507;
+
+    // Maximum number of frames waiting to be written to a single TCP peer
+    private static final int MAX_PENDING_WRITES = 256;
+
+    private interface Transport {
+
+        void send(byte[] aFrame);
+
+        void accept() throws IOException;
+
+        SocketAddress getLocalAddress() throws IOException;
+
+        void close();
+    }
+
+    // A TCP connection, frames are prefixed by their length
+    private class TCPPeer {
+
+        private final SocketChannel channel;
+        private final ArrayDeque<ByteBuffer> pendingWrites;
+        private ByteBuffer readBuffer;
+        private SelectionKey key;
+        private boolean connected;
+
+        TCPPeer(SocketChannel aChannel) {
+            channel = aChannel;
+            pendingWrites = new ArrayDeque<>();
+            readBuffer = ByteBuffer.allocate(8192);
+        }
+
+        void register(int aOperations) throws IOException {
+            key = channel.register(selector, aOperations, this);
+        }
+
+        void connected() {
+            connected = true;
+            connectedPeers++;
+        }
+
+        boolean isOpen() {
+            return channel.isOpen();
+        }
+
+        void send(byte[] aFrame) {
+            if (pendingWrites.size() >= MAX_PENDING_WRITES) {
+                droppedFrames.incrementAndGet();
+                return;
+            }
+            ByteBuffer theBuffer = ByteBuffer.allocate(4 + aFrame.length);
+            theBuffer.putInt(aFrame.length).put(aFrame).flip();
+            pendingWrites.add(theBuffer);
+            if (connected) {
+                try {
+                    flush();
+                } catch (IOException e) {
+                    close();
+                }
+            }
+        }
+
+        private void flush() throws IOException {
+            while (!pendingWrites.isEmpty()) {
+                ByteBuffer theBuffer = pendingWrites.peek();
+                channel.write(theBuffer);
+                if (theBuffer.hasRemaining()) {
+                    // Socket buffer is full, we continue as soon as it is writable again
+                    key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    return;
+                }
+                pendingWrites.poll();
+            }
+            key.interestOps(SelectionKey.OP_READ);
+        }
+
+        private boolean read() throws IOException {
+            if (channel.read(readBuffer) < 0) {
+                return false;
+            }
+            readBuffer.flip();
+            while (readBuffer.remaining() >= 4) {
+                int theLength = readBuffer.getInt(readBuffer.position());
+                if (theLength < 0 || theLength > MAX_TCP_FRAME_SIZE) {
+                    return false;
+                }
+                if (readBuffer.remaining() < 4 + theLength) {
+                    break;
+                }
+                readBuffer.getInt();
+                byte[] theFrame = new byte[theLength];
+                readBuffer.get(theFrame);
+                received(theFrame);
+            }
+            readBuffer.compact();
+            if (readBuffer.position() >= 4) {
+                // Make sure the pending frame fits into the buffer
+                int theRequired = 4 + readBuffer.getInt(0);
+                if (theRequired > readBuffer.capacity()) {
+                    readBuffer.flip();
+                    readBuffer = ByteBuffer.allocate(theRequired).put(readBuffer);
+                }
+            }
+            return true;
+        }
+
+        void handle(SelectionKey aKey) throws IOException {
+            if (aKey.isConnectable()) {
+                if (!channel.finishConnect()) {
+                    return;
+                }
+                connected();
+                flush();
+            }
+            if (aKey.isValid() && aKey.isReadable() && !read()) {
+                close();
+                return;
+            }
+            if (aKey.isValid() && aKey.isWritable()) {
+                flush();
+            }
+        }
+
+        void close() {
+            if (!channel.isOpen()) {
+                return;
+            }
+            if (connected) {
+                connectedPeers--;
+            }
+            if (key != null) {
+                key.cancel();
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Nothing to be done here
+            }
+        }
+    }
+
+    private class TCPServerTransport implements Transport {
+
+        private final ServerSocketChannel serverChannel;
+        private final List<TCPPeer> peers;
+
+        TCPServerTransport(InetSocketAddress aBindAddress) throws IOException {
+            peers = new ArrayList<>();
+            serverChannel = ServerSocketChannel.open();
+            serverChannel.configureBlocking(false);
+            serverChannel.bind(aBindAddress);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT, this);
+        }
+
+        @Override
+        public void send(byte[] aFrame) {
+            for (Iterator<TCPPeer> i = peers.iterator(); i.hasNext(); ) {
+                TCPPeer thePeer = i.next();
+                if (thePeer.isOpen()) {
+                    thePeer.send(aFrame);
+                } else {
+                    i.remove();
+                }
+            }
+        }
+
+        @Override
+        public void accept() throws IOException {
+            SocketChannel theChannel;
+            while ((theChannel = serverChannel.accept()) != null) {
+                theChannel.configureBlocking(false);
+                theChannel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                TCPPeer thePeer = new TCPPeer(theChannel);
+                thePeer.register(SelectionKey.OP_READ);
+                thePeer.connected();
+                peers.add(thePeer);
+            }
+        }
+
+        @Override
+        public SocketAddress getLocalAddress() throws IOException {
+            return serverChannel.getLocalAddress();
+        }
+
+        @Override
+        public void close() {
+            for (TCPPeer thePeer : peers) {
+                thePeer.close();
+            }
+            try {
+                serverChannel.close();
+            } catch (IOException e) {
+                // Nothing to be done here
+            }
+        }
+    }
+
+    private class TCPClientTransport implements Transport {
+
+        private final TCPPeer peer;
+
+        TCPClientTransport(InetSocketAddress aServerAddress) throws IOException {
+            SocketChannel theChannel = SocketChannel.open();
+            theChannel.configureBlocking(false);
+            theChannel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            peer = new TCPPeer(theChannel);
+            if (theChannel.connect(aServerAddress)) {
+                peer.register(SelectionKey.OP_READ);
+                peer.connected();
+            } else {
+                // Frames sent until the connection is established are kept in the write backlog
+                peer.register(SelectionKey.OP_CONNECT);
+            }
+        }
+
+        @Override
+        public void send(byte[] aFrame) {
+            if (peer.isOpen()) {
+                peer.send(aFrame);
+            } else {
+                droppedFrames.incrementAndGet();
+            }
+        }
+
+        @Override
+        public void accept() {
+        }
+
+        @Override
+        public SocketAddress getLocalAddress() throws IOException {
+            return peer.channel.getLocalAddress();
+        }
+
+        @Override
+        public void close() {
+            peer.close();
+        }
+    }
+
+    // Every frame is a single datagram
+    private class UDPTransport implements Transport {
+
+        private final DatagramChannel channel;
+        private final Set<SocketAddress> peers;
+        private final ByteBuffer receiveBuffer;
+
+        UDPTransport(InetSocketAddress aBindAddress, InetSocketAddress[] aPeers) throws IOException {
+            peers = new LinkedHashSet<>();
+            for (InetSocketAddress thePeer : aPeers) {
+                peers.add(thePeer);
+            }
+            connectedPeers = peers.size();
+            receiveBuffer = ByteBuffer.allocate(MAX_UDP_FRAME_SIZE);
+            channel = DatagramChannel.open();
+            channel.configureBlocking(false);
+            channel.bind(aBindAddress);
+            channel.register(selector, SelectionKey.OP_READ, this);
+        }
+
+        @Override
+        public void send(byte[] aFrame) {
+            if (aFrame.length > MAX_UDP_FRAME_SIZE) {
+                droppedFrames.incrementAndGet();
+                return;
+            }
+            for (SocketAddress thePeer : peers) {
+                try {
+                    // A full socket buffer results in nothing being sent, the frame is lost then
+                    if (channel.send(ByteBuffer.wrap(aFrame), thePeer) == 0) {
+                        droppedFrames.incrementAndGet();
+                    }
+                } catch (IOException e) {
+                    droppedFrames.incrementAndGet();
+                }
+            }
+        }
+
+        @Override
+        public void accept() throws IOException {
+            SocketAddress theSender;
+            while ((theSender = channel.receive(receiveBuffer)) != null) {
+                // Peers we hear from will also receive our frames
+                if (peers.add(theSender)) {
+                    connectedPeers++;
+                }
+                receiveBuffer.flip();
+                byte[] theFrame = new byte[receiveBuffer.remaining()];
+                receiveBuffer.get(theFrame);
+                receiveBuffer.clear();
+                received(theFrame);
+            }
+        }
+
+        @Override
+        public SocketAddress getLocalAddress() throws IOException {
+            return channel.getLocalAddress();
+        }
+
+        @Override
+        public void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Nothing to be done here
+            }
+        }
+    }
+
+    public static JDKNetworkConnector tcpServer(InetSocketAddress aBindAddress) throws IOException {
+        return tcpServer(new DefaultLogger(), aBindAddress);
+    }
+
+    public static JDKNetworkConnector tcpServer(Logger aLogger, InetSocketAddress aBindAddress) throws IOException {
+        JDKNetworkConnector theConnector = new JDKNetworkConnector(aLogger, DEFAULT_QUEUE_CAPACITY);
+        try {
+            theConnector.start(theConnector.new TCPServerTransport(aBindAddress));
+        } catch (IOException e) {
+            theConnector.selector.close();
+            throw e;
+        }
+        return theConnector;
+    }
+
+    public static JDKNetworkConnector tcpClient(InetSocketAddress aServerAddress) throws IOException {
+        return tcpClient(new DefaultLogger(), aServerAddress);
+    }
+
+    public static JDKNetworkConnector tcpClient(Logger aLogger, InetSocketAddress aServerAddress) throws IOException {
+        JDKNetworkConnector theConnector = new JDKNetworkConnector(aLogger, DEFAULT_QUEUE_CAPACITY);
+        try {
+            theConnector.start(theConnector.new TCPClientTransport(aServerAddress));
+        } catch (IOException e) {
+            theConnector.selector.close();
+            throw e;
+        }
+        return theConnector;
+    }
+
+    public static JDKNetworkConnector udp(InetSocketAddress aBindAddress, InetSocketAddress... aPeers) throws IOException {
+        return udp(new DefaultLogger(), aBindAddress, aPeers);
+    }
+
+    public static JDKNetworkConnector udp(Logger aLogger, InetSocketAddress aBindAddress, InetSocketAddress... aPeers) throws IOException {
+        JDKNetworkConnector theConnector = new JDKNetworkConnector(aLogger, DEFAULT_QUEUE_CAPACITY);
+        try {
+            theConnector.start(theConnector.new UDPTransport(aBindAddress, aPeers));
+        } catch (IOException e) {
+            theConnector.selector.close();
+            throw e;
+        }
+        return theConnector;
+    }
+
+    private final Logger logger;
+    // Package private, so tests can simulate a failing I/O thread
+    final Selector selector;
+    // Written by the game loop, read by the I/O thread
+    private final SPSCQueue<byte[]> outbound;
+    // Written by the I/O thread, read by the game loop
+    private final SPSCQueue<byte[]> inbound;
+    private final AtomicLong sentFrames;
+    private final AtomicLong receivedFrames;
+    private final AtomicLong droppedFrames;
+    private Transport transport;
+    private InetSocketAddress localAddress;
+    private Thread ioThread;
+    private volatile boolean running;
+    // Only changed by the I/O thread
+    private volatile int connectedPeers;
+
+    private JDKNetworkConnector(Logger aLogger, int aQueueCapacity) throws IOException {
+        logger = aLogger;
+        selector = Selector.open();
+        outbound = new SPSCQueue<>(aQueueCapacity);
+        inbound = new SPSCQueue<>(aQueueCapacity);
+        sentFrames = new AtomicLong();
+        receivedFrames = new AtomicLong();
+        droppedFrames = new AtomicLong();
+    }
+
+    private void start(Transport aTransport) throws IOException {
+        transport = aTransport;
+        localAddress = (InetSocketAddress) aTransport.getLocalAddress();
+        running = true;
+        ioThread = new Thread(this::runIOLoop, "Network I/O " + localAddress);
+        ioThread.setDaemon(true);
+        ioThread.start();
+    }
+
+    private void runIOLoop() {
+        try {
+            while (running) {
+                selector.select();
+
+                byte[] theFrame;
+                while ((theFrame = outbound.poll()) != null) {
+                    transport.send(theFrame);
+                    sentFrames.incrementAndGet();
+                }
+
+                Iterator<SelectionKey> theKeys = selector.selectedKeys().iterator();
+                while (theKeys.hasNext()) {
+                    SelectionKey theKey = theKeys.next();
+                    theKeys.remove();
+                    if (!theKey.isValid()) {
+                        continue;
+                    }
+                    Object theAttachment = theKey.attachment();
+                    if (theAttachment instanceof TCPPeer) {
+                        TCPPeer thePeer = (TCPPeer) theAttachment;
+                        try {
+                            thePeer.handle(theKey);
+                        } catch (IOException e) {
+                            thePeer.close();
+                        }
+                    } else {
+                        transport.accept();
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            if (running) {
+                logger.error("Network I/O on " + localAddress + " failed : " + e.getMessage());
+            }
+        } finally {
+            running = false;
+            transport.close();
+            try {
+                selector.close();
+            } catch (IOException e) {
+                // Nothing to be done here
+            }
+        }
+    }
+
+    private void received(byte[] aFrame) {
+        receivedFrames.incrementAndGet();
+        if (!inbound.offer(aFrame)) {
+            droppedFrames.incrementAndGet();
+        }
+    }
+
+    public InetSocketAddress getLocalAddress() {
+        return localAddress;
+    }
+
+    public int getConnectedPeers() {
+        return connectedPeers;
+    }
+
+    public long getSentFrames() {
+        return sentFrames.get();
+    }
+
+    public long getReceivedFrames() {
+        return receivedFrames.get();
+    }
+
+    public long getDroppedFrames() {
+        return droppedFrames.get();
+    }
+
+    public void shutdown() throws InterruptedException {
+        running = false;
+        selector.wakeup();
+        ioThread.join();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public boolean supportsFrames() {
+        return true;
+    }
+
+    @Override
+    public void sendFrame(byte[] aData, int aOffset, int aLength) {
+        if (!running) {
+            droppedFrames.incrementAndGet();
+            return;
+        }
+        // The data buffer is reused by the caller, so we need a copy
+        byte[] theFrame = new byte[aLength];
+        System.arraycopy(aData, aOffset, theFrame, 0, aLength);
+        if (outbound.offer(theFrame)) {
+            selector.wakeup();
+        } else {
+            droppedFrames.incrementAndGet();
+        }
+    }
+
+    @Override
+    public byte[] receiveFrame() {
+        return inbound.poll();
+    }
+}
@@ -19,20 +19,25 @@ import de.mirkosertic.gameengine.core.FutureResult;
 import de.mirkosertic.gameengine.core.Job;
 import de.mirkosertic.gameengine.core.ThreadingManager;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.Future;
 
 public class JDKThreadingManager implements ThreadingManager {
 
-    private final ExecutorService executorService;
+    private final ForkJoinPool executorService;
 
     public JDKThreadingManager() {
-        executorService = Executors.newSingleThreadExecutor(r -> {
-            Thread theThread = new Thread(r);
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public JDKThreadingManager(int aParallelism) {
+        // A work stealing pool in async mode, as the submitted jobs are independent of each other
+        executorService = new ForkJoinPool(aParallelism, aPool -> {
+            ForkJoinWorkerThread theThread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(aPool);
             theThread.setDaemon(true);
             return theThread;
-        });
+        }, null, true);
     }
 
     @Override
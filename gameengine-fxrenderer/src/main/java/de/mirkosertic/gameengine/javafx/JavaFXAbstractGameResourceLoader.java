@@ -39,14 +39,19 @@ public abstract class JavaFXAbstractGameResourceLoader implements GameResourceLo
                 }
                 if (aResourceName.name.toLowerCase().endsWith(".png")) {
                     aResolver.resolve(new JavaFXBitmapResource(theStream));
+                    return;
                 }
 
                 if (aResourceName.name.toLowerCase().endsWith(".au")) {
                     aResolver.resolve(new JavaFXAudioResource(theStream));
+                    return;
                 }
                 if (aResourceName.name.toLowerCase().endsWith(".wav")) {
                     aResolver.resolve(new JavaFXAudioResource(theStream));
+                    return;
                 }
+                theStream.close();
+                aRejector.reject("Unsupported resource type : " + aResourceName.name, null);
             } catch (IOException e) {
                 aRejector.reject(e.getMessage(), e);
             } catch (Exception e) {
@@ -55,6 +60,10 @@ public abstract class JavaFXAbstractGameResourceLoader implements GameResourceLo
         });
     }
 
+    @Override
+    public void release(GameResource aResource) {
+    }
+
     @Override
     public void flush() {
     }
@@ -49,4 +49,9 @@ public class JavaFXAudioResource implements GameResource {
     public GameResourceType getType() {
         return GameResourceType.SOUND;
     }
+
+    @Override
+    public long getSizeInBytes() {
+        return data.length;
+    }
 }
@@ -31,4 +31,10 @@ public class JavaFXBitmapResource extends Image implements GameResource {
     public GameResourceType getType() {
         return GameResourceType.BITMAP;
     }
+
+    @Override
+    public long getSizeInBytes() {
+        // Decoded as 32 bit ARGB
+        return (long) getWidth() * (long) getHeight() * 4;
+    }
 }
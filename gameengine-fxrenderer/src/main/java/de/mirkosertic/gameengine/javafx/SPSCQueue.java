@@ -0,0 +1,74 @@
+/*
+ * Copyright 2016 Mirko Sertic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.mirkosertic.gameengine.javafx;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Bounded, lock free queue for exactly one producer and one consumer thread.
+// Each side only writes its own index and caches the index of the other side,
+// so the shared indices are only read when the cached one is exhausted.
+final class SPSCQueue<T> {
+
+    private final Object[] buffer;
+    private final int mask;
+    private final AtomicLong head;
+    private final AtomicLong tail;
+
+    // Only accessed by the producer
+    private long cachedHead;
+    // Only accessed by the consumer
+    private long cachedTail;
+
+    SPSCQueue(int aCapacity) {
+        int theCapacity = Integer.highestOneBit(Math.max(2, aCapacity) - 1) << 1;
+        buffer = new Object[theCapacity];
+        mask = theCapacity - 1;
+        head = new AtomicLong();
+        tail = new AtomicLong();
+    }
+
+    int capacity() {
+        return buffer.length;
+    }
+
+    boolean offer(T aValue) {
+        long theTail = tail.get();
+        if (theTail - cachedHead >= buffer.length) {
+            cachedHead = head.get();
+            if (theTail - cachedHead >= buffer.length) {
+                return false;
+            }
+        }
+        buffer[(int) theTail & mask] = aValue;
+        tail.lazySet(theTail + 1);
+        return true;
+    }
+
+    T poll() {
+        long theHead = head.get();
+        if (theHead >= cachedTail) {
+            cachedTail = tail.get();
+            if (theHead >= cachedTail) {
+                return null;
+            }
+        }
+        int theIndex = (int) theHead & mask;
+        T theResult = (T) buffer[theIndex];
+        buffer[theIndex] = null;
+        head.lazySet(theHead + 1);
+        return theResult;
+    }
+}
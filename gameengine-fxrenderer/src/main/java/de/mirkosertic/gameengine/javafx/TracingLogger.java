@@ -0,0 +1,247 @@
+/*
+ * Copyright 2016 Mirko Sertic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.mirkosertic.gameengine.javafx;
+
+import de.mirkosertic.gameengine.core.DefaultLogger;
+import de.mirkosertic.gameengine.core.Logger;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+// Logger reporting spans to Java Flight Recorder and optionally to a Chrome trace. Spans
+// are only tracked while a recording is running or a Chrome trace is collected, otherwise
+// isTracing() is false and the engine does not even build the span names.
+// Messages are passed to the delegate.
+public class TracingLogger implements Logger {
+
+    public static final String SPAN_TIMING = "timing";
+
+    // Keeps track whether there is a running flight recording, without initializing
+    // the flight recorder if nobody uses it
+    private static final class FlightRecorderState implements FlightRecorderListener {
+
+        private static volatile boolean recording;
+
+        static {
+            try {
+                if (FlightRecorder.isAvailable()) {
+                    FlightRecorder.addListener(new FlightRecorderState());
+                    if (FlightRecorder.isInitialized()) {
+                        update();
+                    }
+                }
+            } catch (SecurityException | LinkageError e) {
+                // No access to the flight recorder, so only Chrome traces are available
+            }
+        }
+
+        private static void update() {
+            boolean theRecording = false;
+            for (Recording theEntry : FlightRecorder.getFlightRecorder().getRecordings()) {
+                if (theEntry.getState() == RecordingState.RUNNING) {
+                    theRecording = true;
+                }
+            }
+            recording = theRecording;
+        }
+
+        static boolean isRecording() {
+            return recording;
+        }
+
+        @Override
+        public void recordingStateChanged(Recording aRecording) {
+            update();
+        }
+    }
+
+    private static class OpenSpan {
+        String category;
+        String name;
+        long start;
+        EngineEvents.SpanEvent event;
+    }
+
+    // The spans currently open on a thread. Span objects are reused, so tracking a
+    // span only allocates if a flight recording is running.
+    private static class SpanStack {
+
+        private OpenSpan[] spans = new OpenSpan[16];
+        private int size;
+
+        OpenSpan push() {
+            if (size == spans.length) {
+                OpenSpan[] theNewSpans = new OpenSpan[spans.length * 2];
+                System.arraycopy(spans, 0, theNewSpans, 0, size);
+                spans = theNewSpans;
+            }
+            OpenSpan theSpan = spans[size];
+            if (theSpan == null) {
+                theSpan = new OpenSpan();
+                spans[size] = theSpan;
+            }
+            size++;
+            return theSpan;
+        }
+
+        // Spans of the engine are strictly nested, but time and timeEnd calls might not
+        // be, so the matching span is searched from the top of the stack
+        int find(String aCategory, String aName) {
+            for (int i = size - 1; i >= 0; i--) {
+                OpenSpan theSpan = spans[i];
+                if (theSpan.category.equals(aCategory) && theSpan.name.equals(aName)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        void remove(int aIndex) {
+            OpenSpan theSpan = spans[aIndex];
+            theSpan.category = null;
+            theSpan.name = null;
+            theSpan.event = null;
+            System.arraycopy(spans, aIndex + 1, spans, aIndex, size - aIndex - 1);
+            size--;
+            spans[size] = theSpan;
+        }
+    }
+
+    private final Logger delegate;
+    private final long origin;
+    private final ThreadLocal<SpanStack> stacks;
+    private volatile ChromeTraceBuffer chromeTrace;
+    private ChromeTraceBuffer lastChromeTrace;
+
+    public TracingLogger() {
+        this(new DefaultLogger());
+    }
+
+    public TracingLogger(Logger aDelegate) {
+        delegate = aDelegate;
+        origin = System.nanoTime();
+        stacks = ThreadLocal.withInitial(SpanStack::new);
+    }
+
+    // Starts collecting a new Chrome trace, keeping the latest aMaxSpans spans
+    public synchronized void startChromeTrace(int aMaxSpans) {
+        chromeTrace = new ChromeTraceBuffer(aMaxSpans, origin);
+        lastChromeTrace = chromeTrace;
+    }
+
+    public synchronized void stopChromeTrace() {
+        chromeTrace = null;
+    }
+
+    public boolean isChromeTraceRunning() {
+        return chromeTrace != null;
+    }
+
+    // Writes the current or the last collected Chrome trace
+    public void writeChromeTrace(Writer aWriter) throws IOException {
+        ChromeTraceBuffer theTrace;
+        synchronized (this) {
+            theTrace = lastChromeTrace;
+        }
+        if (theTrace == null) {
+            throw new IllegalStateException("No Chrome trace was collected");
+        }
+        theTrace.writeTo(aWriter);
+    }
+
+    public void writeChromeTrace(File aFile) throws IOException {
+        try (Writer theWriter = new OutputStreamWriter(new FileOutputStream(aFile), StandardCharsets.UTF_8)) {
+            writeChromeTrace(theWriter);
+        }
+    }
+
+    @Override
+    public void info(String aMessage) {
+        delegate.info(aMessage);
+    }
+
+    @Override
+    public void error(String aMessage) {
+        delegate.error(aMessage);
+    }
+
+    @Override
+    public void time(String aLabel) {
+        if (isTracing()) {
+            beginSpan(SPAN_TIMING, aLabel);
+        }
+    }
+
+    @Override
+    public void timeEnd(String aLabel) {
+        if (isTracing()) {
+            endSpan(SPAN_TIMING, aLabel);
+        }
+    }
+
+    @Override
+    public boolean isTracing() {
+        return chromeTrace != null || FlightRecorderState.isRecording();
+    }
+
+    @Override
+    public void beginSpan(String aCategory, String aName) {
+        OpenSpan theSpan = stacks.get().push();
+        theSpan.category = aCategory;
+        theSpan.name = aName != null ? aName : "";
+        if (FlightRecorderState.isRecording()) {
+            EngineEvents.SpanEvent theEvent = EngineEvents.create(aCategory);
+            if (theEvent.isEnabled()) {
+                theEvent.begin();
+                theSpan.event = theEvent;
+            }
+        }
+        theSpan.start = System.nanoTime();
+    }
+
+    @Override
+    public void endSpan(String aCategory, String aName) {
+        long theEnd = System.nanoTime();
+        SpanStack theStack = stacks.get();
+        int theIndex = theStack.find(aCategory, aName != null ? aName : "");
+        if (theIndex < 0) {
+            // The span was started before tracing was enabled
+            return;
+        }
+        OpenSpan theSpan = theStack.spans[theIndex];
+        EngineEvents.SpanEvent theEvent = theSpan.event;
+        if (theEvent != null) {
+            theEvent.end();
+            if (theEvent.shouldCommit()) {
+                theEvent.name = theSpan.name;
+                theEvent.commit();
+            }
+        }
+        ChromeTraceBuffer theTrace = chromeTrace;
+        if (theTrace != null) {
+            theTrace.add(theSpan.category, theSpan.name, theSpan.start, theEnd, Thread.currentThread());
+        }
+        theStack.remove(theIndex);
+    }
+}
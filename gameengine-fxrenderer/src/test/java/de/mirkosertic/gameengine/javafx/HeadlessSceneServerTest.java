@@ -0,0 +1,115 @@
+package de.mirkosertic.gameengine.javafx;
+
+import de.mirkosertic.gameengine.core.Game;
+import de.mirkosertic.gameengine.core.GameScene;
+import de.mirkosertic.gameengine.core.SceneStarted;
+import de.mirkosertic.gameengine.event.GameEventListener;
+import de.mirkosertic.gameengine.event.GameEventManager;
+import de.mirkosertic.gameengine.event.PropertyChangeMode;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class HeadlessSceneServerTest {
+
+    private static void waitFor(HostedScene aScene, long aTicks) throws InterruptedException {
+        long theTimeout = System.currentTimeMillis() + 5000;
+        while (aScene.getStatistics().getNumberTicks() < aTicks) {
+            assertTrue("Timeout", System.currentTimeMillis() < theTimeout);
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    public void testScenesRunWithTheirOwnTickRate() throws Exception {
+        HeadlessSceneServer theServer = new HeadlessSceneServer(1);
+        try {
+            GameScene theFastScene = new GameScene(new Game(), theServer.createRuntime());
+            GameScene theSlowScene = new GameScene(new Game(), theServer.createRuntime());
+
+            final AtomicInteger theStarted = new AtomicInteger();
+            theFastScene.getRuntime().getEventManager().register(null, SceneStarted.TYPE, new GameEventListener<SceneStarted>() {
+                @Override
+                public void handleGameEvent(SceneStarted aEvent) {
+                    theStarted.incrementAndGet();
+                }
+            });
+
+            HostedScene theFast = theServer.host("fast", theFastScene, 100);
+            HostedScene theSlow = theServer.host("slow", theSlowScene, 10);
+            assertSame(theFast, theServer.getScene("fast"));
+            assertEquals(2, theServer.getScenes().size());
+
+            waitFor(theFast, 30);
+            waitFor(theSlow, 1);
+
+            assertEquals(1, theStarted.get());
+            assertTrue(theFast.getStatistics().getNumberTicks() > theSlow.getStatistics().getNumberTicks());
+            assertTrue(theFast.getRuns() > 0);
+            assertTrue(theFast.getCpuTimeNanos() > 0);
+            assertTrue(theFast.getWallTimeNanos() >= theFast.getMaxRunTimeNanos());
+
+            theServer.stop("fast");
+            assertFalse(theFast.isRunning());
+            long theTimeout = System.currentTimeMillis() + 5000;
+            while (theServer.getScene("fast") != null) {
+                assertTrue("Timeout", System.currentTimeMillis() < theTimeout);
+                Thread.sleep(5);
+            }
+            assertTrue(theSlow.isRunning());
+        } finally {
+            theServer.shutdown();
+        }
+        assertNull(theServer.getScene("slow"));
+    }
+
+    @Test
+    public void testSceneConfiguresPropertyChanges() throws Exception {
+        HeadlessSceneServer theServer = new HeadlessSceneServer(1);
+        try {
+            GameScene theScene = new GameScene(new Game(), theServer.createRuntime());
+            theScene.propertyChangeModeProperty().set(PropertyChangeMode.COALESCED);
+            theScene.logicalTimestampsProperty().set(true);
+
+            // The settings survive a round trip through the serialized form
+            GameScene theLoaded = GameScene.deserialize(new Game(), theServer.createRuntime(), theScene.serialize());
+            assertEquals(PropertyChangeMode.COALESCED, theLoaded.propertyChangeModeProperty().get());
+            assertTrue(theLoaded.logicalTimestampsProperty().get());
+
+            GameEventManager theEventManager = theLoaded.getRuntime().getEventManager();
+            assertEquals(PropertyChangeMode.IMMEDIATE, theEventManager.getPropertyChangeMode());
+            theServer.host("configured", theLoaded, 100);
+            assertEquals(PropertyChangeMode.COALESCED, theEventManager.getPropertyChangeMode());
+            assertTrue(theEventManager.isLogicalTimestamps());
+        } finally {
+            theServer.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testVariableTimestepIsRejected() throws Exception {
+        HeadlessSceneServer theServer = new HeadlessSceneServer(1);
+        try {
+            theServer.host("variable", new GameScene(new Game(), theServer.createRuntime()), 0);
+        } finally {
+            theServer.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIdsAreUnique() throws Exception {
+        HeadlessSceneServer theServer = new HeadlessSceneServer(1);
+        try {
+            theServer.host("room", new GameScene(new Game(), theServer.createRuntime()), 10);
+            theServer.host("room", new GameScene(new Game(), theServer.createRuntime()), 10);
+        } finally {
+            theServer.shutdown();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package de.mirkosertic.gameengine.javafx;
+
+import de.mirkosertic.gameengine.core.Game;
+import de.mirkosertic.gameengine.core.GameLoop;
+import de.mirkosertic.gameengine.core.GameLoopFactory;
+import de.mirkosertic.gameengine.core.GameRuntime;
+import de.mirkosertic.gameengine.core.GameScene;
+import de.mirkosertic.gameengine.core.GameView;
+import de.mirkosertic.gameengine.core.GestureDetector;
+import de.mirkosertic.gameengine.core.RuntimeStatistics;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class JDKGameClockTest {
+
+    @Test
+    public void testWaitUntil() throws Exception {
+        JDKGameClock theClock = new JDKGameClock();
+        long theStart = theClock.nanoTime();
+        theClock.waitUntil(theStart + TimeUnit.MILLISECONDS.toNanos(20));
+        assertTrue(theClock.nanoTime() - theStart >= TimeUnit.MILLISECONDS.toNanos(20));
+    }
+
+    @Test
+    public void testRunWaitsOnTheClock() throws Exception {
+        HeadlessGameRuntimeFactory theFactory = new HeadlessGameRuntimeFactory();
+        GameRuntime theRuntime = theFactory.create();
+        GameScene theScene = new GameScene(new Game(), theRuntime);
+        theFactory.loadingFinished(theScene);
+
+        final GameLoop[] theLoop = new GameLoop[1];
+        final int[] theFrames = new int[1];
+        GameView theView = new GameView() {
+            @Override
+            public void renderGame(long aGameTime, long aElapsedTimeSinceLastLoop, float aInterpolationAlpha, GameScene aScene, RuntimeStatistics aStatistics) {
+                theFrames[0]++;
+                if (aStatistics.getNumberTicks() == 10) {
+                    theLoop[0].shutdown();
+                }
+            }
+
+            @Override
+            public GestureDetector getGestureDetector() {
+                return null;
+            }
+        };
+
+        theLoop[0] = new GameLoopFactory(new JDKGameClock(), 100).create(theScene, theView, theRuntime);
+        long theStart = System.nanoTime();
+        theLoop[0].run();
+        long theDuration = System.nanoTime() - theStart;
+
+        assertEquals(10, theLoop[0].getStatistics().getNumberTicks());
+        // Ten steps of 10 milliseconds, the first one runs right away
+        assertTrue(theDuration >= TimeUnit.MILLISECONDS.toNanos(85));
+        // A spinning loop would render thousands of frames in between
+        assertTrue("Rendered " + theFrames[0] + " frames", theFrames[0] <= 15);
+    }
+}
@@ -0,0 +1,123 @@
+package de.mirkosertic.gameengine.javafx;
+
+import de.mirkosertic.gameengine.core.DefaultLogger;
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class JDKNetworkConnectorTest {
+
+    private static InetSocketAddress loopback(int aPort) {
+        return new InetSocketAddress(InetAddress.getLoopbackAddress(), aPort);
+    }
+
+    private static void waitFor(BooleanSupplier aCondition) throws InterruptedException {
+        long theTimeout = System.currentTimeMillis() + 5000;
+        while (!aCondition.getAsBoolean()) {
+            assertTrue("Timeout", System.currentTimeMillis() < theTimeout);
+            Thread.sleep(5);
+        }
+    }
+
+    private static byte[] receive(JDKNetworkConnector aConnector) throws InterruptedException {
+        long theTimeout = System.currentTimeMillis() + 5000;
+        byte[] theFrame;
+        while ((theFrame = aConnector.receiveFrame()) == null) {
+            assertTrue("Timeout", System.currentTimeMillis() < theTimeout);
+            Thread.sleep(5);
+        }
+        return theFrame;
+    }
+
+    @Test
+    public void testTCPLoopback() throws Exception {
+        JDKNetworkConnector theServer = JDKNetworkConnector.tcpServer(loopback(0));
+        JDKNetworkConnector theClient = JDKNetworkConnector.tcpClient(loopback(theServer.getLocalAddress().getPort()));
+        try {
+            assertTrue(theClient.supportsFrames());
+            assertNull(theClient.receiveFrame());
+
+            // Only the given range is sent, and the frame is copied
+            byte[] theData = new byte[] {9, 1, 2, 3, 9};
+            theClient.sendFrame(theData, 1, 3);
+            theData[1] = 7;
+            assertArrayEquals(new byte[] {1, 2, 3}, receive(theServer));
+
+            waitFor(() -> theServer.getConnectedPeers() == 1);
+            byte[] theLarge = new byte[100000];
+            for (int i = 0; i < theLarge.length; i++) {
+                theLarge[i] = (byte) i;
+            }
+            theServer.sendFrame(theLarge, 0, theLarge.length);
+            theServer.sendFrame(new byte[] {42}, 0, 1);
+            assertArrayEquals(theLarge, receive(theClient));
+            assertArrayEquals(new byte[] {42}, receive(theClient));
+
+            assertEquals(2, theServer.getSentFrames());
+            assertEquals(0, theServer.getDroppedFrames());
+        } finally {
+            theClient.shutdown();
+            theServer.shutdown();
+        }
+    }
+
+    @Test
+    public void testUDPLoopback() throws Exception {
+        JDKNetworkConnector theServer = JDKNetworkConnector.udp(loopback(0));
+        JDKNetworkConnector theClient = JDKNetworkConnector.udp(loopback(0), loopback(theServer.getLocalAddress().getPort()));
+        try {
+            assertEquals(0, theServer.getConnectedPeers());
+            theClient.sendFrame(new byte[] {1, 2}, 0, 2);
+            assertArrayEquals(new byte[] {1, 2}, receive(theServer));
+
+            // The server learned about the client and answers
+            assertEquals(1, theServer.getConnectedPeers());
+            theServer.sendFrame(new byte[] {3}, 0, 1);
+            byte[] theFrame = receive(theClient);
+            assertNotNull(theFrame);
+            assertArrayEquals(new byte[] {3}, theFrame);
+        } finally {
+            theClient.shutdown();
+            theServer.shutdown();
+        }
+    }
+
+    @Test
+    public void testFailingIOThreadStopsTheConnector() throws Exception {
+        final StringBuilder theErrors = new StringBuilder();
+        JDKNetworkConnector theConnector = JDKNetworkConnector.tcpServer(new DefaultLogger() {
+            @Override
+            public void error(String aMessage) {
+                synchronized (theErrors) {
+                    theErrors.append(aMessage);
+                }
+            }
+        }, loopback(0));
+        try {
+            assertTrue(theConnector.isRunning());
+
+            theConnector.selector.close();
+            waitFor(() -> !theConnector.isRunning());
+            synchronized (theErrors) {
+                assertTrue(theErrors.toString(), theErrors.toString().startsWith("Network I/O on "));
+            }
+
+            // Frames to a dead connector are dropped right away
+            theConnector.sendFrame(new byte[] {1}, 0, 1);
+            assertEquals(1, theConnector.getDroppedFrames());
+            assertEquals(0, theConnector.getSentFrames());
+        } finally {
+            theConnector.shutdown();
+        }
+        assertFalse(theConnector.isRunning());
+    }
+}
@@ -0,0 +1,57 @@
+package de.mirkosertic.gameengine.javafx;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SPSCQueueTest {
+
+    @Test
+    public void testCapacityIsPowerOfTwo() {
+        assertEquals(2, new SPSCQueue<String>(1).capacity());
+        assertEquals(8, new SPSCQueue<String>(5).capacity());
+        assertEquals(1024, new SPSCQueue<String>(1024).capacity());
+    }
+
+    @Test
+    public void testOfferAndPoll() {
+        SPSCQueue<Integer> theQueue = new SPSCQueue<>(4);
+        assertNull(theQueue.poll());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(theQueue.offer(i));
+        }
+        assertFalse(theQueue.offer(4));
+        assertEquals(Integer.valueOf(0), theQueue.poll());
+        assertTrue(theQueue.offer(4));
+        for (int i = 1; i < 5; i++) {
+            assertEquals(Integer.valueOf(i), theQueue.poll());
+        }
+        assertNull(theQueue.poll());
+    }
+
+    @Test
+    public void testConcurrentProducerAndConsumer() throws InterruptedException {
+        final SPSCQueue<Integer> theQueue = new SPSCQueue<>(16);
+        final int theCount = 100000;
+        Thread theProducer = new Thread(() -> {
+            for (int i = 0; i < theCount; i++) {
+                while (!theQueue.offer(i)) {
+                    Thread.yield();
+                }
+            }
+        });
+        theProducer.start();
+        for (int i = 0; i < theCount; i++) {
+            Integer theValue;
+            while ((theValue = theQueue.poll()) == null) {
+                Thread.yield();
+            }
+            assertEquals(i, theValue.intValue());
+        }
+        theProducer.join();
+        assertNull(theQueue.poll());
+    }
+}
@@ -0,0 +1,186 @@
+package de.mirkosertic.gameengine.javafx;
+
+import de.mirkosertic.gameengine.core.DefaultLogger;
+import de.mirkosertic.gameengine.core.Game;
+import de.mirkosertic.gameengine.core.GameLoop;
+import de.mirkosertic.gameengine.core.GameLoopFactory;
+import de.mirkosertic.gameengine.core.GameRuntime;
+import de.mirkosertic.gameengine.core.GameScene;
+import de.mirkosertic.gameengine.core.GameView;
+import de.mirkosertic.gameengine.core.GestureDetector;
+import de.mirkosertic.gameengine.core.Logger;
+import de.mirkosertic.gameengine.core.ManualGameClock;
+import de.mirkosertic.gameengine.core.RuntimeStatistics;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TracingLoggerTest {
+
+    @Test
+    public void testNoTracingByDefault() throws Exception {
+        final StringBuilder theMessages = new StringBuilder();
+        TracingLogger theLogger = new TracingLogger(new DefaultLogger() {
+            @Override
+            public void info(String aMessage) {
+                theMessages.append(aMessage).append(';');
+            }
+
+            @Override
+            public void error(String aMessage) {
+                theMessages.append(aMessage).append(';');
+            }
+        });
+        assertFalse(theLogger.isTracing());
+
+        // Spans ending without being started are ignored
+        theLogger.endSpan(Logger.SPAN_EVENT, "Test");
+        theLogger.timeEnd("render");
+
+        theLogger.info("Info");
+        theLogger.error("Error");
+        assertEquals("Info;Error;", theMessages.toString());
+    }
+
+    @Test
+    public void testChromeTrace() throws Exception {
+        TracingLogger theLogger = new TracingLogger();
+        theLogger.startChromeTrace(100);
+        assertTrue(theLogger.isTracing());
+
+        theLogger.beginSpan(Logger.SPAN_TICK, "1");
+        theLogger.time("render");
+        theLogger.beginSpan(Logger.SPAN_EVENT, "Say \"hello\"");
+        theLogger.endSpan(Logger.SPAN_EVENT, "Say \"hello\"");
+        theLogger.endSpan(Logger.SPAN_TICK, "1");
+        theLogger.timeEnd("render");
+
+        theLogger.stopChromeTrace();
+        assertFalse(theLogger.isTracing());
+
+        StringWriter theWriter = new StringWriter();
+        theLogger.writeChromeTrace(theWriter);
+        String theTrace = theWriter.toString();
+
+        assertTrue(theTrace.startsWith("{\"displayTimeUnit\":\"ms\",\"traceEvents\":["));
+        assertTrue(theTrace.contains("\"ph\":\"M\",\"name\":\"thread_name\""));
+        int theEvent = theTrace.indexOf("\"cat\":\"event\",\"name\":\"Say \\\"hello\\\"\"");
+        int theTick = theTrace.indexOf("\"cat\":\"tick\",\"name\":\"1\"");
+        int theRender = theTrace.indexOf("\"cat\":\"timing\",\"name\":\"render\"");
+        // Spans are written in the order they ended
+        assertTrue(theEvent > 0);
+        assertTrue(theTick > theEvent);
+        assertTrue(theRender > theTick);
+        assertTrue(theTrace.trim().endsWith("]}"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testNoChromeTraceCollected() throws Exception {
+        new TracingLogger().writeChromeTrace(new StringWriter());
+    }
+
+    @Test
+    public void testChromeTraceKeepsLatestSpans() throws Exception {
+        ChromeTraceBuffer theBuffer = new ChromeTraceBuffer(2, 0);
+        theBuffer.add("rule", "first", 1000, 2000, Thread.currentThread());
+        theBuffer.add("rule", "second", 3000, 4500, Thread.currentThread());
+        theBuffer.add("rule", "third", 5000, 5001, Thread.currentThread());
+        assertEquals(2, theBuffer.size());
+
+        StringWriter theWriter = new StringWriter();
+        theBuffer.writeTo(theWriter);
+        String theTrace = theWriter.toString();
+        assertFalse(theTrace.contains("first"));
+        assertTrue(theTrace.contains("\"name\":\"second\",\"ts\":3.000,\"dur\":1.500"));
+        assertTrue(theTrace.contains("\"name\":\"third\",\"ts\":5.000,\"dur\":0.001"));
+    }
+
+    @Test
+    public void testEngineSpansOfAGameLoop() throws Exception {
+        TracingLogger theLogger = new TracingLogger();
+        theLogger.startChromeTrace(10000);
+
+        HeadlessGameRuntimeFactory theFactory = new HeadlessGameRuntimeFactory(theLogger);
+        GameRuntime theRuntime = theFactory.create();
+        GameScene theScene = new GameScene(new Game(), theRuntime);
+        theFactory.loadingFinished(theScene);
+
+        ManualGameClock theClock = new ManualGameClock();
+        GameLoop theLoop = new GameLoopFactory(theClock, 50).create(theScene, new GameView() {
+            @Override
+            public void renderGame(long aGameTime, long aElapsedTimeSinceLastLoop, float aInterpolationAlpha, GameScene aScene, RuntimeStatistics aStatistics) {
+            }
+
+            @Override
+            public GestureDetector getGestureDetector() {
+                return null;
+            }
+        }, theRuntime);
+        theLoop.singleRun();
+        theClock.advanceMillis(20);
+        theLoop.singleRun();
+
+        StringWriter theWriter = new StringWriter();
+        theLogger.writeChromeTrace(theWriter);
+        String theTrace = theWriter.toString();
+        assertTrue(theTrace.contains("\"cat\":\"tick\",\"name\":\"1\""));
+        assertTrue(theTrace.contains("\"cat\":\"event\",\"name\":\"SceneStarted\""));
+        assertTrue(theTrace.contains("\"cat\":\"event\",\"name\":\"SystemTick\""));
+    }
+
+    @Test
+    public void testFlightRecorderEvents() throws Exception {
+        TracingLogger theLogger = new TracingLogger();
+        File theFile = File.createTempFile("trace", ".jfr");
+        try {
+            try (Recording theRecording = new Recording()) {
+                theRecording.enable("de.mirkosertic.gameengine.Tick");
+                theRecording.enable("de.mirkosertic.gameengine.Timing");
+                theRecording.disable("de.mirkosertic.gameengine.RuleFired");
+                theRecording.start();
+                assertTrue(theLogger.isTracing());
+
+                theLogger.beginSpan(Logger.SPAN_TICK, "42");
+                theLogger.time("render");
+                theLogger.timeEnd("render");
+                theLogger.endSpan(Logger.SPAN_TICK, "42");
+                // Disabled in the recording
+                theLogger.beginSpan(Logger.SPAN_RULE, "rule");
+                theLogger.endSpan(Logger.SPAN_RULE, "rule");
+
+                theRecording.stop();
+                theRecording.dump(theFile.toPath());
+            }
+            assertFalse(theLogger.isTracing());
+
+            List<RecordedEvent> theEvents = RecordingFile.readAllEvents(theFile.toPath());
+            int theTicks = 0;
+            int theTimings = 0;
+            for (RecordedEvent theEvent : theEvents) {
+                String theType = theEvent.getEventType().getName();
+                if ("de.mirkosertic.gameengine.Tick".equals(theType)) {
+                    assertEquals("42", theEvent.getString("name"));
+                    theTicks++;
+                } else if ("de.mirkosertic.gameengine.Timing".equals(theType)) {
+                    assertEquals("render", theEvent.getString("name"));
+                    theTimings++;
+                } else {
+                    assertFalse(theType.equals("de.mirkosertic.gameengine.RuleFired"));
+                }
+            }
+            assertEquals(1, theTicks);
+            assertEquals(1, theTimings);
+        } finally {
+            theFile.delete();
+        }
+    }
+}
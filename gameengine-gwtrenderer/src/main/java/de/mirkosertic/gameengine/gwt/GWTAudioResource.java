@@ -33,6 +33,12 @@ public class GWTAudioResource implements GameResource {
         return GameResourceType.SOUND;
     }
 
+    @Override
+    public long getSizeInBytes() {
+        // Decoded and buffered by the browser
+        return 0;
+    }
+
     public Audio getAudio() {
         return audio;
     }
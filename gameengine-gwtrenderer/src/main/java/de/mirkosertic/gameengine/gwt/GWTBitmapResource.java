@@ -45,6 +45,14 @@ public class GWTBitmapResource implements GameResource {
         return GameResourceType.BITMAP;
     }
 
+    @Override
+    public long getSizeInBytes() {
+        if (!loaded) {
+            return 0;
+        }
+        return (long) imageElement.getWidth() * (long) imageElement.getHeight() * 4;
+    }
+
     public boolean isLoaded() {
         return loaded;
     }
@@ -52,4 +60,9 @@ public class GWTBitmapResource implements GameResource {
     public ImageElement getImage() {
         return imageElement;
     }
+
+    void release() {
+        // Detach from the resource holder, so the browser can drop the image
+        image.removeFromParent();
+    }
 }
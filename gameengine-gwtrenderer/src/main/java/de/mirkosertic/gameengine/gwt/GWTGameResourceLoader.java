@@ -44,12 +44,15 @@ public class GWTGameResourceLoader implements GameResourceLoader {
                 theImage.setUrl(baseDirectory + aResourceName.name.replace('\\', '/'));
                 RootPanel.get(holderId).add(theImage);
                 aResolver.resolve(new GWTBitmapResource(theImage));
+                return;
             }
             if (aResourceName.name.endsWith(".wav")) {
                 Audio theAudio = Audio.createIfSupported();
                 theAudio.setSrc(baseDirectory + aResourceName.name.replace('\\', '/'));
-                aRejector.reject(new GWTAudioResource(theAudio), null);
+                aResolver.resolve(new GWTAudioResource(theAudio));
+                return;
             }
+            aRejector.reject("Unsupported resource type : " + aResourceName.name, null);
         });
     }
 
@@ -58,6 +61,13 @@ public class GWTGameResourceLoader implements GameResourceLoader {
         return new Promise<>((Promise.Executor) (aResolver, aRejector) -> aResolver.resolve(LoadedSpriteSheet.EMPTY));
     }
 
+    @Override
+    public void release(GameResource aResource) {
+        if (aResource instanceof GWTBitmapResource) {
+            ((GWTBitmapResource) aResource).release();
+        }
+    }
+
     @Override
     public void flush() {
         RootPanel.get(holderId).clear();
@@ -18,6 +18,9 @@ package de.mirkosertic.gameengine.physics.jbox2d;
 import de.mirkosertic.gameengine.core.FutureResult;
 import de.mirkosertic.gameengine.core.GameObject;
 import de.mirkosertic.gameengine.core.GameObjectInstance;
+import de.mirkosertic.gameengine.core.GameScene;
+import de.mirkosertic.gameengine.core.GameSystemDependencies;
+import de.mirkosertic.gameengine.core.GameSystemResource;
 import de.mirkosertic.gameengine.core.GameSystemWork;
 import de.mirkosertic.gameengine.core.Job;
 import de.mirkosertic.gameengine.core.Logger;
@@ -26,6 +29,7 @@ import de.mirkosertic.gameengine.event.GameEvent;
 import de.mirkosertic.gameengine.event.GameEventListener;
 import de.mirkosertic.gameengine.event.GameEventManager;
 import de.mirkosertic.gameengine.event.PropertyChanged;
+import de.mirkosertic.gameengine.physic.CollisionInterest;
 import de.mirkosertic.gameengine.physic.GameObjectCollision;
 import de.mirkosertic.gameengine.physic.GamePhysicsManager;
 import de.mirkosertic.gameengine.physic.PhysicsBehavior;
@@ -59,7 +63,51 @@ import org.jbox2d.dynamics.FixtureDef;
 import org.jbox2d.dynamics.World;
 import org.jbox2d.dynamics.contacts.Contact;
 
-public class JBox2DGamePhysicsManager implements GamePhysicsManager {
+public class JBox2DGamePhysicsManager implements GamePhysicsManager, GameSystemDependencies {
+
+    // Unordered pair of instances, used to report a collision only once per step
+    private static class CollisionPair {
+
+        private final GameObjectInstance instance1;
+        private final GameObjectInstance instance2;
+
+        CollisionPair(GameObjectInstance aInstance1, GameObjectInstance aInstance2) {
+            instance1 = aInstance1;
+            instance2 = aInstance2;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            CollisionPair thePair = (CollisionPair) o;
+            return (instance1 == thePair.instance1 && instance2 == thePair.instance2)
+                    || (instance1 == thePair.instance2 && instance2 == thePair.instance1);
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(instance1) ^ System.identityHashCode(instance2);
+        }
+    }
+
+    // The transform of a dynamic body as it was last written to its instance
+    private static class SyncState {
+
+        private final Body body;
+        private float x;
+        private float y;
+        private float angle;
+        private boolean awake;
+
+        SyncState(Body aBody) {
+            body = aBody;
+            // Never synced, so the first awake step syncs in any case
+            x = Float.NaN;
+            awake = true;
+        }
+    }
 
     private class VisibleListener implements GameEventListener<PropertyChanged> {
         @Override
@@ -141,9 +189,21 @@ public class JBox2DGamePhysicsManager implements GamePhysicsManager {
 
     private static final float SIZE_FACTOR = 0.01f;
 
+    private static final int DEFAULT_STEP_RATE = 30;
+    private static final int DEFAULT_VELOCITY_ITERATIONS = 6;
+    private static final int DEFAULT_POSITION_ITERATIONS = 2;
+
+    // In frame, the collision interest reads the scene and listens to changes of its properties.
+    // Collisions are only queued while the simulation is stepped, they are fired and the instances
+    // are synced after the frame
+    private static final GameSystemResource[] READ_RESOURCES = new GameSystemResource[] {GameSystemResource.INSTANCES};
+    private static final GameSystemResource[] WRITE_RESOURCES = new GameSystemResource[] {
+            GameSystemResource.PHYSICS, GameSystemResource.EVENTS};
+
     private final World physicsWorld;
     private final Map<GameObjectInstance, Body> dynamicObjects;
     private final Map<GameObjectInstance, Body> staticObjects;
+    private final Map<GameObjectInstance, SyncState> syncStates;
     private long physicsAmountOfTime;
     private final GameEventManager eventManager;
     private final PositionChangeListener positionChangeListener;
@@ -153,13 +213,22 @@ public class JBox2DGamePhysicsManager implements GamePhysicsManager {
     private final Set<GameObject> alreadyRegisteredSizeListener;
     private boolean insimulation;
     private final List<GameEvent> queuedEventsOfLastLoop;
+    private final Set<CollisionPair> collisionsOfLastLoop;
     private final ThreadingManager threadingManager;
     private final Logger logger;
+    private GameScene scene;
+    private CollisionInterest collisionInterest;
+    private boolean collisionInterestChanged;
+    private long generatedContacts;
+    private long deliveredCollisions;
 
     JBox2DGamePhysicsManager(Logger aLogger, GameEventManager aEventManager, ThreadingManager aThreadingManager) {
         logger = aLogger;
         threadingManager = aThreadingManager;
         queuedEventsOfLastLoop = new ArrayList<>();
+        collisionsOfLastLoop = new HashSet<>();
+        collisionInterest = CollisionInterest.ALL;
+        collisionInterestChanged = true;
         eventManager = aEventManager;
         alreadyRegisteredSizeListener = new HashSet<>();
         positionChangeListener = new PositionChangeListener();
@@ -173,10 +242,19 @@ public class JBox2DGamePhysicsManager implements GamePhysicsManager {
         physicsWorld.setContactListener(new ContactListener() {
             @Override
             public void beginContact(Contact aContact) {
-                Body theObjectA = aContact.getFixtureA().getBody();
-                Body theObjectB = aContact.getFixtureB().getBody();
-                queuedEventsOfLastLoop.add(new GameObjectCollision((GameObjectInstance) theObjectA.getUserData(),
-                        (GameObjectInstance) theObjectB.getUserData()));
+                generatedContacts++;
+
+                GameObjectInstance theInstanceA = (GameObjectInstance) aContact.getFixtureA().getBody().getUserData();
+                GameObjectInstance theInstanceB = (GameObjectInstance) aContact.getFixtureB().getBody().getUserData();
+
+                // Contacts nobody is interested in do not result in an event at all
+                if (!collisionInterest.isInteresting(theInstanceA.getOwnerGameObject(), theInstanceB.getOwnerGameObject())) {
+                    return;
+                }
+                // Multiple contacts between the same instances are reported once per step
+                if (collisionsOfLastLoop.add(new CollisionPair(theInstanceA, theInstanceB))) {
+                    queuedEventsOfLastLoop.add(new GameObjectCollision(theInstanceA, theInstanceB));
+                }
             }
 
             @Override
@@ -193,11 +271,13 @@ public class JBox2DGamePhysicsManager implements GamePhysicsManager {
         });
         dynamicObjects = new HashMap<>();
         staticObjects = new HashMap<>();
+        syncStates = new HashMap<>();
         physicsAmountOfTime = 0;
     }
 
     Body gameObjectInstanceRemovedFromScene(GameObjectInstance aInstance) {
         Body theSimulatedBody = dynamicObjects.remove(aInstance);
+        syncStates.remove(aInstance);
         aInstance.positionProperty().removeChangeListener(positionChangeListener);
         if (theSimulatedBody == null) {
             theSimulatedBody = staticObjects.remove(aInstance);
@@ -254,6 +334,9 @@ public class JBox2DGamePhysicsManager implements GamePhysicsManager {
     }
 
     Body gameObjectInstanceAddedToScene(GameObjectInstance aInstance) {
+        if (scene == null) {
+            scene = aInstance.getOwnerGameObject().getGameScene();
+        }
         //synchronized (physicsWorld) {
             aInstance.positionProperty().addChangeListener(positionChangeListener);
             aInstance.rotationAngleProperty().addChangeListener(positionChangeListener);
@@ -298,6 +381,7 @@ public class JBox2DGamePhysicsManager implements GamePhysicsManager {
                 BodyDef theBodyDef = createBodyDefFor(aInstance, BodyType.DYNAMIC);
                 Body theBody = physicsWorld.createBody(theBodyDef);
                 dynamicObjects.put(aInstance, theBody);
+                syncStates.put(aInstance, new SyncState(theBody));
                 theBody.createFixture(thePlatformFixture);
 
                 return theBody;
@@ -317,6 +401,7 @@ public class JBox2DGamePhysicsManager implements GamePhysicsManager {
                 Body theBody = physicsWorld.createBody(theBodyDef);
 
                 dynamicObjects.put(aInstance, theBody);
+                syncStates.put(aInstance, new SyncState(theBody));
                 theBody.createFixture(thePhysicsFixture);
 
                 return theBody;
@@ -353,7 +438,20 @@ public class JBox2DGamePhysicsManager implements GamePhysicsManager {
         }
     }
 
+    void collisionInterestChanged() {
+        collisionInterestChanged = true;
+    }
+
+    public long getGeneratedContacts() {
+        return generatedContacts;
+    }
+
+    public long getDeliveredCollisions() {
+        return deliveredCollisions;
+    }
+
     public void updateGameObjectConfiguration(GameObject aGameObject) {
+        collisionInterestChanged = true;
         for (GameObjectInstance theInstance : aGameObject.getGameScene().getInstances()) {
             if (theInstance.getOwnerGameObject() == aGameObject) {
                 gameObjectInstanceRemovedFromScene(theInstance);
@@ -364,14 +462,48 @@ public class JBox2DGamePhysicsManager implements GamePhysicsManager {
 
     private FutureResult lastResult;
 
+    @Override
+    public GameSystemResource[] getReadResources() {
+        return READ_RESOURCES;
+    }
+
+    @Override
+    public GameSystemResource[] getWriteResources() {
+        return WRITE_RESOURCES;
+    }
+
     public GameSystemWork proceedGame(final long aTotalTicks, final long aGameTime, final long aElapsedTime) {
         return new GameSystemWork() {
             @Override
             public void runInFrame() {
+                if (collisionInterestChanged && scene != null) {
+                    // Computed before the simulation is started, as it is read by the contact listener
+                    collisionInterest.release();
+                    collisionInterest = CollisionInterest.compute(scene, new GameEventListener<PropertyChanged>() {
+                        @Override
+                        public void handleGameEvent(PropertyChanged aEvent) {
+                            collisionInterestChanged = true;
+                        }
+                    });
+                    collisionInterestChanged = false;
+                }
+                // Scene settings are read here, as the simulation itself runs on another thread
+                final int theStepRate;
+                final int theVelocityIterations;
+                final int thePositionIterations;
+                if (scene != null) {
+                    theStepRate = Math.max(1, scene.physicsStepRateProperty().get());
+                    theVelocityIterations = scene.physicsVelocityIterationsProperty().get();
+                    thePositionIterations = scene.physicsPositionIterationsProperty().get();
+                } else {
+                    theStepRate = DEFAULT_STEP_RATE;
+                    theVelocityIterations = DEFAULT_VELOCITY_ITERATIONS;
+                    thePositionIterations = DEFAULT_POSITION_ITERATIONS;
+                }
                 lastResult = threadingManager.submit(new Job() {
                     @Override
                     public void run() {
-                        inframe(aTotalTicks, aGameTime, aElapsedTime);
+                        inframe(aElapsedTime, theStepRate, theVelocityIterations, thePositionIterations);
                     }
                 });
             }
@@ -390,25 +522,24 @@ public class JBox2DGamePhysicsManager implements GamePhysicsManager {
         };
     }
 
-    private void inframe(long aTotalTicks, long aGameTime, long aElapsedTime) {
+    private void inframe(long aElapsedTime, int aStepRate, int aVelocityIterations, int aPositionIterations) {
 
         insimulation = true;
 
         physicsAmountOfTime += aElapsedTime;
 
-        // We limit the physics system to 30 frames / second, or we are getting strange results
-        if (physicsAmountOfTime >= 32) {
-            // This define how accurately velocity will be simulated. Higher iteration value increases the accuracy
+        // We limit the physics system to the step rate of the scene, or we are getting strange results
+        // A millisecond of tolerance lets two 16ms frames trigger a 30Hz step
+        if (physicsAmountOfTime >= 1000 / aStepRate - 1) {
+            // aVelocityIterations defines how accurately velocity will be simulated. Higher iteration value increases the accuracy
             // of velocity simulation but decreases the performance. The recommended velocity iteration value is 6.
-            int theVelocityIterations = 6;
 
-            // This is similar to velocity iteration, higher value means more accurate position simulation but
+            // aPositionIterations is similar to velocity iteration, higher value means more accurate position simulation but
             // lesser performance. The recommended position iteration value is 3.
-            int thePositionIterations = 2;
 
-            float theTimestep = 1f / 30f;
+            float theTimestep = 1f / aStepRate;
 
-            physicsWorld.step(theTimestep, theVelocityIterations, thePositionIterations);
+            physicsWorld.step(theTimestep, aVelocityIterations, aPositionIterations);
 
             // Reset the time counter
             physicsAmountOfTime = 0;
@@ -427,23 +558,53 @@ public class JBox2DGamePhysicsManager implements GamePhysicsManager {
         for (GameEvent theEvent : queuedEventsOfLastLoop) {
             eventManager.fire(theEvent);
         }
+        deliveredCollisions += queuedEventsOfLastLoop.size();
         queuedEventsOfLastLoop.clear();
+        collisionsOfLastLoop.clear();
 
         // Finally, we have to update the position of our game objects to sync them to the simulation
-        for (Map.Entry<GameObjectInstance, Body> theEntry : dynamicObjects.entrySet()) {
+        // Only bodies that were awake since the last sync and moved are visited
+        for (Map.Entry<GameObjectInstance, SyncState> theEntry : syncStates.entrySet()) {
+            SyncState theState = theEntry.getValue();
+            Body theSimulatedBody = theState.body;
+
+            // A body falling asleep is synced a last time, as it might have moved in the step it fell asleep
+            boolean theAwake = theSimulatedBody.isAwake();
+            if (!theAwake && !theState.awake) {
+                continue;
+            }
+            theState.awake = theAwake;
+
+            if (!theSimulatedBody.isActive()) {
+                continue;
+            }
+
+            Vec2 thePosition = theSimulatedBody.getPosition();
+            float theBodyAngle = theSimulatedBody.getAngle();
+            if (thePosition.x == theState.x && thePosition.y == theState.y && theBodyAngle == theState.angle) {
+                continue;
+            }
+            theState.x = thePosition.x;
+            theState.y = thePosition.y;
+            theState.angle = theBodyAngle;
+
             GameObjectInstance theObjectInstance = theEntry.getKey();
             Size theInstanceSize = theObjectInstance.getOwnerGameObject().sizeProperty().get();
-            Body theSimulatedBody = theEntry.getValue();
 
-            Vec2 thePosition = theSimulatedBody.getPosition();
+            // Now we have to use the XY coordinates again
+            // New values are only created if they differ from the current ones, as
+            // the property would ignore them anyway
+            float theX = (thePosition.x / SIZE_FACTOR) - theInstanceSize.width / 2;
+            float theY = -(thePosition.y / SIZE_FACTOR) - theInstanceSize.height / 2;
+            Position theCurrentPosition = theObjectInstance.positionProperty().get();
+            if (theCurrentPosition == null || (int) theCurrentPosition.x != (int) theX || (int) theCurrentPosition.y != (int) theY) {
+                theObjectInstance.positionProperty().set(new Position(theX, theY));
+            }
 
-            if (theSimulatedBody.isActive()) {
-                // Now we have to use the XY coordinates again
-                theObjectInstance.positionProperty().set(
-                        new Position((thePosition.x / SIZE_FACTOR) - theInstanceSize.width / 2,
-                                -(thePosition.y / SIZE_FACTOR) - theInstanceSize.height / 2));
-                theObjectInstance.rotationAngleProperty().set(
-                        Angle.fromRadians(theSimulatedBody.getAngle()).invert());
+            int theAngle = Angle.normalize(-(int) Math.toDegrees(theBodyAngle));
+            Angle theCurrentAngle = theObjectInstance.rotationAngleProperty().get();
+            if (theCurrentAngle == null || theCurrentAngle.angleInDegrees != theAngle) {
+                theObjectInstance.rotationAngleProperty().set(new Angle(theAngle));
             }
         }
 
@@ -15,11 +15,16 @@
  */
 package de.mirkosertic.gameengine.physics.jbox2d;
 
+import de.mirkosertic.gameengine.core.EventSheetAddedToScene;
+import de.mirkosertic.gameengine.core.EventSheetRemovedFromScene;
 import de.mirkosertic.gameengine.core.GameObjectConfigurationChanged;
 import de.mirkosertic.gameengine.core.GameObjectInstanceAddedToScene;
 import de.mirkosertic.gameengine.core.GameObjectInstanceRemovedFromScene;
+import de.mirkosertic.gameengine.core.GameRuleAddedToEventSheet;
+import de.mirkosertic.gameengine.core.GameRuleRemovedFromEventSheet;
 import de.mirkosertic.gameengine.core.Logger;
 import de.mirkosertic.gameengine.core.ThreadingManager;
+import de.mirkosertic.gameengine.event.GameEvent;
 import de.mirkosertic.gameengine.event.GameEventListener;
 import de.mirkosertic.gameengine.event.GameEventManager;
 import de.mirkosertic.gameengine.physic.ApplyForceToGameObjectInstance;
@@ -75,6 +80,17 @@ public class JBox2DGamePhysicsManagerFactory implements GamePhysicsManagerFactor
                 thePhysicsManager.updateGameObjectConfiguration(aEvent.object);
             }
         });
+        // Collision interest depends on the rules of the scene
+        GameEventListener theRulesChangedListener = new GameEventListener() {
+            @Override
+            public void handleGameEvent(GameEvent aEvent) {
+                thePhysicsManager.collisionInterestChanged();
+            }
+        };
+        aEventManager.register(null, EventSheetAddedToScene.TYPE, theRulesChangedListener);
+        aEventManager.register(null, EventSheetRemovedFromScene.TYPE, theRulesChangedListener);
+        aEventManager.register(null, GameRuleAddedToEventSheet.TYPE, theRulesChangedListener);
+        aEventManager.register(null, GameRuleRemovedFromEventSheet.TYPE, theRulesChangedListener);
         return thePhysicsManager;
     }
 }
@@ -0,0 +1,317 @@
+package de.mirkosertic.gameengine.physics.jbox2d;
+
+import de.mirkosertic.gameengine.core.DefaultLogger;
+import de.mirkosertic.gameengine.core.FutureResult;
+import de.mirkosertic.gameengine.core.Game;
+import de.mirkosertic.gameengine.core.GameObject;
+import de.mirkosertic.gameengine.core.GameObjectInstance;
+import de.mirkosertic.gameengine.core.GameRule;
+import de.mirkosertic.gameengine.core.GameRuntime;
+import de.mirkosertic.gameengine.core.GameScene;
+import de.mirkosertic.gameengine.core.GameSystem;
+import de.mirkosertic.gameengine.core.GameSystemDependencies;
+import de.mirkosertic.gameengine.core.GameSystemResource;
+import de.mirkosertic.gameengine.core.GameSystemScheduler;
+import de.mirkosertic.gameengine.core.GameSystemWork;
+import de.mirkosertic.gameengine.core.Job;
+import de.mirkosertic.gameengine.core.ThreadingManager;
+import de.mirkosertic.gameengine.event.GameEventListener;
+import de.mirkosertic.gameengine.event.GameEventManager;
+import de.mirkosertic.gameengine.event.PropertyChanged;
+import de.mirkosertic.gameengine.physic.GameObjectCollision;
+import de.mirkosertic.gameengine.physic.ObjectCollisionCondition;
+import de.mirkosertic.gameengine.physic.PhysicsBehaviorTemplate;
+import de.mirkosertic.gameengine.physic.StaticBehaviorTemplate;
+import de.mirkosertic.gameengine.type.Position;
+import org.jbox2d.collision.shapes.PolygonShape;
+import org.jbox2d.common.Vec2;
+import org.jbox2d.dynamics.Body;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class JBox2DGamePhysicsManagerTest {
+
+    // Runs every job right away, and counts them
+    private static class CountingThreadingManager implements ThreadingManager {
+
+        private int submitted;
+
+        @Override
+        public FutureResult submit(Job aJob) {
+            submitted++;
+            aJob.run();
+            return new FutureResult() {
+                @Override
+                public void waitForCompletion() {
+                }
+            };
+        }
+    }
+
+    private static class DependentSystem implements GameSystem, GameSystemDependencies {
+
+        private final GameSystemResource[] reads;
+        private final GameSystemResource[] writes;
+
+        DependentSystem(GameSystemResource[] aReads, GameSystemResource[] aWrites) {
+            reads = aReads;
+            writes = aWrites;
+        }
+
+        @Override
+        public GameSystemResource[] getReadResources() {
+            return reads;
+        }
+
+        @Override
+        public GameSystemResource[] getWriteResources() {
+            return writes;
+        }
+
+        @Override
+        public GameSystemWork proceedGame(long aTotalTicks, long aGameTime, long aElapsedTime) {
+            return new GameSystemWork() {
+                @Override
+                public void runInFrame() {
+                }
+
+                @Override
+                public void runAfterFrame() {
+                }
+            };
+        }
+    }
+
+    private static class ChangeCounter implements GameEventListener<PropertyChanged> {
+
+        private int count;
+
+        @Override
+        public void handleGameEvent(PropertyChanged aEvent) {
+            count++;
+        }
+    }
+
+    private static class CollisionCounter implements GameEventListener<GameObjectCollision> {
+
+        private final List<GameObjectCollision> collisions = new ArrayList<>();
+
+        @Override
+        public void handleGameEvent(GameObjectCollision aEvent) {
+            collisions.add(aEvent);
+        }
+    }
+
+    private static GameScene createScene() {
+        DefaultLogger theLogger = new DefaultLogger();
+        return new GameScene(new Game(), new GameRuntime(new GameEventManager(theLogger), null, null, theLogger));
+    }
+
+    private static JBox2DGamePhysicsManager createPhysics(GameScene aScene) {
+        return new JBox2DGamePhysicsManager(new DefaultLogger(), aScene.getRuntime().getEventManager(), new CountingThreadingManager());
+    }
+
+    private static GameObjectInstance createInstance(GameScene aScene, String aName, boolean aStatic, float aY) {
+        GameEventManager theEventManager = aScene.getRuntime().getEventManager();
+        GameObject theObject = aScene.createNewGameObject(aName);
+        if (aStatic) {
+            theObject.add(new StaticBehaviorTemplate(theEventManager, theObject));
+        } else {
+            theObject.add(new PhysicsBehaviorTemplate(theEventManager, theObject));
+        }
+        GameObjectInstance theInstance = aScene.createFrom(theObject);
+        theInstance.positionProperty().set(new Position(0, aY));
+        return theInstance;
+    }
+
+    private static void listenForCollisions(GameScene aScene, GameObjectInstance aPrimary, GameObjectInstance aSecondary) {
+        ObjectCollisionCondition theCondition = new ObjectCollisionCondition();
+        theCondition.primaryObjectProperty().set(aPrimary.getOwnerGameObject());
+        theCondition.secondaryObjectProperty().set(aSecondary.getOwnerGameObject());
+        GameRule theRule = new GameRule();
+        theRule.conditionProperty().set(theCondition);
+        aScene.createNewEventSheet().addRule(theRule);
+    }
+
+    private static void frame(JBox2DGamePhysicsManager aPhysics, long aElapsedTime) {
+        GameSystemWork theWork = aPhysics.proceedGame(1, 0, aElapsedTime);
+        theWork.runInFrame();
+        theWork.runAfterFrame();
+    }
+
+    // The physics manager submits its simulation step itself, every other job comes from a parallel stage
+    private static int jobsSubmittedWith(GameSystem aOtherSystem) throws Exception {
+        CountingThreadingManager theThreadingManager = new CountingThreadingManager();
+        DefaultLogger theLogger = new DefaultLogger();
+        JBox2DGamePhysicsManager thePhysics = new JBox2DGamePhysicsManager(theLogger, new GameEventManager(theLogger), theThreadingManager);
+
+        new GameSystemScheduler().proceedGame(new GameSystem[] {thePhysics, aOtherSystem}, theThreadingManager, 1, 10, 10);
+        return theThreadingManager.submitted;
+    }
+
+    @Test
+    public void testDeclaredResources() throws Exception {
+        JBox2DGamePhysicsManager thePhysics = new JBox2DGamePhysicsManager(new DefaultLogger(), new GameEventManager(new DefaultLogger()), new CountingThreadingManager());
+        assertEquals(1, thePhysics.getReadResources().length);
+        assertEquals(GameSystemResource.INSTANCES, thePhysics.getReadResources()[0]);
+        assertEquals(2, thePhysics.getWriteResources().length);
+        assertEquals(GameSystemResource.PHYSICS, thePhysics.getWriteResources()[0]);
+        assertEquals(GameSystemResource.EVENTS, thePhysics.getWriteResources()[1]);
+    }
+
+    @Test
+    public void testIsNotRunInParallelWithConflictingSystems() throws Exception {
+        GameSystemResource[] theNothing = new GameSystemResource[0];
+
+        // Writing instances or touching events conflicts with the physics
+        assertEquals(1, jobsSubmittedWith(new DependentSystem(theNothing, new GameSystemResource[] {GameSystemResource.INSTANCES})));
+        assertEquals(1, jobsSubmittedWith(new DependentSystem(new GameSystemResource[] {GameSystemResource.EVENTS}, theNothing)));
+
+        // Reading instances does not
+        assertEquals(2, jobsSubmittedWith(new DependentSystem(new GameSystemResource[] {GameSystemResource.INSTANCES}, theNothing)));
+        assertEquals(2, jobsSubmittedWith(new DependentSystem(theNothing, theNothing)));
+    }
+
+    @Test
+    public void testUnmovedBodiesAreNotSynced() throws Exception {
+        GameScene theScene = createScene();
+        JBox2DGamePhysicsManager thePhysics = createPhysics(theScene);
+        GameObjectInstance theFloating = createInstance(theScene, "floating", false, 0);
+        PhysicsBehaviorTemplate theTemplate = theFloating.getOwnerGameObject().getBehaviorTemplate(PhysicsBehaviorTemplate.TYPE);
+        theTemplate.gravityScaleProperty().set(0f);
+        GameObjectInstance theGround = createInstance(theScene, "ground", true, 200);
+        thePhysics.gameObjectInstanceAddedToScene(theFloating);
+        thePhysics.gameObjectInstanceAddedToScene(theGround);
+
+        ChangeCounter theChanges = new ChangeCounter();
+        theFloating.positionProperty().addChangeListener(theChanges);
+        theFloating.rotationAngleProperty().addChangeListener(theChanges);
+        theGround.positionProperty().addChangeListener(theChanges);
+        for (int i = 0; i < 5; i++) {
+            frame(thePhysics, 40);
+        }
+
+        assertEquals(0, theChanges.count);
+    }
+
+    @Test
+    public void testBodyFallingAsleepIsSyncedOnce() throws Exception {
+        GameScene theScene = createScene();
+        JBox2DGamePhysicsManager thePhysics = createPhysics(theScene);
+        GameObjectInstance theFalling = createInstance(theScene, "falling", false, 0);
+        Body theBody = thePhysics.gameObjectInstanceAddedToScene(theFalling);
+
+        ChangeCounter theChanges = new ChangeCounter();
+        theFalling.positionProperty().addChangeListener(theChanges);
+        frame(thePhysics, 40);
+        assertEquals(1, theChanges.count);
+        float theY = theFalling.positionProperty().get().y;
+
+        // The body moves in the step it falls asleep
+        theBody.setTransform(new Vec2(theBody.getPosition().x, theBody.getPosition().y - 1), 0);
+        theBody.setAwake(false);
+        frame(thePhysics, 40);
+        assertEquals(2, theChanges.count);
+        assertEquals(theY + 100, theFalling.positionProperty().get().y, 1);
+
+        // Sleeping bodies are not visited at all
+        theBody.setTransform(new Vec2(theBody.getPosition().x, theBody.getPosition().y - 1), 0);
+        for (int i = 0; i < 5; i++) {
+            frame(thePhysics, 40);
+        }
+        assertEquals(2, theChanges.count);
+    }
+
+    @Test
+    public void testStepRateOfTheScene() throws Exception {
+        GameScene theScene = createScene();
+        JBox2DGamePhysicsManager thePhysics = createPhysics(theScene);
+        Body theBody = thePhysics.gameObjectInstanceAddedToScene(createInstance(theScene, "falling", false, 0));
+
+        // 20ms are not enough for a step at the default rate of 30Hz, 40ms are
+        frame(thePhysics, 20);
+        assertEquals(0, theBody.getLinearVelocity().y, 0.0001);
+        frame(thePhysics, 20);
+        assertEquals(-10f / 30, theBody.getLinearVelocity().y, 0.0001);
+
+        theScene.physicsStepRateProperty().set(60);
+        frame(thePhysics, 20);
+        assertEquals(-10f / 30 - 10f / 60, theBody.getLinearVelocity().y, 0.0001);
+    }
+
+    // A body overlapping the ground is stepped once with the given iterations
+    private static Body stepOnGround(int aVelocityIterations, int aPositionIterations) {
+        GameScene theScene = createScene();
+        theScene.physicsVelocityIterationsProperty().set(aVelocityIterations);
+        theScene.physicsPositionIterationsProperty().set(aPositionIterations);
+        JBox2DGamePhysicsManager thePhysics = createPhysics(theScene);
+        Body theBody = thePhysics.gameObjectInstanceAddedToScene(createInstance(theScene, "box", false, 0));
+        thePhysics.gameObjectInstanceAddedToScene(createInstance(theScene, "ground", true, 56));
+        frame(thePhysics, 40);
+        return theBody;
+    }
+
+    @Test
+    public void testIterationsOfTheScene() throws Exception {
+        // Without velocity iterations, the contact does not stop the fall
+        assertEquals(-10f / 30, stepOnGround(0, 2).getLinearVelocity().y, 0.0001);
+        assertTrue(stepOnGround(8, 2).getLinearVelocity().y > -0.01);
+
+        // Position iterations push the box out of the ground
+        assertTrue(stepOnGround(8, 10).getPosition().y > stepOnGround(8, 0).getPosition().y + 0.01);
+    }
+
+    @Test
+    public void testContactsOfOnePairAreReportedOnce() throws Exception {
+        GameScene theScene = createScene();
+        JBox2DGamePhysicsManager thePhysics = createPhysics(theScene);
+        GameObjectInstance theBox = createInstance(theScene, "box", false, 0);
+        GameObjectInstance theGround = createInstance(theScene, "ground", true, 56);
+        listenForCollisions(theScene, theBox, theGround);
+        Body theBody = thePhysics.gameObjectInstanceAddedToScene(theBox);
+        thePhysics.gameObjectInstanceAddedToScene(theGround);
+
+        // A second fixture touching the ground results in a second contact of the same pair
+        PolygonShape theShape = new PolygonShape();
+        theShape.setAsBox(0.1f, 0.1f, new Vec2(0.2f, -0.25f), 0);
+        theBody.createFixture(theShape, 1);
+
+        CollisionCounter theCollisions = new CollisionCounter();
+        theScene.getRuntime().getEventManager().register(null, GameObjectCollision.TYPE, theCollisions);
+        frame(thePhysics, 40);
+
+        assertEquals(2, thePhysics.getGeneratedContacts());
+        assertEquals(1, thePhysics.getDeliveredCollisions());
+        assertEquals(1, theCollisions.collisions.size());
+        assertSame(theBox, theCollisions.collisions.get(0).getOtherInstanceOrNullIfNotAffected(theGround));
+    }
+
+    @Test
+    public void testPairsNobodyListensForAreNotDelivered() throws Exception {
+        GameScene theScene = createScene();
+        JBox2DGamePhysicsManager thePhysics = createPhysics(theScene);
+        GameObjectInstance theBox = createInstance(theScene, "box", false, 0);
+        GameObjectInstance theGround = createInstance(theScene, "ground", true, 56);
+        // Touches the ground from below, but no rule is interested in it
+        GameObjectInstance theOther = createInstance(theScene, "other", false, 112);
+        listenForCollisions(theScene, theBox, theGround);
+        thePhysics.gameObjectInstanceAddedToScene(theBox);
+        thePhysics.gameObjectInstanceAddedToScene(theGround);
+        thePhysics.gameObjectInstanceAddedToScene(theOther);
+
+        CollisionCounter theCollisions = new CollisionCounter();
+        theScene.getRuntime().getEventManager().register(null, GameObjectCollision.TYPE, theCollisions);
+        frame(thePhysics, 40);
+
+        assertEquals(2, thePhysics.getGeneratedContacts());
+        assertEquals(1, thePhysics.getDeliveredCollisions());
+        assertEquals(1, theCollisions.collisions.size());
+        assertSame(theBox, theCollisions.collisions.get(0).getOtherInstanceOrNullIfNotAffected(theGround));
+    }
+}
@@ -18,22 +18,28 @@ package de.mirkosertic.gameengine.scriptengine.luaj;
 import de.mirkosertic.gameengine.core.GameObjectInstance;
 import de.mirkosertic.gameengine.event.Property;
 import de.mirkosertic.gameengine.event.ReadOnlyProperty;
+import de.mirkosertic.gameengine.scriptengine.ExpressionDependencies;
 import de.mirkosertic.gameengine.scriptengine.LUAScriptEngine;
 import de.mirkosertic.gameengine.type.ClassInformation;
 import de.mirkosertic.gameengine.type.Field;
 import de.mirkosertic.gameengine.type.KeyValueObjectCache;
 import de.mirkosertic.gameengine.type.Method;
 import de.mirkosertic.gameengine.type.Reflectable;
-import de.mirkosertic.gameengine.type.TypeConverters;
 
-import org.luaj.vm2.Globals;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
 import org.luaj.vm2.LuaClosure;
 import org.luaj.vm2.LuaDouble;
+import org.luaj.vm2.LuaError;
 import org.luaj.vm2.LuaInteger;
 import org.luaj.vm2.LuaString;
 import org.luaj.vm2.LuaTable;
+import org.luaj.vm2.LuaUserdata;
 import org.luaj.vm2.LuaValue;
 import org.luaj.vm2.Varargs;
+import org.luaj.vm2.lib.ThreeArgFunction;
+import org.luaj.vm2.lib.TwoArgFunction;
 import org.luaj.vm2.lib.VarArgFunction;
 
 public class LuaJScriptEngine implements LUAScriptEngine {
@@ -61,45 +67,49 @@ public class LuaJScriptEngine implements LUAScriptEngine {
             return LuaString.valueOf((String) aValue);
         }
 
-        // Objects are converted to plain tables
-        LuaTable theTable = new LuaTable();
-        theTable.set(LuaString.valueOf("javaobject"), LuaValue.userdataOf(aValue));
-        return theTable;
+        // Other objects are passed as plain userdata
+        return LuaValue.userdataOf(aValue);
     }
 
     static void registerTo(LuaTable aTable, Reflectable aObject, KeyValueObjectCache aCache) {
+        DependencyTracker theTracker = trackerFor(aCache);
         ClassInformation theClassInformation = aObject.getClassInformation();
         for (Field theField : theClassInformation.getFields()) {
-            aTable.set(LuaString.valueOf(theField.getName()), new FieldAccessFunction(aCache, aObject, theField));
+            aTable.set(LuaString.valueOf(theField.getName()), new FieldAccessFunction(aCache, theTracker, aObject, theField));
         }
         for (Method theMethod : theClassInformation.getMethods()) {
-            aTable.set(LuaString.valueOf(theMethod.getName()), new MethodInvocationFunction(aCache, aObject, theMethod));
+            aTable.set(LuaString.valueOf(theMethod.getName()), new MethodInvocationFunction(aCache, theTracker, aObject, theMethod));
         }
     }
 
     private static LuaValue toLuaValue(Reflectable aObject, KeyValueObjectCache aCache) {
-        LuaTable theTable = aCache.getObjectForKey(aObject);
-        if (theTable == null) {
-            theTable = new LuaTable();
-            theTable.set(LuaString.valueOf("javaobject"), LuaValue.userdataOf(aObject));
-            registerTo(theTable, aObject, aCache);
+        return new ReflectableUserdata(aObject, metatableFor(aObject.getClassInformation(), aCache));
+    }
 
-            aCache.setObjectForKey(aObject, theTable);
+    private static LuaTable metatableFor(ClassInformation aClassInformation, KeyValueObjectCache aCache) {
+        Map<ClassInformation, LuaTable> theMetatables = aCache.getObjectForKey(LuaJScriptEngine.class);
+        if (theMetatables == null) {
+            theMetatables = new HashMap<>();
+            aCache.setObjectForKey(LuaJScriptEngine.class, theMetatables);
+        }
+        LuaTable theMetatable = theMetatables.get(aClassInformation);
+        if (theMetatable == null) {
+            ClassMembers theMembers = new ClassMembers(aClassInformation);
+            theMetatable = new LuaTable();
+            ScriptFields theScriptFields = scriptFieldsFor(aCache);
+            theMetatable.set(LuaValue.INDEX, new IndexFunction(theMembers, theScriptFields, aCache, trackerFor(aCache)));
+            theMetatable.set(LuaValue.NEWINDEX, new NewIndexFunction(theMembers, theScriptFields));
+            theMetatables.put(aClassInformation, theMetatable);
         }
-        return theTable;
+        return theMetatable;
     }
 
     private static Object toJavaValue(LuaValue aValue, Class aTargetClass) {
         if (aValue.isnil()) {
             return null;
         }
-        if (aValue.istable()) {
-            LuaTable theTable = (LuaTable) aValue;
-            LuaValue theObject = theTable.get(LuaString.valueOf("javaobject"));
-            if (theObject.isuserdata()) {
-                return theObject.checkuserdata();
-            }
-            throw new IllegalArgumentException("Cannot convert " + aValue+" to java object");
+        if (aValue.isuserdata()) {
+            return aValue.checkuserdata();
         }
         if (aTargetClass == Number.class) {
             if (aValue.islong()) {
@@ -140,13 +150,8 @@ public class LuaJScriptEngine implements LUAScriptEngine {
         if (aValue.isnil()) {
             return null;
         }
-        if (aValue.istable()) {
-            LuaTable theTable = (LuaTable) aValue;
-            LuaValue theObject = theTable.get(LuaString.valueOf("javaobject"));
-            if (theObject.isuserdata()) {
-                return theObject.checkuserdata();
-            }
-            throw new IllegalArgumentException("Cannot convert " + aValue+" to java object");
+        if (aValue.isuserdata()) {
+            return aValue.checkuserdata();
         }
         if (aValue.isint()) {
             return aValue.toint();
@@ -160,16 +165,188 @@ public class LuaJScriptEngine implements LUAScriptEngine {
         return aValue.toString();
     }
 
+    // Forwards reads to the dependencies of the expression currently evaluated, if there is one
+    private static class DependencyTracker {
+
+        private ExpressionDependencies current;
+
+        void propertyRead(ReadOnlyProperty aProperty) {
+            if (current != null) {
+                if (aProperty instanceof Property) {
+                    current.propertyRead((Property) aProperty);
+                } else {
+                    current.untrackedRead();
+                }
+            }
+        }
+
+        void untrackedRead() {
+            if (current != null) {
+                current.untrackedRead();
+            }
+        }
+    }
+
+    private static DependencyTracker trackerFor(KeyValueObjectCache aCache) {
+        DependencyTracker theTracker = aCache.getObjectForKey(DependencyTracker.class);
+        if (theTracker == null) {
+            theTracker = new DependencyTracker();
+            aCache.setObjectForKey(DependencyTracker.class, theTracker);
+        }
+        return theTracker;
+    }
+
+    // Fields scripts assign to objects in addition to their reflective members. They are kept
+    // per object, so all scripts of a scene see them, and vanish with the object
+    private static class ScriptFields {
+
+        private final Map<Object, LuaTable> fields = new WeakHashMap<>();
+
+        LuaValue get(Object aObject, LuaValue aKey) {
+            LuaTable theFields = fields.get(aObject);
+            if (theFields == null) {
+                return LuaValue.NIL;
+            }
+            return theFields.rawget(aKey);
+        }
+
+        void set(Object aObject, LuaValue aKey, LuaValue aValue) {
+            LuaTable theFields = fields.get(aObject);
+            if (theFields == null) {
+                if (aValue.isnil()) {
+                    return;
+                }
+                theFields = new LuaTable();
+                fields.put(aObject, theFields);
+            }
+            theFields.rawset(aKey, aValue);
+        }
+    }
+
+    private static ScriptFields scriptFieldsFor(KeyValueObjectCache aCache) {
+        ScriptFields theFields = aCache.getObjectForKey(ScriptFields.class);
+        if (theFields == null) {
+            theFields = new ScriptFields();
+            aCache.setObjectForKey(ScriptFields.class, theFields);
+        }
+        return theFields;
+    }
+
+    // A reflectable object seen from Lua. Members are bound to the object on first access
+    // and kept, so repeated access from a script does not allocate
+    private static class ReflectableUserdata extends LuaUserdata {
+
+        private LuaTable boundMembers;
+
+        public ReflectableUserdata(Object aObject, LuaValue aMetatable) {
+            super(aObject, aMetatable);
+        }
+    }
+
+    // The reflective members of a class, looked up by their Lua name
+    private static class ClassMembers {
+
+        private final Map<LuaValue, Field> fields;
+        private final Map<LuaValue, Method> methods;
+
+        public ClassMembers(ClassInformation aClassInformation) {
+            fields = new HashMap<>();
+            methods = new HashMap<>();
+            for (Field theField : aClassInformation.getFields()) {
+                fields.put(LuaString.valueOf(theField.getName()), theField);
+            }
+            for (Method theMethod : aClassInformation.getMethods()) {
+                methods.put(LuaString.valueOf(theMethod.getName()), theMethod);
+            }
+        }
+    }
+
+    // __index of the shared class metatable, binds the accessed member to the object once
+    private static class IndexFunction extends TwoArgFunction {
+
+        private final ClassMembers members;
+        private final ScriptFields scriptFields;
+        private final KeyValueObjectCache cache;
+        private final DependencyTracker tracker;
+
+        public IndexFunction(ClassMembers aMembers, ScriptFields aScriptFields, KeyValueObjectCache aCache, DependencyTracker aTracker) {
+            members = aMembers;
+            scriptFields = aScriptFields;
+            cache = aCache;
+            tracker = aTracker;
+        }
+
+        @Override
+        public LuaValue call(LuaValue aObject, LuaValue aKey) {
+            ReflectableUserdata theUserdata = (ReflectableUserdata) aObject;
+            if (theUserdata.boundMembers != null) {
+                LuaValue theBound = theUserdata.boundMembers.rawget(aKey);
+                if (!theBound.isnil()) {
+                    return theBound;
+                }
+            }
+            LuaValue theFunction;
+            Field theField = members.fields.get(aKey);
+            if (theField != null) {
+                theFunction = new FieldAccessFunction(cache, tracker, theUserdata.m_instance, theField);
+            } else {
+                Method theMethod = members.methods.get(aKey);
+                if (theMethod == null) {
+                    return scriptFields.get(theUserdata.m_instance, aKey);
+                }
+                theFunction = new MethodInvocationFunction(cache, tracker, theUserdata.m_instance, theMethod);
+            }
+            if (theUserdata.boundMembers == null) {
+                theUserdata.boundMembers = new LuaTable();
+            }
+            theUserdata.boundMembers.rawset(aKey, theFunction);
+            return theFunction;
+        }
+    }
+
+    // __newindex of the shared class metatable, allows property assignment and
+    // keeps any other field a script assigns
+    private static class NewIndexFunction extends ThreeArgFunction {
+
+        private final ClassMembers members;
+        private final ScriptFields scriptFields;
+
+        public NewIndexFunction(ClassMembers aMembers, ScriptFields aScriptFields) {
+            members = aMembers;
+            scriptFields = aScriptFields;
+        }
+
+        @Override
+        public LuaValue call(LuaValue aObject, LuaValue aKey, LuaValue aValue) {
+            Field theField = members.fields.get(aKey);
+            if (theField != null) {
+                if (theField.getType() != Property.class) {
+                    throw new LuaError("Cannot set " + aKey + ", it is not a writable property");
+                }
+                Property theProperty = (Property) theField.getValue(aObject.checkuserdata());
+                theProperty.set(toJavaValue(aValue, theProperty.getType()));
+                return LuaValue.NIL;
+            }
+            if (members.methods.containsKey(aKey)) {
+                throw new LuaError("Cannot set " + aKey + ", it is a method");
+            }
+            scriptFields.set(aObject.checkuserdata(), aKey, aValue);
+            return LuaValue.NIL;
+        }
+    }
+
     private static class FieldAccessFunction extends VarArgFunction {
 
         private final Object object;
         private final Field field;
         private final KeyValueObjectCache cache;
+        private final DependencyTracker tracker;
 
-        public FieldAccessFunction(KeyValueObjectCache aCache, Object aObject, Field aField) {
+        public FieldAccessFunction(KeyValueObjectCache aCache, DependencyTracker aTracker, Object aObject, Field aField) {
             object = aObject;
             field = aField;
             cache = aCache;
+            tracker = aTracker;
         }
 
         @Override
@@ -178,6 +355,7 @@ public class LuaJScriptEngine implements LUAScriptEngine {
                 ReadOnlyProperty theProperty = (ReadOnlyProperty) field.getValue(object);
                 // If zero arg, it is a property read access
                 if (aArgs.narg() == 0) {
+                    tracker.propertyRead(theProperty);
                     return toLuaValue(theProperty.get(), cache);
                 }
                 if (aArgs.narg() != 1) {
@@ -203,11 +381,13 @@ public class LuaJScriptEngine implements LUAScriptEngine {
         private final Object object;
         private final Method method;
         private final KeyValueObjectCache cache;
+        private final DependencyTracker tracker;
 
-        public MethodInvocationFunction(KeyValueObjectCache aCache, Object aObject, Method aMethod) {
+        public MethodInvocationFunction(KeyValueObjectCache aCache, DependencyTracker aTracker, Object aObject, Method aMethod) {
             object = aObject;
             method = aMethod;
             cache = aCache;
+            tracker = aTracker;
         }
 
         @Override
@@ -217,23 +397,22 @@ public class LuaJScriptEngine implements LUAScriptEngine {
                 for (int i = 1; i <= aArguments.narg(); i++) {
                     theArguments[i-1] = toJavaValue(aArguments.arg(i), method.getArgument()[i-1]);
                 }
+                // We cannot know what the method depends on
+                tracker.untrackedRead();
                 return toLuaValue(method.invoke(object, theArguments), cache);
             }
             throw new IllegalArgumentException(method.getArgument().length+" arguments required for " + method.getName());
         }
     }
 
-    private final Globals globals;
+    private final LuaTable environment;
     private final KeyValueObjectCache cache;
     private final String methodName;
 
-    public LuaJScriptEngine(KeyValueObjectCache aCache, Globals aGlobals, String aMethodName) {
-        globals = aGlobals;
+    public LuaJScriptEngine(KeyValueObjectCache aCache, LuaTable aEnvironment, String aMethodName) {
+        environment = aEnvironment;
         cache = aCache;
         methodName = aMethodName;
-
-        // Register generic Type converters
-        registerTo(globals, new TypeConverters(), cache);
     }
 
     @Override
@@ -243,13 +422,13 @@ public class LuaJScriptEngine implements LUAScriptEngine {
     @Override
     public void registerObject(String aObjectName, Reflectable aObject) {
         if (aObject != null) {
-            globals.set(LuaString.valueOf(aObjectName), toLuaValue(aObject, cache));
+            environment.set(LuaString.valueOf(aObjectName), toLuaValue(aObject, cache));
         }
     }
 
     @Override
     public void registerPrimitive(String aObjectName, long aValue) {
-        globals.set(LuaString.valueOf(aObjectName), LuaInteger.valueOf(aValue));
+        environment.set(LuaString.valueOf(aObjectName), LuaInteger.valueOf(aValue));
     }
 
     @Override
@@ -260,7 +439,7 @@ public class LuaJScriptEngine implements LUAScriptEngine {
             LuaInteger.valueOf(aElapsedTimeSinceLastLoop)
         });
 
-        LuaClosure theMethodToCall = (LuaClosure) globals.get(LuaString.valueOf(methodName));
+        LuaClosure theMethodToCall = (LuaClosure) environment.get(LuaString.valueOf(methodName));
 
         Varargs theResult = theMethodToCall.invoke(theArguments);
         if (theResult.narg() == 1) {
@@ -277,7 +456,7 @@ public class LuaJScriptEngine implements LUAScriptEngine {
                     toLuaValue(aObjectInstance.getOwnerGameObject().getGameScene().getGame(), cache),
             });
 
-        LuaClosure theMethodToCall = (LuaClosure) globals.get(LuaString.valueOf(methodName));
+        LuaClosure theMethodToCall = (LuaClosure) environment.get(LuaString.valueOf(methodName));
 
         Varargs theResult = theMethodToCall.invoke(theArguments);
         if (theResult.narg() == 1) {
@@ -285,4 +464,16 @@ public class LuaJScriptEngine implements LUAScriptEngine {
         }
         throw new IllegalStateException("Invalid return type : " + theResult);
     }
-}
\ No newline at end of file
+
+    @Override
+    public String evaluateSimpleExpressionFor(GameObjectInstance aObjectInstance, ExpressionDependencies aDependencies) {
+        DependencyTracker theTracker = trackerFor(cache);
+        ExpressionDependencies thePrevious = theTracker.current;
+        theTracker.current = aDependencies;
+        try {
+            return evaluateSimpleExpressionFor(aObjectInstance);
+        } finally {
+            theTracker.current = thePrevious;
+        }
+    }
+}
@@ -20,6 +20,7 @@ import de.mirkosertic.gameengine.type.KeyValueObjectCache;
 import de.mirkosertic.gameengine.type.Reflectable;
 import de.mirkosertic.gameengine.type.Script;
 import de.mirkosertic.gameengine.type.TextExpression;
+import de.mirkosertic.gameengine.type.TypeConverters;
 
 import java.io.IOException;
 import java.io.StringReader;
@@ -27,45 +28,52 @@ import java.util.HashMap;
 import java.util.Map;
 import org.luaj.vm2.Globals;
 import org.luaj.vm2.LuaClosure;
-import org.luaj.vm2.LuaString;
+import org.luaj.vm2.LuaTable;
+import org.luaj.vm2.LuaValue;
 import org.luaj.vm2.Prototype;
 import org.luaj.vm2.compiler.LuaC;
 
 public class LuaJScriptEngineFactory implements LUAScriptEngineFactory {
 
-    private static class CacheEntry {
+    // Globals shared by all engines using the same object cache. Engines never write into
+    // them, every engine has its own environment table falling back to these globals
+    private static class SharedGlobals {
 
-        private final Prototype prototype;
         private final Globals globals;
-        private final Map<String, LuaJScriptEngine> engines;
+        private final LuaTable environmentMetatable;
+        private final Map<String, LuaJScriptEngine> expressionEngines;
 
-        public CacheEntry(Prototype aPrototype, Globals aGlobals) {
-            prototype = aPrototype;
+        public SharedGlobals(Globals aGlobals) {
             globals = aGlobals;
-            engines = new HashMap<>();
+            environmentMetatable = new LuaTable();
+            environmentMetatable.set(LuaValue.INDEX, aGlobals);
+            expressionEngines = new HashMap<>();
         }
 
-        public LuaJScriptEngine getScriptEngineFor(KeyValueObjectCache aCache, String aMethodName) {
-            LuaJScriptEngine theEngine = engines.get(aMethodName);
-            if (theEngine == null) {
-                theEngine = new LuaJScriptEngine(aCache, globals, aMethodName);
-                engines.put(aMethodName, theEngine);
-            }
-            return theEngine;
+        public LuaTable createEnvironment() {
+            LuaTable theEnvironment = new LuaTable();
+            theEnvironment.setmetatable(environmentMetatable);
+            return theEnvironment;
         }
     }
 
-    private final Map<String, CacheEntry> prototypes;
+    private final Map<String, Prototype> prototypes;
+
+    private final Globals compiler;
 
     private final Reflectable buildInFunctions;
 
     public LuaJScriptEngineFactory(Reflectable aBuildInFunctions) {
         prototypes = new HashMap<>();
+        compiler = new Globals();
+        LuaC.install(compiler);
         buildInFunctions = aBuildInFunctions;
     }
 
-    private Globals createGlobals(KeyValueObjectCache aObjectCache) {
-        Globals theGlobals = new Globals();
+    private SharedGlobals sharedGlobalsFor(KeyValueObjectCache aObjectCache) {
+        SharedGlobals theShared = aObjectCache.getObjectForKey(this);
+        if (theShared == null) {
+            Globals theGlobals = new Globals();
 //         globals.load(new BaseLib());
 //        globals.load(new PackageLib());
 //        globals.load(new Bit32Lib());
@@ -76,17 +84,31 @@ public class LuaJScriptEngineFactory implements LUAScriptEngineFactory {
 //        globals.load(new CoroutineLib());
 //        globals.load(new JmeIoLib());
 //        LoadState.install(globals);
-        LuaC.install(theGlobals);
 
-        LuaJScriptEngine.registerTo(theGlobals, buildInFunctions, aObjectCache);
+            LuaJScriptEngine.registerTo(theGlobals, buildInFunctions, aObjectCache);
 
+            // Register generic Type converters
+            LuaJScriptEngine.registerTo(theGlobals, new TypeConverters(), aObjectCache);
 
-        return theGlobals;
+            theShared = new SharedGlobals(theGlobals);
+            aObjectCache.setObjectForKey(this, theShared);
+        }
+        return theShared;
+    }
+
+    private Prototype prototypeFor(String aScriptCode) throws IOException {
+        Prototype thePrototype = prototypes.get(aScriptCode);
+        if (thePrototype == null) {
+            thePrototype = compiler.compilePrototype(new StringReader(aScriptCode), "script");
+            prototypes.put(aScriptCode, thePrototype);
+        }
+        return thePrototype;
     }
 
     @Override
     public LuaJScriptEngine createNewEngine(KeyValueObjectCache aScene, Script aScript) throws IOException {
-        return create(aScene, aScript.script, "proceedGame");
+        // Scripts keep state in their environment, so every engine gets its own
+        return create(sharedGlobalsFor(aScene), aScene, aScript.script, "proceedGame");
     }
 
     @Override
@@ -96,25 +118,26 @@ public class LuaJScriptEngineFactory implements LUAScriptEngineFactory {
         theScriptCode.append(aExpression.expression);
         theScriptCode.append(" end");
 
-        return create(aScene, theScriptCode.toString(), "process");
+        // Expressions get everything as arguments, so they can share one engine
+        String theCode = theScriptCode.toString();
+        SharedGlobals theShared = sharedGlobalsFor(aScene);
+        LuaJScriptEngine theEngine = theShared.expressionEngines.get(theCode);
+        if (theEngine == null) {
+            theEngine = create(theShared, aScene, theCode, "process");
+            theShared.expressionEngines.put(theCode, theEngine);
+        }
+        return theEngine;
     }
 
-    private LuaJScriptEngine create(KeyValueObjectCache aScene, String aScriptCode, String aMethodName) throws IOException {
-
-        CacheEntry theCacheEntry = prototypes.get(aScriptCode);
-        if (theCacheEntry == null) {
+    private LuaJScriptEngine create(SharedGlobals aShared, KeyValueObjectCache aScene, String aScriptCode, String aMethodName) throws IOException {
 
-            Globals theGlobals = createGlobals(aScene);
-            Prototype thePrototype = theGlobals.compilePrototype(new StringReader(aScriptCode), "script");
+        Prototype thePrototype = prototypeFor(aScriptCode);
+        LuaTable theEnvironment = aShared.createEnvironment();
 
-            // Initialize the globals and the code
-            LuaClosure theClosure = new LuaClosure(thePrototype, theGlobals);
-            theClosure.call();
-
-            theCacheEntry = new CacheEntry(thePrototype, theGlobals);
-            prototypes.put(aScriptCode, theCacheEntry);
-        }
+        // Initialize the code, global definitions go into the environment
+        LuaClosure theClosure = new LuaClosure(thePrototype, theEnvironment);
+        theClosure.call();
 
-        return theCacheEntry.getScriptEngineFor(aScene, aMethodName);
+        return new LuaJScriptEngine(aScene, theEnvironment, aMethodName);
     }
-}
\ No newline at end of file
+}
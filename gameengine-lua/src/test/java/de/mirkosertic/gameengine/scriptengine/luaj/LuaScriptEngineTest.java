@@ -7,6 +7,7 @@ import de.mirkosertic.gameengine.core.GameRuntime;
 import de.mirkosertic.gameengine.core.GameScene;
 import de.mirkosertic.gameengine.core.Logger;
 import de.mirkosertic.gameengine.event.GameEventManager;
+import de.mirkosertic.gameengine.scriptengine.ExpressionDependencies;
 import de.mirkosertic.gameengine.type.Color;
 import de.mirkosertic.gameengine.type.Position;
 import de.mirkosertic.gameengine.type.Script;
@@ -14,10 +15,13 @@ import de.mirkosertic.gameengine.type.TextExpression;
 
 import java.io.IOException;
 import org.junit.Test;
+import org.luaj.vm2.LuaError;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertSame;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class LuaScriptEngineTest {
@@ -121,4 +125,112 @@ public class LuaScriptEngineTest {
 
         assertEquals("hello world", theEngine.evaluateSimpleExpressionFor(theInstance));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testEnginesOfSameScriptDoNotShareState() throws Exception {
+        String theScript = "counter = 0 function proceedGame(aGameTime, aElapsedTimeSinceLastLoop) counter = counter + step return counter end";
+        LuaJScriptEngineFactory theFactory = new LuaJScriptEngineFactory(new TestBuildInFunctions());
+        DummyKeyValueObjectCache theCache = new DummyKeyValueObjectCache();
+        LuaJScriptEngine theEngine1 = theFactory.createNewEngine(theCache, new Script(theScript));
+        LuaJScriptEngine theEngine2 = theFactory.createNewEngine(theCache, new Script(theScript));
+        theEngine1.registerPrimitive("step", 1);
+        theEngine2.registerPrimitive("step", 10);
+
+        assertEquals(1, theEngine1.proceedGame(1, 3));
+        assertEquals(10, theEngine2.proceedGame(1, 3));
+        assertEquals(2, theEngine1.proceedGame(1, 3));
+        assertEquals(20, theEngine2.proceedGame(1, 3));
+    }
+
+    @Test
+    public void testExpressionEnginesAreShared() throws Exception {
+        LuaJScriptEngineFactory theFactory = new LuaJScriptEngineFactory(new TestBuildInFunctions());
+        DummyKeyValueObjectCache theCache = new DummyKeyValueObjectCache();
+        TextExpression theExpression = new TextExpression("\"hello\"");
+
+        assertSame(theFactory.createNewEngine(theCache, theExpression), theFactory.createNewEngine(theCache, theExpression));
+    }
+
+    @Test
+    public void testPropertyAssignment() throws IOException {
+
+        GameEventManager theEventManager = new GameEventManager(mock(Logger.class));
+        GameRuntime theRuntime = mock(GameRuntime.class);
+        when(theRuntime.getEventManager()).thenReturn(theEventManager);
+
+        Game theGame = mock(Game.class);
+        GameScene theGameScene = new GameScene(theGame, theRuntime);
+        GameObject theObject = new GameObject(theGameScene, "Test");
+
+        String theScript = "function proceedGame(aGameTime, aElapsedTimeSinceLastLoop) go.nameProperty = 'hallo' return go == same end";
+        LuaJScriptEngineFactory theFactory = new LuaJScriptEngineFactory(new TestBuildInFunctions());
+        LuaJScriptEngine theEngine = theFactory.createNewEngine(new DummyKeyValueObjectCache(), new Script(theScript));
+        theEngine.registerObject("go", theObject);
+        theEngine.registerObject("same", theObject);
+        assertEquals("true", theEngine.proceedGame(1, 3));
+        assertEquals("hallo", theObject.nameProperty().get());
+    }
+
+    @Test
+    public void testMembersAreBoundOnce() throws IOException {
+        String theScript = "function proceedGame(aGameTime, aElapsedTimeSinceLastLoop) return position.x == position.x end";
+        LuaJScriptEngineFactory theFactory = new LuaJScriptEngineFactory(new TestBuildInFunctions());
+        LuaJScriptEngine theEngine = theFactory.createNewEngine(new DummyKeyValueObjectCache(), new Script(theScript));
+        theEngine.registerObject("position", new Position());
+        assertEquals("true", theEngine.proceedGame(1, 3));
+    }
+
+    @Test
+    public void testScriptFields() throws IOException {
+
+        GameEventManager theEventManager = new GameEventManager(mock(Logger.class));
+        GameRuntime theRuntime = mock(GameRuntime.class);
+        when(theRuntime.getEventManager()).thenReturn(theEventManager);
+
+        Game theGame = mock(Game.class);
+        GameScene theGameScene = new GameScene(theGame, theRuntime);
+        GameObject theObject = new GameObject(theGameScene, "Test");
+
+        DummyKeyValueObjectCache theCache = new DummyKeyValueObjectCache();
+        LuaJScriptEngineFactory theFactory = new LuaJScriptEngineFactory(new TestBuildInFunctions());
+        LuaJScriptEngine theWriter = theFactory.createNewEngine(theCache, new Script("function proceedGame(aGameTime, aElapsedTimeSinceLastLoop) go.hits = (go.hits or 0) + aGameTime return go.hits end"));
+        LuaJScriptEngine theReader = theFactory.createNewEngine(theCache, new Script("function proceedGame(aGameTime, aElapsedTimeSinceLastLoop) return go.hits end"));
+        theWriter.registerObject("go", theObject);
+        theReader.registerObject("go", theObject);
+
+        assertEquals(2, theWriter.proceedGame(2, 0));
+        assertEquals(5, theWriter.proceedGame(3, 0));
+        assertEquals(5, theReader.proceedGame(0, 0));
+    }
+
+    @Test(expected = LuaError.class)
+    public void testAssignMethodFails() throws IOException {
+        String theScript = "function proceedGame(aGameTime, aElapsedTimeSinceLastLoop) position.changeX = 10 return 0 end";
+        LuaJScriptEngineFactory theFactory = new LuaJScriptEngineFactory(new TestBuildInFunctions());
+        LuaJScriptEngine theEngine = theFactory.createNewEngine(new DummyKeyValueObjectCache(), new Script(theScript));
+        theEngine.registerObject("position", new Position());
+        theEngine.proceedGame(1, 3);
+    }
+
+    @Test
+    public void testEvaluateSimpleExpressionReportsDependencies() throws IOException {
+
+        GameEventManager theEventManager = new GameEventManager(mock(Logger.class));
+        GameRuntime theRuntime = mock(GameRuntime.class);
+        when(theRuntime.getEventManager()).thenReturn(theEventManager);
+        Game theGame = new Game();
+        GameScene theGameScene = new GameScene(theGame, theRuntime);
+        GameObject theObject = new GameObject(theGameScene, "Test");
+        GameObjectInstance theInstance = theGameScene.createFrom(theObject);
+        theInstance.nameProperty().set("Player");
+
+        TextExpression theExpression = new TextExpression("instance.nameProperty()");
+        LuaJScriptEngineFactory theFactory = new LuaJScriptEngineFactory(new TestBuildInFunctions());
+        LuaJScriptEngine theEngine = theFactory.createNewEngine(new DummyKeyValueObjectCache(), theExpression);
+
+        ExpressionDependencies theDependencies = mock(ExpressionDependencies.class);
+        assertEquals("Player", theEngine.evaluateSimpleExpressionFor(theInstance, theDependencies));
+        verify(theDependencies).propertyRead(theInstance.nameProperty());
+        verify(theDependencies, never()).untrackedRead();
+    }
+}
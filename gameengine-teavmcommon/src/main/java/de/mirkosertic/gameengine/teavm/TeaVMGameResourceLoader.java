@@ -26,17 +26,12 @@ import de.mirkosertic.gameengine.teavm.pixi.SpritesheetJSONResource;
 import de.mirkosertic.gameengine.teavm.pixi.Texture;
 import de.mirkosertic.gameengine.type.ResourceName;
 
-import java.util.HashMap;
-import java.util.Map;
-
 public class TeaVMGameResourceLoader implements GameResourceLoader {
 
     private final String sceneId;
-    private final Map<ResourceName, TeaVMTextureResource> textureResources;
 
     public TeaVMGameResourceLoader(String aSceneID) {
         sceneId = aSceneID;
-        textureResources = new HashMap<>();
     }
 
     @Override
@@ -72,22 +67,20 @@ public class TeaVMGameResourceLoader implements GameResourceLoader {
             return new TeaVMSoundResource(aResourceName.name);
         }
 
-        TeaVMTextureResource theResource = textureResources.get(aResourceName);
-        if (theResource == null) {
-            Texture theTexture = Texture.createTextureFromImage(aResourceName.name);
-            theResource = new TeaVMTextureResource(theTexture, aResourceName.name);
-            textureResources.put(aResourceName, theResource);
-        }
+        // The resource cache keeps the texture, and releases it once it is evicted
+        Texture theTexture = Texture.createTextureFromImage(aResourceName.name);
+        return new TeaVMTextureResource(theTexture, aResourceName.name);
+    }
 
-        return theResource;
+    @Override
+    public void release(GameResource aResource) {
+        if (aResource instanceof TeaVMTextureResource) {
+            ((TeaVMTextureResource) aResource).getTexture().destroy();
+        }
     }
 
     @Override
     public void flush() {
-
-        for (Map.Entry<ResourceName, TeaVMTextureResource> aEntry : textureResources.entrySet()) {
-            aEntry.getValue().getTexture().destroy();
-        }
-        textureResources.clear();
+        // Everything loaded is owned by the resource cache, which releases it before flushing
     }
 }
\ No newline at end of file
@@ -58,6 +58,20 @@ public class TeaVMGameRuntimeFactory extends AbstractGameRuntimeFactory {
                     TeaVMLogger.timeEnd(aLabel);
                 }
             }
+
+            @Override
+            public boolean isTracing() {
+                // console.time cannot handle the nesting and the rate of engine spans
+                return false;
+            }
+
+            @Override
+            public void beginSpan(String aCategory, String aName) {
+            }
+
+            @Override
+            public void endSpan(String aCategory, String aName) {
+            }
         };
     }
 
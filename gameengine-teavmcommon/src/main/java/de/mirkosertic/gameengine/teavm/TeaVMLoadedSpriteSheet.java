@@ -49,4 +49,9 @@ public class TeaVMLoadedSpriteSheet implements LoadedSpriteSheet {
         String theFrameName = aResourceName.getOnlyFileName();
         return knownResources.get(theFrameName);
     }
+
+    @Override
+    public Map<String, TeaVMTextureResource> getResources() {
+        return knownResources;
+    }
 }
\ No newline at end of file
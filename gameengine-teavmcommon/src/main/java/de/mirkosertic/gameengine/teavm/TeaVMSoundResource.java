@@ -31,6 +31,12 @@ public class TeaVMSoundResource implements GameResource {
         return GameResourceType.SOUND;
     }
 
+    @Override
+    public long getSizeInBytes() {
+        // Decoded and buffered by the browser
+        return 0;
+    }
+
     public String getName() {
         return name;
     }
@@ -41,4 +41,12 @@ public class TeaVMTextureResource implements GameResource {
     public GameResourceType getType() {
         return GameResourceType.BITMAP;
     }
+
+    @Override
+    public long getSizeInBytes() {
+        if (!texture.isValid()) {
+            return 0;
+        }
+        return (long) texture.getWidth() * (long) texture.getHeight() * 4;
+    }
 }
@@ -17,6 +17,7 @@ package de.mirkosertic.gameengine.teavm.pixi;
 
 import org.teavm.jso.JSBody;
 import org.teavm.jso.JSObject;
+import org.teavm.jso.JSProperty;
 
 public abstract class Texture implements JSObject {
 
@@ -27,4 +28,14 @@ public abstract class Texture implements JSObject {
     public static native Texture createFromFrame(String aFrameName);
 
     public abstract void destroy();
+
+    @JSProperty
+    public abstract int getWidth();
+
+    @JSProperty
+    public abstract int getHeight();
+
+    // False until the underlying image is loaded
+    @JSProperty
+    public abstract boolean isValid();
 }
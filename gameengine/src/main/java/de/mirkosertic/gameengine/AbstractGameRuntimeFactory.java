@@ -92,6 +92,7 @@ public abstract class AbstractGameRuntimeFactory {
 
         // Runtime
         GameRuntime theGameRuntime = new GameRuntime(theEventManager, aResourceLoader, theScriptEngineFactory, theLogger);
+        theGameRuntime.setThreadingManager(theThreadingManager);
 
         // Sound
         GameSoundManager theSoundManager = GameSoundManagerFactory.create(theEventManager, aSoundSystemFactory.create(theGameRuntime));
@@ -143,9 +144,14 @@ public abstract class AbstractGameRuntimeFactory {
     }
 
     public void loadingFinished(GameScene aLoadesScene) {
+        // The change notification is configured per scene
+        GameEventManager theEventManager = aLoadesScene.getRuntime().getEventManager();
+        theEventManager.setPropertyChangeMode(aLoadesScene.propertyChangeModeProperty().get());
+        theEventManager.setLogicalTimestamps(aLoadesScene.logicalTimestampsProperty().get());
+
         // Finally we need to initialize the Action system, as now the scene is completely loaded
         ActionManagerFactory theActionManagerFactory = new ActionManagerFactory();
-        aLoadesScene.getRuntime().addSystem(theActionManagerFactory.create(aLoadesScene, aLoadesScene.getRuntime().getEventManager()));
+        aLoadesScene.getRuntime().addSystem(theActionManagerFactory.create(aLoadesScene, theEventManager));
     }
 
     protected Logger createLogger() {
@@ -15,23 +15,130 @@
  */
 package de.mirkosertic.gameengine.action;
 
+import de.mirkosertic.gameengine.ArrayUtils;
 import de.mirkosertic.gameengine.core.Action;
+import de.mirkosertic.gameengine.core.Condition;
 import de.mirkosertic.gameengine.core.ConditionResult;
 import de.mirkosertic.gameengine.core.EventSheet;
 import de.mirkosertic.gameengine.core.GameRule;
 import de.mirkosertic.gameengine.core.GameScene;
 import de.mirkosertic.gameengine.core.GameSystem;
+import de.mirkosertic.gameengine.core.GameSystemDependencies;
+import de.mirkosertic.gameengine.core.GameSystemResource;
 import de.mirkosertic.gameengine.core.GameSystemWork;
+import de.mirkosertic.gameengine.core.Logger;
 import de.mirkosertic.gameengine.event.GameEvent;
+import de.mirkosertic.gameengine.event.GameEventListener;
+import de.mirkosertic.gameengine.event.GameEventType;
+import de.mirkosertic.gameengine.event.PropertyChanged;
 import de.mirkosertic.gameengine.process.InvokeActionProcess;
 import de.mirkosertic.gameengine.process.StartProcess;
+import de.mirkosertic.gameengine.process.TimerWheel;
 
-public class ActionManager implements GameSystem {
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ActionManager implements GameSystem, GameSystemDependencies {
+
+    private static final GameEventType[] NO_EVENT_TYPES = new GameEventType[0];
+    private static final IndexedRule[] NO_RULES = new IndexedRule[0];
+
+    // A rule with its position in event sheet order. Rules are evaluated in this order,
+    // no matter if they were found by event type, as catch all or as a woken tick rule
+    private static class IndexedRule {
+
+        private final GameRule rule;
+        private int ordinal;
+
+        IndexedRule(GameRule aRule) {
+            rule = aRule;
+        }
+    }
+
+    private static final Comparator<IndexedRule> BY_ORDINAL = new Comparator<IndexedRule>() {
+        @Override
+        public int compare(IndexedRule aRule1, IndexedRule aRule2) {
+            return aRule1.ordinal < aRule2.ordinal ? -1 : (aRule1.ordinal == aRule2.ordinal ? 0 : 1);
+        }
+    };
+
+    // Rules are triggered by the SystemTick event, and their actions might change everything
+    private static final GameSystemResource[] READ_RESOURCES = new GameSystemResource[0];
+    private static final GameSystemResource[] WRITE_RESOURCES = new GameSystemResource[] {
+            GameSystemResource.PROCESSES, GameSystemResource.INSTANCES, GameSystemResource.EVENTS};
+
+    private class ConditionChangeListener implements GameEventListener<PropertyChanged> {
+        @Override
+        public void handleGameEvent(PropertyChanged aEvent) {
+            GameRule theRule = (GameRule) aEvent.getOwner();
+            unindex(theRule);
+            index(theRule);
+        }
+    }
+
+    private class TickIntervalChangeListener implements GameEventListener<PropertyChanged> {
+        @Override
+        public void handleGameEvent(PropertyChanged aEvent) {
+            for (Map.Entry<GameRule, SystemTickCondition> theEntry : new ArrayList<>(tickConditions.entrySet())) {
+                if (theEntry.getValue() == aEvent.getOwner()) {
+                    unindex(theEntry.getKey());
+                    index(theEntry.getKey());
+                }
+            }
+        }
+    }
 
     private final GameScene scene;
+    private final Map<GameEventType, IndexedRule[]> rulesByEventType;
+    private final Map<GameRule, GameEventType[]> indexedEventTypes;
+    private final Map<GameRule, IndexedRule> indexedRules;
+    private final ConditionChangeListener conditionChangeListener;
+    private final TickIntervalChangeListener tickIntervalChangeListener;
+    private IndexedRule[] catchAllRules;
+    private int nextOrdinal;
+
+    // Rules running only every n-th tick are parked in a wheel keyed by the tick count
+    // instead of being evaluated on every SystemTick
+    private final Map<GameRule, SystemTickCondition> tickConditions;
+    private final Map<GameRule, TimerWheel.Timer<GameRule>> tickTimers;
+    private final TimerWheel<GameRule> tickWheel;
+    private final List<GameRule> wokenRules;
+    private long nextTick;
 
     ActionManager(GameScene aScene) {
         scene = aScene;
+        rulesByEventType = new HashMap<>();
+        indexedEventTypes = new HashMap<>();
+        indexedRules = new HashMap<>();
+        conditionChangeListener = new ConditionChangeListener();
+        tickIntervalChangeListener = new TickIntervalChangeListener();
+        catchAllRules = NO_RULES;
+        tickConditions = new HashMap<>();
+        tickTimers = new HashMap<>();
+        tickWheel = new TimerWheel<>(0);
+        wokenRules = new ArrayList<>();
+        for (EventSheet theSheet : aScene.getEventSheets()) {
+            if (theSheet.getGameScene() == scene) {
+                for (GameRule theRule : theSheet.getRules()) {
+                    add(theRule);
+                }
+            }
+        }
+        renumber();
+    }
+
+    @Override
+    public GameSystemResource[] getReadResources() {
+        return READ_RESOURCES;
+    }
+
+    @Override
+    public GameSystemResource[] getWriteResources() {
+        return WRITE_RESOURCES;
     }
 
     @Override
@@ -48,27 +155,288 @@ public class ActionManager implements GameSystem {
         };
     }
 
-    void onEvent(GameEvent aEvent) {
+    void eventSheetAdded(EventSheet aEventSheet) {
+        if (aEventSheet.getGameScene() == scene) {
+            for (GameRule theRule : aEventSheet.getRules()) {
+                add(theRule);
+            }
+            renumber();
+        }
+    }
+
+    void eventSheetRemoved(EventSheet aEventSheet) {
+        if (aEventSheet.getGameScene() == scene) {
+            for (GameRule theRule : aEventSheet.getRules()) {
+                ruleRemoved(aEventSheet, theRule);
+            }
+        }
+    }
+
+    void ruleAdded(EventSheet aEventSheet, GameRule aRule) {
+        if (aEventSheet.getGameScene() == scene) {
+            add(aRule);
+            renumber();
+        }
+    }
+
+    void ruleRemoved(EventSheet aEventSheet, GameRule aRule) {
+        if (aEventSheet.getGameScene() == scene && indexedEventTypes.containsKey(aRule)) {
+            aRule.conditionProperty().removeChangeListener(conditionChangeListener);
+            unindex(aRule);
+            indexedEventTypes.remove(aRule);
+            indexedRules.remove(aRule);
+        }
+    }
+
+    private void add(GameRule aRule) {
+        if (!indexedEventTypes.containsKey(aRule)) {
+            IndexedRule theIndexedRule = new IndexedRule(aRule);
+            // Till the next renumbering, new rules go last
+            theIndexedRule.ordinal = nextOrdinal++;
+            indexedRules.put(aRule, theIndexedRule);
+            aRule.conditionProperty().addChangeListener(conditionChangeListener);
+            index(aRule);
+        }
+    }
+
+    // Assigns ordinals in event sheet order and sorts the index accordingly. Rules of sheets
+    // not yet known to the scene keep their relative order behind all others
+    private void renumber() {
+        IndexedRule[] theRules = indexedRules.values().toArray(new IndexedRule[indexedRules.size()]);
+        Arrays.sort(theRules, BY_ORDINAL);
+        // Rules found in a sheet are marked with a negative ordinal first
+        int theOrdinal = 0;
         for (EventSheet theSheet : scene.getEventSheets()) {
             for (GameRule theRule : theSheet.getRules()) {
-                if (!theRule.conditionProperty().isNull()) {
-                    ConditionResult theResult = theRule.conditionProperty().get().appliesTo(scene, aEvent);
-                    if (theResult.isConditionTrue()) {
-                        Action[] theActions = theRule.getActions();
-                        if (theActions.length > 0) {
-                            // Build a process tree and run it
-                            InvokeActionProcess theRootProcess = new InvokeActionProcess(scene, theResult, theActions[0]);
-                            InvokeActionProcess theChildProcess = theRootProcess;
-                            for (int i=1;i<theActions.length;i++) {
-                                InvokeActionProcess theNewChildProcess = new InvokeActionProcess(scene, theResult, theActions[i]);
-                                theChildProcess.setChildProcess(theNewChildProcess);
-                                theChildProcess = theNewChildProcess;
-                            }
-                            scene.getRuntime().getEventManager().fire(new StartProcess(theRootProcess));
-                        }
+                IndexedRule theIndexedRule = indexedRules.get(theRule);
+                if (theIndexedRule != null && theIndexedRule.ordinal >= 0) {
+                    theIndexedRule.ordinal = -1 - theOrdinal++;
+                }
+            }
+        }
+        for (IndexedRule theIndexedRule : theRules) {
+            if (theIndexedRule.ordinal < 0) {
+                theIndexedRule.ordinal = -1 - theIndexedRule.ordinal;
+            } else {
+                theIndexedRule.ordinal = theOrdinal++;
+            }
+        }
+        nextOrdinal = theOrdinal;
+
+        // Sorted copies, as the current arrays might still be iterated by a running dispatch
+        for (Map.Entry<GameEventType, IndexedRule[]> theEntry : rulesByEventType.entrySet()) {
+            theEntry.setValue(sorted(theEntry.getValue()));
+        }
+        catchAllRules = sorted(catchAllRules);
+    }
+
+    private static IndexedRule[] sorted(IndexedRule[] aRules) {
+        IndexedRule[] theResult = new IndexedRule[aRules.length];
+        System.arraycopy(aRules, 0, theResult, 0, aRules.length);
+        Arrays.sort(theResult, BY_ORDINAL);
+        return theResult;
+    }
+
+    private void index(GameRule aRule) {
+        GameEventType[] theTypes = NO_EVENT_TYPES;
+        Condition theCondition = aRule.conditionProperty().get();
+        if (theCondition instanceof SystemTickCondition) {
+            SystemTickCondition theTickCondition = (SystemTickCondition) theCondition;
+            theTickCondition.everyTicksProperty().addChangeListener(tickIntervalChangeListener);
+            tickConditions.put(aRule, theTickCondition);
+            long theEveryTicks = theTickCondition.everyTicksProperty().get();
+            if (theEveryTicks > 1) {
+                scheduleTick(aRule, theEveryTicks);
+                indexedEventTypes.put(aRule, NO_EVENT_TYPES);
+                return;
+            }
+        }
+        if (theCondition != null) {
+            theTypes = theCondition.getMatchingEventTypes();
+            if (theTypes == null) {
+                // Nothing declared, so we have to ask this rule for every event
+                theTypes = new GameEventType[] {GameEventType.CATCH_ALL};
+            }
+        }
+        IndexedRule theIndexedRule = indexedRules.get(aRule);
+        for (GameEventType theType : theTypes) {
+            if (GameEventType.CATCH_ALL.equals(theType)) {
+                catchAllRules = add(catchAllRules, theIndexedRule);
+            } else {
+                IndexedRule[] theRules = rulesByEventType.get(theType);
+                rulesByEventType.put(theType, add(theRules != null ? theRules : NO_RULES, theIndexedRule));
+            }
+        }
+        indexedEventTypes.put(aRule, theTypes);
+    }
+
+    private void unindex(GameRule aRule) {
+        SystemTickCondition theTickCondition = tickConditions.remove(aRule);
+        if (theTickCondition != null) {
+            theTickCondition.everyTicksProperty().removeChangeListener(tickIntervalChangeListener);
+        }
+        TimerWheel.Timer<GameRule> theTimer = tickTimers.remove(aRule);
+        if (theTimer != null) {
+            tickWheel.cancel(theTimer);
+        }
+        GameEventType[] theTypes = indexedEventTypes.get(aRule);
+        if (theTypes == null) {
+            return;
+        }
+        IndexedRule theIndexedRule = indexedRules.get(aRule);
+        for (GameEventType theType : theTypes) {
+            if (GameEventType.CATCH_ALL.equals(theType)) {
+                catchAllRules = remove(catchAllRules, theIndexedRule);
+            } else {
+                IndexedRule[] theRules = rulesByEventType.get(theType);
+                if (theRules != null) {
+                    IndexedRule[] theNewRules = remove(theRules, theIndexedRule);
+                    if (theNewRules.length == 0) {
+                        rulesByEventType.remove(theType);
+                    } else {
+                        rulesByEventType.put(theType, theNewRules);
                     }
                 }
             }
         }
+        indexedEventTypes.put(aRule, NO_EVENT_TYPES);
+    }
+
+    private void scheduleTick(GameRule aRule, long aEveryTicks) {
+        // Next multiple of the interval which was not processed yet
+        long theDeadline = (nextTick + aEveryTicks - 1) / aEveryTicks * aEveryTicks;
+        tickTimers.put(aRule, tickWheel.schedule(aRule, theDeadline));
+    }
+
+    private static IndexedRule[] add(IndexedRule[] aRules, IndexedRule aRule) {
+        List<IndexedRule> theRules = ArrayUtils.asList(aRules);
+        if (!theRules.contains(aRule)) {
+            int thePosition = theRules.size();
+            while (thePosition > 0 && theRules.get(thePosition - 1).ordinal > aRule.ordinal) {
+                thePosition--;
+            }
+            theRules.add(thePosition, aRule);
+        }
+        return theRules.toArray(new IndexedRule[theRules.size()]);
+    }
+
+    private static IndexedRule[] remove(IndexedRule[] aRules, IndexedRule aRule) {
+        List<IndexedRule> theRules = ArrayUtils.asList(aRules);
+        theRules.remove(aRule);
+        return theRules.toArray(new IndexedRule[theRules.size()]);
+    }
+
+    GameRule[] getCandidateRulesFor(GameEventType aEventType) {
+        IndexedRule[] theRules = rulesByEventType.get(aEventType);
+        if (theRules == null) {
+            return new GameRule[0];
+        }
+        GameRule[] theResult = new GameRule[theRules.length];
+        for (int i = 0; i < theRules.length; i++) {
+            theResult[i] = theRules[i].rule;
+        }
+        return theResult;
+    }
+
+    int getParkedRuleCount() {
+        return tickWheel.size();
+    }
+
+    void onEvent(GameEvent aEvent) {
+        IndexedRule[] theWoken = NO_RULES;
+        if (aEvent instanceof SystemTick) {
+            theWoken = onTick((SystemTick) aEvent);
+        }
+        // Only rules whose conditions can match this type of event are checked
+        IndexedRule[] theCandidates = rulesByEventType.get(aEvent.getType());
+        if (theCandidates == null) {
+            theCandidates = NO_RULES;
+        }
+        IndexedRule[] theCatchAll = catchAllRules;
+
+        // All sources are sorted, merging them keeps the event sheet order
+        int theWokenIndex = 0;
+        int theCandidateIndex = 0;
+        int theCatchAllIndex = 0;
+        while (true) {
+            IndexedRule theNext = null;
+            if (theWokenIndex < theWoken.length) {
+                theNext = theWoken[theWokenIndex];
+            }
+            if (theCandidateIndex < theCandidates.length && (theNext == null || theCandidates[theCandidateIndex].ordinal < theNext.ordinal)) {
+                theNext = theCandidates[theCandidateIndex];
+            }
+            if (theCatchAllIndex < theCatchAll.length && (theNext == null || theCatchAll[theCatchAllIndex].ordinal < theNext.ordinal)) {
+                theNext = theCatchAll[theCatchAllIndex];
+            }
+            if (theNext == null) {
+                return;
+            }
+            if (theCatchAllIndex < theCatchAll.length && theNext == theCatchAll[theCatchAllIndex]) {
+                theCatchAllIndex++;
+            } else if (theCandidateIndex < theCandidates.length && theNext == theCandidates[theCandidateIndex]) {
+                theCandidateIndex++;
+            } else {
+                theWokenIndex++;
+            }
+            onEvent(theNext.rule, aEvent);
+        }
+    }
+
+    private IndexedRule[] onTick(SystemTick aTick) {
+        if (aTick.totalTicks < nextTick) {
+            return NO_RULES;
+        }
+        tickWheel.advanceTo(aTick.totalTicks, wokenRules);
+        nextTick = aTick.totalTicks + 1;
+        if (wokenRules.isEmpty()) {
+            return NO_RULES;
+        }
+        IndexedRule[] theRules = new IndexedRule[wokenRules.size()];
+        for (int i = 0; i < theRules.length; i++) {
+            GameRule theRule = wokenRules.get(i);
+            tickTimers.remove(theRule);
+            scheduleTick(theRule, tickConditions.get(theRule).everyTicksProperty().get());
+            theRules[i] = indexedRules.get(theRule);
+        }
+        wokenRules.clear();
+        Arrays.sort(theRules, BY_ORDINAL);
+        return theRules;
+    }
+
+    private void onEvent(GameRule aRule, GameEvent aEvent) {
+        if (!aRule.conditionProperty().isNull()) {
+            ConditionResult theResult = aRule.conditionProperty().get().appliesTo(scene, aEvent);
+            if (theResult.isConditionTrue()) {
+                Action[] theActions = aRule.getActions();
+                if (theActions.length > 0) {
+                    fire(aRule, theResult, theActions);
+                }
+            }
+        }
+    }
+
+    private void fire(GameRule aRule, ConditionResult aResult, Action[] aActions) {
+        Logger theLogger = scene.getRuntime().getLogger();
+        String theSpan = null;
+        if (theLogger != null && theLogger.isTracing()) {
+            theSpan = aRule.nameProperty().isNull() ? "unnamed" : aRule.nameProperty().get();
+            theLogger.beginSpan(Logger.SPAN_RULE, theSpan);
+        }
+        try {
+            // Build a process tree and run it
+            InvokeActionProcess theRootProcess = new InvokeActionProcess(scene, aResult, aActions[0]);
+            InvokeActionProcess theChildProcess = theRootProcess;
+            for (int i=1;i<aActions.length;i++) {
+                InvokeActionProcess theNewChildProcess = new InvokeActionProcess(scene, aResult, aActions[i]);
+                theChildProcess.setChildProcess(theNewChildProcess);
+                theChildProcess = theNewChildProcess;
+            }
+            scene.getRuntime().getEventManager().fire(new StartProcess(theRootProcess));
+        } finally {
+            if (theSpan != null) {
+                theLogger.endSpan(Logger.SPAN_RULE, theSpan);
+            }
+        }
     }
-}
\ No newline at end of file
+}
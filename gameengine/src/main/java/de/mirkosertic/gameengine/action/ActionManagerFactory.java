@@ -15,6 +15,10 @@
  */
 package de.mirkosertic.gameengine.action;
 
+import de.mirkosertic.gameengine.core.EventSheetAddedToScene;
+import de.mirkosertic.gameengine.core.EventSheetRemovedFromScene;
+import de.mirkosertic.gameengine.core.GameRuleAddedToEventSheet;
+import de.mirkosertic.gameengine.core.GameRuleRemovedFromEventSheet;
 import de.mirkosertic.gameengine.core.GameScene;
 import de.mirkosertic.gameengine.event.GameEvent;
 import de.mirkosertic.gameengine.event.GameEventListener;
@@ -31,6 +35,30 @@ public class ActionManagerFactory {
                 theManager.onEvent(aEvent);
             }
         });
+        aEventManager.register(null, EventSheetAddedToScene.TYPE, new GameEventListener<EventSheetAddedToScene>() {
+            @Override
+            public void handleGameEvent(EventSheetAddedToScene aEvent) {
+                theManager.eventSheetAdded(aEvent.eventSheet);
+            }
+        });
+        aEventManager.register(null, EventSheetRemovedFromScene.TYPE, new GameEventListener<EventSheetRemovedFromScene>() {
+            @Override
+            public void handleGameEvent(EventSheetRemovedFromScene aEvent) {
+                theManager.eventSheetRemoved(aEvent.eventSheet);
+            }
+        });
+        aEventManager.register(null, GameRuleAddedToEventSheet.TYPE, new GameEventListener<GameRuleAddedToEventSheet>() {
+            @Override
+            public void handleGameEvent(GameRuleAddedToEventSheet aEvent) {
+                theManager.ruleAdded(aEvent.eventSheet, aEvent.rule);
+            }
+        });
+        aEventManager.register(null, GameRuleRemovedFromEventSheet.TYPE, new GameEventListener<GameRuleRemovedFromEventSheet>() {
+            @Override
+            public void handleGameEvent(GameRuleRemovedFromEventSheet aEvent) {
+                theManager.ruleRemoved(aEvent.eventSheet, aEvent.rule);
+            }
+        });
         return theManager;
     }
 }
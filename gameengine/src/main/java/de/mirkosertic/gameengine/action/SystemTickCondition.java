@@ -20,6 +20,7 @@ import de.mirkosertic.gameengine.core.ConditionResult;
 import de.mirkosertic.gameengine.core.GameScene;
 import de.mirkosertic.gameengine.core.UsedByReflection;
 import de.mirkosertic.gameengine.event.GameEvent;
+import de.mirkosertic.gameengine.event.GameEventType;
 import de.mirkosertic.gameengine.event.Property;
 
 import java.util.HashMap;
@@ -29,6 +30,8 @@ public class SystemTickCondition implements Condition {
 
     static final String TYPE_VALUE = "SystemTickCondition";
 
+    private static final GameEventType[] MATCHING_EVENT_TYPES = new GameEventType[] {SystemTick.TYPE};
+
     public static final String EVERY_TICKS_PROPERTY = "everyTicks";
 
     private final Property<Long> everyTicks;
@@ -53,6 +56,11 @@ public class SystemTickCondition implements Condition {
         return ConditionResult.NOT_FULFILLED;
     }
 
+    @Override
+    public GameEventType[] getMatchingEventTypes() {
+        return MATCHING_EVENT_TYPES;
+    }
+
     @Override
     public Map<String, Object> serialize() {
         Map<String, Object> theResult = new HashMap<>();
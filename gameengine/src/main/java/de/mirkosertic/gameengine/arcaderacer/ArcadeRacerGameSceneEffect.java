@@ -24,6 +24,7 @@ import de.mirkosertic.gameengine.core.GameScene;
 import de.mirkosertic.gameengine.core.GameSceneEffect;
 import de.mirkosertic.gameengine.core.GameSceneEffectType;
 import de.mirkosertic.gameengine.core.Promise;
+import de.mirkosertic.gameengine.core.ReferencesResources;
 import de.mirkosertic.gameengine.event.GameEventListener;
 import de.mirkosertic.gameengine.event.GameEventManager;
 import de.mirkosertic.gameengine.event.Property;
@@ -37,8 +38,9 @@ import de.mirkosertic.gameengine.type.Size;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
-public class ArcadeRacerGameSceneEffect implements GameSceneEffect {
+public class ArcadeRacerGameSceneEffect implements GameSceneEffect, ReferencesResources {
 
     private static final ArcadeRacerGameSceneEffectClassInformation CIINSTANCE = new ArcadeRacerGameSceneEffectClassInformation();
 
@@ -324,6 +326,11 @@ public class ArcadeRacerGameSceneEffect implements GameSceneEffect {
         return gameScene;
     }
 
+    @Override
+    public void collectResourceNames(Set<ResourceName> aResult) {
+        track.collectResourceNames(aResult);
+    }
+
     public static ArcadeRacerGameSceneEffect unmarshall(GameRuntime aGameRuntime, GameScene aScene, Map<String, Object> aObjectData) {
         ArcadeRacerGameSceneEffect theResult = new ArcadeRacerGameSceneEffect(aScene, aGameRuntime.getEventManager());
         return theResult;
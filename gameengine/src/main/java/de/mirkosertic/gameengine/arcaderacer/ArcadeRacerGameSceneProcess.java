@@ -32,8 +32,8 @@ public class ArcadeRacerGameSceneProcess implements GameProcess {
     }
 
     @Override
-    public boolean affectsInstance(GameObjectInstance aInstance) {
-        return false;
+    public GameObjectInstance[] getAffectedInstances() {
+        return NO_INSTANCES;
     }
 
     @Override
@@ -19,6 +19,8 @@ import de.mirkosertic.gameengine.type.Animation;
 import de.mirkosertic.gameengine.type.Color;
 import de.mirkosertic.gameengine.type.ResourceName;
 
+import java.util.Set;
+
 public class Track {
 
     private static final Animation COLUMN = new Animation("Lala");
@@ -59,6 +61,21 @@ public class Track {
     };
 
 
+    public void collectResourceNames(Set<ResourceName> aResult) {
+        for (Segment[] theSegments : new Segment[][] {SEGMENTS_EVEN, SEGMENTS_ODD}) {
+            for (Segment theSegment : theSegments) {
+                if (theSegment.texture != null) {
+                    aResult.add(theSegment.texture);
+                }
+            }
+        }
+        for (Sprite theSprite : SPRITES) {
+            for (int i = 0; i < theSprite.animation.getSequenceSize(); i++) {
+                aResult.add(theSprite.animation.getResourceByIndex(i));
+            }
+        }
+    }
+
     public TrackElement getTrackElementForPosition(int aPosition) {
         int theCurveFactor = 2;
         double theHeight = (Math.cos(Math.toRadians(aPosition * 10)) * 1);
@@ -43,8 +43,11 @@ public class CameraBehavior implements Behavior, Camera, Reflectable<CameraClass
     private final GameObjectInstance objectInstance;
     private final Property<CameraType> type;
     private final GameScene scene;
+    // Reused for every frame, a callback querying the camera again gets its own list
+    private final List<GameObjectInstance> candidates;
 
     private Size screenSize;
+    private boolean processing;
 
     CameraBehavior(GameObjectInstance aObjectInstance) {
         this(aObjectInstance, (CameraBehaviorTemplate) aObjectInstance.getOwnerGameObject().getBehaviorTemplate(CameraBehaviorTemplate.TYPE));
@@ -53,6 +56,7 @@ public class CameraBehavior implements Behavior, Camera, Reflectable<CameraClass
     CameraBehavior(GameObjectInstance aObjectInstance, CameraBehaviorTemplate aTemplate) {
         objectInstance = aObjectInstance;
         scene = objectInstance.getOwnerGameObject().getGameScene();
+        candidates = new ArrayList<>();
 
         GameEventManager theEventManager = aObjectInstance.getOwnerGameObject().getGameScene().getRuntime().getEventManager();
 
@@ -99,6 +103,16 @@ public class CameraBehavior implements Behavior, Camera, Reflectable<CameraClass
     }
 
     public int processVisibleInstances(Callback aCallback) {
+        Size theScreenSize = getScreenSize();
+        if (theScreenSize == null) {
+            return 0;
+        }
+        Position theCameraPosition = objectInstance.positionProperty().get();
+        return processInstancesIn(aCallback, theCameraPosition.x, theCameraPosition.y,
+                theCameraPosition.x + theScreenSize.width, theCameraPosition.y + theScreenSize.height);
+    }
+
+    private int processInstancesIn(Callback aCallback, float aMinX, float aMinY, float aMaxX, float aMaxY) {
 
         int theCounter = 0;
 
@@ -106,24 +120,19 @@ public class CameraBehavior implements Behavior, Camera, Reflectable<CameraClass
         if (theScreenSize != null) {
             Position theCameraPosition = objectInstance.positionProperty().get();
 
-            for (GameObjectInstance theInstance : scene.getInstances()) {
-                if (theInstance == objectInstance) {
-                    // The camera object itself does not need to be drawn
-                    continue;
-                }
-                // Just visible instances need to be drawn
-                if (aCallback.accepts(theInstance)) {
-                    PositionAnchor theAnchor = theInstance.positionAnchorProperty().get();
-                    Position theScreenPosition = theAnchor.compute(theInstance.positionProperty().get(), theCameraPosition, screenSize);
-                    Size theSize = theInstance.getOwnerGameObject().sizeProperty().get();
-                    // Do some clipping to prevent invisible objects from beeing rendered
-                    if (theScreenPosition.x + theSize.width >= 0
-                            && theScreenPosition.x <= theScreenSize.width
-                            && theScreenPosition.y + theSize.height >= 0
-                            && theScreenPosition.y <= theScreenSize.height) {
-                        aCallback.process(theInstance, theScreenPosition, theSize);
-                        theCounter++;
-                    }
+            // Only the candidates from the spatial index need to be checked, the clipping
+            // in process stays the final authority about what is visible
+            List<GameObjectInstance> theCandidates = processing ? new ArrayList<GameObjectInstance>() : candidates;
+            SceneSpatialIndex.forScene(scene).query(aMinX, aMinY, aMaxX, aMaxY, theCandidates);
+
+            boolean theOuter = !processing;
+            processing = true;
+            try {
+                theCounter = process(aCallback, theCandidates, theCameraPosition, theScreenSize);
+            } finally {
+                theCandidates.clear();
+                if (theOuter) {
+                    processing = false;
                 }
             }
         }
@@ -131,6 +140,32 @@ public class CameraBehavior implements Behavior, Camera, Reflectable<CameraClass
         return theCounter;
     }
 
+    private int process(Callback aCallback, List<GameObjectInstance> aCandidates, Position aCameraPosition, Size aScreenSize) {
+        int theCounter = 0;
+        for (int i = 0; i < aCandidates.size(); i++) {
+            GameObjectInstance theInstance = aCandidates.get(i);
+            if (theInstance == objectInstance) {
+                // The camera object itself does not need to be drawn
+                continue;
+            }
+            // Just visible instances need to be drawn
+            if (aCallback.accepts(theInstance)) {
+                PositionAnchor theAnchor = theInstance.positionAnchorProperty().get();
+                Position theScreenPosition = theAnchor.compute(theInstance.positionProperty().get(), aCameraPosition, aScreenSize);
+                Size theSize = theInstance.getOwnerGameObject().sizeProperty().get();
+                // Do some clipping to prevent invisible objects from beeing rendered
+                if (theScreenPosition.x + theSize.width >= 0
+                        && theScreenPosition.x <= aScreenSize.width
+                        && theScreenPosition.y + theSize.height >= 0
+                        && theScreenPosition.y <= aScreenSize.height) {
+                    aCallback.process(theInstance, theScreenPosition, theSize);
+                    theCounter++;
+                }
+            }
+        }
+        return theCounter;
+    }
+
     public Position transformToScreenPosition(Position aWorldPosition) {
         Position theCameraPosition = objectInstance.positionProperty().get();
         return new Position(aWorldPosition.x - theCameraPosition.x, aWorldPosition.y - theCameraPosition.y);
@@ -205,7 +240,8 @@ public class CameraBehavior implements Behavior, Camera, Reflectable<CameraClass
 
     public GameObjectInstance[] findInstancesAt(final Position aScreenPosition, final boolean aIncludeOnlyVisible) {
         final List<GameObjectInstance> theInstances = new ArrayList<>();
-        processVisibleInstances(new Callback() {
+        Position theWorldPosition = transformFromScreen(aScreenPosition);
+        processInstancesIn(new Callback() {
 
             @Override
             public boolean accepts(GameObjectInstance aInstance) {
@@ -224,7 +260,7 @@ public class CameraBehavior implements Behavior, Camera, Reflectable<CameraClass
                     theInstances.add(aValue);
                 }
             }
-        });
+        }, theWorldPosition.x, theWorldPosition.y, theWorldPosition.x, theWorldPosition.y);
         return theInstances.toArray(new GameObjectInstance[theInstances.size()]);
     }
 }
\ No newline at end of file
@@ -56,9 +56,7 @@ public class FollowCameraProcess extends AbstractGameProcess {
     }
 
     @Override
-    public boolean affectsInstance(GameObjectInstance aInstance) {
-        String theInstanceUID = aInstance.uuidProperty().get();
-        return cameraObject.uuidProperty().get().equals(theInstanceUID)
-                || playerObject.uuidProperty().get().equals(theInstanceUID);
+    public GameObjectInstance[] getAffectedInstances() {
+        return new GameObjectInstance[] {cameraObject, playerObject};
     }
 }
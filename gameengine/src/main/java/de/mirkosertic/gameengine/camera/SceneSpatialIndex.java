@@ -0,0 +1,354 @@
+/*
+ * Copyright 2016 Mirko Sertic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.mirkosertic.gameengine.camera;
+
+import de.mirkosertic.gameengine.core.GameObject;
+import de.mirkosertic.gameengine.core.GameObjectInstance;
+import de.mirkosertic.gameengine.core.GameObjectInstanceAddedToScene;
+import de.mirkosertic.gameengine.core.GameObjectInstanceRemovedFromScene;
+import de.mirkosertic.gameengine.core.GameScene;
+import de.mirkosertic.gameengine.event.GameEventListener;
+import de.mirkosertic.gameengine.event.GameEventManager;
+import de.mirkosertic.gameengine.event.PropertyChanged;
+import de.mirkosertic.gameengine.type.Position;
+import de.mirkosertic.gameengine.type.PositionAnchor;
+import de.mirkosertic.gameengine.type.Size;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Uniform grid over all scene anchored instances of a scene. Instances with another
+// anchor are kept separately, as their screen position does not depend on the camera.
+class SceneSpatialIndex {
+
+    static final int CELL_SIZE = 256;
+
+    // Instances covering more cells than this are not put into the grid, but always checked
+    static final int MAX_CELLS_PER_ENTRY = 64;
+
+    private static final Comparator<Entry> SCENE_ORDER = new Comparator<Entry>() {
+        @Override
+        public int compare(Entry o1, Entry o2) {
+            if (o1.sequence < o2.sequence) {
+                return -1;
+            }
+            if (o1.sequence > o2.sequence) {
+                return 1;
+            }
+            return 0;
+        }
+    };
+
+    private class Entry implements GameEventListener<PropertyChanged> {
+
+        private final GameObjectInstance instance;
+        private final long sequence;
+        private boolean inGrid;
+        private boolean unbounded;
+        private int minCellX;
+        private int minCellY;
+        private int maxCellX;
+        private int maxCellY;
+        private int lastQuery;
+
+        private Entry(GameObjectInstance aInstance, long aSequence) {
+            instance = aInstance;
+            sequence = aSequence;
+        }
+
+        @Override
+        public void handleGameEvent(PropertyChanged aEvent) {
+            update(this);
+        }
+    }
+
+    // One per game object with instances in the index, removed with the last instance
+    private class SizeListener implements GameEventListener<PropertyChanged> {
+
+        private final GameObject owner;
+        private int instanceCount;
+
+        private SizeListener(GameObject aOwner) {
+            owner = aOwner;
+        }
+
+        @Override
+        public void handleGameEvent(PropertyChanged aEvent) {
+            sizeChanged(owner);
+        }
+    }
+
+    private final GameScene scene;
+    private final Map<GameObjectInstance, Entry> entries;
+    private final Map<Long, List<Entry>> cells;
+    // Screen anchored or very large instances, checked for every query
+    private final Set<Entry> unboundedEntries;
+    private final Map<GameObject, SizeListener> sizeListener;
+
+    private long sequenceCounter;
+    private int queryCounter;
+    private Entry[] queryResult;
+
+    SceneSpatialIndex(GameScene aScene) {
+        scene = aScene;
+        entries = new HashMap<>();
+        cells = new HashMap<>();
+        unboundedEntries = new HashSet<>();
+        sizeListener = new HashMap<>();
+        queryResult = new Entry[64];
+
+        for (GameObjectInstance theInstance : aScene.getInstances()) {
+            add(theInstance);
+        }
+    }
+
+    static SceneSpatialIndex forScene(final GameScene aScene) {
+        SceneSpatialIndex theIndex = aScene.getObjectForKey(SceneSpatialIndex.class);
+        if (theIndex == null) {
+            final SceneSpatialIndex theNewIndex = new SceneSpatialIndex(aScene);
+
+            GameEventManager theEventManager = aScene.getRuntime().getEventManager();
+            theEventManager.register(aScene, GameObjectInstanceAddedToScene.TYPE, new GameEventListener<GameObjectInstanceAddedToScene>() {
+                @Override
+                public void handleGameEvent(GameObjectInstanceAddedToScene aEvent) {
+                    if (aEvent.instance.getOwnerGameObject().getGameScene() == aScene) {
+                        theNewIndex.add(aEvent.instance);
+                    }
+                }
+            });
+            theEventManager.register(aScene, GameObjectInstanceRemovedFromScene.TYPE, new GameEventListener<GameObjectInstanceRemovedFromScene>() {
+                @Override
+                public void handleGameEvent(GameObjectInstanceRemovedFromScene aEvent) {
+                    if (aEvent.scene == aScene) {
+                        theNewIndex.remove(aEvent.instance);
+                    }
+                }
+            });
+
+            aScene.setObjectForKey(SceneSpatialIndex.class, theNewIndex);
+            theIndex = theNewIndex;
+        }
+        return theIndex;
+    }
+
+    void add(GameObjectInstance aInstance) {
+        if (entries.containsKey(aInstance)) {
+            return;
+        }
+        Entry theEntry = new Entry(aInstance, sequenceCounter++);
+        entries.put(aInstance, theEntry);
+
+        aInstance.positionProperty().addChangeListener(theEntry);
+        aInstance.positionAnchorProperty().addChangeListener(theEntry);
+
+        GameObject theOwner = aInstance.getOwnerGameObject();
+        SizeListener theListener = sizeListener.get(theOwner);
+        if (theListener == null) {
+            theListener = new SizeListener(theOwner);
+            theOwner.sizeProperty().addChangeListener(theListener);
+            sizeListener.put(theOwner, theListener);
+        }
+        theListener.instanceCount++;
+
+        insert(theEntry);
+    }
+
+    void remove(GameObjectInstance aInstance) {
+        Entry theEntry = entries.remove(aInstance);
+        if (theEntry != null) {
+            aInstance.positionProperty().removeChangeListener(theEntry);
+            aInstance.positionAnchorProperty().removeChangeListener(theEntry);
+            detach(theEntry);
+
+            GameObject theOwner = aInstance.getOwnerGameObject();
+            SizeListener theListener = sizeListener.get(theOwner);
+            if (theListener != null && --theListener.instanceCount == 0) {
+                theOwner.sizeProperty().removeChangeListener(theListener);
+                sizeListener.remove(theOwner);
+            }
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    int getSizeListenerCount() {
+        return sizeListener.size();
+    }
+
+    private void sizeChanged(GameObject aObject) {
+        for (Entry theEntry : entries.values()) {
+            if (theEntry.instance.getOwnerGameObject() == aObject) {
+                update(theEntry);
+            }
+        }
+    }
+
+    private void update(Entry aEntry) {
+        if (!aEntry.unbounded && aEntry.inGrid) {
+            // Fast path, the instance did not leave its cells
+            Position thePosition = aEntry.instance.positionProperty().get();
+            Size theSize = aEntry.instance.getOwnerGameObject().sizeProperty().get();
+            if (aEntry.instance.positionAnchorProperty().get() == PositionAnchor.SCENE
+                    && cellOf(thePosition.x) == aEntry.minCellX
+                    && cellOf(thePosition.y) == aEntry.minCellY
+                    && cellOf(thePosition.x + theSize.width) == aEntry.maxCellX
+                    && cellOf(thePosition.y + theSize.height) == aEntry.maxCellY) {
+                return;
+            }
+        }
+        detach(aEntry);
+        insert(aEntry);
+    }
+
+    private void insert(Entry aEntry) {
+        GameObjectInstance theInstance = aEntry.instance;
+        Position thePosition = theInstance.positionProperty().get();
+        Size theSize = theInstance.getOwnerGameObject().sizeProperty().get();
+        if (theInstance.positionAnchorProperty().get() != PositionAnchor.SCENE || thePosition == null || theSize == null) {
+            aEntry.unbounded = true;
+            unboundedEntries.add(aEntry);
+            return;
+        }
+
+        aEntry.minCellX = cellOf(thePosition.x);
+        aEntry.minCellY = cellOf(thePosition.y);
+        aEntry.maxCellX = cellOf(thePosition.x + theSize.width);
+        aEntry.maxCellY = cellOf(thePosition.y + theSize.height);
+
+        long theCellCount = ((long) aEntry.maxCellX - aEntry.minCellX + 1) * ((long) aEntry.maxCellY - aEntry.minCellY + 1);
+        if (theCellCount > MAX_CELLS_PER_ENTRY) {
+            aEntry.unbounded = true;
+            unboundedEntries.add(aEntry);
+            return;
+        }
+
+        for (int x = aEntry.minCellX; x <= aEntry.maxCellX; x++) {
+            for (int y = aEntry.minCellY; y <= aEntry.maxCellY; y++) {
+                Long theKey = cellKey(x, y);
+                List<Entry> theCell = cells.get(theKey);
+                if (theCell == null) {
+                    theCell = new ArrayList<>();
+                    cells.put(theKey, theCell);
+                }
+                theCell.add(aEntry);
+            }
+        }
+        aEntry.inGrid = true;
+    }
+
+    private void detach(Entry aEntry) {
+        if (aEntry.unbounded) {
+            unboundedEntries.remove(aEntry);
+            aEntry.unbounded = false;
+            return;
+        }
+        if (aEntry.inGrid) {
+            for (int x = aEntry.minCellX; x <= aEntry.maxCellX; x++) {
+                for (int y = aEntry.minCellY; y <= aEntry.maxCellY; y++) {
+                    Long theKey = cellKey(x, y);
+                    List<Entry> theCell = cells.get(theKey);
+                    if (theCell != null) {
+                        theCell.remove(aEntry);
+                        if (theCell.isEmpty()) {
+                            cells.remove(theKey);
+                        }
+                    }
+                }
+            }
+            aEntry.inGrid = false;
+        }
+    }
+
+    // Collects all instances possibly overlapping the given world rectangle, plus all
+    // unbounded instances, in the order of the scene
+    void query(float aMinX, float aMinY, float aMaxX, float aMaxY, List<GameObjectInstance> aResult) {
+        int theQuery = ++queryCounter;
+        int theCount = 0;
+
+        int theMinCellX = cellOf(aMinX);
+        int theMinCellY = cellOf(aMinY);
+        int theMaxCellX = cellOf(aMaxX);
+        int theMaxCellY = cellOf(aMaxY);
+
+        long theCellCount = ((long) theMaxCellX - theMinCellX + 1) * ((long) theMaxCellY - theMinCellY + 1);
+        if (theCellCount > cells.size()) {
+            // Visiting the non empty cells is cheaper than probing the area
+            for (Map.Entry<Long, List<Entry>> theCell : cells.entrySet()) {
+                long theKey = theCell.getKey();
+                int theX = (int) (theKey >> 32);
+                int theY = (int) theKey;
+                if (theX >= theMinCellX && theX <= theMaxCellX && theY >= theMinCellY && theY <= theMaxCellY) {
+                    theCount = collect(theCell.getValue(), theQuery, theCount);
+                }
+            }
+        } else {
+            for (int x = theMinCellX; x <= theMaxCellX; x++) {
+                for (int y = theMinCellY; y <= theMaxCellY; y++) {
+                    List<Entry> theCell = cells.get(cellKey(x, y));
+                    if (theCell != null) {
+                        theCount = collect(theCell, theQuery, theCount);
+                    }
+                }
+            }
+        }
+        for (Entry theEntry : unboundedEntries) {
+            theCount = collect(theEntry, theQuery, theCount);
+        }
+
+        Arrays.sort(queryResult, 0, theCount, SCENE_ORDER);
+
+        for (int i = 0; i < theCount; i++) {
+            aResult.add(queryResult[i].instance);
+            queryResult[i] = null;
+        }
+    }
+
+    private int collect(List<Entry> aCell, int aQuery, int aCount) {
+        for (int i = 0; i < aCell.size(); i++) {
+            aCount = collect(aCell.get(i), aQuery, aCount);
+        }
+        return aCount;
+    }
+
+    private int collect(Entry aEntry, int aQuery, int aCount) {
+        if (aEntry.lastQuery == aQuery) {
+            // Already found in another cell
+            return aCount;
+        }
+        aEntry.lastQuery = aQuery;
+        if (aCount == queryResult.length) {
+            queryResult = Arrays.copyOf(queryResult, queryResult.length * 2);
+        }
+        queryResult[aCount] = aEntry;
+        return aCount + 1;
+    }
+
+    private static int cellOf(float aValue) {
+        return (int) Math.floor(aValue / CELL_SIZE);
+    }
+
+    private static Long cellKey(int aX, int aY) {
+        return (((long) aX) << 32) | (aY & 0xffffffffL);
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2016 Mirko Sertic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.mirkosertic.gameengine.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Behaviors or behavior templates indexed by the ordinal of their type, so a lookup is a single array load
+final class BehaviorTable<T> {
+
+    private static final Object[] EMPTY = new Object[0];
+
+    private Object[] slots;
+    private int size;
+
+    BehaviorTable() {
+        slots = EMPTY;
+    }
+
+    T get(BehaviorType aType) {
+        return get(aType.ordinal());
+    }
+
+    T get(int aOrdinal) {
+        if (aOrdinal < 0 || aOrdinal >= slots.length) {
+            return null;
+        }
+        return (T) slots[aOrdinal];
+    }
+
+    void put(BehaviorType aType, T aValue) {
+        int theOrdinal = aType.ordinal();
+        if (theOrdinal >= slots.length) {
+            Object[] theNewSlots = new Object[theOrdinal + 1];
+            System.arraycopy(slots, 0, theNewSlots, 0, slots.length);
+            slots = theNewSlots;
+        }
+        if (slots[theOrdinal] == null) {
+            size++;
+        }
+        slots[theOrdinal] = aValue;
+    }
+
+    void remove(BehaviorType aType) {
+        int theOrdinal = aType.ordinal();
+        if (theOrdinal < slots.length && slots[theOrdinal] != null) {
+            slots[theOrdinal] = null;
+            size--;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    List<T> values() {
+        List<T> theResult = new ArrayList<>(size);
+        for (Object theSlot : slots) {
+            if (theSlot != null) {
+                theResult.add((T) theSlot);
+            }
+        }
+        return theResult;
+    }
+}
@@ -15,12 +15,41 @@
  */
 package de.mirkosertic.gameengine.core;
 
+import java.util.HashMap;
+import java.util.Map;
+
 public class BehaviorType {
 
+    // Every distinct type value gets a dense ordinal, so behaviors can be stored in
+    // small arrays. The map is copied on write, so lookups need no synchronization.
+    private static volatile Map<String, Integer> ordinals = new HashMap<>();
+
+    private static synchronized int register(String aValue) {
+        Integer theOrdinal = ordinals.get(aValue);
+        if (theOrdinal == null) {
+            Map<String, Integer> theNewOrdinals = new HashMap<>(ordinals);
+            theOrdinal = theNewOrdinals.size();
+            theNewOrdinals.put(aValue, theOrdinal);
+            ordinals = theNewOrdinals;
+        }
+        return theOrdinal;
+    }
+
+    // Returns -1 if there is no type with the given value
+    static int ordinalOf(String aValue) {
+        Integer theOrdinal = ordinals.get(aValue);
+        if (theOrdinal == null) {
+            return -1;
+        }
+        return theOrdinal;
+    }
+
     private final String value;
+    private final int ordinal;
 
     public BehaviorType(String aValue) {
         value = aValue;
+        ordinal = register(aValue);
     }
 
     @Override
@@ -43,6 +72,10 @@ public class BehaviorType {
         return value.hashCode();
     }
 
+    public int ordinal() {
+        return ordinal;
+    }
+
     public String getValue() {
         return value;
     }
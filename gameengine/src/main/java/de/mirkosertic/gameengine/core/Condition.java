@@ -16,6 +16,7 @@
 package de.mirkosertic.gameengine.core;
 
 import de.mirkosertic.gameengine.event.GameEvent;
+import de.mirkosertic.gameengine.event.GameEventType;
 
 import java.util.Map;
 
@@ -25,5 +26,8 @@ public interface Condition {
 
     ConditionResult appliesTo(GameScene aScene, GameEvent aEvent);
 
+    // The event types this condition can ever be fulfilled by, GameEventType.CATCH_ALL for all of them
+    GameEventType[] getMatchingEventTypes();
+
     Map<String, Object> serialize();
 }
\ No newline at end of file
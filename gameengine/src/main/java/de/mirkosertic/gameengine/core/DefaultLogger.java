@@ -32,4 +32,17 @@ public class DefaultLogger implements Logger {
     @Override
     public void timeEnd(String aLabel) {
     }
+
+    @Override
+    public boolean isTracing() {
+        return false;
+    }
+
+    @Override
+    public void beginSpan(String aCategory, String aName) {
+    }
+
+    @Override
+    public void endSpan(String aCategory, String aName) {
+    }
 }
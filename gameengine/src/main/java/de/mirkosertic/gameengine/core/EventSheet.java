@@ -32,6 +32,7 @@ public class EventSheet {
     private GameRule[] rules;
 
     private final GameScene gameScene;
+    private final GameEventManager eventManager;
 
     EventSheet(GameScene aGameScene) {
         GameEventManager theEventManager = aGameScene.getRuntime().getEventManager();
@@ -39,6 +40,7 @@ public class EventSheet {
         nameProperty = new Property<>(String.class, this, NAME_PROPERTY, theEventManager);
         rules = new GameRule[]{};
         gameScene = aGameScene;
+        eventManager = theEventManager;
     }
 
     public GameScene getGameScene() {
@@ -85,11 +87,16 @@ public class EventSheet {
         List<GameRule> theRules = ArrayUtils.asList(rules);
         theRules.add(aNewRule);
         rules = theRules.toArray(new GameRule[theRules.size()]);
+
+        eventManager.fire(new GameRuleAddedToEventSheet(this, aNewRule));
     }
 
     public void removeRule(GameRule aGameRule) {
         List<GameRule> theRules = ArrayUtils.asList(rules);
-        theRules.remove(aGameRule);
-        rules = theRules.toArray(new GameRule[theRules.size()]);
+        if (theRules.remove(aGameRule)) {
+            rules = theRules.toArray(new GameRule[theRules.size()]);
+
+            eventManager.fire(new GameRuleRemovedFromEventSheet(this, aGameRule));
+        }
     }
 }
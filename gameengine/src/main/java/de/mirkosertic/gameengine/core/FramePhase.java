@@ -0,0 +1,34 @@
+/*
+ * Copyright 2016 Mirko Sertic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.mirkosertic.gameengine.core;
+
+public enum FramePhase {
+    RUN_IN_FRAME("runInFrame"),
+    RUN_AFTER_FRAME("runAfterFrame"),
+    RENDER_GAME("renderGame"),
+    PREPROCESSOR_EFFECT("preprocessor"),
+    POSTPROCESSOR_EFFECT("postprocessor");
+
+    private final String label;
+
+    FramePhase(String aLabel) {
+        label = aLabel;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2016 Mirko Sertic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.mirkosertic.gameengine.core;
+
+// Histogram of durations in nanoseconds with a fixed memory footprint. Every power of two
+// is split into 16 linear sub buckets, so a percentile is accurate to about 6 percent,
+// while the maximum is tracked exactly. Durations beyond MAX_TRACKABLE are counted in
+// the last bucket.
+public class FrameTimeHistogram {
+
+    public static final long MAX_TRACKABLE = (1L << 40) - 1;
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = bucketOf(MAX_TRACKABLE) + 1;
+
+    private final int[] counts;
+    private long totalCount;
+    private long totalNanos;
+    private long max;
+
+    public FrameTimeHistogram() {
+        counts = new int[BUCKETS];
+    }
+
+    static int bucketOf(long aNanos) {
+        if (aNanos < SUB_BUCKETS) {
+            return (int) aNanos;
+        }
+        int theExponent = 63 - Long.numberOfLeadingZeros(aNanos);
+        int theSubBucket = (int) (aNanos >>> (theExponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (theExponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + theSubBucket;
+    }
+
+    // The largest duration counted in the given bucket
+    static long upperBoundOf(int aBucket) {
+        if (aBucket < SUB_BUCKETS) {
+            return aBucket;
+        }
+        int theShift = aBucket / SUB_BUCKETS - 1;
+        long theLowerBound = (long) (SUB_BUCKETS + aBucket % SUB_BUCKETS) << theShift;
+        return theLowerBound + (1L << theShift) - 1;
+    }
+
+    public void record(long aNanos) {
+        if (aNanos < 0) {
+            // The clock went backwards, there is nothing meaningful to record
+            return;
+        }
+        counts[bucketOf(Math.min(aNanos, MAX_TRACKABLE))]++;
+        totalCount++;
+        totalNanos += aNanos;
+        if (aNanos > max) {
+            max = aNanos;
+        }
+    }
+
+    public long getCount() {
+        return totalCount;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public long getMean() {
+        if (totalCount == 0) {
+            return 0;
+        }
+        return totalNanos / totalCount;
+    }
+
+    // The duration in nanoseconds aPercentile percent of all recorded durations are
+    // less than or equal to, for instance 99 for the p99 value
+    public long getPercentile(double aPercentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long theRank = (long) Math.ceil(totalCount * Math.min(aPercentile, 100d) / 100d);
+        if (theRank < 1) {
+            theRank = 1;
+        }
+        long theSeen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            theSeen += counts[i];
+            if (theSeen >= theRank) {
+                return Math.min(upperBoundOf(i), max);
+            }
+        }
+        return max;
+    }
+
+    public void reset() {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = 0;
+        }
+        totalCount = 0;
+        totalNanos = 0;
+        max = 0;
+    }
+}
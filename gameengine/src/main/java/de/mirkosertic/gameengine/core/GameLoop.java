@@ -18,28 +18,61 @@ package de.mirkosertic.gameengine.core;
 import de.mirkosertic.gameengine.ArrayUtils;
 import de.mirkosertic.gameengine.event.SystemException;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 public class GameLoop implements Runnable {
 
+    static final long NANOS_PER_MILLI = 1000000L;
+    static final long NANOS_PER_SECOND = 1000000000L;
+
+    public static final int VARIABLE_TIMESTEP = 0;
+    public static final int DEFAULT_MAX_STEPS_PER_FRAME = 5;
+
     private boolean shutdownSignal;
     private final GameView humanGameView;
     private final GameScene scene;
     private final GameRuntime runtime;
+    private final GameClock clock;
+    private final long startTime;
     private long lastInvocation;
+    private boolean started;
+
+    // Fixed timestep configuration and state, all values in nanoseconds
+    private final long fixedStep;
+    private int maxStepsPerFrame;
+    private long accumulator;
+    private long simulatedTime;
 
     private final RuntimeStatistics statistics;
     private GameView[] gameViews;
+    private GameSystemWork[] pendingWork;
+    // The systems the pending work belongs to, index by index
+    private GameSystem[] pendingSystems;
+    // Set when a step is started, and cleared once its work is completed
+    private boolean stepPending;
+    private final GameSystemScheduler scheduler;
 
     GameLoop(GameScene aScene, GameView aHumanGameView, GameRuntime aRuntime) {
+        this(aScene, aHumanGameView, aRuntime, new SystemGameClock(), VARIABLE_TIMESTEP);
+    }
+
+    GameLoop(GameScene aScene, GameView aHumanGameView, GameRuntime aRuntime, GameClock aClock, int aTicksPerSecond) {
+        if (aTicksPerSecond < 0) {
+            throw new IllegalArgumentException("Ticks per second must not be negative : " + aTicksPerSecond);
+        }
         humanGameView = aHumanGameView;
         shutdownSignal = false;
         runtime = aRuntime;
         scene = aScene;
+        clock = aClock;
         gameViews = new GameView[] {aHumanGameView};
+        pendingWork = new GameSystemWork[0];
+        pendingSystems = new GameSystem[0];
         statistics = new RuntimeStatistics();
+        scheduler = new GameSystemScheduler(statistics);
+        startTime = aClock.nanoTime();
+        fixedStep = aTicksPerSecond == VARIABLE_TIMESTEP ? 0 : NANOS_PER_SECOND / aTicksPerSecond;
+        maxStepsPerFrame = DEFAULT_MAX_STEPS_PER_FRAME;
     }
 
     public void addGameView(GameView aNewGameView) {
@@ -56,33 +89,68 @@ public class GameLoop implements Runnable {
         return scene;
     }
 
+    public GameClock getClock() {
+        return clock;
+    }
+
+    public boolean isFixedTimestep() {
+        return fixedStep > 0;
+    }
+
+    public long getFixedStepNanos() {
+        return fixedStep;
+    }
+
+    public int getMaxStepsPerFrame() {
+        return maxStepsPerFrame;
+    }
+
+    public void setMaxStepsPerFrame(int aMaxStepsPerFrame) {
+        if (aMaxStepsPerFrame < 1) {
+            throw new IllegalArgumentException("At least one step per frame is required : " + aMaxStepsPerFrame);
+        }
+        maxStepsPerFrame = aMaxStepsPerFrame;
+    }
+
     @Override
     public void run() {
         while (!shutdownSignal) {
             singleRun();
+            if (!shutdownSignal) {
+                // Give the CPU back till the next step is due instead of spinning. This needs
+                // a clock that blocks, like the JDKGameClock, the SystemGameClock returns at once
+                clock.waitUntil(nextInvocationDue());
+            }
         }
     }
 
+    // Hosts pacing the loop on their own can use this to schedule the next singleRun()
+    public long nextInvocationDue() {
+        if (isFixedTimestep()) {
+            return lastInvocation + fixedStep - accumulator;
+        }
+        // The variable timestep needs at least one millisecond to make progress
+        return lastInvocation + NANOS_PER_MILLI;
+    }
+
     public void singleRunOnlyUpdateGameView() {
-        if  (lastInvocation == 0) {
+        if (!started) {
             // Initial state, we skip this to prevent computation errors
-            lastInvocation = System.currentTimeMillis();
+            lastInvocation = clock.nanoTime();
+            started = true;
             return;
         }
-        long theCurrentTime = System.currentTimeMillis();
-        long theGameTime = theCurrentTime - statistics.getStartTime();
-        long theElapsedTime = theCurrentTime - lastInvocation;
+        long theCurrentTime = clock.nanoTime();
+        long theGameTime = (theCurrentTime - startTime) / NANOS_PER_MILLI;
+        long theElapsedTime = (theCurrentTime - lastInvocation) / NANOS_PER_MILLI;
         if (theElapsedTime > 0) {
 
             try {
-                long theNumberOfTicks = statistics.incrementTicks();
+                statistics.incrementTicks();
 
                 statistics.beginGameLoop();
 
-                for (GameView theView : gameViews) {
-                    // Trigger rerendering of game view
-                    theView.renderGame(theGameTime, theElapsedTime, scene, statistics);
-                }
+                renderViews(theGameTime, theElapsedTime, 1f);
 
                 lastInvocation = theCurrentTime;
             } catch (Exception e) {
@@ -94,17 +162,26 @@ public class GameLoop implements Runnable {
     }
 
     public void singleRun() {
-        if  (lastInvocation == 0) {
+        if (!started) {
             // Initial state, we skip this to prevent computation errors
-            lastInvocation = System.currentTimeMillis();
+            lastInvocation = clock.nanoTime();
+            started = true;
             // Instead, we fill fire the SceneStarted event
 
             runtime.getEventManager().fire(new SceneStarted());
             return;
         }
-        long theCurrentTime = System.currentTimeMillis();
-        long theGameTime = theCurrentTime - statistics.getStartTime();
-        long theElapsedTime = theCurrentTime - lastInvocation;
+        if (isFixedTimestep()) {
+            singleFixedRun();
+        } else {
+            singleVariableRun();
+        }
+    }
+
+    private void singleVariableRun() {
+        long theCurrentTime = clock.nanoTime();
+        long theGameTime = (theCurrentTime - startTime) / NANOS_PER_MILLI;
+        long theElapsedTime = (theCurrentTime - lastInvocation) / NANOS_PER_MILLI;
         if (theElapsedTime > 0) {
 
             try {
@@ -113,27 +190,18 @@ public class GameLoop implements Runnable {
                 statistics.beginGameLoop();
 
                 // First give the gamesystems the change to do something
-                Map<GameSystem, GameSystemWork> theFutures = new HashMap<>();
-                // The game systems like physics or process need a chance to do something useful.
-                for (GameSystem theSystem : runtime.getSystems()) {
-                    GameSystemWork theWork = theSystem.proceedGame(theNumberOfTicks, theGameTime, theElapsedTime);
-                    theWork.runInFrame();
-                    theFutures.put(theSystem, theWork);
-                };
+                proceedSystems(theNumberOfTicks, theGameTime, theElapsedTime);
 
                 // Trigger rerendering of game view
-                for (GameView theGameView : gameViews) {
-                    theGameView.renderGame(theGameTime, theElapsedTime, scene, statistics);
-                }
+                renderViews(theGameTime, theElapsedTime, 1f);
 
                 // Finally wait for the game systems till they have completed their job
-                for (Map.Entry<GameSystem, GameSystemWork> theEntry : theFutures.entrySet()) {
-                    theEntry.getValue().runAfterFrame();
-                }
+                completePendingWork();
 
                 lastInvocation = theCurrentTime;
 
             } catch (Exception e) {
+                pendingWork = new GameSystemWork[0];
                 runtime.getEventManager().fire(new SystemException(e));
             } finally {
                 statistics.endGameLoop();
@@ -141,6 +209,105 @@ public class GameLoop implements Runnable {
         }
     }
 
+    private void singleFixedRun() {
+        long theCurrentTime = clock.nanoTime();
+        long theFrameTime = theCurrentTime - lastInvocation;
+        if (theFrameTime <= 0) {
+            return;
+        }
+        lastInvocation = theCurrentTime;
+
+        try {
+            statistics.beginGameLoop();
+
+            accumulator += theFrameTime;
+
+            // Bound the amount of catch up work, or a slow frame causes even more
+            // work in the next frame, and we never recover from it
+            long theMaxAccumulated = fixedStep * maxStepsPerFrame;
+            if (accumulator > theMaxAccumulated) {
+                statistics.addDroppedSimulationTime(accumulator - theMaxAccumulated);
+                accumulator = theMaxAccumulated;
+            }
+
+            long theFrameStartTime = simulatedTime;
+            while (accumulator >= fixedStep) {
+                // Complete the previous step before the next one is started
+                completePendingWork();
+
+                long theNumberOfTicks = statistics.incrementTicks();
+                long theStepStart = simulatedTime / NANOS_PER_MILLI;
+                simulatedTime += fixedStep;
+                long theStepEnd = simulatedTime / NANOS_PER_MILLI;
+
+                proceedSystems(theNumberOfTicks, theStepEnd, theStepEnd - theStepStart);
+
+                accumulator -= fixedStep;
+            }
+
+            float theAlpha = (float) accumulator / fixedStep;
+            long theGameTime = simulatedTime / NANOS_PER_MILLI;
+            long theElapsedTime = (simulatedTime - theFrameStartTime) / NANOS_PER_MILLI;
+
+            // Trigger rerendering of game view
+            renderViews(theGameTime, theElapsedTime, theAlpha);
+
+            // The last step runs in parallel to the rendering, and is completed here
+            completePendingWork();
+
+        } catch (Exception e) {
+            pendingWork = new GameSystemWork[0];
+            runtime.getEventManager().fire(new SystemException(e));
+        } finally {
+            statistics.endGameLoop();
+        }
+    }
+
+    private void proceedSystems(long aNumberOfTicks, long aGameTime, long aElapsedTime) throws Exception {
+        Logger theLogger = runtime.getLogger();
+        String theSpan = null;
+        if (theLogger != null && theLogger.isTracing()) {
+            theSpan = Long.toString(aNumberOfTicks);
+            theLogger.beginSpan(Logger.SPAN_TICK, theSpan);
+        }
+        try {
+            runtime.getEventManager().beginTick(aNumberOfTicks);
+            stepPending = true;
+
+            // The game systems like physics or process need a chance to do something useful.
+            GameSystem[] theSystems = runtime.getSystems();
+            pendingWork = scheduler.proceedGame(theSystems, runtime.getThreadingManager(), aNumberOfTicks, aGameTime, aElapsedTime);
+            pendingSystems = theSystems;
+        } finally {
+            if (theSpan != null) {
+                theLogger.endSpan(Logger.SPAN_TICK, theSpan);
+            }
+        }
+    }
+
+    private void completePendingWork() {
+        GameSystemWork[] theWork = pendingWork;
+        pendingWork = new GameSystemWork[0];
+        for (int i = 0; i < theWork.length; i++) {
+            long theStart = statistics.nanoTime();
+            theWork[i].runAfterFrame();
+            statistics.recordPhase(pendingSystems[i], FramePhase.RUN_AFTER_FRAME, theStart);
+        }
+        if (stepPending) {
+            // Changes coalesced during the step are notified once the step is complete, even without systems
+            stepPending = false;
+            runtime.getEventManager().flushPropertyChanges();
+        }
+    }
+
+    private void renderViews(long aGameTime, long aElapsedTime, float aInterpolationAlpha) {
+        for (GameView theGameView : gameViews) {
+            long theStart = statistics.nanoTime();
+            theGameView.renderGame(aGameTime, aElapsedTime, aInterpolationAlpha, scene, statistics);
+            statistics.recordPhase(theGameView, FramePhase.RENDER_GAME, theStart);
+        }
+    }
+
     public void shutdown() {
         shutdownSignal = true;
     }
@@ -149,7 +316,7 @@ public class GameLoop implements Runnable {
         return shutdownSignal;
     }
 
-    RuntimeStatistics getStatistics() {
+    public RuntimeStatistics getStatistics() {
         return statistics;
     }
-}
\ No newline at end of file
+}
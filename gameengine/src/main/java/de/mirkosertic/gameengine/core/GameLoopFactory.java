@@ -19,8 +19,20 @@ import de.mirkosertic.gameengine.event.GameEventListener;
 
 public class GameLoopFactory {
 
+    private final GameClock clock;
+    private final int ticksPerSecond;
+
+    public GameLoopFactory() {
+        this(new SystemGameClock(), GameLoop.VARIABLE_TIMESTEP);
+    }
+
+    public GameLoopFactory(GameClock aClock, int aTicksPerSecond) {
+        clock = aClock;
+        ticksPerSecond = aTicksPerSecond;
+    }
+
     public GameLoop create(GameScene aGameScene, GameView aHumanGameView, GameRuntime aRuntime) {
-        final GameLoop theLoop = new GameLoop(aGameScene, aHumanGameView, aRuntime);
+        final GameLoop theLoop = new GameLoop(aGameScene, aHumanGameView, aRuntime, clock, ticksPerSecond);
         aRuntime.getEventManager().register(null, SceneShutdown.TYPE, new GameEventListener<SceneShutdown>() {
             @Override
             public void handleGameEvent(SceneShutdown aEvent) {
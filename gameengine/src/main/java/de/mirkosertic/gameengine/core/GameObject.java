@@ -44,7 +44,7 @@ public class GameObject implements Reflectable<GameObjectClassInformation> {
     private final Property<Size> size;
     private final Property<Boolean> visible;
 
-    private final Map<BehaviorType, BehaviorTemplate> behaviors;
+    private final BehaviorTable<BehaviorTemplate> behaviors;
 
     public GameObject(GameScene aScene, String aName) {
         this(aScene, aName, de.mirkosertic.gameengine.type.UUID.randomUID());
@@ -59,7 +59,7 @@ public class GameObject implements Reflectable<GameObjectClassInformation> {
         name = new Property<>(String.class, this, NAME_PROPERTY, aName, theManager);
         size = new Property<>(Size.class, this, SIZE_PROPERTY, new Size(64, 64), theManager);
         visible = new Property<>(Boolean.class, this, VISIBLE_PROPERTY, Boolean.TRUE, theManager);
-        behaviors = new HashMap<>();
+        behaviors = new BehaviorTable<>();
     }
 
     public GameScene getGameScene() {
@@ -112,7 +112,7 @@ public class GameObject implements Reflectable<GameObjectClassInformation> {
     }
 
     public <T extends BehaviorTemplate> T getBehaviorTemplate(BehaviorType aType) {
-        return (T) behaviors.get(aType);
+        return (T) behaviors.get(aType.ordinal());
     }
 
     @Override
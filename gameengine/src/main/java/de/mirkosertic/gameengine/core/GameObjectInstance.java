@@ -40,7 +40,7 @@ public class GameObjectInstance implements Reflectable<GameObjectInstanceClassIn
     public static final String ROTATION_ANGLE_PROPERTY = "rotationAngle";
     public static final String POSITION_ANCHOR_PROPERTY = "positionAnchor";
 
-    private final Map<BehaviorType, Behavior> behaviors;
+    private final BehaviorTable<Behavior> behaviors;
 
     private final GameObject ownerGameObject;
 
@@ -53,6 +53,9 @@ public class GameObjectInstance implements Reflectable<GameObjectInstanceClassIn
 
     private boolean remoteObject;
 
+    // Dense index of the instance in its scene, -1 if not part of a scene
+    private int handle;
+
     GameObjectInstance(GameEventManager aEventManager, GameObject aOwnerGameObject) {
 
         uuid = new Property<>(String.class, this, UUID_PROPERTY, de.mirkosertic.gameengine.type.UUID.randomUID(), aEventManager);
@@ -63,7 +66,8 @@ public class GameObjectInstance implements Reflectable<GameObjectInstanceClassIn
         positionAnchor = new Property<>(PositionAnchor.class, this, POSITION_ANCHOR_PROPERTY, PositionAnchor.SCENE, aEventManager);
 
         ownerGameObject = aOwnerGameObject;
-        behaviors = new HashMap<>();
+        behaviors = new BehaviorTable<>();
+        handle = -1;
     }
 
     @Override
@@ -101,6 +105,15 @@ public class GameObjectInstance implements Reflectable<GameObjectInstanceClassIn
         return positionAnchor;
     }
 
+    // Handles of removed instances are reused, so they are only valid while the instance is part of the scene
+    public int getHandle() {
+        return handle;
+    }
+
+    void setHandle(int aHandle) {
+        handle = aHandle;
+    }
+
     public GameObject getOwnerGameObject() {
         return ownerGameObject;
     }
@@ -114,26 +127,20 @@ public class GameObjectInstance implements Reflectable<GameObjectInstanceClassIn
     }
 
     public void removeBehaviorByTemplate(BehaviorTemplate aTemplate) {
-        Map<BehaviorType, Behavior> theKnownBehaviors = new HashMap<>(behaviors);
-        for (Map.Entry<BehaviorType, Behavior> theEntry : theKnownBehaviors.entrySet()) {
-            if (theEntry.getValue().getTemplate() == aTemplate) {
-                removeBehavior(theEntry.getValue());
+        for (Behavior theBehavior : behaviors.values()) {
+            if (theBehavior.getTemplate() == aTemplate) {
+                removeBehavior(theBehavior);
             }
         }
     }
 
     @ReflectiveMethod
     public Behavior findBehaviorByType(String aType) {
-        for (Map.Entry<BehaviorType, Behavior> theEntry : behaviors.entrySet()) {
-            if (aType.equals(theEntry.getValue().getType().getValue())) {
-                return theEntry.getValue();
-            }
-        }
-        return null;
+        return behaviors.get(BehaviorType.ordinalOf(aType));
     }
 
     public <T extends Behavior> T getBehavior(BehaviorType aBehaviorID) {
-        return (T) behaviors.get(aBehaviorID);
+        return (T) behaviors.get(aBehaviorID.ordinal());
     }
 
     public void markAsRemoteObject() {
@@ -16,6 +16,7 @@
 package de.mirkosertic.gameengine.core;
 
 import de.mirkosertic.gameengine.event.GameEvent;
+import de.mirkosertic.gameengine.event.GameEventType;
 import de.mirkosertic.gameengine.event.Property;
 import de.mirkosertic.gameengine.event.PropertyChanged;
 import de.mirkosertic.gameengine.type.Position;
@@ -28,6 +29,8 @@ public class GameObjectInstanceLeftLayoutCondition implements Condition {
 
     static final String TYPE_VALUE = "InstanceLeftLayoutCondition";
 
+    private static final GameEventType[] MATCHING_EVENT_TYPES = new GameEventType[] {PropertyChanged.TYPE};
+
     public static final String GAME_OBJECT_PROPERTY = "gameObject";
 
     private final Property<GameObject> gameObject;
@@ -62,6 +65,11 @@ public class GameObjectInstanceLeftLayoutCondition implements Condition {
         return ConditionResult.NOT_FULFILLED;
     }
 
+    @Override
+    public GameEventType[] getMatchingEventTypes() {
+        return MATCHING_EVENT_TYPES;
+    }
+
     @Override
     public Map<String, Object> serialize() {
         Map<String, Object> theResult = new HashMap<>();
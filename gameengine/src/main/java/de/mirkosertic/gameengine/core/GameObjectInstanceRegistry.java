@@ -0,0 +1,273 @@
+/*
+ * Copyright 2016 Mirko Sertic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.mirkosertic.gameengine.core;
+
+import de.mirkosertic.gameengine.event.GameEventListener;
+import de.mirkosertic.gameengine.event.PropertyChanged;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Ordered store for the instances of a scene. Removed instances leave a hole in the
+// slot array, which is compacted once there are more holes than instances. Readers get
+// an immutable snapshot, which is only rebuilt if the store was modified since the last read.
+// Every instance gets a small int handle, handles of removed instances are reused, so they
+// can be used as array indices by systems keeping per instance state.
+// Ids are expected to be unique. Duplicates are reported, the first one in scene order is
+// found by its id, and the next one takes over once it is removed.
+class GameObjectInstanceRegistry {
+
+    private static final GameObjectInstance[] EMPTY = new GameObjectInstance[0];
+
+    private GameObjectInstance[] slots;
+    private int slotCount;
+    private int size;
+
+    private final Logger logger;
+    private final Map<GameObjectInstance, Integer> slotOfInstance;
+    private final Map<String, List<GameObjectInstance>> instancesById;
+    private final Map<String, List<GameObjectInstance>> instancesByName;
+
+    private GameObjectInstance[] snapshot;
+
+    private GameObjectInstance[] instanceByHandle;
+    private int[] freeHandles;
+    private int freeHandleCount;
+    private int handleCount;
+
+    private final GameEventListener<PropertyChanged> uuidListener = new GameEventListener<PropertyChanged>() {
+        @Override
+        public void handleGameEvent(PropertyChanged aEvent) {
+            GameObjectInstance theInstance = (GameObjectInstance) aEvent.getOwner();
+            unindex(instancesById, theInstance, (String) aEvent.oldValue);
+            indexId(theInstance);
+        }
+    };
+
+    private final GameEventListener<PropertyChanged> nameListener = new GameEventListener<PropertyChanged>() {
+        @Override
+        public void handleGameEvent(PropertyChanged aEvent) {
+            GameObjectInstance theInstance = (GameObjectInstance) aEvent.getOwner();
+            unindex(instancesByName, theInstance, (String) aEvent.oldValue);
+            indexName(theInstance);
+        }
+    };
+
+    GameObjectInstanceRegistry(Logger aLogger) {
+        logger = aLogger;
+        slots = new GameObjectInstance[16];
+        slotOfInstance = new HashMap<>();
+        instancesById = new HashMap<>();
+        instancesByName = new HashMap<>();
+        snapshot = EMPTY;
+        instanceByHandle = new GameObjectInstance[16];
+        freeHandles = new int[16];
+    }
+
+    boolean add(GameObjectInstance aInstance) {
+        if (slotOfInstance.containsKey(aInstance)) {
+            return false;
+        }
+        if (slotCount == slots.length) {
+            grow();
+        }
+        slotOfInstance.put(aInstance, slotCount);
+        slots[slotCount++] = aInstance;
+        size++;
+        snapshot = null;
+
+        assignHandle(aInstance);
+        indexId(aInstance);
+        indexName(aInstance);
+        aInstance.uuidProperty().addChangeListener(uuidListener);
+        aInstance.nameProperty().addChangeListener(nameListener);
+        return true;
+    }
+
+    boolean remove(GameObjectInstance aInstance) {
+        Integer theSlot = slotOfInstance.remove(aInstance);
+        if (theSlot == null) {
+            return false;
+        }
+        slots[theSlot] = null;
+        size--;
+        snapshot = null;
+
+        aInstance.uuidProperty().removeChangeListener(uuidListener);
+        aInstance.nameProperty().removeChangeListener(nameListener);
+        unindex(instancesById, aInstance, aInstance.uuidProperty().get());
+        unindex(instancesByName, aInstance, aInstance.nameProperty().get());
+        releaseHandle(aInstance);
+
+        if (slotCount - size > size) {
+            compact();
+        }
+        return true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean contains(GameObjectInstance aInstance) {
+        return slotOfInstance.containsKey(aInstance);
+    }
+
+    GameObjectInstance findById(String aId) {
+        return firstInSceneOrder(instancesById.get(aId));
+    }
+
+    GameObjectInstance findByHandle(int aHandle) {
+        if (aHandle < 0 || aHandle >= handleCount) {
+            return null;
+        }
+        return instanceByHandle[aHandle];
+    }
+
+    // Upper bound of all handles in use, to size per instance arrays
+    int handleCapacity() {
+        return handleCount;
+    }
+
+    GameObjectInstance findByName(String aName) {
+        // Several instances might share the same name
+        return firstInSceneOrder(instancesByName.get(aName));
+    }
+
+    private GameObjectInstance firstInSceneOrder(List<GameObjectInstance> aInstances) {
+        if (aInstances == null) {
+            return null;
+        }
+        GameObjectInstance theResult = null;
+        int theResultSlot = Integer.MAX_VALUE;
+        for (int i = 0; i < aInstances.size(); i++) {
+            GameObjectInstance theInstance = aInstances.get(i);
+            int theSlot = slotOfInstance.get(theInstance);
+            if (theSlot < theResultSlot) {
+                theResult = theInstance;
+                theResultSlot = theSlot;
+            }
+        }
+        return theResult;
+    }
+
+    GameObjectInstance[] snapshot() {
+        if (snapshot == null) {
+            GameObjectInstance[] theSnapshot = new GameObjectInstance[size];
+            int theIndex = 0;
+            for (int i = 0; i < slotCount; i++) {
+                if (slots[i] != null) {
+                    theSnapshot[theIndex++] = slots[i];
+                }
+            }
+            snapshot = theSnapshot;
+        }
+        return snapshot;
+    }
+
+    private void assignHandle(GameObjectInstance aInstance) {
+        int theHandle;
+        if (freeHandleCount > 0) {
+            theHandle = freeHandles[--freeHandleCount];
+        } else {
+            theHandle = handleCount++;
+            if (theHandle == instanceByHandle.length) {
+                GameObjectInstance[] theNewInstances = new GameObjectInstance[instanceByHandle.length * 2];
+                System.arraycopy(instanceByHandle, 0, theNewInstances, 0, instanceByHandle.length);
+                instanceByHandle = theNewInstances;
+            }
+        }
+        instanceByHandle[theHandle] = aInstance;
+        aInstance.setHandle(theHandle);
+    }
+
+    private void releaseHandle(GameObjectInstance aInstance) {
+        int theHandle = aInstance.getHandle();
+        instanceByHandle[theHandle] = null;
+        aInstance.setHandle(-1);
+        if (freeHandleCount == freeHandles.length) {
+            int[] theNewFree = new int[freeHandles.length * 2];
+            System.arraycopy(freeHandles, 0, theNewFree, 0, freeHandleCount);
+            freeHandles = theNewFree;
+        }
+        freeHandles[freeHandleCount++] = theHandle;
+    }
+
+    private void indexId(GameObjectInstance aInstance) {
+        String theId = aInstance.uuidProperty().get();
+        if (index(instancesById, aInstance, theId) > 1) {
+            logger.error("Duplicate instance id " + theId + " for " + aInstance.nameProperty().get());
+        }
+    }
+
+    private void indexName(GameObjectInstance aInstance) {
+        index(instancesByName, aInstance, aInstance.nameProperty().get());
+    }
+
+    // Returns the number of instances indexed by the given key
+    private static int index(Map<String, List<GameObjectInstance>> aIndex, GameObjectInstance aInstance, String aKey) {
+        if (aKey == null) {
+            return 0;
+        }
+        List<GameObjectInstance> theInstances = aIndex.get(aKey);
+        if (theInstances == null) {
+            theInstances = new ArrayList<>(1);
+            aIndex.put(aKey, theInstances);
+        }
+        theInstances.add(aInstance);
+        return theInstances.size();
+    }
+
+    private static void unindex(Map<String, List<GameObjectInstance>> aIndex, GameObjectInstance aInstance, String aKey) {
+        if (aKey != null) {
+            List<GameObjectInstance> theInstances = aIndex.get(aKey);
+            if (theInstances != null) {
+                theInstances.remove(aInstance);
+                if (theInstances.isEmpty()) {
+                    aIndex.remove(aKey);
+                }
+            }
+        }
+    }
+
+    private void grow() {
+        if (size < slotCount / 2) {
+            compact();
+            return;
+        }
+        GameObjectInstance[] theNewSlots = new GameObjectInstance[slots.length * 2];
+        System.arraycopy(slots, 0, theNewSlots, 0, slotCount);
+        slots = theNewSlots;
+    }
+
+    private void compact() {
+        int theTarget = 0;
+        for (int i = 0; i < slotCount; i++) {
+            GameObjectInstance theInstance = slots[i];
+            if (theInstance != null) {
+                if (theTarget != i) {
+                    slots[theTarget] = theInstance;
+                    slots[i] = null;
+                    slotOfInstance.put(theInstance, theTarget);
+                }
+                theTarget++;
+            }
+        }
+        slotCount = theTarget;
+    }
+}
@@ -16,6 +16,7 @@
 package de.mirkosertic.gameengine.core;
 
 import de.mirkosertic.gameengine.event.GameEvent;
+import de.mirkosertic.gameengine.event.GameEventType;
 import de.mirkosertic.gameengine.event.Property;
 
 import java.util.HashMap;
@@ -25,6 +26,8 @@ public class GameObjectInstanceRemovedFromSceneCondition implements Condition {
 
     static final String TYPE_VALUE = "GameObjectInstanceRemovedFromSceneCondition";
 
+    private static final GameEventType[] MATCHING_EVENT_TYPES = new GameEventType[] {GameObjectInstanceRemovedFromScene.TYPE};
+
     public static final String GAME_OBJECT_PROPERTY = "gameObject";
 
     private final Property<GameObject> gameObject;
@@ -50,6 +53,11 @@ public class GameObjectInstanceRemovedFromSceneCondition implements Condition {
         return ConditionResult.NOT_FULFILLED;
     }
 
+    @Override
+    public GameEventType[] getMatchingEventTypes() {
+        return MATCHING_EVENT_TYPES;
+    }
+
     @Override
     public Map<String, Object> serialize() {
         Map<String, Object> theResult = new HashMap<>();
@@ -18,4 +18,7 @@ package de.mirkosertic.gameengine.core;
 public interface GameResource {
 
     GameResourceType getType();
+
+    // Estimated memory held by this resource, used for the cache budget
+    long getSizeInBytes();
 }
@@ -15,25 +15,69 @@
  */
 package de.mirkosertic.gameengine.core;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
-import de.mirkosertic.gameengine.ArrayUtils;
 import de.mirkosertic.gameengine.type.ResourceName;
 
 public class GameResourceCache {
 
-    private final Map<String, GameResource> cachedResources;
+    public static final long UNLIMITED = Long.MAX_VALUE;
+
+    private static class CacheEntry {
+
+        private final String name;
+        private final GameResource resource;
+        private long size;
+        // Resources loaded asynchronously report no size until they are available
+        private boolean sized;
+        // Set on every access, and cleared by the clock hand
+        private boolean referenced;
+
+        private CacheEntry(String aName, GameResource aResource, long aSize) {
+            name = aName;
+            resource = aResource;
+            size = aSize;
+            sized = aSize > 0;
+            referenced = true;
+        }
+    }
+
+    // Everything already looked up by its full name, this is what the renderer hits every frame
+    private final Map<String, CacheEntry> index;
+    // Loaded sprite sheets by the name of their json file, in loading order
+    private final Map<String, LoadedSpriteSheet> spriteSheets;
+    // Frames of all loaded sprite sheets by frame name, the first sheet providing a frame wins
+    private final Map<String, GameResource> spriteSheetFrames;
+    // Resources returned by the resource loader, these are subject to eviction
+    private final Map<String, CacheEntry> cachedResources;
+    private final List<CacheEntry> clock;
+    // Reference counts of resources which must not be evicted
+    private final Map<String, Integer> pinCounts;
+    private final List<ResourceName> scenePins;
     private final GameResourceLoader resourceLoader;
     private final Logger logger;
-    private LoadedSpriteSheet[] loadedSpriteSheets;
+    private int clockHand;
+    private long budgetInBytes;
+    private long usedBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
 
     public GameResourceCache(GameResourceLoader aResourceLoader, final Logger aLogger) {
+        index = new HashMap<>();
+        spriteSheets = new LinkedHashMap<>();
+        spriteSheetFrames = new HashMap<>();
         cachedResources = new HashMap<>();
+        clock = new ArrayList<>();
+        pinCounts = new HashMap<>();
+        scenePins = new ArrayList<>();
         resourceLoader = aResourceLoader;
-        loadedSpriteSheets = new LoadedSpriteSheet[0];
         logger = aLogger;
+        budgetInBytes = UNLIMITED;
     }
 
     public Promise<Spritesheet, String> loadIntoCache(final Spritesheet aSheet) {
@@ -42,13 +86,13 @@ public class GameResourceCache {
             @Override
             public void process(final PromiseResolver aResolver, PromiseRejector aRejector) {
                 logger.info("Delegating to resource loader");
-                resourceLoader.loadSpriteSheet(aSheet.jsonFileProperty().get()).thenContinue(new Promise.NoReturnHandler<LoadedSpriteSheet>() {
+                final ResourceName theJSONFile = aSheet.jsonFileProperty().get();
+                resourceLoader.loadSpriteSheet(theJSONFile).thenContinue(new Promise.NoReturnHandler<LoadedSpriteSheet>() {
                     @Override
                     public void process(LoadedSpriteSheet aResult) {
                         logger.info("Got sprite sheet for cache");
-                        List<LoadedSpriteSheet> theSheets = ArrayUtils.asList(loadedSpriteSheets);
-                        theSheets.add(aResult);
-                        loadedSpriteSheets = theSheets.toArray(new LoadedSpriteSheet[theSheets.size()]);
+                        spriteSheets.put(theJSONFile.name, aResult);
+                        indexSpriteSheets();
                         aResolver.resolve(aSheet);
                     }
                 });
@@ -56,42 +100,237 @@ public class GameResourceCache {
         });
     }
 
+    private void indexSpriteSheets() {
+        spriteSheetFrames.clear();
+        for (LoadedSpriteSheet theSheet : spriteSheets.values()) {
+            Map<String, GameResource> theFrames = theSheet.getResources();
+            for (Map.Entry<String, GameResource> theEntry : theFrames.entrySet()) {
+                if (!spriteSheetFrames.containsKey(theEntry.getKey())) {
+                    spriteSheetFrames.put(theEntry.getKey(), theEntry.getValue());
+                }
+            }
+        }
+        // Frames take precedence over single resources, so everything has to be looked up again
+        index.clear();
+    }
+
+    public <T extends GameResource> T getIfLoaded(ResourceName aResourceName) {
+        CacheEntry theEntry = index.get(aResourceName.name);
+        if (theEntry == null) {
+            GameResource theFrame = spriteSheetFrames.get(aResourceName.getOnlyFileName());
+            if (theFrame != null) {
+                // Frames are owned by their sheet, so they are never evicted on their own
+                theEntry = new CacheEntry(aResourceName.name, theFrame, 0);
+                theEntry.sized = true;
+            } else {
+                theEntry = cachedResources.get(aResourceName.name);
+            }
+            if (theEntry == null) {
+                return null;
+            }
+            index.put(aResourceName.name, theEntry);
+        }
+        if (!theEntry.sized) {
+            // Only accounted here, the next load or budget change evicts, so the returned resource stays valid
+            measure(theEntry);
+        }
+        theEntry.referenced = true;
+        hits++;
+        return (T) theEntry.resource;
+    }
+
     public <T extends GameResource> Promise<T, String> getResourceFor(final ResourceName aResourceName) {
 
+        T theLoadedResource = getIfLoaded(aResourceName);
+        if (theLoadedResource != null) {
+            Promise<T, String> theResult = new Promise<>();
+            theResult.resolve(theLoadedResource);
+            return theResult;
+        }
+
+        misses++;
         return new Promise<T, String>(new Promise.Executor() {
             @Override
             public void process(final PromiseResolver aResolver, final PromiseRejector aRejector) {
-                for (LoadedSpriteSheet theLoadedSheet : loadedSpriteSheets) {
-                    T theResource = (T) theLoadedSheet.getResourceFor(aResourceName);
-                    if (theResource != null) {
-                        aResolver.resolve(theResource);
-                        return;
+                resourceLoader.load(aResourceName).thenContinue(new Promise.NoReturnHandler<GameResource>() {
+                    @Override
+                    public void process(GameResource aResult) {
+                        CacheEntry theExisting = cachedResources.get(aResourceName.name);
+                        if (theExisting != null) {
+                            // Loaded twice while the first request was pending
+                            if (theExisting.resource != aResult) {
+                                resourceLoader.release(aResult);
+                            }
+                            aResolver.resolve(theExisting.resource);
+                            return;
+                        }
+                        add(new CacheEntry(aResourceName.name, aResult, aResult.getSizeInBytes()));
+                        aResolver.resolve(aResult);
                     }
-                }
+                }).catchError(new Promise.ErrorHandler<String>() {
+                    @Override
+                    public void process(String aResult, Exception aOptionalRejectedException) {
+                        aRejector.reject(aResult, aOptionalRejectedException);
+                    }
+                });
+            }
+        });
+    }
 
-                T theResource = (T) cachedResources.get(aResourceName.name);
-                if (theResource == null) {
-                    resourceLoader.load(aResourceName).thenContinue(new Promise.NoReturnHandler<GameResource>() {
-                        @Override
-                        public void process(GameResource aResult) {
-                            cachedResources.put(aResourceName.name, aResult);
-                            aResolver.resolve(aResult);
-                        }
-                    }).catchError(new Promise.ErrorHandler<String>() {
-                        @Override
-                        public void process(String aResult, Exception aOptionalRejectedException) {
-                            aRejector.reject(aResult, aOptionalRejectedException);
-                        }
-                    });
-                } else {
-                    aResolver.resolve(theResource);
+    boolean isLoaded(ResourceName aResourceName) {
+        return index.containsKey(aResourceName.name)
+                || spriteSheetFrames.containsKey(aResourceName.getOnlyFileName())
+                || cachedResources.containsKey(aResourceName.name);
+    }
+
+    // Used by the prefetcher, which loads without going through getResourceFor
+    void addLoaded(ResourceName aResourceName, GameResource aResource) {
+        CacheEntry theExisting = cachedResources.get(aResourceName.name);
+        if (theExisting == null) {
+            add(new CacheEntry(aResourceName.name, aResource, aResource.getSizeInBytes()));
+        } else if (theExisting.resource != aResource) {
+            resourceLoader.release(aResource);
+        }
+    }
+
+    GameResourceLoader getResourceLoader() {
+        return resourceLoader;
+    }
+
+    private void add(CacheEntry aEntry) {
+        cachedResources.put(aEntry.name, aEntry);
+        clock.add(aEntry);
+        usedBytes += aEntry.size;
+        evictIfRequired();
+    }
+
+    private void measure(CacheEntry aEntry) {
+        long theSize = aEntry.resource.getSizeInBytes();
+        if (theSize > 0) {
+            usedBytes += theSize - aEntry.size;
+            aEntry.size = theSize;
+            aEntry.sized = true;
+        }
+    }
+
+    private void evictIfRequired() {
+        for (int i = 0; i < clock.size(); i++) {
+            CacheEntry theEntry = clock.get(i);
+            if (!theEntry.sized) {
+                measure(theEntry);
+            }
+        }
+        // Every entry is visited at most twice, once to clear its reference bit, and once to evict it
+        int theVisited = 0;
+        while (usedBytes > budgetInBytes && !clock.isEmpty() && theVisited < clock.size() * 2) {
+            if (clockHand >= clock.size()) {
+                clockHand = 0;
+            }
+            CacheEntry theEntry = clock.get(clockHand);
+            if (theEntry.referenced || pinCounts.containsKey(theEntry.name)) {
+                theEntry.referenced = false;
+                clockHand++;
+                theVisited++;
+            } else {
+                // Keep the order of the ring, the hand then points to the next entry
+                clock.remove(clockHand);
+                cachedResources.remove(theEntry.name);
+                if (index.get(theEntry.name) == theEntry) {
+                    index.remove(theEntry.name);
                 }
+                usedBytes -= theEntry.size;
+                evictions++;
+                resourceLoader.release(theEntry.resource);
+                theVisited = 0;
             }
-        });
+        }
+    }
+
+    public void setBudgetInBytes(long aBudgetInBytes) {
+        budgetInBytes = aBudgetInBytes;
+        evictIfRequired();
+    }
+
+    public long getBudgetInBytes() {
+        return budgetInBytes;
+    }
+
+    public long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public int getCachedResourceCount() {
+        return cachedResources.size();
+    }
+
+    public int getLoadedSpriteSheetCount() {
+        return spriteSheets.size();
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public void pin(ResourceName aResourceName) {
+        Integer theCount = pinCounts.get(aResourceName.name);
+        pinCounts.put(aResourceName.name, theCount == null ? 1 : theCount + 1);
+    }
+
+    public void unpin(ResourceName aResourceName) {
+        Integer theCount = pinCounts.get(aResourceName.name);
+        if (theCount == null) {
+            return;
+        }
+        if (theCount == 1) {
+            pinCounts.remove(aResourceName.name);
+        } else {
+            pinCounts.put(aResourceName.name, theCount - 1);
+        }
+    }
+
+    public boolean isPinned(ResourceName aResourceName) {
+        return pinCounts.containsKey(aResourceName.name);
+    }
+
+    // Pins all resources referenced by the scene, and releases the resources
+    // and sprite sheets only used by the scene pinned before
+    public void pinResourcesOf(GameScene aScene) {
+        for (ResourceName theResource : scenePins) {
+            unpin(theResource);
+        }
+        scenePins.clear();
+        for (ResourceName theResource : aScene.getReferencedResources()) {
+            pin(theResource);
+            scenePins.add(theResource);
+        }
+
+        List<String> theUsedSheets = new ArrayList<>();
+        for (Spritesheet theSheet : aScene.getSpriteSheets()) {
+            theUsedSheets.add(theSheet.jsonFileProperty().get().name);
+        }
+        if (spriteSheets.keySet().retainAll(theUsedSheets)) {
+            indexSpriteSheets();
+        }
+        evictIfRequired();
     }
 
     public void flush() {
+        for (CacheEntry theEntry : clock) {
+            resourceLoader.release(theEntry.resource);
+        }
         resourceLoader.flush();
         cachedResources.clear();
+        clock.clear();
+        clockHand = 0;
+        usedBytes = 0;
+        index.clear();
     }
-}
\ No newline at end of file
+}
@@ -23,5 +23,9 @@ public interface GameResourceLoader {
 
     Promise<LoadedSpriteSheet, String> loadSpriteSheet(ResourceName aResourceName);
 
+    // Called by the cache for every resource it got from load and dropped again,
+    // the loader must not hold on to it afterwards
+    void release(GameResource aResource);
+
     void flush();
 }
\ No newline at end of file
@@ -15,6 +15,20 @@
  */
 package de.mirkosertic.gameengine.core;
 
+import de.mirkosertic.gameengine.type.ResourceName;
+
 public enum GameResourceType {
-    BITMAP, SOUND
+    BITMAP, SOUND;
+
+    // The type told by the file extension, or null if no loader knows how to load the resource
+    public static GameResourceType forName(ResourceName aResourceName) {
+        String theName = aResourceName.name.toLowerCase();
+        if (theName.endsWith(".png")) {
+            return BITMAP;
+        }
+        if (theName.endsWith(".wav") || theName.endsWith(".au")) {
+            return SOUND;
+        }
+        return null;
+    }
 }
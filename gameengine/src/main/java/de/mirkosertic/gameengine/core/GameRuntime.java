@@ -29,6 +29,7 @@ public class GameRuntime {
     private final IORegistry ioRegistry;
     private final LUAScriptEngineFactory scriptEngineFactory;
     private final Logger logger;
+    private ThreadingManager threadingManager;
 
     public GameRuntime(GameEventManager aEventManager, GameResourceLoader aResourceLoader,
             LUAScriptEngineFactory aScriptEngineFactory, Logger aLogger) {
@@ -38,6 +39,7 @@ public class GameRuntime {
         systems = new GameSystem[0];
         gameResourceCache = new GameResourceCache(aResourceLoader, aLogger);
         scriptEngineFactory = aScriptEngineFactory;
+        threadingManager = new NoThreadingThreadingManager();
     }
 
     public Logger getLogger() {
@@ -58,6 +60,14 @@ public class GameRuntime {
         systems = theSystems.toArray(new GameSystem[theSystems.size()]);
     }
 
+    public ThreadingManager getThreadingManager() {
+        return threadingManager;
+    }
+
+    public void setThreadingManager(ThreadingManager aThreadingManager) {
+        threadingManager = aThreadingManager;
+    }
+
     public GameSystem[] getSystems() {
         return systems;
     }
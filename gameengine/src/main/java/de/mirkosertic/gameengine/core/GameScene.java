@@ -20,6 +20,7 @@ import de.mirkosertic.gameengine.annotations.ReflectiveField;
 import de.mirkosertic.gameengine.annotations.ReflectiveMethod;
 import de.mirkosertic.gameengine.event.GameEventManager;
 import de.mirkosertic.gameengine.event.Property;
+import de.mirkosertic.gameengine.event.PropertyChangeMode;
 import de.mirkosertic.gameengine.type.Color;
 import de.mirkosertic.gameengine.type.CustomProperties;
 import de.mirkosertic.gameengine.type.KeyValueObjectCache;
@@ -27,12 +28,15 @@ import de.mirkosertic.gameengine.type.Position;
 import de.mirkosertic.gameengine.type.PositionAnchor;
 import de.mirkosertic.gameengine.type.Rectangle;
 import de.mirkosertic.gameengine.type.Reflectable;
+import de.mirkosertic.gameengine.type.ResourceName;
 import de.mirkosertic.gameengine.type.Size;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class GameScene implements Reflectable<GameSceneClassInformation>, KeyValueObjectCache {
 
@@ -44,6 +48,11 @@ public class GameScene implements Reflectable<GameSceneClassInformation>, KeyVal
     public static final String COLOR_PROPERTY = "color";
     public static final String LAYOUT_BOUNDS_PROPERTY = "layoutBounds";
     public static final String CUSTOM_PROPERTIES_PROPERTY = "customProperties";
+    public static final String PHYSICS_STEP_RATE_PROPERTY = "physicsStepRate";
+    public static final String PHYSICS_VELOCITY_ITERATIONS_PROPERTY = "physicsVelocityIterations";
+    public static final String PHYSICS_POSITION_ITERATIONS_PROPERTY = "physicsPositionIterations";
+    public static final String PROPERTY_CHANGE_MODE_PROPERTY = "propertyChangeMode";
+    public static final String LOGICAL_TIMESTAMPS_PROPERTY = "logicalTimestamps";
 
     private final Property<String> name;
     private final Property<GameObject> cameraObject;
@@ -51,9 +60,14 @@ public class GameScene implements Reflectable<GameSceneClassInformation>, KeyVal
     private final Property<Color> backgroundColor;
     private final Property<Rectangle> layoutBounds;
     private final Property<CustomProperties> customProperties;
+    private final Property<Integer> physicsStepRate;
+    private final Property<Integer> physicsVelocityIterations;
+    private final Property<Integer> physicsPositionIterations;
+    private final Property<PropertyChangeMode> propertyChangeMode;
+    private final Property<Boolean> logicalTimestamps;
 
     private GameObject[] objects;
-    private GameObjectInstance[] instances;
+    private final GameObjectInstanceRegistry instances;
     private EventSheet[] eventSheets;
     private Spritesheet[] spriteSheets;
 
@@ -78,7 +92,12 @@ public class GameScene implements Reflectable<GameSceneClassInformation>, KeyVal
         backgroundColor = new Property<>(Color.class, this, COLOR_PROPERTY, new Color(0, 0, 0), theManager);
         layoutBounds = new Property<>(Rectangle.class, this, LAYOUT_BOUNDS_PROPERTY, new Rectangle(), theManager);
         customProperties = new Property<>(CustomProperties.class, this, CUSTOM_PROPERTIES_PROPERTY, new CustomProperties(), theManager);
-        instances = new GameObjectInstance[0];
+        physicsStepRate = new Property<>(Integer.class, this, PHYSICS_STEP_RATE_PROPERTY, 30, theManager);
+        physicsVelocityIterations = new Property<>(Integer.class, this, PHYSICS_VELOCITY_ITERATIONS_PROPERTY, 6, theManager);
+        physicsPositionIterations = new Property<>(Integer.class, this, PHYSICS_POSITION_ITERATIONS_PROPERTY, 2, theManager);
+        propertyChangeMode = new Property<>(PropertyChangeMode.class, this, PROPERTY_CHANGE_MODE_PROPERTY, PropertyChangeMode.IMMEDIATE, theManager);
+        logicalTimestamps = new Property<>(Boolean.class, this, LOGICAL_TIMESTAMPS_PROPERTY, Boolean.FALSE, theManager);
+        instances = new GameObjectInstanceRegistry(aGameRuntime.getLogger());
         objects = new GameObject[0];
         spriteSheets = new Spritesheet[0];
         eventSheets = new EventSheet[0];
@@ -130,6 +149,32 @@ public class GameScene implements Reflectable<GameSceneClassInformation>, KeyVal
         return customProperties;
     }
 
+    // Simulation steps per second
+    @ReflectiveField
+    public Property<Integer> physicsStepRateProperty() {
+        return physicsStepRate;
+    }
+
+    @ReflectiveField
+    public Property<Integer> physicsVelocityIterationsProperty() {
+        return physicsVelocityIterations;
+    }
+
+    @ReflectiveField
+    public Property<Integer> physicsPositionIterationsProperty() {
+        return physicsPositionIterations;
+    }
+
+    // How the event manager of the runtime is notified about property changes, applied once the scene is loaded
+    public Property<PropertyChangeMode> propertyChangeModeProperty() {
+        return propertyChangeMode;
+    }
+
+    // Use the tick number instead of the wall clock as the last change time of properties
+    public Property<Boolean> logicalTimestampsProperty() {
+        return logicalTimestamps;
+    }
+
     public GameObject createNewGameObject(String aName) {
         GameObject theObject = new GameObject(this, aName);
         addGameObject(theObject);
@@ -146,9 +191,7 @@ public class GameScene implements Reflectable<GameSceneClassInformation>, KeyVal
 
     @ReflectiveMethod
     public void addInstance(GameObjectInstance aInstance) {
-        List<GameObjectInstance> theInstances = ArrayUtils.asList(instances);
-        if (theInstances.add(aInstance)) {
-            instances = theInstances.toArray(new GameObjectInstance[theInstances.size()]);
+        if (instances.add(aInstance)) {
             gameRuntime.getEventManager().fire(new GameObjectInstanceAddedToScene(aInstance));
         }
     }
@@ -181,6 +224,7 @@ public class GameScene implements Reflectable<GameSceneClassInformation>, KeyVal
                 if (thePreEffects.remove(aInstance)) {
                     preprocessorEffects = thePreEffects.toArray(new GameSceneEffect[thePreEffects.size()]);
                     gameRuntime.getEventManager().fire(new GameSceneEffectRemovedFromScene(this, aInstance));
+                    gameRuntime.getEventManager().unregisterAll(aInstance);
                 }
                 break;
             case POSTPROCESSOR:
@@ -188,6 +232,7 @@ public class GameScene implements Reflectable<GameSceneClassInformation>, KeyVal
                 if (thePostEffects.remove(aInstance)) {
                     postprocessorEffects = thePostEffects.toArray(new GameSceneEffect[thePostEffects.size()]);
                     gameRuntime.getEventManager().fire(new GameSceneEffectRemovedFromScene(this, aInstance));
+                    gameRuntime.getEventManager().unregisterAll(aInstance);
                 }
                 break;
             default:
@@ -195,8 +240,9 @@ public class GameScene implements Reflectable<GameSceneClassInformation>, KeyVal
         }
     }
 
+    // The returned array is a snapshot, it is not modified by later changes to the scene
     public GameObjectInstance[] getInstances() {
-        return instances;
+        return instances.snapshot();
     }
 
     public GameObject[] getObjects() {
@@ -219,6 +265,38 @@ public class GameScene implements Reflectable<GameSceneClassInformation>, KeyVal
         return postprocessorEffects;
     }
 
+    // All resources used by behaviors, actions and effects of this scene, in the order they were found
+    public Set<ResourceName> getReferencedResources() {
+        Set<ResourceName> theResult = new LinkedHashSet<>();
+        for (GameObject theObject : objects) {
+            for (BehaviorTemplate theTemplate : theObject.getBehaviorTemplates()) {
+                if (theTemplate instanceof ReferencesResources) {
+                    ((ReferencesResources) theTemplate).collectResourceNames(theResult);
+                }
+            }
+        }
+        for (EventSheet theSheet : eventSheets) {
+            for (GameRule theRule : theSheet.getRules()) {
+                for (Action theAction : theRule.getActions()) {
+                    if (theAction instanceof ReferencesResources) {
+                        ((ReferencesResources) theAction).collectResourceNames(theResult);
+                    }
+                }
+            }
+        }
+        for (GameSceneEffect theEffect : preprocessorEffects) {
+            if (theEffect instanceof ReferencesResources) {
+                ((ReferencesResources) theEffect).collectResourceNames(theResult);
+            }
+        }
+        for (GameSceneEffect theEffect : postprocessorEffects) {
+            if (theEffect instanceof ReferencesResources) {
+                ((ReferencesResources) theEffect).collectResourceNames(theResult);
+            }
+        }
+        return theResult;
+    }
+
     public GameObject findObjectByID(String aObjectUUID) {
         for (GameObject theObject : objects) {
             if (theObject.uuidProperty().get().equals(aObjectUUID)) {
@@ -240,22 +318,20 @@ public class GameScene implements Reflectable<GameSceneClassInformation>, KeyVal
 
     @ReflectiveMethod
     public GameObjectInstance findInstanceByName(String aName) {
-        for (GameObjectInstance theInstance : instances) {
-            if (aName.equals(theInstance.nameProperty().get())) {
-                return theInstance;
-            }
-        }
-        return null;
+        return instances.findByName(aName);
     }
 
     @ReflectiveMethod
     public GameObjectInstance findInstanceByID(String aInstanceID) {
-        for (GameObjectInstance theInstance : instances) {
-            if (aInstanceID.equals(theInstance.uuidProperty().get())) {
-                return theInstance;
-            }
-        }
-        return null;
+        return instances.findById(aInstanceID);
+    }
+
+    public GameObjectInstance findInstanceByHandle(int aHandle) {
+        return instances.findByHandle(aHandle);
+    }
+
+    public int getInstanceHandleCapacity() {
+        return instances.handleCapacity();
     }
 
     @ReflectiveMethod
@@ -270,16 +346,16 @@ public class GameScene implements Reflectable<GameSceneClassInformation>, KeyVal
 
     @ReflectiveMethod
     public void removeGameObjectInstance(GameObjectInstance aInstance) {
-        List<GameObjectInstance> theInstances = ArrayUtils.asList(instances);
-        if (theInstances.remove(aInstance)) {
-            instances = theInstances.toArray(new GameObjectInstance[theInstances.size()]);
-            gameRuntime.getEventManager().fire(new GameObjectInstanceRemovedFromScene(this, aInstance));
+        if (instances.remove(aInstance)) {
+            GameEventManager theEventManager = gameRuntime.getEventManager();
+            theEventManager.fire(new GameObjectInstanceRemovedFromScene(this, aInstance));
+            // Behaviors register their listeners with the instance as the owner
+            theEventManager.unregisterAll(aInstance);
         }
     }
 
     public void removeGameObject(GameObject aGameObject) {
-        List<GameObjectInstance> theInstances = ArrayUtils.asList(instances);
-        for (GameObjectInstance theInstance : theInstances) {
+        for (GameObjectInstance theInstance : instances.snapshot()) {
             if (theInstance.getOwnerGameObject() == aGameObject) {
                 removeGameObjectInstance(theInstance);
             }
@@ -347,7 +423,7 @@ public class GameScene implements Reflectable<GameSceneClassInformation>, KeyVal
         }
 
         List<Map<String, Object>> theInstances = new ArrayList<>();
-        for (GameObjectInstance theInstance : instances) {
+        for (GameObjectInstance theInstance : instances.snapshot()) {
             theInstances.add(theInstance.serialize());
         }
         theResult.put("instances", theInstances);
@@ -377,6 +453,12 @@ public class GameScene implements Reflectable<GameSceneClassInformation>, KeyVal
 
         theResult.put("customProperties", customProperties.get().serialize());
 
+        theResult.put(PHYSICS_STEP_RATE_PROPERTY, Integer.toString(physicsStepRate.get()));
+        theResult.put(PHYSICS_VELOCITY_ITERATIONS_PROPERTY, Integer.toString(physicsVelocityIterations.get()));
+        theResult.put(PHYSICS_POSITION_ITERATIONS_PROPERTY, Integer.toString(physicsPositionIterations.get()));
+        theResult.put(PROPERTY_CHANGE_MODE_PROPERTY, propertyChangeMode.get().name());
+        theResult.put(LOGICAL_TIMESTAMPS_PROPERTY, Boolean.toString(logicalTimestamps.get()));
+
         return theResult;
     }
 
@@ -451,18 +533,39 @@ public class GameScene implements Reflectable<GameSceneClassInformation>, KeyVal
             theScene.customProperties.setQuietly(CustomProperties.deserialize(theCustomProperties));
         }
 
+        String thePhysicsStepRate = (String) aSerializedData.get(PHYSICS_STEP_RATE_PROPERTY);
+        if (thePhysicsStepRate != null) {
+            theScene.physicsStepRate.setQuietly(Integer.parseInt(thePhysicsStepRate));
+        }
+        String thePhysicsVelocityIterations = (String) aSerializedData.get(PHYSICS_VELOCITY_ITERATIONS_PROPERTY);
+        if (thePhysicsVelocityIterations != null) {
+            theScene.physicsVelocityIterations.setQuietly(Integer.parseInt(thePhysicsVelocityIterations));
+        }
+        String thePhysicsPositionIterations = (String) aSerializedData.get(PHYSICS_POSITION_ITERATIONS_PROPERTY);
+        if (thePhysicsPositionIterations != null) {
+            theScene.physicsPositionIterations.setQuietly(Integer.parseInt(thePhysicsPositionIterations));
+        }
+        String thePropertyChangeMode = (String) aSerializedData.get(PROPERTY_CHANGE_MODE_PROPERTY);
+        if (thePropertyChangeMode != null) {
+            theScene.propertyChangeMode.setQuietly(PropertyChangeMode.valueOf(thePropertyChangeMode));
+        }
+        String theLogicalTimestamps = (String) aSerializedData.get(LOGICAL_TIMESTAMPS_PROPERTY);
+        if (theLogicalTimestamps != null) {
+            theScene.logicalTimestamps.setQuietly(Boolean.parseBoolean(theLogicalTimestamps));
+        }
+
         return theScene;
     }
 
     public Position computeCenter() {
-        if (instances.length == 0) {
+        if (instances.size() == 0) {
             return new Position(0, 0);
         }
         int theMinX = Integer.MAX_VALUE;
         int theMinY = Integer.MAX_VALUE;
         int theMaxX = Integer.MIN_VALUE;
         int theMaxY = Integer.MIN_VALUE;
-        for (GameObjectInstance theInstance : instances) {
+        for (GameObjectInstance theInstance : instances.snapshot()) {
             // Ignore instances with absolute positioning
             if (theInstance.positionAnchorProperty().get() == PositionAnchor.SCENE) {
                 Position thePosition = theInstance.positionProperty().get();
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2016 Mirko Sertic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.mirkosertic.gameengine.core;
+
+public class GameSystemResource {
+
+    public static final GameSystemResource INSTANCES = new GameSystemResource("Instances");
+    public static final GameSystemResource EVENTS = new GameSystemResource("Events");
+    public static final GameSystemResource PROCESSES = new GameSystemResource("Processes");
+    public static final GameSystemResource PHYSICS = new GameSystemResource("Physics");
+    public static final GameSystemResource SOUND = new GameSystemResource("Sound");
+
+    private final String name;
+
+    public GameSystemResource(String aName) {
+        name = aName;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2016 Mirko Sertic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.mirkosertic.gameengine.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Runs the work of the game systems in stages. A system is put into the first stage after all
+// previously registered systems it conflicts with, so the order of conflicting systems is always
+// the registration order. Systems of the same stage are submitted to the ThreadingManager,
+// while the first one of every stage runs on the calling thread.
+//
+// This is infrastructure only for now. The event manager and the instances are not thread-safe,
+// and every system shipped with the engine fires events or changes instances in frame, so all
+// of them get stages of their own. Only systems keeping to their own state in frame, declaring
+// disjoint resources, share a stage.
+public class GameSystemScheduler {
+
+    private static final GameSystemWork[] NO_WORK = new GameSystemWork[0];
+
+    private final RuntimeStatistics statistics;
+    private GameSystem[] plannedSystems;
+    private int[][] stages;
+
+    public GameSystemScheduler() {
+        this(null);
+    }
+
+    // The runInFrame time of every system is recorded to the given statistics, if any
+    public GameSystemScheduler(RuntimeStatistics aStatistics) {
+        statistics = aStatistics;
+    }
+
+    public GameSystemWork[] proceedGame(GameSystem[] aSystems, ThreadingManager aThreadingManager,
+            long aTotalTicks, long aGameTime, long aElapsedTime) throws Exception {
+        if (aSystems.length == 0) {
+            return NO_WORK;
+        }
+        if (aSystems != plannedSystems) {
+            plan(aSystems);
+        }
+
+        GameSystemWork[] theWork = new GameSystemWork[aSystems.length];
+        for (int i = 0; i < aSystems.length; i++) {
+            theWork[i] = aSystems[i].proceedGame(aTotalTicks, aGameTime, aElapsedTime);
+        }
+
+        // Without real threading, everything runs in registration order, just like before
+        boolean theSequential = aThreadingManager == null || aThreadingManager instanceof NoThreadingThreadingManager;
+        if (theSequential) {
+            for (int i = 0; i < theWork.length; i++) {
+                runInFrame(aSystems[i], theWork[i]);
+            }
+            return theWork;
+        }
+
+        for (int[] theStage : stages) {
+            if (theStage.length == 1) {
+                for (int theIndex : theStage) {
+                    runInFrame(aSystems[theIndex], theWork[theIndex]);
+                }
+            } else {
+                runInParallel(aSystems, theWork, theStage, aThreadingManager);
+            }
+        }
+
+        return theWork;
+    }
+
+    private void runInFrame(GameSystem aSystem, GameSystemWork aWork) {
+        if (statistics == null) {
+            aWork.runInFrame();
+            return;
+        }
+        long theStart = statistics.nanoTime();
+        aWork.runInFrame();
+        statistics.recordPhase(aSystem, FramePhase.RUN_IN_FRAME, theStart);
+    }
+
+    private long now() {
+        if (statistics == null) {
+            return 0;
+        }
+        return statistics.nanoTime();
+    }
+
+    private void runInParallel(GameSystem[] aSystems, GameSystemWork[] aWork, int[] aStage, ThreadingManager aThreadingManager) throws Exception {
+        FutureResult[] theResults = new FutureResult[aStage.length];
+        // The jobs only measure, the durations are recorded on this thread once all of them are complete
+        final long[] theDurations = new long[aStage.length];
+        Exception theError = null;
+        try {
+            for (int i = 1; i < aStage.length; i++) {
+                final GameSystemWork theWork = aWork[aStage[i]];
+                final int theSlot = i;
+                theResults[i] = aThreadingManager.submit(new Job() {
+                    @Override
+                    public void run() {
+                        long theStart = now();
+                        theWork.runInFrame();
+                        theDurations[theSlot] = now() - theStart;
+                    }
+                });
+            }
+            long theStart = now();
+            aWork[aStage[0]].runInFrame();
+            theDurations[0] = now() - theStart;
+        } catch (Exception e) {
+            theError = e;
+        }
+        // Every submitted job has to complete before the stage is left, even in case of errors
+        for (FutureResult theResult : theResults) {
+            if (theResult != null) {
+                try {
+                    theResult.waitForCompletion();
+                } catch (Exception e) {
+                    if (theError == null) {
+                        theError = e;
+                    }
+                }
+            }
+        }
+        if (theError != null) {
+            throw theError;
+        }
+        if (statistics != null) {
+            for (int i = 0; i < aStage.length; i++) {
+                statistics.recordPhaseDuration(aSystems[aStage[i]], FramePhase.RUN_IN_FRAME, theDurations[i]);
+            }
+        }
+    }
+
+    private void plan(GameSystem[] aSystems) {
+        int[] theStageOfSystem = new int[aSystems.length];
+        int theStageCount = 0;
+        for (int i = 0; i < aSystems.length; i++) {
+            int theStage = 0;
+            for (int j = 0; j < i; j++) {
+                if (conflicts(aSystems[i], aSystems[j])) {
+                    theStage = Math.max(theStage, theStageOfSystem[j] + 1);
+                }
+            }
+            theStageOfSystem[i] = theStage;
+            theStageCount = Math.max(theStageCount, theStage + 1);
+        }
+
+        int[][] theStages = new int[theStageCount][];
+        for (int theStage = 0; theStage < theStageCount; theStage++) {
+            List<Integer> theMembers = new ArrayList<>();
+            for (int i = 0; i < aSystems.length; i++) {
+                if (theStageOfSystem[i] == theStage) {
+                    theMembers.add(i);
+                }
+            }
+            theStages[theStage] = new int[theMembers.size()];
+            for (int i = 0; i < theMembers.size(); i++) {
+                theStages[theStage][i] = theMembers.get(i);
+            }
+        }
+
+        stages = theStages;
+        plannedSystems = aSystems;
+    }
+
+    int[][] getStages() {
+        return stages;
+    }
+
+    static boolean conflicts(GameSystem aSystem1, GameSystem aSystem2) {
+        if (!(aSystem1 instanceof GameSystemDependencies) || !(aSystem2 instanceof GameSystemDependencies)) {
+            return true;
+        }
+        GameSystemDependencies theDependencies1 = (GameSystemDependencies) aSystem1;
+        GameSystemDependencies theDependencies2 = (GameSystemDependencies) aSystem2;
+        return intersects(theDependencies1.getWriteResources(), theDependencies2.getWriteResources())
+                || intersects(theDependencies1.getWriteResources(), theDependencies2.getReadResources())
+                || intersects(theDependencies1.getReadResources(), theDependencies2.getWriteResources());
+    }
+
+    private static boolean intersects(GameSystemResource[] aResources1, GameSystemResource[] aResources2) {
+        for (GameSystemResource theResource1 : aResources1) {
+            for (GameSystemResource theResource2 : aResources2) {
+                if (theResource1 == theResource2) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -17,7 +17,7 @@ package de.mirkosertic.gameengine.core;
 
 public interface GameView {
 
-    void renderGame(long aGameTime, long aElapsedTimeSinceLastLoop, GameScene aScene, RuntimeStatistics aStatistics);
+    void renderGame(long aGameTime, long aElapsedTimeSinceLastLoop, float aInterpolationAlpha, GameScene aScene, RuntimeStatistics aStatistics);
 
     GestureDetector getGestureDetector();
 }
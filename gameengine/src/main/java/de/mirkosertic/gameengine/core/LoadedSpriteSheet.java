@@ -17,6 +17,9 @@ package de.mirkosertic.gameengine.core;
 
 import de.mirkosertic.gameengine.type.ResourceName;
 
+import java.util.Collections;
+import java.util.Map;
+
 public interface LoadedSpriteSheet<T extends GameResource> {
 
     LoadedSpriteSheet EMPTY = new LoadedSpriteSheet() {
@@ -24,7 +27,15 @@ public interface LoadedSpriteSheet<T extends GameResource> {
         public GameResource getResourceFor(ResourceName aResourceName) {
             return null;
         }
+
+        @Override
+        public Map getResources() {
+            return Collections.emptyMap();
+        }
     };
 
     T getResourceFor(ResourceName aResourceName);
+
+    // All frames of this sheet by frame name
+    Map<String, T> getResources();
 }
@@ -17,6 +17,12 @@ package de.mirkosertic.gameengine.core;
 
 public interface Logger {
 
+    // Categories of the spans reported by the engine itself
+    String SPAN_TICK = "tick";
+    String SPAN_EVENT = "event";
+    String SPAN_RULE = "rule";
+    String SPAN_SCRIPT = "script";
+
     void info(String aMessage);
 
     void error(String aMessage);
@@ -24,4 +30,12 @@ public interface Logger {
     void time(String aLabel);
 
     void timeEnd(String aLabel);
+
+    // Engine spans happen very often, so the engine only reports them, and only builds
+    // their names, if the logger asks for them
+    boolean isTracing();
+
+    void beginSpan(String aCategory, String aName);
+
+    void endSpan(String aCategory, String aName);
 }
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2016 Mirko Sertic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.mirkosertic.gameengine.core;
+
+public class ManualGameClock implements GameClock {
+
+    private long currentTime;
+
+    public ManualGameClock() {
+        this(0);
+    }
+
+    public ManualGameClock(long aStartTime) {
+        currentTime = aStartTime;
+    }
+
+    @Override
+    public long nanoTime() {
+        return currentTime;
+    }
+
+    @Override
+    public void waitUntil(long aNanoTime) {
+        // There is no need to wait, we just jump to the given point in time
+        if (aNanoTime > currentTime) {
+            currentTime = aNanoTime;
+        }
+    }
+
+    public void advance(long aNanos) {
+        currentTime += aNanos;
+    }
+
+    public void advanceMillis(long aMillis) {
+        advance(aMillis * GameLoop.NANOS_PER_MILLI);
+    }
+}
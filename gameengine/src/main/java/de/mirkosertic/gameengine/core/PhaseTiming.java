@@ -0,0 +1,58 @@
+/*
+ * Copyright 2016 Mirko Sertic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.mirkosertic.gameengine.core;
+
+// The durations of a single phase of something taking part in a frame, for instance
+// the runInFrame part of a GameSystem or the renderGame call of a GameView
+public class PhaseTiming {
+
+    private final Object source;
+    private final FramePhase phase;
+    private final String name;
+    private final FrameTimeHistogram histogram;
+
+    PhaseTiming(Object aSource, FramePhase aPhase) {
+        source = aSource;
+        phase = aPhase;
+        name = nameOf(aSource) + "." + aPhase.getLabel();
+        histogram = new FrameTimeHistogram();
+    }
+
+    private static String nameOf(Object aSource) {
+        String theName = aSource.getClass().getName();
+        int theLastDot = theName.lastIndexOf('.');
+        if (theLastDot >= 0) {
+            theName = theName.substring(theLastDot + 1);
+        }
+        return theName;
+    }
+
+    public Object getSource() {
+        return source;
+    }
+
+    public FramePhase getPhase() {
+        return phase;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public FrameTimeHistogram getHistogram() {
+        return histogram;
+    }
+}
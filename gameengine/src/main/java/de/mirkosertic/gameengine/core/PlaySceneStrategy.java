@@ -76,6 +76,9 @@ public abstract class PlaySceneStrategy {
     protected void handleSystemException(SystemException e) {
     }
 
+    protected void prefetchProgress(int aFinished, int aTotal, long aLoadedBytes) {
+    }
+
     public Promise<GameScene, String> playScene(final GameScene aGameScene) {
         return new Promise<>(new Promise.Executor() {
             @Override
@@ -181,6 +184,30 @@ public abstract class PlaySceneStrategy {
                     }
                 };
 
+                // Everything else the scene references is loaded after the sprite sheets, as frames found in
+                // a sheet need no loading at all
+                final Runnable thePrefetchRunnable = new Runnable() {
+                    @Override
+                    public void run() {
+                        new ResourcePrefetcher(theRuntime).prefetch(aGameScene.getReferencedResources(), new ResourcePrefetcher.Listener() {
+                            @Override
+                            public void progress(int aFinished, int aTotal, long aLoadedBytes) {
+                                prefetchProgress(aFinished, aTotal, aLoadedBytes);
+                            }
+                        }).thenContinue(new Promise.NoReturnHandler<ResourcePrefetcher>() {
+                            @Override
+                            public void process(ResourcePrefetcher aResult) {
+                                theRuntime.getLogger().info("Prefetched " + aResult.getTotal() + " resources with " + aResult.getLoadedBytes() + " bytes, " + aResult.getFailed() + " failed, " + aResult.getSkipped() + " skipped");
+
+                                theFinishedRunnable.run();
+                            }
+                        });
+                    }
+                };
+
+                // Keep everything the scene references resident, and release what only earlier runs needed
+                theRuntime.getResourceCache().pinResourcesOf(aGameScene);
+
                 final Spritesheet[] theSheets = aGameScene.getSpriteSheets();
                 if (theSheets.length > 0) {
 
@@ -197,7 +224,7 @@ public abstract class PlaySceneStrategy {
                         public void process(Promise[] aResult) {
                             theRuntime.getLogger().info("spritesheet loading finished");
 
-                            theFinishedRunnable.run();
+                            thePrefetchRunnable.run();
                         }
                     });
 
@@ -205,7 +232,7 @@ public abstract class PlaySceneStrategy {
 
                     theRuntime.getLogger().info("Continuing loading without spritesheets");
 
-                    theFinishedRunnable.run();
+                    thePrefetchRunnable.run();
                 }
             }
         });
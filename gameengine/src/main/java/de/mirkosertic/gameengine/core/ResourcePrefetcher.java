@@ -0,0 +1,159 @@
+/*
+ * Copyright 2016 Mirko Sertic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.mirkosertic.gameengine.core;
+
+import de.mirkosertic.gameengine.type.ResourceName;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// Loads a set of resources into the cache before they are needed. Every resource is loaded
+// by its own job on the threading manager, so the pool of the threading manager bounds the
+// number of resources decoded in parallel. Asynchronous loaders like the browser based ones
+// just start all downloads at once. Nothing waits for the jobs, the returned promise is
+// resolved by whatever thread settles the last load.
+public class ResourcePrefetcher {
+
+    public interface Listener {
+
+        void progress(int aFinished, int aTotal, long aLoadedBytes);
+    }
+
+    private final GameResourceCache cache;
+    private final ThreadingManager threadingManager;
+    private final Logger logger;
+    private int total;
+    private int finished;
+    private int failed;
+    private int skipped;
+    private long loadedBytes;
+
+    public ResourcePrefetcher(GameRuntime aRuntime) {
+        this(aRuntime.getResourceCache(), aRuntime.getThreadingManager(), aRuntime.getLogger());
+    }
+
+    ResourcePrefetcher(GameResourceCache aCache, ThreadingManager aThreadingManager, Logger aLogger) {
+        cache = aCache;
+        threadingManager = aThreadingManager;
+        logger = aLogger;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int getFinished() {
+        return finished;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public int getSkipped() {
+        return skipped;
+    }
+
+    public long getLoadedBytes() {
+        return loadedBytes;
+    }
+
+    public Promise<ResourcePrefetcher, String> prefetch(Collection<ResourceName> aResources, final Listener aListener) {
+        List<ResourceName> theMissing = new ArrayList<>();
+        int theSkipped = 0;
+        for (ResourceName theResource : aResources) {
+            if (theResource != null && theResource.name != null && !cache.isLoaded(theResource) && !theMissing.contains(theResource)) {
+                // No loader would ever settle the load of an unknown type, so it is left to be loaded when it is used
+                if (GameResourceType.forName(theResource) == null) {
+                    theSkipped++;
+                    continue;
+                }
+                theMissing.add(theResource);
+            }
+        }
+        total = theMissing.size();
+        finished = 0;
+        failed = 0;
+        skipped = theSkipped;
+        loadedBytes = 0;
+
+        final Promise<ResourcePrefetcher, String> theResult = new Promise<>();
+        if (total == 0) {
+            theResult.resolve(this);
+            return theResult;
+        }
+
+        final GameResourceLoader theLoader = cache.getResourceLoader();
+        for (final ResourceName theResourceName : theMissing) {
+            threadingManager.submit(new Job() {
+                @Override
+                public void run() {
+                    Promise<GameResource, String> theLoad;
+                    try {
+                        theLoad = theLoader.load(theResourceName);
+                    } catch (Exception e) {
+                        failed(theResourceName, e.getMessage(), aListener, theResult);
+                        return;
+                    }
+                    theLoad.thenContinue(new Promise.NoReturnHandler<GameResource>() {
+                        @Override
+                        public void process(GameResource aResult) {
+                            loaded(theResourceName, aResult, aListener, theResult);
+                        }
+                    }).catchError(new Promise.ErrorHandler<String>() {
+                        @Override
+                        public void process(String aResult, Exception aOptionalException) {
+                            failed(theResourceName, aResult, aListener, theResult);
+                        }
+                    });
+                }
+            });
+        }
+        return theResult;
+    }
+
+    private void loaded(ResourceName aResourceName, GameResource aResource, Listener aListener, Promise<ResourcePrefetcher, String> aResult) {
+        boolean theLast;
+        synchronized (this) {
+            cache.addLoaded(aResourceName, aResource);
+            loadedBytes += aResource.getSizeInBytes();
+            theLast = finished(aListener);
+        }
+        if (theLast) {
+            aResult.resolve(this);
+        }
+    }
+
+    private void failed(ResourceName aResourceName, String aReason, Listener aListener, Promise<ResourcePrefetcher, String> aResult) {
+        boolean theLast;
+        synchronized (this) {
+            // A missing resource is not fatal, it is loaded or reported again when it is used
+            logger.error("Cannot prefetch " + aResourceName.name + " : " + aReason);
+            failed++;
+            theLast = finished(aListener);
+        }
+        if (theLast) {
+            aResult.resolve(this);
+        }
+    }
+
+    private boolean finished(Listener aListener) {
+        finished++;
+        aListener.progress(finished, total, loadedBytes);
+        return finished == total;
+    }
+}
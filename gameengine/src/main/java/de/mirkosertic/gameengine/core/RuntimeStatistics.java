@@ -15,17 +15,39 @@
  */
 package de.mirkosertic.gameengine.core;
 
+import de.mirkosertic.gameengine.ArrayUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 public class RuntimeStatistics {
 
+    private static final PhaseTiming[] NO_TIMINGS = new PhaseTiming[0];
+
     private final long startTime;
+    // Durations are always measured in real time, even if the game loop runs on a manual clock
+    private final GameClock timer;
     private long numberTicks;
     private long cycleStart;
-    private long averageTimePerLoopCycle;
+    private final FrameTimeHistogram frameTimes;
+    private final Map<Object, PhaseTiming[]> timingsBySource;
+    private PhaseTiming[] timings;
     private long numberOfNetworkeventsSend;
     private long numberOfNetworkeventsReceived;
+    private long numberOfDroppedNetworkframes;
+    private long droppedSimulationTime;
 
     public RuntimeStatistics() {
+        this(new SystemGameClock());
+    }
+
+    RuntimeStatistics(GameClock aTimer) {
         startTime = System.currentTimeMillis();
+        timer = aTimer;
+        frameTimes = new FrameTimeHistogram();
+        timingsBySource = new HashMap<>();
+        timings = NO_TIMINGS;
     }
 
     public long incrementTicks() {
@@ -43,6 +65,28 @@ public class RuntimeStatistics {
         return numberOfNetworkeventsReceived;
     }
 
+    public long addNumberOfNetworkeventsReceived(int aCount) {
+        numberOfNetworkeventsReceived += aCount;
+        return numberOfNetworkeventsReceived;
+    }
+
+    public long incrementNumberOfDroppedNetworkframes() {
+        numberOfDroppedNetworkframes++;
+        return numberOfDroppedNetworkframes;
+    }
+
+    public long getNumberOfDroppedNetworkframes() {
+        return numberOfDroppedNetworkframes;
+    }
+
+    public void addDroppedSimulationTime(long aNanos) {
+        droppedSimulationTime += aNanos;
+    }
+
+    public long getDroppedSimulationTime() {
+        return droppedSimulationTime;
+    }
+
     public long getStartTime() {
         return startTime;
     }
@@ -52,14 +96,64 @@ public class RuntimeStatistics {
     }
 
     public void beginGameLoop() {
-        cycleStart = System.currentTimeMillis();
+        cycleStart = timer.nanoTime();
     }
 
     public void endGameLoop() {
-        averageTimePerLoopCycle = (averageTimePerLoopCycle + System.currentTimeMillis() - cycleStart) / 2;
+        frameTimes.record(timer.nanoTime() - cycleStart);
+    }
+
+    public FrameTimeHistogram getFrameTimes() {
+        return frameTimes;
+    }
+
+    public long nanoTime() {
+        return timer.nanoTime();
+    }
+
+    // Records the time passed since aStartNanos, which was taken from nanoTime()
+    public void recordPhase(Object aSource, FramePhase aPhase, long aStartNanos) {
+        recordPhaseDuration(aSource, aPhase, timer.nanoTime() - aStartNanos);
+    }
+
+    // Must be called from the game loop thread, durations measured on other
+    // threads have to be handed over once their work is complete
+    public void recordPhaseDuration(Object aSource, FramePhase aPhase, long aDurationNanos) {
+        PhaseTiming[] theTimings = timingsBySource.get(aSource);
+        if (theTimings == null) {
+            theTimings = new PhaseTiming[FramePhase.values().length];
+            timingsBySource.put(aSource, theTimings);
+        }
+        PhaseTiming theTiming = theTimings[aPhase.ordinal()];
+        if (theTiming == null) {
+            theTiming = new PhaseTiming(aSource, aPhase);
+            theTimings[aPhase.ordinal()] = theTiming;
+
+            List<PhaseTiming> theAllTimings = ArrayUtils.asList(timings);
+            theAllTimings.add(theTiming);
+            timings = theAllTimings.toArray(new PhaseTiming[theAllTimings.size()]);
+        }
+        theTiming.getHistogram().record(aDurationNanos);
+    }
+
+    // All phases recorded so far, in the order they were first seen
+    public PhaseTiming[] getPhaseTimings() {
+        return timings;
+    }
+
+    public PhaseTiming getPhaseTiming(Object aSource, FramePhase aPhase) {
+        PhaseTiming[] theTimings = timingsBySource.get(aSource);
+        if (theTimings == null) {
+            return null;
+        }
+        return theTimings[aPhase.ordinal()];
     }
 
-    public long getAverageTimePerLoopCycle() {
-        return averageTimePerLoopCycle;
+    // Starts a new measurement window, so older hitches do not hide the current behavior
+    public void resetTimings() {
+        frameTimes.reset();
+        for (PhaseTiming theTiming : timings) {
+            theTiming.getHistogram().reset();
+        }
     }
 }
\ No newline at end of file
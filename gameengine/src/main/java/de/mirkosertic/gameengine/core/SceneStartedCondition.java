@@ -16,6 +16,7 @@
 package de.mirkosertic.gameengine.core;
 
 import de.mirkosertic.gameengine.event.GameEvent;
+import de.mirkosertic.gameengine.event.GameEventType;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -24,6 +25,8 @@ public class SceneStartedCondition  implements Condition {
 
     static final String TYPE_VALUE = "SceneStartedCondition";
 
+    private static final GameEventType[] MATCHING_EVENT_TYPES = new GameEventType[] {SceneStarted.TYPE};
+
     @UsedByReflection
     public SceneStartedCondition() {
     }
@@ -37,6 +40,11 @@ public class SceneStartedCondition  implements Condition {
         return ConditionResult.NOT_FULFILLED;
     }
 
+    @Override
+    public GameEventType[] getMatchingEventTypes() {
+        return MATCHING_EVENT_TYPES;
+    }
+
     @Override
     public Map<String, Object> serialize() {
         Map<String, Object> theResult = new HashMap<>();
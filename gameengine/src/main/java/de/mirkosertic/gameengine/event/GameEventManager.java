@@ -15,60 +15,251 @@
  */
 package de.mirkosertic.gameengine.event;
 
-import de.mirkosertic.gameengine.ArrayUtils;
 import de.mirkosertic.gameengine.core.Logger;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+// Neither dispatch nor registration is thread-safe. A game system firing events or changing
+// listeners in runInFrame has to declare GameSystemResource.EVENTS as written, so the
+// GameSystemScheduler never runs it in parallel to another system using events.
 public class GameEventManager implements GameEventListener {
 
-    private final Map<GameEventType, GameEventListener[]> registeredListeners;
+    // Listeners are kept in a mutable list, the array used for dispatch is only rebuilt
+    // on the next dispatch, so a batch of structural changes results in a single copy
+    private static class ListenerList {
+
+        private final List<GameEventListener> listeners = new ArrayList<>();
+        private GameEventListener[] snapshot = new GameEventListener[0];
+        private boolean modified;
+
+        void add(GameEventListener aListener) {
+            listeners.add(aListener);
+            modified = true;
+        }
+
+        void remove(GameEventListener aListener) {
+            if (listeners.remove(aListener)) {
+                modified = true;
+            }
+        }
+
+        GameEventListener[] snapshot() {
+            if (modified) {
+                snapshot = listeners.toArray(new GameEventListener[listeners.size()]);
+                modified = false;
+            }
+            return snapshot;
+        }
+    }
+
+    private static class Registration {
+
+        private final Object owner;
+        private final GameEventType type;
+        private final GameEventListener listener;
+
+        Registration(Object aOwner, GameEventType aType, GameEventListener aListener) {
+            owner = aOwner;
+            type = aType;
+            listener = aListener;
+        }
+    }
+
+    private final Map<GameEventType, ListenerList> registeredListeners;
+    private final Map<Object, List<Registration>> registrationsByOwner;
+    // The same registrations, so unregister finds the owner of a listener without a scan
+    private final Map<GameEventListener, List<Registration>> registrationsByListener;
     private final Logger logger;
 
-    private GameEventListener catchAllEventListener[];
+    private PropertyChangeMode propertyChangeMode;
+    private boolean logicalTimestamps;
+    private long logicalTime;
+
+    // Properties changed in the current frame, double buffered as listeners might change
+    // properties again while the coalesced changes are flushed
+    private Property[] dirtyProperties;
+    private int dirtyCount;
+    private Property[] flushingProperties;
 
     public GameEventManager(Logger aLogger) {
         logger = aLogger;
         registeredListeners = new HashMap<>();
-        catchAllEventListener = new GameEventListener[0];
+        registrationsByOwner = new HashMap<>();
+        registrationsByListener = new HashMap<>();
+        propertyChangeMode = PropertyChangeMode.IMMEDIATE;
+        dirtyProperties = new Property[16];
+        flushingProperties = new Property[16];
+    }
+
+    public PropertyChangeMode getPropertyChangeMode() {
+        return propertyChangeMode;
+    }
+
+    public void setPropertyChangeMode(PropertyChangeMode aMode) {
+        if (propertyChangeMode == PropertyChangeMode.COALESCED && aMode != PropertyChangeMode.COALESCED) {
+            flushPropertyChanges();
+        }
+        propertyChangeMode = aMode;
+    }
+
+    public boolean isLogicalTimestamps() {
+        return logicalTimestamps;
+    }
+
+    public void setLogicalTimestamps(boolean aLogicalTimestamps) {
+        logicalTimestamps = aLogicalTimestamps;
+    }
+
+    public long getLogicalTime() {
+        return logicalTime;
+    }
+
+    public void beginTick(long aTick) {
+        logicalTime = aTick;
+    }
+
+    void markDirty(Property aProperty, Object aOldValue) {
+        if (aProperty.isDirty()) {
+            // Already marked in this frame, the first old value wins
+            return;
+        }
+        if (dirtyCount == dirtyProperties.length) {
+            Property[] theNewDirty = new Property[dirtyProperties.length * 2];
+            System.arraycopy(dirtyProperties, 0, theNewDirty, 0, dirtyCount);
+            dirtyProperties = theNewDirty;
+        }
+        aProperty.markDirty(aOldValue);
+        dirtyProperties[dirtyCount++] = aProperty;
+    }
+
+    public void flushPropertyChanges() {
+        if (dirtyCount == 0) {
+            return;
+        }
+        Property[] theFlushing = dirtyProperties;
+        int theCount = dirtyCount;
+        dirtyProperties = flushingProperties;
+        dirtyCount = 0;
+        flushingProperties = theFlushing;
+
+        for (int i = 0; i < theCount; i++) {
+            Property theProperty = theFlushing[i];
+            theFlushing[i] = null;
+
+            Object theOldValue = theProperty.clearDirty();
+
+            // Changes reverted in the same frame are not notified at all
+            if (theProperty.hasChangedSince(theOldValue)) {
+                theProperty.fireCoalesced(theOldValue);
+            }
+        }
     }
 
     public void register(Object aOwningInstance, GameEventType aEvent, GameEventListener aEventListener) {
-        GameEventListener[] theListener = registeredListeners.get(aEvent);
+        ListenerList theListener = registeredListeners.get(aEvent);
         if (theListener == null) {
-            theListener = new GameEventListener[] { aEventListener };
+            theListener = new ListenerList();
             registeredListeners.put(aEvent, theListener);
+        }
+        theListener.add(aEventListener);
+
+        if (aOwningInstance != null) {
+            Registration theRegistration = new Registration(aOwningInstance, aEvent, aEventListener);
+            add(registrationsByOwner, aOwningInstance, theRegistration);
+            add(registrationsByListener, aEventListener, theRegistration);
+        }
+    }
+
+    private static <K> void add(Map<K, List<Registration>> aMap, K aKey, Registration aRegistration) {
+        List<Registration> theRegistrations = aMap.get(aKey);
+        if (theRegistrations == null) {
+            theRegistrations = new ArrayList<>();
+            aMap.put(aKey, theRegistrations);
+        }
+        theRegistrations.add(aRegistration);
+    }
+
+    private static <K> void remove(Map<K, List<Registration>> aMap, K aKey, Registration aRegistration) {
+        List<Registration> theRegistrations = aMap.get(aKey);
+        if (theRegistrations != null && theRegistrations.remove(aRegistration) && theRegistrations.isEmpty()) {
+            aMap.remove(aKey);
+        }
+    }
+
+    public void unregister(GameEventType aEvent, GameEventListener aEventListener) {
+        removeListener(aEvent, aEventListener);
 
-            if (GameEventType.CATCH_ALL.equals(aEvent)) {
-                catchAllEventListener = new GameEventListener[] { aEventListener };
+        // Forget the owner as well, so neither stays reachable till unregisterAll
+        List<Registration> theRegistrations = registrationsByListener.get(aEventListener);
+        if (theRegistrations != null) {
+            for (Registration theRegistration : theRegistrations) {
+                if (theRegistration.type.equals(aEvent)) {
+                    remove(registrationsByListener, aEventListener, theRegistration);
+                    remove(registrationsByOwner, theRegistration.owner, theRegistration);
+                    break;
+                }
             }
+        }
+    }
 
-            return;
+    private void removeListener(GameEventType aEvent, GameEventListener aEventListener) {
+        ListenerList theListener = registeredListeners.get(aEvent);
+        if (theListener != null) {
+            theListener.remove(aEventListener);
         }
-        List<GameEventListener> theListenerList = ArrayUtils.asList(theListener);
-        theListenerList.add(aEventListener);
+    }
+
+    public void unregisterAll(Object aOwningInstance) {
+        List<Registration> theRegistrations = registrationsByOwner.remove(aOwningInstance);
+        if (theRegistrations != null) {
+            for (Registration theRegistration : theRegistrations) {
+                removeListener(theRegistration.type, theRegistration.listener);
+                remove(registrationsByListener, theRegistration.listener, theRegistration);
+            }
+        }
+    }
 
-        GameEventListener[] theEventListener = theListenerList.toArray(new GameEventListener[theListenerList.size()]);
-        registeredListeners.put(aEvent, theEventListener);
+    int getRegistrationCount(Object aOwningInstance) {
+        List<Registration> theRegistrations = registrationsByOwner.get(aOwningInstance);
+        if (theRegistrations == null) {
+            return 0;
+        }
+        return theRegistrations.size();
+    }
 
-        if (GameEventType.CATCH_ALL.equals(aEvent)) {
-            catchAllEventListener = theEventListener;
+    int getListenerCount(GameEventType aEvent) {
+        ListenerList theListener = registeredListeners.get(aEvent);
+        if (theListener == null) {
+            return 0;
         }
+        return theListener.listeners.size();
+    }
+
+    boolean hasListeners(GameEventType aEvent) {
+        return getListenerCount(aEvent) > 0 || getListenerCount(GameEventType.CATCH_ALL) > 0;
     }
 
     public void fire(GameEvent aEvent) {
+        boolean theTracing = logger.isTracing();
+        if (theTracing) {
+            logger.beginSpan(Logger.SPAN_EVENT, aEvent.getType().getType());
+        }
         try {
             //logger.info("Firing event of type " + aEvent.getType().getType());
 
-            for (GameEventListener theListener : catchAllEventListener) {
-                theListener.handleGameEvent(aEvent);
+            ListenerList theCatchAllListener = registeredListeners.get(GameEventType.CATCH_ALL);
+            if (theCatchAllListener != null) {
+                for (GameEventListener theListener : theCatchAllListener.snapshot()) {
+                    theListener.handleGameEvent(aEvent);
+                }
             }
 
-            GameEventListener[] theRegisteredListener = registeredListeners.get(aEvent.getType());
+            ListenerList theRegisteredListener = registeredListeners.get(aEvent.getType());
             if (theRegisteredListener != null) {
-                for (GameEventListener theListener : theRegisteredListener) {
+                for (GameEventListener theListener : theRegisteredListener.snapshot()) {
                     theListener.handleGameEvent(aEvent);
                 }
             }
@@ -79,6 +270,10 @@ public class GameEventManager implements GameEventListener {
             } else {
                 fire(new SystemException(e));
             }
+        } finally {
+            if (theTracing) {
+                logger.endSpan(Logger.SPAN_EVENT, aEvent.getType().getType());
+            }
         }
     }
 
@@ -89,6 +284,7 @@ public class GameEventManager implements GameEventListener {
 
     public void clearListener() {
         registeredListeners.clear();
-        catchAllEventListener = new GameEventListener[0];
+        registrationsByOwner.clear();
+        registrationsByListener.clear();
     }
 }
@@ -23,8 +23,14 @@ public class Property<T> extends ReadOnlyProperty<T> {
 
     private GameEventListener<PropertyChanged> changeListener[];
 
+    private final GameEventManager eventManager;
+
     private long lastChanged;
 
+    // The value before the first change in the current frame, only valid while marked as dirty
+    private Object dirtyOldValue;
+    private boolean dirty;
+
     public Property(Class<T> aType, Object aOwner, String aName, T aDefaultValue, GameEventListener<PropertyChanged> aListener) {
         super(aType, aOwner, aName, aDefaultValue);
         if (aListener != null) {
@@ -32,7 +38,12 @@ public class Property<T> extends ReadOnlyProperty<T> {
         } else {
             changeListener = new GameEventListener[0];
         }
-        lastChanged = System.currentTimeMillis();
+        if (aListener instanceof GameEventManager) {
+            eventManager = (GameEventManager) aListener;
+        } else {
+            eventManager = null;
+        }
+        lastChanged = currentTimestamp();
     }
 
     public Property(Class<T> aType, Object aOwner, String aName, GameEventListener<PropertyChanged> aListener) {
@@ -66,9 +77,14 @@ public class Property<T> extends ReadOnlyProperty<T> {
         T theOldValue = value;
         value = aValue;
 
-        lastChanged = System.currentTimeMillis();
+        lastChanged = currentTimestamp();
 
         if (changeListener.length > 0) {
+            if (eventManager != null && eventManager.getPropertyChangeMode() == PropertyChangeMode.COALESCED) {
+                notifyCoalesced(theOldValue);
+                return;
+            }
+
             PropertyChanged theEvent = new PropertyChanged(this, theOldValue);
 
             for (GameEventListener<PropertyChanged> theListener : changeListener) {
@@ -77,6 +93,57 @@ public class Property<T> extends ReadOnlyProperty<T> {
         }
     }
 
+    private long currentTimestamp() {
+        if (eventManager != null && eventManager.isLogicalTimestamps()) {
+            return eventManager.getLogicalTime();
+        }
+        return System.currentTimeMillis();
+    }
+
+    private void notifyCoalesced(Object aOldValue) {
+        PropertyChanged theEvent = null;
+        for (GameEventListener<PropertyChanged> theListener : changeListener) {
+            if (theListener == eventManager) {
+                eventManager.markDirty(this, aOldValue);
+                continue;
+            }
+            // Only direct listeners get an event right away
+            if (theEvent == null) {
+                theEvent = new PropertyChanged(this, aOldValue);
+            }
+            theListener.handleGameEvent(theEvent);
+        }
+    }
+
+    void fireCoalesced(Object aOldValue) {
+        if (eventManager.hasListeners(PropertyChanged.TYPE)) {
+            eventManager.fire(new PropertyChanged(this, aOldValue));
+        }
+    }
+
+    boolean isDirty() {
+        return dirty;
+    }
+
+    void markDirty(Object aOldValue) {
+        dirty = true;
+        dirtyOldValue = aOldValue;
+    }
+
+    Object clearDirty() {
+        Object theOldValue = dirtyOldValue;
+        dirtyOldValue = null;
+        dirty = false;
+        return theOldValue;
+    }
+
+    boolean hasChangedSince(Object aOldValue) {
+        if (aOldValue == value) {
+            return false;
+        }
+        return aOldValue == null || !aOldValue.equals(value);
+    }
+
     public void setQuietly(T aValue) {
         value = aValue;
     }
@@ -0,0 +1,24 @@
+/*
+ * Copyright 2016 Mirko Sertic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.mirkosertic.gameengine.event;
+
+public enum PropertyChangeMode {
+    // A new PropertyChanged event is created and dispatched for every change
+    IMMEDIATE,
+    // Changes are dispatched synchronously to direct listeners, but the event manager
+    // is notified only once per frame with the first old value of a property
+    COALESCED
+}
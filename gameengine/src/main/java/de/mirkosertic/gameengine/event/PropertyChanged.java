@@ -77,7 +77,7 @@ public class PropertyChanged extends GameEvent implements DistributableEvent {
         if (theOwner instanceof Behavior) {
             Behavior theBehavior = (Behavior) theOwner;
             theResult.put("instanceID", theBehavior.getInstance().uuidProperty().get());
-            theResult.put("behavior", theBehavior.getType());
+            theResult.put("behavior", theBehavior.getType().getValue());
         }
 
         return theResult;
@@ -87,17 +87,20 @@ public class PropertyChanged extends GameEvent implements DistributableEvent {
         String thePropertyName = (String ) aEventData.get("propertyName");
         String theInstanceID = (String) aEventData.get("instanceID");
         long theEventTS = Long.parseLong((String) aEventData.get("eventts"));
-        if (theInstanceID != null) {
-            GameObjectInstance theInstance = aGameScene.findInstanceByID(theInstanceID);
+        runEventInScene(theInstanceID, (String) aEventData.get("behavior"), thePropertyName, aEventData.get("newValue"), theEventTS, aGameScene);
+    }
+
+    public static void runEventInScene(String aInstanceID, String aBehaviorType, String aPropertyName, Object aNewValue, long aEventTS, GameScene aGameScene) {
+        if (aInstanceID != null) {
+            GameObjectInstance theInstance = aGameScene.findInstanceByID(aInstanceID);
             if (theInstance != null) {
-                String theBehaviorType = (String) aEventData.get("behavior");
-                if (theBehaviorType == null) {
-                    DistributableUtils.setField(theInstance, thePropertyName, aEventData.get("newValue"), theEventTS);
+                if (aBehaviorType == null) {
+                    DistributableUtils.setField(theInstance, aPropertyName, aNewValue, aEventTS);
                 } else {
-                    Object theBehavior = theInstance.findBehaviorByType(theBehaviorType);
+                    Object theBehavior = theInstance.findBehaviorByType(aBehaviorType);
                     if (theBehavior != null) {
                         // We KNOW every behavior is Reflectable
-                        DistributableUtils.setField((Reflectable) theBehavior, thePropertyName, aEventData.get("newValue"), theEventTS);
+                        DistributableUtils.setField((Reflectable) theBehavior, aPropertyName, aNewValue, aEventTS);
                     }
                 }
             }
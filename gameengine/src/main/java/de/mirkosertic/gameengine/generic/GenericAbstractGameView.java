@@ -18,6 +18,8 @@ package de.mirkosertic.gameengine.generic;
 import de.mirkosertic.gameengine.Version;
 import de.mirkosertic.gameengine.camera.Callback;
 import de.mirkosertic.gameengine.camera.CameraBehavior;
+import de.mirkosertic.gameengine.core.FramePhase;
+import de.mirkosertic.gameengine.core.FrameTimeHistogram;
 import de.mirkosertic.gameengine.core.GameObjectInstance;
 import de.mirkosertic.gameengine.core.GameResource;
 import de.mirkosertic.gameengine.core.GameRuntime;
@@ -25,10 +27,11 @@ import de.mirkosertic.gameengine.core.GameScene;
 import de.mirkosertic.gameengine.core.GameSceneEffect;
 import de.mirkosertic.gameengine.core.GameView;
 import de.mirkosertic.gameengine.core.GestureDetector;
+import de.mirkosertic.gameengine.core.PhaseTiming;
 import de.mirkosertic.gameengine.core.Promise;
 import de.mirkosertic.gameengine.core.RuntimeStatistics;
-import de.mirkosertic.gameengine.scriptengine.LUAScriptEngine;
 import de.mirkosertic.gameengine.sprite.SpriteBehavior;
+import de.mirkosertic.gameengine.text.ScriptedTextCache;
 import de.mirkosertic.gameengine.text.TextBehavior;
 import de.mirkosertic.gameengine.type.Angle;
 import de.mirkosertic.gameengine.type.Color;
@@ -49,32 +52,13 @@ public abstract class GenericAbstractGameView<S extends GameResource> implements
     private static final Position THE_DEBUG_POSITION_VERSION = new Position(0, 30);
     private static final Position THE_DEBUG_FRAME_RATE = new Position(0, 20);
     private static final Position THE_DEBUG_VIVISBLE_INSTANCES = new Position(0, 10);
+    private static final float THE_DEBUG_LINE_HEIGHT = 10;
 
     private GameRuntime gameRuntime;
     private CameraBehavior cameraBehavior;
     private GestureDetector gestureDetector;
     private Size currentScreenSize;
 
-    private static class CachedLUAText {
-
-        private long gameTime;
-        private String value;
-
-        public CachedLUAText(long aGameTime, String aValue) {
-            gameTime = aGameTime;
-            value = aValue;
-        }
-
-        public boolean needsUpdate(long aCurrentGameTime) {
-            return gameTime  + 60 <= aCurrentGameTime;
-        }
-
-        public void update(long aCurrentGameTime, String aNewValue) {
-            gameTime = aCurrentGameTime;
-            value = aNewValue;
-        }
-    }
-
     public GenericAbstractGameView(GameRuntime aGameRuntime, CameraBehavior aCameraBehavior, GestureDetector aGestureDetector) {
         gameRuntime = aGameRuntime;
         cameraBehavior = aCameraBehavior;
@@ -124,7 +108,7 @@ public abstract class GenericAbstractGameView<S extends GameResource> implements
     }
 
     @Override
-    public void renderGame(final long aGameTime, final long aElapsedTimeSinceLastLoop, final GameScene aScene, RuntimeStatistics aStatistics) {
+    public void renderGame(final long aGameTime, final long aElapsedTimeSinceLastLoop, float aInterpolationAlpha, final GameScene aScene, RuntimeStatistics aStatistics) {
 
         if (!beginFrame(aScene)) {
             return;
@@ -138,7 +122,9 @@ public abstract class GenericAbstractGameView<S extends GameResource> implements
 
         gameRuntime.getLogger().time("preprocessorEffects");
         for (GameSceneEffect theEffect : aScene.getPreprocessorEffects()) {
+            long theStart = aStatistics.nanoTime();
             theEffect.render(theEffectCanvas, cameraBehavior);
+            aStatistics.recordPhase(theEffect, FramePhase.PREPROCESSOR_EFFECT, theStart);
         }
         gameRuntime.getLogger().timeEnd("preprocessorEffects");
 
@@ -170,18 +156,24 @@ public abstract class GenericAbstractGameView<S extends GameResource> implements
 
                     final ResourceName theSpriteResource = theSpriteBehavior.computeCurrentFrame(aGameTime);
                     if (theSpriteResource != null) {
-                        gameRuntime.getResourceCache()
-                                .getResourceFor(theSpriteResource).thenContinue(new Promise.NoReturnHandler<GameResource>() {
-                            @Override
-                            public void process(GameResource aResult) {
-                                drawImage(aValue, aPositionOnScreen, theCenterOffset, (S) aResult);
-                            }
-                        }).catchError(new Promise.ErrorHandler<String>() {
-                            @Override
-                            public void process(String aResult, Exception aOptionalRejectedException) {
-                                gameRuntime.getLogger().error("Error while rendering sprite " + theSpriteResource.name);
-                            }
-                        });
+                        // Only cache misses go through the asynchronous path
+                        S theLoadedImage = gameRuntime.getResourceCache().getIfLoaded(theSpriteResource);
+                        if (theLoadedImage != null) {
+                            drawImage(aValue, aPositionOnScreen, theCenterOffset, theLoadedImage);
+                        } else {
+                            gameRuntime.getResourceCache()
+                                    .getResourceFor(theSpriteResource).thenContinue(new Promise.NoReturnHandler<GameResource>() {
+                                @Override
+                                public void process(GameResource aResult) {
+                                    drawImage(aValue, aPositionOnScreen, theCenterOffset, (S) aResult);
+                                }
+                            }).catchError(new Promise.ErrorHandler<String>() {
+                                @Override
+                                public void process(String aResult, Exception aOptionalRejectedException) {
+                                    gameRuntime.getLogger().error("Error while rendering sprite " + theSpriteResource.name);
+                                }
+                            });
+                        }
 
                         theSomethingRendered = true;
                     }
@@ -192,33 +184,8 @@ public abstract class GenericAbstractGameView<S extends GameResource> implements
 
                     String theTextToDraw;
                     if (theTextBehavior.isScriptProperty().get()) {
-
-                        String theCacheKey = aValue.uuidProperty().get() + ".luatext";
-                        CachedLUAText theCachedValue = aScene.getObjectForKey(theCacheKey);
-
-                        if (theCachedValue == null || theCachedValue.needsUpdate(aGameTime)) {
-                            // Scripting is enabled, so we have to evaluate the expression
-                            try {
-                                LUAScriptEngine theEngine = gameRuntime.getScriptEngineFactory()
-                                        .createNewEngine(aScene, theExpression);
-
-                                theTextToDraw = theEngine.evaluateSimpleExpressionFor(aValue);
-                            } catch (Exception e) {
-                                // Failed to process the script
-                                // can be IOException
-                                // or more likely compile errors
-                                theTextToDraw = "Processing error : " + e.getMessage();
-                            }
-
-                            if (theCachedValue == null) {
-                                theCachedValue = new CachedLUAText(aGameTime, theTextToDraw);
-                                aScene.setObjectForKey(theCacheKey, theCachedValue);
-                            } else {
-                                theCachedValue.update(aGameTime, theTextToDraw);
-                            }
-                        } else {
-                            theTextToDraw = theCachedValue.value;
-                        }
+                        // Scripting is enabled, the expression is only evaluated again if something it depends on changed
+                        theTextToDraw = ScriptedTextCache.forScene(aScene).textFor(aValue, theExpression, aGameTime);
                     } else {
                         theTextToDraw = theExpression.expression;
                     }
@@ -242,7 +209,9 @@ public abstract class GenericAbstractGameView<S extends GameResource> implements
         // Run the postprocessors
         gameRuntime.getLogger().time("postprocessorEffects");
         for (GameSceneEffect theEffect : aScene.getPostprocessorEffects()) {
+            long theStart = aStatistics.nanoTime();
             theEffect.render(theEffectCanvas, cameraBehavior);
+            aStatistics.recordPhase(theEffect, FramePhase.POSTPROCESSOR_EFFECT, theStart);
         }
         gameRuntime.getLogger().timeEnd("postprocessorEffects");
 
@@ -254,9 +223,17 @@ public abstract class GenericAbstractGameView<S extends GameResource> implements
             PositionAnchor theAnchor = PositionAnchor.BOTTOM_LEFT;
             drawTextAt("debug1", theAnchor.compute(THE_DEBUG_POSITION_VERSION, theCameraPosition, currentScreenSize), THE_DEBUG_CENTER, THE_DEBUG_TEXT_SIZE, THE_DEBUG_FONT, THE_DEBUG_TEXT_COLOR, Version.VERSION);
             drawTextAt("debug2", theAnchor.compute(THE_DEBUG_FRAME_RATE, theCameraPosition, currentScreenSize), THE_DEBUG_CENTER, THE_DEBUG_TEXT_SIZE, THE_DEBUG_FONT, THE_DEBUG_TEXT_COLOR,
-                    "Time for every frame : " + aStatistics.getAverageTimePerLoopCycle() + " ms");
+                    "Frame" + percentilesOf(aStatistics.getFrameTimes()));
             drawTextAt("debug3", theAnchor.compute(THE_DEBUG_VIVISBLE_INSTANCES, theCameraPosition, currentScreenSize), THE_DEBUG_CENTER, THE_DEBUG_TEXT_SIZE, THE_DEBUG_FONT, THE_DEBUG_TEXT_COLOR,
                     "Number of visible instances : " + theNumberOfInstances);
+            // One line for every system, view and effect, stacked above the version information
+            PhaseTiming[] theTimings = aStatistics.getPhaseTimings();
+            for (int i = 0; i < theTimings.length; i++) {
+                PhaseTiming theTiming = theTimings[i];
+                Position thePosition = new Position(THE_DEBUG_POSITION_VERSION.x, THE_DEBUG_POSITION_VERSION.y + (i + 1) * THE_DEBUG_LINE_HEIGHT);
+                drawTextAt("debugPhase" + i, theAnchor.compute(thePosition, theCameraPosition, currentScreenSize), THE_DEBUG_CENTER, THE_DEBUG_TEXT_SIZE, THE_DEBUG_FONT, THE_DEBUG_TEXT_COLOR,
+                        theTiming.getName() + percentilesOf(theTiming.getHistogram()));
+            }
             gameRuntime.getLogger().timeEnd("debugInformation");
         }
 
@@ -267,6 +244,11 @@ public abstract class GenericAbstractGameView<S extends GameResource> implements
         gameRuntime.getLogger().timeEnd("renderGame");
     }
 
+    private static String percentilesOf(FrameTimeHistogram aHistogram) {
+        return " p50/p95/p99/max : " + aHistogram.getPercentile(50) / 1000 + "/" + aHistogram.getPercentile(95) / 1000
+                + "/" + aHistogram.getPercentile(99) / 1000 + "/" + aHistogram.getMax() / 1000 + " us";
+    }
+
     private void drawTextAt(String aID, Position aPosition, Position aCenterOffset, Size aSize, Font aFont, Color aColor, String aText) {
 
         beforeInstance(null, aPosition, aCenterOffset, Angle.ZERO);
@@ -20,6 +20,7 @@ import de.mirkosertic.gameengine.core.ConditionResult;
 import de.mirkosertic.gameengine.core.GameScene;
 import de.mirkosertic.gameengine.core.UsedByReflection;
 import de.mirkosertic.gameengine.event.GameEvent;
+import de.mirkosertic.gameengine.event.GameEventType;
 import de.mirkosertic.gameengine.event.Property;
 import de.mirkosertic.gameengine.type.GameKeyCode;
 
@@ -37,6 +38,8 @@ public class KeyEventCondition implements Condition {
 
     static final String TYPE_VALUE = "KeyEventCondition";
 
+    private static final GameEventType[] MATCHING_EVENT_TYPES = new GameEventType[] {KeyPressed.TYPE, KeyReleased.TYPE};
+
     private final Property<GameKeyCode> keyCode;
     private final Property<KeyEventType> eventType;
 
@@ -88,6 +91,11 @@ public class KeyEventCondition implements Condition {
         return ConditionResult.NOT_FULFILLED;
     }
 
+    @Override
+    public GameEventType[] getMatchingEventTypes() {
+        return MATCHING_EVENT_TYPES;
+    }
+
     @Override
     public Map<String, Object> serialize() {
         Map<String, Object> theResult = new HashMap<>();
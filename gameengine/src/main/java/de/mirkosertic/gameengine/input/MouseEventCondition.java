@@ -22,6 +22,7 @@ import de.mirkosertic.gameengine.core.GameObjectInstance;
 import de.mirkosertic.gameengine.core.GameScene;
 import de.mirkosertic.gameengine.core.UsedByReflection;
 import de.mirkosertic.gameengine.event.GameEvent;
+import de.mirkosertic.gameengine.event.GameEventType;
 import de.mirkosertic.gameengine.event.Property;
 
 import java.util.ArrayList;
@@ -45,6 +46,8 @@ public class MouseEventCondition implements Condition {
 
     static final String TYPE_VALUE = "MouseEventCondition";
 
+    private static final GameEventType[] MATCHING_EVENT_TYPES = new GameEventType[] {MousePressed.TYPE, MouseReleased.TYPE};
+
     private final Property<MouseEventType> eventType;
 
     private final Property<FilterType> filterType;
@@ -120,6 +123,11 @@ public class MouseEventCondition implements Condition {
         return ConditionResult.NOT_FULFILLED;
     }
 
+    @Override
+    public GameEventType[] getMatchingEventTypes() {
+        return MATCHING_EVENT_TYPES;
+    }
+
     @Override
     public Map<String, Object> serialize() {
         Map<String, Object> theResult = new HashMap<>();
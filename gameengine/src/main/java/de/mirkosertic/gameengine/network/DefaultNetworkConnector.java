@@ -32,4 +32,23 @@ public class DefaultNetworkConnector implements NetworkConnector {
     public List<Map<String, Object>> receive() {
         return EMPTY;
     }
+
+    @Override
+    public boolean isRunning() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsFrames() {
+        return false;
+    }
+
+    @Override
+    public void sendFrame(byte[] aData, int aOffset, int aLength) {
+    }
+
+    @Override
+    public byte[] receiveFrame() {
+        return null;
+    }
 }
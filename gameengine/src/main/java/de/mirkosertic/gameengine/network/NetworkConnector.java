@@ -23,4 +23,15 @@ public interface NetworkConnector {
     int send(List<Map<String, Object>> aEventsToSend);
 
     List<Map<String,Object>> receive();
+
+    // False once the connection is gone for good, nothing is sent or received any more
+    boolean isRunning();
+
+    // Binary frames as written by the NetworkEventCodec, only used if supported by the transport
+    boolean supportsFrames();
+
+    void sendFrame(byte[] aData, int aOffset, int aLength);
+
+    // Returns null if no frame is available
+    byte[] receiveFrame();
 }
@@ -0,0 +1,256 @@
+/*
+ * Copyright 2016 Mirko Sertic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.mirkosertic.gameengine.network;
+
+import de.mirkosertic.gameengine.core.Behavior;
+import de.mirkosertic.gameengine.core.GameObjectInstance;
+import de.mirkosertic.gameengine.core.GameScene;
+import de.mirkosertic.gameengine.event.DistributableEvent;
+import de.mirkosertic.gameengine.event.Property;
+import de.mirkosertic.gameengine.event.PropertyChanged;
+import de.mirkosertic.gameengine.type.Angle;
+import de.mirkosertic.gameengine.type.DistributableUtils;
+import de.mirkosertic.gameengine.type.Position;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Binary encoding of distributable events. A frame starts with a version and a timestamp,
+// followed by the events until the end of the frame. Property changes are written without
+// intermediate maps, positions and angles as floats and varints. Everything else is
+// written as the map produced by DistributableEvent.serialize().
+public class NetworkEventCodec {
+
+    static final int VERSION = 1;
+
+    static final int EVENT_PROPERTY_CHANGED = 1;
+    static final int EVENT_GENERIC = 2;
+
+    static final int VALUE_NULL = 0;
+    static final int VALUE_TRUE = 1;
+    static final int VALUE_FALSE = 2;
+    static final int VALUE_INT = 3;
+    static final int VALUE_LONG = 4;
+    static final int VALUE_FLOAT = 5;
+    static final int VALUE_DOUBLE = 6;
+    static final int VALUE_STRING = 7;
+    static final int VALUE_MAP = 8;
+    static final int VALUE_LIST = 9;
+    static final int VALUE_POSITION = 10;
+    static final int VALUE_ANGLE = 11;
+
+    // Deeper nested maps and lists are rejected, as they are decoded recursively
+    static final int MAX_NESTING = 32;
+
+    private final WireEncoder encoder;
+    private final WireDecoder decoder;
+    private int eventsInFrame;
+
+    public NetworkEventCodec() {
+        encoder = new WireEncoder();
+        decoder = new WireDecoder();
+    }
+
+    public void beginFrame(long aTimestamp) {
+        encoder.reset();
+        encoder.writeByte(VERSION);
+        encoder.writeVarLong(aTimestamp);
+        eventsInFrame = 0;
+    }
+
+    public boolean encode(DistributableEvent aEvent) {
+        if (aEvent instanceof PropertyChanged) {
+            Property theProperty = ((PropertyChanged) aEvent).property;
+            Object theOwner = theProperty.getOwner();
+            String theInstanceID;
+            String theBehaviorType = null;
+            if (theOwner instanceof GameObjectInstance) {
+                theInstanceID = ((GameObjectInstance) theOwner).uuidProperty().get();
+            } else if (theOwner instanceof Behavior) {
+                Behavior theBehavior = (Behavior) theOwner;
+                theInstanceID = theBehavior.getInstance().uuidProperty().get();
+                theBehaviorType = theBehavior.getType().getValue();
+            } else {
+                // Nothing the other side could apply
+                return false;
+            }
+            encoder.writeByte(EVENT_PROPERTY_CHANGED);
+            encoder.writeString(theInstanceID);
+            encoder.writeString(theBehaviorType);
+            encoder.writeString(theProperty.getName());
+            writeValue(theProperty.get());
+        } else {
+            encoder.writeByte(EVENT_GENERIC);
+            writeValue(aEvent.serialize());
+        }
+        eventsInFrame++;
+        return true;
+    }
+
+    public int getEventsInFrame() {
+        return eventsInFrame;
+    }
+
+    public byte[] getFrameData() {
+        return encoder.getData();
+    }
+
+    public int getFrameLength() {
+        return encoder.getLength();
+    }
+
+    private void writeValue(Object aValue) {
+        if (aValue == null) {
+            encoder.writeByte(VALUE_NULL);
+        } else if (aValue instanceof Position) {
+            Position thePosition = (Position) aValue;
+            encoder.writeByte(VALUE_POSITION);
+            encoder.writeFloat(thePosition.x);
+            encoder.writeFloat(thePosition.y);
+        } else if (aValue instanceof Angle) {
+            encoder.writeByte(VALUE_ANGLE);
+            encoder.writeSignedVarInt(((Angle) aValue).angleInDegrees);
+        } else if (aValue instanceof Boolean) {
+            encoder.writeByte(((Boolean) aValue) ? VALUE_TRUE : VALUE_FALSE);
+        } else if (aValue instanceof Integer) {
+            encoder.writeByte(VALUE_INT);
+            encoder.writeSignedVarInt((Integer) aValue);
+        } else if (aValue instanceof Long) {
+            encoder.writeByte(VALUE_LONG);
+            encoder.writeSignedVarLong((Long) aValue);
+        } else if (aValue instanceof Float) {
+            encoder.writeByte(VALUE_FLOAT);
+            encoder.writeFloat((Float) aValue);
+        } else if (aValue instanceof Double) {
+            encoder.writeByte(VALUE_DOUBLE);
+            encoder.writeDouble((Double) aValue);
+        } else if (aValue instanceof String) {
+            encoder.writeByte(VALUE_STRING);
+            encoder.writeString((String) aValue);
+        } else if (aValue instanceof Map) {
+            Map<String, Object> theMap = (Map<String, Object>) aValue;
+            encoder.writeByte(VALUE_MAP);
+            encoder.writeVarInt(theMap.size());
+            for (Map.Entry<String, Object> theEntry : theMap.entrySet()) {
+                encoder.writeString(theEntry.getKey());
+                writeValue(theEntry.getValue());
+            }
+        } else if (aValue instanceof List) {
+            List theList = (List) aValue;
+            encoder.writeByte(VALUE_LIST);
+            encoder.writeVarInt(theList.size());
+            for (Object theElement : theList) {
+                writeValue(theElement);
+            }
+        } else {
+            Object theConverted = DistributableUtils.convert(aValue);
+            if (theConverted == aValue) {
+                throw new IllegalArgumentException("Cannot encode " + aValue);
+            }
+            writeValue(theConverted);
+        }
+    }
+
+    private Object readValue(int aDepth) {
+        if (aDepth > MAX_NESTING) {
+            throw new WireFormatException("Values nested too deep");
+        }
+        int theType = decoder.readByte();
+        switch (theType) {
+            case VALUE_NULL:
+                return null;
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            case VALUE_INT:
+                return decoder.readSignedVarInt();
+            case VALUE_LONG:
+                return decoder.readSignedVarLong();
+            case VALUE_FLOAT:
+                return decoder.readFloat();
+            case VALUE_DOUBLE:
+                return decoder.readDouble();
+            case VALUE_STRING:
+                return decoder.readString();
+            case VALUE_MAP: {
+                int theSize = decoder.readLength();
+                Map<String, Object> theMap = new HashMap<>();
+                for (int i = 0; i < theSize; i++) {
+                    String theKey = decoder.readString();
+                    theMap.put(theKey, readValue(aDepth + 1));
+                }
+                return theMap;
+            }
+            case VALUE_LIST: {
+                int theSize = decoder.readLength();
+                List<Object> theList = new ArrayList<>(theSize);
+                for (int i = 0; i < theSize; i++) {
+                    theList.add(readValue(aDepth + 1));
+                }
+                return theList;
+            }
+            case VALUE_POSITION: {
+                float theX = decoder.readFloat();
+                float theY = decoder.readFloat();
+                return new Position(theX, theY);
+            }
+            case VALUE_ANGLE:
+                return new Angle(decoder.readSignedVarInt());
+            default:
+                throw new WireFormatException("Unknown value type " + theType);
+        }
+    }
+
+    // Applies all events of a frame to the scene, returns the number of events. Throws a
+    // WireFormatException for a malformed frame, events before the broken one are already applied
+    public int decode(byte[] aData, int aOffset, int aLength, GameScene aScene, EventInterpreter aInterpreter) {
+        decoder.reset(aData, aOffset, aLength);
+        int theVersion = decoder.readByte();
+        if (theVersion != VERSION) {
+            throw new WireFormatException("Unsupported frame version " + theVersion);
+        }
+        long theTimestamp = decoder.readVarLong();
+        int theCount = 0;
+        while (decoder.hasRemaining()) {
+            int theEventType = decoder.readByte();
+            switch (theEventType) {
+                case EVENT_PROPERTY_CHANGED: {
+                    String theInstanceID = decoder.readString();
+                    String theBehaviorType = decoder.readString();
+                    String thePropertyName = decoder.readString();
+                    Object theValue = readValue(0);
+                    PropertyChanged.runEventInScene(theInstanceID, theBehaviorType, thePropertyName, theValue, theTimestamp, aScene);
+                    break;
+                }
+                case EVENT_GENERIC: {
+                    Object theEvent = readValue(0);
+                    if (!(theEvent instanceof Map)) {
+                        throw new WireFormatException("Event is not a map");
+                    }
+                    aInterpreter.process((Map<String, Object>) theEvent, aScene);
+                    break;
+                }
+                default:
+                    throw new WireFormatException("Unknown event type " + theEventType);
+            }
+            theCount++;
+        }
+        return theCount;
+    }
+}
@@ -22,55 +22,106 @@ import de.mirkosertic.gameengine.core.RuntimeStatistics;
 import de.mirkosertic.gameengine.event.DistributableEvent;
 import de.mirkosertic.gameengine.event.GameEvent;
 import de.mirkosertic.gameengine.event.GameEventListener;
+import de.mirkosertic.gameengine.event.Property;
+import de.mirkosertic.gameengine.event.PropertyChanged;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class NetworkGameView implements GameView, GameEventListener<GameEvent> {
 
     private final List<DistributableEvent> eventsDuringLastLoopCycle;
+    // Properties with a queued change. Only the value at sending time is sent, so
+    // further changes of the same property during the loop cycle are dropped
+    private final Set<Property> changedProperties;
     private final NetworkConnector networkConnector;
     private final EventInterpreter eventInterpreter;
+    private final NetworkEventCodec codec;
 
     NetworkGameView(NetworkConnector aNetworkConnector, EventInterpreter aEventInterpreter) {
         eventsDuringLastLoopCycle = new ArrayList<>();
+        changedProperties = new HashSet<>();
         networkConnector = aNetworkConnector;
         eventInterpreter = aEventInterpreter;
+        codec = new NetworkEventCodec();
     }
 
     @Override
     public void handleGameEvent(GameEvent aEvent) {
         if (aEvent instanceof DistributableEvent) {
+            if (aEvent instanceof PropertyChanged && !changedProperties.add(((PropertyChanged) aEvent).property)) {
+                return;
+            }
             eventsDuringLastLoopCycle.add((DistributableEvent) aEvent);
         }
     }
 
+    int getQueuedEventCount() {
+        return eventsDuringLastLoopCycle.size();
+    }
+
     @Override
-    public void renderGame(long aGameTime, long aElapsedTimeSinceLastLoop, GameScene aScene, RuntimeStatistics aStatistics) {
+    public void renderGame(long aGameTime, long aElapsedTimeSinceLastLoop, float aInterpolationAlpha, GameScene aScene, RuntimeStatistics aStatistics) {
+        if (!networkConnector.isRunning()) {
+            // There is nobody to talk to any more, so we do not even encode the events
+            eventsDuringLastLoopCycle.clear();
+            changedProperties.clear();
+            return;
+        }
+
+        boolean theFrames = networkConnector.supportsFrames();
         if (!eventsDuringLastLoopCycle.isEmpty()) {
-            List<Map<String, Object>> theEventsToSend = new ArrayList<>();
-            for (DistributableEvent theEvent : eventsDuringLastLoopCycle) {
-                aStatistics.incrementNumberOfNetworkeventsSend();
-                theEventsToSend.add(theEvent.serialize());
+            if (theFrames) {
+                codec.beginFrame(System.currentTimeMillis());
+                for (DistributableEvent theEvent : eventsDuringLastLoopCycle) {
+                    if (codec.encode(theEvent)) {
+                        aStatistics.incrementNumberOfNetworkeventsSend();
+                    }
+                }
+                if (codec.getEventsInFrame() > 0) {
+                    networkConnector.sendFrame(codec.getFrameData(), 0, codec.getFrameLength());
+                }
+            } else {
+                List<Map<String, Object>> theEventsToSend = new ArrayList<>();
+                for (DistributableEvent theEvent : eventsDuringLastLoopCycle) {
+                    aStatistics.incrementNumberOfNetworkeventsSend();
+                    theEventsToSend.add(theEvent.serialize());
+                }
+                networkConnector.send(theEventsToSend);
             }
-            networkConnector.send(theEventsToSend);
             eventsDuringLastLoopCycle.clear();
+            changedProperties.clear();
         }
 
         // Tricky part: the EventInterpreter might also trigger events as
         // it changes the game scene state.
-        List<Map<String, Object>> theReveived = networkConnector.receive();
-        if (!theReveived.isEmpty()) {
-            for (Map<String, Object> theSingleEvent : theReveived) {
-                aStatistics.incrementNumberOfNetworkeventsReceived();
-                eventInterpreter.process(theSingleEvent, aScene);
+        if (theFrames) {
+            byte[] theFrame;
+            while ((theFrame = networkConnector.receiveFrame()) != null) {
+                try {
+                    aStatistics.addNumberOfNetworkeventsReceived(codec.decode(theFrame, 0, theFrame.length, aScene, eventInterpreter));
+                } catch (WireFormatException e) {
+                    // A broken frame must not stop the frames after it
+                    aStatistics.incrementNumberOfDroppedNetworkframes();
+                }
+            }
+        } else {
+            List<Map<String, Object>> theReveived = networkConnector.receive();
+            if (!theReveived.isEmpty()) {
+                for (Map<String, Object> theSingleEvent : theReveived) {
+                    aStatistics.incrementNumberOfNetworkeventsReceived();
+                    eventInterpreter.process(theSingleEvent, aScene);
+                }
             }
         }
 
         // Clear every event, also the one which where caused by the event interpreter
         List<DistributableEvent> theNewEvents = new ArrayList<>(eventsDuringLastLoopCycle);
         eventsDuringLastLoopCycle.clear();
+        changedProperties.clear();
         // We keep only the forced events in our queue, so they are delivered during the next game loop cycle
         for (DistributableEvent theEvent : theNewEvents) {
             if (theEvent.isForced()) {
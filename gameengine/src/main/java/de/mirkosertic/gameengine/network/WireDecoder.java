@@ -0,0 +1,145 @@
+/*
+ * Copyright 2016 Mirko Sertic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.mirkosertic.gameengine.network;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Reads a frame written by a WireEncoder
+public class WireDecoder {
+
+    private byte[] data;
+    private int position;
+    private int limit;
+    private final List<String> strings;
+    private char[] characters;
+
+    public WireDecoder() {
+        strings = new ArrayList<>();
+        characters = new char[64];
+    }
+
+    public void reset(byte[] aData, int aOffset, int aLength) {
+        data = aData;
+        position = aOffset;
+        limit = aOffset + aLength;
+        strings.clear();
+    }
+
+    public boolean hasRemaining() {
+        return position < limit;
+    }
+
+    public int readByte() {
+        if (position >= limit) {
+            throw new WireFormatException("Unexpected end of frame");
+        }
+        return data[position++] & 0xFF;
+    }
+
+    // Reads the number of elements following, every element takes at least one byte. This
+    // rejects lengths announced by a broken or hostile peer before anything is allocated
+    public int readLength() {
+        int theLength = readVarInt();
+        if (theLength < 0 || theLength > limit - position) {
+            throw new WireFormatException("Invalid length " + theLength + ", only " + (limit - position) + " bytes left");
+        }
+        return theLength;
+    }
+
+    public int readVarInt() {
+        int theResult = 0;
+        int theShift = 0;
+        while (true) {
+            int theByte = readByte();
+            theResult |= (theByte & 0x7F) << theShift;
+            if ((theByte & 0x80) == 0) {
+                return theResult;
+            }
+            theShift += 7;
+            if (theShift > 28) {
+                throw new WireFormatException("Varint too long");
+            }
+        }
+    }
+
+    public long readVarLong() {
+        long theResult = 0;
+        int theShift = 0;
+        while (true) {
+            int theByte = readByte();
+            theResult |= ((long) (theByte & 0x7F)) << theShift;
+            if ((theByte & 0x80) == 0) {
+                return theResult;
+            }
+            theShift += 7;
+            if (theShift > 63) {
+                throw new WireFormatException("Varlong too long");
+            }
+        }
+    }
+
+    public int readSignedVarInt() {
+        int theValue = readVarInt();
+        return (theValue >>> 1) ^ -(theValue & 1);
+    }
+
+    public long readSignedVarLong() {
+        long theValue = readVarLong();
+        return (theValue >>> 1) ^ -(theValue & 1);
+    }
+
+    private int readIntBits() {
+        return (readByte() << 24) | (readByte() << 16) | (readByte() << 8) | readByte();
+    }
+
+    public float readFloat() {
+        return Float.intBitsToFloat(readIntBits());
+    }
+
+    public double readDouble() {
+        long theHigh = readIntBits();
+        long theLow = readIntBits() & 0xFFFFFFFFL;
+        return Double.longBitsToDouble((theHigh << 32) | theLow);
+    }
+
+    public String readString() {
+        int theHeader = readVarInt();
+        if (theHeader == 0) {
+            return null;
+        }
+        if ((theHeader & 1) == 0) {
+            int theIndex = (theHeader >>> 1) - 1;
+            if (theIndex >= strings.size()) {
+                throw new WireFormatException("Unknown string reference " + theIndex);
+            }
+            return strings.get(theIndex);
+        }
+        int theLength = theHeader >>> 1;
+        if (theLength > limit - position) {
+            throw new WireFormatException("Invalid string length " + theLength + ", only " + (limit - position) + " bytes left");
+        }
+        if (characters.length < theLength) {
+            characters = new char[theLength];
+        }
+        for (int i = 0; i < theLength; i++) {
+            characters[i] = (char) readVarInt();
+        }
+        String theResult = new String(characters, 0, theLength);
+        strings.add(theResult);
+        return theResult;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2016 Mirko Sertic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.mirkosertic.gameengine.network;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Writes a binary frame into a reusable buffer. Strings are interned per frame,
+// so repeated instance ids and property names are written only once.
+public class WireEncoder {
+
+    private byte[] data;
+    private int length;
+    private final Map<String, Integer> strings;
+
+    public WireEncoder() {
+        data = new byte[256];
+        strings = new HashMap<>();
+    }
+
+    public void reset() {
+        length = 0;
+        strings.clear();
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    private void ensureCapacity(int aAdditionalBytes) {
+        if (length + aAdditionalBytes > data.length) {
+            byte[] theNewData = new byte[Math.max(data.length * 2, length + aAdditionalBytes)];
+            System.arraycopy(data, 0, theNewData, 0, length);
+            data = theNewData;
+        }
+    }
+
+    public void writeByte(int aValue) {
+        ensureCapacity(1);
+        data[length++] = (byte) aValue;
+    }
+
+    public void writeVarInt(int aValue) {
+        ensureCapacity(5);
+        while ((aValue & ~0x7F) != 0) {
+            data[length++] = (byte) ((aValue & 0x7F) | 0x80);
+            aValue >>>= 7;
+        }
+        data[length++] = (byte) aValue;
+    }
+
+    public void writeVarLong(long aValue) {
+        ensureCapacity(10);
+        while ((aValue & ~0x7FL) != 0) {
+            data[length++] = (byte) ((aValue & 0x7F) | 0x80);
+            aValue >>>= 7;
+        }
+        data[length++] = (byte) aValue;
+    }
+
+    // Zigzag encoding, so small negative numbers are small on the wire
+    public void writeSignedVarInt(int aValue) {
+        writeVarInt((aValue << 1) ^ (aValue >> 31));
+    }
+
+    public void writeSignedVarLong(long aValue) {
+        writeVarLong((aValue << 1) ^ (aValue >> 63));
+    }
+
+    public void writeFloat(float aValue) {
+        writeIntBits(Float.floatToIntBits(aValue));
+    }
+
+    public void writeDouble(double aValue) {
+        long theBits = Double.doubleToLongBits(aValue);
+        writeIntBits((int) (theBits >>> 32));
+        writeIntBits((int) theBits);
+    }
+
+    private void writeIntBits(int aBits) {
+        ensureCapacity(4);
+        data[length++] = (byte) (aBits >>> 24);
+        data[length++] = (byte) (aBits >>> 16);
+        data[length++] = (byte) (aBits >>> 8);
+        data[length++] = (byte) aBits;
+    }
+
+    // 0 is null, an even number references an already written string, an odd
+    // number is followed by the characters of a new string
+    public void writeString(String aValue) {
+        if (aValue == null) {
+            writeVarInt(0);
+            return;
+        }
+        Integer theIndex = strings.get(aValue);
+        if (theIndex != null) {
+            writeVarInt((theIndex + 1) << 1);
+            return;
+        }
+        strings.put(aValue, strings.size());
+        int theLength = aValue.length();
+        writeVarInt((theLength << 1) | 1);
+        for (int i = 0; i < theLength; i++) {
+            writeVarInt(aValue.charAt(i));
+        }
+    }
+}
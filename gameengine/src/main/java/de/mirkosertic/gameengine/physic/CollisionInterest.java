@@ -0,0 +1,139 @@
+/*
+ * Copyright 2016 Mirko Sertic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.mirkosertic.gameengine.physic;
+
+import de.mirkosertic.gameengine.core.Condition;
+import de.mirkosertic.gameengine.core.EventSheet;
+import de.mirkosertic.gameengine.core.GameObject;
+import de.mirkosertic.gameengine.core.GameRule;
+import de.mirkosertic.gameengine.core.GameScene;
+import de.mirkosertic.gameengine.event.GameEventListener;
+import de.mirkosertic.gameengine.event.GameEventType;
+import de.mirkosertic.gameengine.event.Property;
+import de.mirkosertic.gameengine.event.PropertyChanged;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// The pairs of game objects anybody in a scene is interested in collisions for. Physics
+// implementations use this to drop contacts nobody listens to before an event is created.
+public class CollisionInterest {
+
+    public static final CollisionInterest ALL = new CollisionInterest(true, null);
+
+    private final boolean all;
+    private final Set<GameObject> anyPartner;
+    private final Map<GameObject, Set<GameObject>> partners;
+    private final List<Property> watchedProperties;
+    private final GameEventListener<PropertyChanged> changeListener;
+
+    private CollisionInterest(boolean aAll, GameEventListener<PropertyChanged> aChangeListener) {
+        all = aAll;
+        anyPartner = new HashSet<>();
+        partners = new HashMap<>();
+        watchedProperties = new ArrayList<>();
+        changeListener = aChangeListener;
+    }
+
+    // The change listener is informed if a rule condition read by the computation changes,
+    // so the caller knows when to compute again. Call release() before this happens.
+    public static CollisionInterest compute(GameScene aScene, GameEventListener<PropertyChanged> aChangeListener) {
+        CollisionInterest theResult = new CollisionInterest(false, aChangeListener);
+
+        // Rules with collision conditions
+        for (EventSheet theSheet : aScene.getEventSheets()) {
+            for (GameRule theRule : theSheet.getRules()) {
+                theResult.watch(theRule.conditionProperty());
+                Condition theCondition = theRule.conditionProperty().get();
+                if (theCondition instanceof ObjectCollisionCondition) {
+                    ObjectCollisionCondition theCollisionCondition = (ObjectCollisionCondition) theCondition;
+                    theResult.watch(theCollisionCondition.primaryObjectProperty());
+                    theResult.watch(theCollisionCondition.secondaryObjectProperty());
+                    if (!theCollisionCondition.primaryObjectProperty().isNull() && !theCollisionCondition.secondaryObjectProperty().isNull()) {
+                        theResult.addPair(theCollisionCondition.primaryObjectProperty().get(), theCollisionCondition.secondaryObjectProperty().get());
+                    }
+                } else if (theCondition != null && matchesCollisions(theCondition)) {
+                    // We cannot tell which collisions this condition is interested in
+                    theResult.release();
+                    return ALL;
+                }
+            }
+        }
+
+        // Platform behaviors check every collision of their instance
+        for (GameObject theObject : aScene.getObjects()) {
+            if (theObject.getBehaviorTemplate(PlatformBehaviorTemplate.TYPE) != null) {
+                theResult.anyPartner.add(theObject);
+            }
+        }
+
+        return theResult;
+    }
+
+    private void watch(Property aProperty) {
+        aProperty.addChangeListener(changeListener);
+        watchedProperties.add(aProperty);
+    }
+
+    public void release() {
+        for (Property theProperty : watchedProperties) {
+            theProperty.removeChangeListener(changeListener);
+        }
+        watchedProperties.clear();
+    }
+
+    private static boolean matchesCollisions(Condition aCondition) {
+        GameEventType[] theTypes = aCondition.getMatchingEventTypes();
+        if (theTypes == null) {
+            return true;
+        }
+        for (GameEventType theType : theTypes) {
+            if (GameEventType.CATCH_ALL.equals(theType) || GameObjectCollision.TYPE.equals(theType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void addPair(GameObject aObject1, GameObject aObject2) {
+        addPartner(aObject1, aObject2);
+        addPartner(aObject2, aObject1);
+    }
+
+    private void addPartner(GameObject aObject, GameObject aPartner) {
+        Set<GameObject> thePartners = partners.get(aObject);
+        if (thePartners == null) {
+            thePartners = new HashSet<>();
+            partners.put(aObject, thePartners);
+        }
+        thePartners.add(aPartner);
+    }
+
+    public boolean isInteresting(GameObject aObject1, GameObject aObject2) {
+        if (all) {
+            return true;
+        }
+        if (anyPartner.contains(aObject1) || anyPartner.contains(aObject2)) {
+            return true;
+        }
+        Set<GameObject> thePartners = partners.get(aObject1);
+        return thePartners != null && thePartners.contains(aObject2);
+    }
+}
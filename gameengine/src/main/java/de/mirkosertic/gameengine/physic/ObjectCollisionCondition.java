@@ -22,6 +22,7 @@ import de.mirkosertic.gameengine.core.GameObjectInstance;
 import de.mirkosertic.gameengine.core.GameScene;
 import de.mirkosertic.gameengine.core.UsedByReflection;
 import de.mirkosertic.gameengine.event.GameEvent;
+import de.mirkosertic.gameengine.event.GameEventType;
 import de.mirkosertic.gameengine.event.Property;
 import de.mirkosertic.gameengine.type.CollisionPosition;
 
@@ -32,6 +33,8 @@ public class ObjectCollisionCondition implements Condition {
 
     static final String TYPE_VALUE = "ObjectCollisionCondition";
 
+    private static final GameEventType[] MATCHING_EVENT_TYPES = new GameEventType[] {GameObjectCollision.TYPE};
+
     public static final String PRIMARY_OBJECT_PROPERTY = "primaryObject";
     public static final String SECONDARY_OBJECT_PROPERTY = "secondaryObject";
     public static final String POSITION_PROPERTY = "position";
@@ -94,6 +97,11 @@ public class ObjectCollisionCondition implements Condition {
         return ConditionResult.NOT_FULFILLED;
     }
 
+    @Override
+    public GameEventType[] getMatchingEventTypes() {
+        return MATCHING_EVENT_TYPES;
+    }
+
     @Override
     public Map<String, Object> serialize() {
         Map<String, Object> theResult = new HashMap<>();
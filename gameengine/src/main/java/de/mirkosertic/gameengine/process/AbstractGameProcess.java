@@ -29,7 +29,7 @@ public abstract class AbstractGameProcess implements GameProcess {
     }
 
     @Override
-    public boolean affectsInstance(GameObjectInstance aInstance) {
-        return false;
+    public GameObjectInstance[] getAffectedInstances() {
+        return NO_INSTANCES;
     }
 }
\ No newline at end of file
@@ -20,12 +20,17 @@ import de.mirkosertic.gameengine.core.GameObjectInstance;
 public interface GameProcess {
 
     enum ProceedResult {
-        STOPPED, CONTINUE_RUNNING
+        // PARKED is only supported for ParkableGameProcess, other processes continue running
+        STOPPED, CONTINUE_RUNNING, PARKED
     }
 
+    GameObjectInstance[] NO_INSTANCES = new GameObjectInstance[0];
+
     void started();
 
-    boolean affectsInstance(GameObjectInstance aInstance);
+    // The instances this process works on, the process is killed if one of them is removed from the scene.
+    // The result must not change while the process is running.
+    GameObjectInstance[] getAffectedInstances();
 
     ProceedResult proceedGame(long aGameTime, long aElapsedTimeSinceLastLoop);
 
@@ -15,50 +15,107 @@
  */
 package de.mirkosertic.gameengine.process;
 
-import de.mirkosertic.gameengine.ArrayUtils;
 import de.mirkosertic.gameengine.core.GameObjectInstance;
 import de.mirkosertic.gameengine.core.GameSystem;
+import de.mirkosertic.gameengine.core.GameSystemDependencies;
+import de.mirkosertic.gameengine.core.GameSystemResource;
 import de.mirkosertic.gameengine.core.GameSystemWork;
 import de.mirkosertic.gameengine.core.Logger;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 
-public class GameProcessManager implements GameSystem {
+public class GameProcessManager implements GameSystem, GameSystemDependencies {
+
+    // Processes change instances and fire events
+    private static final GameSystemResource[] READ_RESOURCES = new GameSystemResource[0];
+    private static final GameSystemResource[] WRITE_RESOURCES = new GameSystemResource[] {
+            GameSystemResource.PROCESSES, GameSystemResource.INSTANCES, GameSystemResource.EVENTS};
+
+    private static class Entry {
+
+        private final GameProcess process;
+        private final GameObjectInstance[] instances;
+        private int slot;
+        // Only set while the process is parked
+        private TimerWheel.Timer<Entry> timer;
+
+        private Entry(GameProcess aProcess) {
+            process = aProcess;
+            instances = aProcess.getAffectedInstances();
+        }
+    }
 
     private final Logger logger;
 
-    private GameProcess[] runningProcesses;
-    private final Set<GameProcess> killedProcesses;
+    // Running processes in a dense table. Removal moves the last entry into the free slot,
+    // while processes are proceeded removed entries are only cleared and compacted afterwards
+    private Entry[] entries;
+    private int entryCount;
+    private boolean proceeding;
+    private boolean compactionRequired;
+
+    private final Map<GameProcess, Entry> entryOfProcess;
+    private final Map<GameObjectInstance, List<Entry>> entriesOfInstance;
+
+    // Parked processes are not part of the table, they are woken up by game time
+    private final TimerWheel<Entry> parkedEntries;
+    private final List<Entry> wokenEntries;
 
     GameProcessManager(Logger aLogger) {
         logger = aLogger;
-        runningProcesses = new GameProcess[0];
-        killedProcesses = new HashSet<>();
+        entries = new Entry[16];
+        entryOfProcess = new HashMap<>();
+        entriesOfInstance = new HashMap<>();
+        parkedEntries = new TimerWheel<>(0);
+        wokenEntries = new ArrayList<>();
     }
 
     void start(GameProcess aProcess) {
+        if (entryOfProcess.containsKey(aProcess)) {
+            // A second entry would proceed the process twice per frame and survive killing it
+            logger.error("Process of type " + aProcess.getClass().getName() + " is already running");
+            return;
+        }
+
         logger.info("Starting process of type " + aProcess.getClass().getName());
 
-        List<GameProcess> theProcesses = ArrayUtils.asList(runningProcesses);
-        theProcesses.add(aProcess);
-        runningProcesses = theProcesses.toArray(new GameProcess[theProcesses.size()]);
+        Entry theEntry = new Entry(aProcess);
+        append(theEntry);
+        entryOfProcess.put(aProcess, theEntry);
+        for (GameObjectInstance theInstance : theEntry.instances) {
+            List<Entry> theEntries = entriesOfInstance.get(theInstance);
+            if (theEntries == null) {
+                theEntries = new ArrayList<>(2);
+                entriesOfInstance.put(theInstance, theEntries);
+            }
+            theEntries.add(theEntry);
+        }
+
         aProcess.started();
     }
 
     void kill(GameProcess aProcess) {
+        Entry theEntry = entryOfProcess.get(aProcess);
+        if (theEntry == null) {
+            // Not running or already killed
+            return;
+        }
+
         logger.info("Killing process of type " + aProcess.getClass().getName());
 
-        killedProcesses.add(aProcess);
+        remove(theEntry);
         aProcess.killed();
     }
 
     void killProcessesForInstance(GameObjectInstance aInstance) {
-        for (GameProcess theProcess : runningProcesses) {
-            if (theProcess.affectsInstance(aInstance)) {
-                kill(theProcess);
+        List<Entry> theEntries = entriesOfInstance.get(aInstance);
+        if (theEntries != null) {
+            // Killing modifies the list, so we need a copy
+            for (Entry theEntry : theEntries.toArray(new Entry[theEntries.size()])) {
+                kill(theEntry.process);
             }
         }
     }
@@ -67,6 +124,101 @@ public class GameProcessManager implements GameSystem {
         killProcessesForInstance(aInstance);
     }
 
+    int getRunningProcessCount() {
+        return entryOfProcess.size();
+    }
+
+    int getParkedProcessCount() {
+        return parkedEntries.size();
+    }
+
+    private void append(Entry aEntry) {
+        if (entryCount == entries.length) {
+            Entry[] theNewEntries = new Entry[entries.length * 2];
+            System.arraycopy(entries, 0, theNewEntries, 0, entryCount);
+            entries = theNewEntries;
+        }
+        aEntry.slot = entryCount;
+        entries[entryCount++] = aEntry;
+    }
+
+    private void park(Entry aEntry, long aWakeupTime) {
+        removeFromTable(aEntry);
+        aEntry.timer = parkedEntries.schedule(aEntry, aWakeupTime);
+    }
+
+    private void wakeUpParkedEntries(long aGameTime) {
+        parkedEntries.advanceTo(aGameTime, wokenEntries);
+        for (int i = 0; i < wokenEntries.size(); i++) {
+            Entry theEntry = wokenEntries.get(i);
+            theEntry.timer = null;
+            append(theEntry);
+        }
+        wokenEntries.clear();
+    }
+
+    private void remove(Entry aEntry) {
+        entryOfProcess.remove(aEntry.process);
+        for (GameObjectInstance theInstance : aEntry.instances) {
+            List<Entry> theEntries = entriesOfInstance.get(theInstance);
+            if (theEntries != null) {
+                theEntries.remove(aEntry);
+                if (theEntries.isEmpty()) {
+                    entriesOfInstance.remove(theInstance);
+                }
+            }
+        }
+
+        if (aEntry.timer != null) {
+            parkedEntries.cancel(aEntry.timer);
+            aEntry.timer = null;
+        } else {
+            removeFromTable(aEntry);
+        }
+    }
+
+    private void removeFromTable(Entry aEntry) {
+        if (proceeding) {
+            // Keep the slots stable till all processes were proceeded
+            entries[aEntry.slot] = null;
+            compactionRequired = true;
+        } else {
+            Entry theLast = entries[--entryCount];
+            entries[entryCount] = null;
+            if (theLast != aEntry) {
+                theLast.slot = aEntry.slot;
+                entries[aEntry.slot] = theLast;
+            }
+        }
+    }
+
+    private void compact() {
+        int theTarget = 0;
+        for (int i = 0; i < entryCount; i++) {
+            Entry theEntry = entries[i];
+            if (theEntry != null) {
+                if (theTarget != i) {
+                    theEntry.slot = theTarget;
+                    entries[theTarget] = theEntry;
+                    entries[i] = null;
+                }
+                theTarget++;
+            }
+        }
+        entryCount = theTarget;
+        compactionRequired = false;
+    }
+
+    @Override
+    public GameSystemResource[] getReadResources() {
+        return READ_RESOURCES;
+    }
+
+    @Override
+    public GameSystemResource[] getWriteResources() {
+        return WRITE_RESOURCES;
+    }
+
     @Override
     public GameSystemWork proceedGame(final long aTotalTicks, final long aGameTime, final long aElapsedTime) {
 
@@ -74,41 +226,61 @@ public class GameProcessManager implements GameSystem {
             @Override
             public void runInFrame() {
 
-                List<GameProcess> theNewChildProcesses = new ArrayList<>();
+                List<GameProcess> theNewChildProcesses = null;
 
-                for (GameProcess theProcess : runningProcesses) {
+                wakeUpParkedEntries(aGameTime);
 
-                    logger.info("Running process of type " + theProcess.getClass().getName() + " with time " + aElapsedTime);
+                // Processes started while proceeding are appended, and run for the first time in the next frame
+                int theCount = entryCount;
+                proceeding = true;
+                try {
+                    for (int i = 0; i < theCount; i++) {
+                        Entry theEntry = entries[i];
+                        if (theEntry == null) {
+                            // Killed while proceeding
+                            continue;
+                        }
 
-                    GameProcess.ProceedResult theResult = theProcess.proceedGame(aGameTime, aElapsedTime);
-                    switch (theResult) {
-                    case CONTINUE_RUNNING:
-                        // The process wants to continue, so we do it
-                        break;
-                    case STOPPED:
-                        // The process wants to be stopped, so we will help him
-                        killedProcesses.add(theProcess);
-                        GameProcess theChildProcess = theProcess.getChildProcess();
-                        if (theChildProcess != null) {
-                            // There is a child process attached, so start with this one
-                            theNewChildProcesses.add(theChildProcess);
+                        GameProcess theProcess = theEntry.process;
+                        GameProcess.ProceedResult theResult = theProcess.proceedGame(aGameTime, aElapsedTime);
+                        switch (theResult) {
+                        case CONTINUE_RUNNING:
+                            // The process wants to continue, so we do it
+                            break;
+                        case PARKED:
+                            // The process waits, so it is not proceeded till its wakeup time
+                            if (theProcess instanceof ParkableGameProcess && entryOfProcess.get(theProcess) == theEntry) {
+                                park(theEntry, ((ParkableGameProcess) theProcess).getWakeupTime());
+                            }
+                            break;
+                        case STOPPED:
+                            // The process wants to be stopped, so we will help him
+                            if (entryOfProcess.get(theProcess) == theEntry) {
+                                remove(theEntry);
+                            }
+                            GameProcess theChildProcess = theProcess.getChildProcess();
+                            if (theChildProcess != null) {
+                                // There is a child process attached, so start with this one
+                                if (theNewChildProcesses == null) {
+                                    theNewChildProcesses = new ArrayList<>();
+                                }
+                                theNewChildProcesses.add(theChildProcess);
+                            }
+                            break;
                         }
-                        break;
+                    }
+                } finally {
+                    proceeding = false;
+                    if (compactionRequired) {
+                        compact();
                     }
                 }
 
-                if (!theNewChildProcesses.isEmpty()) {
+                if (theNewChildProcesses != null) {
                     for (GameProcess theChildProcess : theNewChildProcesses) {
                         start(theChildProcess);
                     }
                 }
-
-                if (killedProcesses.size() > 0) {
-                    List<GameProcess> theRunningProcesses = ArrayUtils.asList(runningProcesses);
-                    theRunningProcesses.removeAll(killedProcesses);
-                    runningProcesses = theRunningProcesses.toArray(new GameProcess[theRunningProcesses.size()]);
-                    killedProcesses.clear();
-                }
             }
 
             @Override
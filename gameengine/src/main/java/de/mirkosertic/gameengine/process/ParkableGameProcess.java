@@ -0,0 +1,24 @@
+/*
+ * Copyright 2016 Mirko Sertic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.mirkosertic.gameengine.process;
+
+// A process which can wait for some time without being proceeded every frame.
+// It returns PARKED from proceedGame, and is proceeded again once the game time
+// has reached the wakeup time. Killing the process also works while it is parked.
+public interface ParkableGameProcess extends GameProcess {
+
+    long getWakeupTime();
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2016 Mirko Sertic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.mirkosertic.gameengine.process;
+
+import java.util.List;
+
+// Hierarchical timer wheel. Deadlines are plain longs, for instance game time in
+// milliseconds or a tick count. Every level has 64 slots, a slot of level n covers
+// 64^n time units. Timers are moved to a finer level once their slot is reached,
+// so scheduling and cancelling is O(1), and advancing costs O(1) per time unit plus
+// the number of expired or moved timers. Deadlines beyond the last level are kept in
+// an overflow list and redistributed whenever the last level wraps around.
+public class TimerWheel<T> {
+
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long RANGE = 1L << (BITS * LEVELS);
+
+    public static final class Timer<T> {
+
+        private final T value;
+        private final long deadline;
+        private Timer<T> previous;
+        private Timer<T> next;
+        private boolean scheduled;
+
+        private Timer(T aValue, long aDeadline) {
+            value = aValue;
+            deadline = aDeadline;
+        }
+
+        public T getValue() {
+            return value;
+        }
+
+        public long getDeadline() {
+            return deadline;
+        }
+
+        public boolean isScheduled() {
+            return scheduled;
+        }
+    }
+
+    // Sentinels of the doubly linked lists, one per slot of every level
+    private final Timer<T>[][] wheels;
+    // Already due when scheduled, or beyond the range of all levels
+    private final Timer<T> due;
+    private final Timer<T> overflow;
+    private long currentTime;
+    private int size;
+
+    public TimerWheel(long aStartTime) {
+        wheels = new Timer[LEVELS][SLOTS];
+        for (int i = 0; i < LEVELS; i++) {
+            for (int j = 0; j < SLOTS; j++) {
+                wheels[i][j] = sentinel();
+            }
+        }
+        due = sentinel();
+        overflow = sentinel();
+        currentTime = aStartTime;
+    }
+
+    private static <T> Timer<T> sentinel() {
+        Timer<T> theSentinel = new Timer<>(null, 0);
+        theSentinel.previous = theSentinel;
+        theSentinel.next = theSentinel;
+        return theSentinel;
+    }
+
+    public long getCurrentTime() {
+        return currentTime;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Timer<T> schedule(T aValue, long aDeadline) {
+        Timer<T> theTimer = new Timer<>(aValue, aDeadline);
+        if (aDeadline <= currentTime) {
+            link(due, theTimer);
+        } else {
+            place(theTimer);
+        }
+        theTimer.scheduled = true;
+        size++;
+        return theTimer;
+    }
+
+    public boolean cancel(Timer<T> aTimer) {
+        if (!aTimer.scheduled) {
+            return false;
+        }
+        unlink(aTimer);
+        aTimer.scheduled = false;
+        size--;
+        return true;
+    }
+
+    // Moves the time forward, and adds the values of all timers expired till then
+    public void advanceTo(long aTime, List<T> aExpired) {
+        expireAll(due, aExpired);
+        while (currentTime < aTime) {
+            if (size == 0) {
+                currentTime = aTime;
+                return;
+            }
+            currentTime++;
+            for (int theLevel = 1; theLevel < LEVELS; theLevel++) {
+                if ((currentTime & ((1L << (BITS * theLevel)) - 1)) != 0) {
+                    break;
+                }
+                cascade(wheels[theLevel][(int) (currentTime >>> (BITS * theLevel)) & MASK]);
+            }
+            if ((currentTime & (RANGE - 1)) == 0) {
+                cascade(overflow);
+            }
+            expireAll(wheels[0][(int) currentTime & MASK], aExpired);
+        }
+    }
+
+    private void place(Timer<T> aTimer) {
+        long theDelta = aTimer.deadline - currentTime;
+        if (theDelta <= 0) {
+            // Due in the current time unit, which is expired right after cascading
+            link(wheels[0][(int) currentTime & MASK], aTimer);
+            return;
+        }
+        for (int theLevel = 0; theLevel < LEVELS; theLevel++) {
+            if (theDelta < 1L << (BITS * (theLevel + 1))) {
+                link(wheels[theLevel][(int) (aTimer.deadline >>> (BITS * theLevel)) & MASK], aTimer);
+                return;
+            }
+        }
+        link(overflow, aTimer);
+    }
+
+    private void cascade(Timer<T> aSentinel) {
+        Timer<T> theTimer = aSentinel.next;
+        aSentinel.next = aSentinel;
+        aSentinel.previous = aSentinel;
+        while (theTimer != aSentinel) {
+            Timer<T> theNext = theTimer.next;
+            place(theTimer);
+            theTimer = theNext;
+        }
+    }
+
+    private void expireAll(Timer<T> aSentinel, List<T> aExpired) {
+        while (aSentinel.next != aSentinel) {
+            Timer<T> theTimer = aSentinel.next;
+            unlink(theTimer);
+            theTimer.scheduled = false;
+            size--;
+            aExpired.add(theTimer.value);
+        }
+    }
+
+    private static <T> void link(Timer<T> aSentinel, Timer<T> aTimer) {
+        aTimer.previous = aSentinel.previous;
+        aTimer.next = aSentinel;
+        aSentinel.previous.next = aTimer;
+        aSentinel.previous = aTimer;
+    }
+
+    private static <T> void unlink(Timer<T> aTimer) {
+        aTimer.previous.next = aTimer.next;
+        aTimer.next.previous = aTimer.previous;
+        aTimer.previous = null;
+        aTimer.next = null;
+    }
+}
@@ -42,9 +42,10 @@ public class RunScriptAction implements Action {
             + "--\n"
             + "function proceedGame(aGameTime, aElapsedTimeSinceLastLoop) \n"
             + "\n"
-            + "\t-- The method must return either STOPPED or CONTINUE_RUNNING\n"
+            + "\t-- The method must return STOPPED, CONTINUE_RUNNING or a number\n"
             + "\t-- STOPPED will kill the script, it is not invoked the next time\n"
             + "\t-- CONTINUE_RUNNING will invoke the skript the next game loop cycle.\n"
+            + "\t-- A number of milliseconds will invoke the script again after this time.\n"
             + "\treturn 'STOPPED'\n"
             + "end";
 
@@ -17,15 +17,17 @@ package de.mirkosertic.gameengine.script;
 
 import de.mirkosertic.gameengine.core.GameObjectInstance;
 import de.mirkosertic.gameengine.core.GameScene;
+import de.mirkosertic.gameengine.core.Logger;
 import de.mirkosertic.gameengine.event.GameEvent;
 import de.mirkosertic.gameengine.process.GameProcess;
+import de.mirkosertic.gameengine.process.ParkableGameProcess;
 import de.mirkosertic.gameengine.scriptengine.LUAScriptEngine;
 import de.mirkosertic.gameengine.scriptengine.LUAScriptEngineFactory;
 import de.mirkosertic.gameengine.type.Script;
 
 import java.io.IOException;
 
-public class ScriptProcess implements GameProcess {
+public class ScriptProcess implements ParkableGameProcess {
 
     private final GameScene scene;
     private GameObjectInstance instance;
@@ -34,6 +36,7 @@ public class ScriptProcess implements GameProcess {
     private final GameEvent causingEvent;
 
     private LUAScriptEngine scriptEngine;
+    private long wakeupTime;
 
     public ScriptProcess(GameEvent aCausingEvent, GameScene aScene, LUAScriptEngineFactory aScriptEngineFactory, Script aScript) {
         causingEvent = aCausingEvent;
@@ -69,20 +72,49 @@ public class ScriptProcess implements GameProcess {
     }
 
     @Override
-    public boolean affectsInstance(GameObjectInstance aInstance) {
-        return instance == aInstance;
+    public GameObjectInstance[] getAffectedInstances() {
+        if (instance == null) {
+            return NO_INSTANCES;
+        }
+        return new GameObjectInstance[] {instance};
     }
 
     @Override
     public ProceedResult proceedGame(long aGameTime, long aElapsedTimeSinceLastLoop) {
-        Object theResult = scriptEngine.proceedGame(aGameTime, aElapsedTimeSinceLastLoop);
+        Object theResult;
+        Logger theLogger = scene.getRuntime().getLogger();
+        if (theLogger != null && theLogger.isTracing()) {
+            String theSpan = instance != null ? instance.nameProperty().get() : "scene";
+            theLogger.beginSpan(Logger.SPAN_SCRIPT, theSpan);
+            try {
+                theResult = scriptEngine.proceedGame(aGameTime, aElapsedTimeSinceLastLoop);
+            } finally {
+                theLogger.endSpan(Logger.SPAN_SCRIPT, theSpan);
+            }
+        } else {
+            theResult = scriptEngine.proceedGame(aGameTime, aElapsedTimeSinceLastLoop);
+        }
+        if (theResult instanceof Number) {
+            // The script wants to sleep for the given number of milliseconds
+            wakeupTime = aGameTime + ((Number) theResult).longValue();
+            return ProceedResult.PARKED;
+        }
+        ProceedResult theProceedResult = ProceedResult.STOPPED;
         if (theResult instanceof String) {
-            return ProceedResult.valueOf((String) theResult);
+            theProceedResult = ProceedResult.valueOf((String) theResult);
+        } else if (theResult instanceof ProceedResult) {
+            theProceedResult = (ProceedResult) theResult;
         }
-        if (theResult instanceof ProceedResult) {
-            return (ProceedResult) theResult;
+        if (theProceedResult == ProceedResult.PARKED) {
+            // Parked processes are only woken up by game time, so the wakeup of an earlier call must not be reused
+            throw new IllegalStateException("Scripts are parked by returning the milliseconds to sleep");
         }
-        return ProceedResult.STOPPED;
+        return theProceedResult;
+    }
+
+    @Override
+    public long getWakeupTime() {
+        return wakeupTime;
     }
 
     @Override
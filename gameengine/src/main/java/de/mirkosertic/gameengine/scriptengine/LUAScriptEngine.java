@@ -29,4 +29,6 @@ public interface LUAScriptEngine {
     void registerPrimitive(String aObjectName, long aValue);
 
     String evaluateSimpleExpressionFor(GameObjectInstance aObjectInstance);
+
+    String evaluateSimpleExpressionFor(GameObjectInstance aObjectInstance, ExpressionDependencies aDependencies);
 }
\ No newline at end of file
@@ -16,12 +16,18 @@
 package de.mirkosertic.gameengine.sound;
 
 import de.mirkosertic.gameengine.core.GameSystem;
+import de.mirkosertic.gameengine.core.GameSystemDependencies;
+import de.mirkosertic.gameengine.core.GameSystemResource;
 import de.mirkosertic.gameengine.core.GameSystemWork;
 import de.mirkosertic.gameengine.event.GameEventManager;
 import de.mirkosertic.gameengine.process.StartProcess;
 import de.mirkosertic.gameengine.type.ResourceName;
 
-public class GameSoundManager implements GameSystem {
+public class GameSoundManager implements GameSystem, GameSystemDependencies {
+
+    // Sounds are started by processes, there is no work done in frame
+    private static final GameSystemResource[] READ_RESOURCES = new GameSystemResource[0];
+    private static final GameSystemResource[] WRITE_RESOURCES = new GameSystemResource[0];
 
     private final GameEventManager eventManager;
     private final GameSoundSystem soundSystem;
@@ -31,6 +37,16 @@ public class GameSoundManager implements GameSystem {
         eventManager = aEventManager;
     }
 
+    @Override
+    public GameSystemResource[] getReadResources() {
+        return READ_RESOURCES;
+    }
+
+    @Override
+    public GameSystemResource[] getWriteResources() {
+        return WRITE_RESOURCES;
+    }
+
     @Override
     public GameSystemWork proceedGame(long aTotalTicks, long aGameTime, long aElapsedTime) {
         return new GameSystemWork() {
@@ -18,6 +18,7 @@ package de.mirkosertic.gameengine.sound;
 import de.mirkosertic.gameengine.core.Action;
 import de.mirkosertic.gameengine.core.ConditionResult;
 import de.mirkosertic.gameengine.core.GameScene;
+import de.mirkosertic.gameengine.core.ReferencesResources;
 import de.mirkosertic.gameengine.core.UsedByReflection;
 import de.mirkosertic.gameengine.event.GameEventManager;
 import de.mirkosertic.gameengine.event.Property;
@@ -25,8 +26,9 @@ import de.mirkosertic.gameengine.type.ResourceName;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
-public class PlaySoundAction implements Action {
+public class PlaySoundAction implements Action, ReferencesResources {
 
     public static final String TYPE_VALUE = "PlaySoundAction";
     public static final String RESOURCE_NAME_PROPERTY = "resourceName";
@@ -48,6 +50,13 @@ public class PlaySoundAction implements Action {
         return resourceName;
     }
 
+    @Override
+    public void collectResourceNames(Set<ResourceName> aResult) {
+        if (resourceName.get() != null) {
+            aResult.add(resourceName.get());
+        }
+    }
+
     @Override
     public Map<String, Object> serialize() {
         Map<String, Object> theResult = new HashMap<>();
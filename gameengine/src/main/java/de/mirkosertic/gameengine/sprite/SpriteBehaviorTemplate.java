@@ -22,6 +22,7 @@ import de.mirkosertic.gameengine.core.GameObjectConfigurationChanged;
 import de.mirkosertic.gameengine.core.GameObjectInstance;
 import de.mirkosertic.gameengine.core.GameRuntime;
 import de.mirkosertic.gameengine.core.GameScene;
+import de.mirkosertic.gameengine.core.ReferencesResources;
 import de.mirkosertic.gameengine.event.GameEventManager;
 import de.mirkosertic.gameengine.event.Property;
 import de.mirkosertic.gameengine.type.Animation;
@@ -32,8 +33,9 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
-public class SpriteBehaviorTemplate implements BehaviorTemplate<SpriteBehavior>, Sprite, Reflectable<SpriteClassInformation> {
+public class SpriteBehaviorTemplate implements BehaviorTemplate<SpriteBehavior>, Sprite, Reflectable<SpriteClassInformation>, ReferencesResources {
 
     public static final BehaviorType TYPE = new BehaviorType("SpriteBehaviorTemplate");;
 
@@ -131,6 +133,15 @@ public class SpriteBehaviorTemplate implements BehaviorTemplate<SpriteBehavior>,
         return animations.toArray(new Animation[animations.size()]);
     }
 
+    @Override
+    public void collectResourceNames(Set<ResourceName> aResult) {
+        for (Animation theAnimation : animations) {
+            for (int i = 0; i < theAnimation.getSequenceSize(); i++) {
+                aResult.add(theAnimation.getResourceByIndex(i));
+            }
+        }
+    }
+
     public void replaceAnimation(Animation aOldAnimation, Animation aNewAnimation) {
         if (aOldAnimation == aNewAnimation) {
             // Nothing to do
@@ -31,8 +31,8 @@ public class StarfieldGameProcess implements GameProcess {
     }
 
     @Override
-    public boolean affectsInstance(GameObjectInstance aInstance) {
-        return false;
+    public GameObjectInstance[] getAffectedInstances() {
+        return NO_INSTANCES;
     }
 
     @Override
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2016 Mirko Sertic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.mirkosertic.gameengine.text;
+
+import de.mirkosertic.gameengine.core.GameObjectInstance;
+import de.mirkosertic.gameengine.core.GameObjectInstanceRemovedFromScene;
+import de.mirkosertic.gameengine.core.GameScene;
+import de.mirkosertic.gameengine.core.Logger;
+import de.mirkosertic.gameengine.event.GameEventListener;
+import de.mirkosertic.gameengine.event.Property;
+import de.mirkosertic.gameengine.event.PropertyChanged;
+import de.mirkosertic.gameengine.scriptengine.ExpressionDependencies;
+import de.mirkosertic.gameengine.scriptengine.LUAScriptEngine;
+import de.mirkosertic.gameengine.type.TextExpression;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Results of scripted text expressions. A result is computed again only if a property read by the
+// expression changed. Expressions reading something that cannot be observed are refreshed periodically.
+public class ScriptedTextCache {
+
+    static final long UNTRACKED_REFRESH_INTERVAL = 60;
+
+    private static final String TEXT_SPAN = "textExpression";
+
+    private static class Entry implements ExpressionDependencies, GameEventListener<PropertyChanged> {
+
+        private final List<Property> dependencies;
+        private TextExpression expression;
+        private String value;
+        private boolean changed;
+        private boolean untracked;
+        private long evaluatedAt;
+
+        Entry() {
+            dependencies = new ArrayList<>();
+            changed = true;
+        }
+
+        @Override
+        public void propertyRead(Property aProperty) {
+            if (!dependencies.contains(aProperty)) {
+                dependencies.add(aProperty);
+                aProperty.addChangeListener(this);
+            }
+        }
+
+        @Override
+        public void untrackedRead() {
+            untracked = true;
+        }
+
+        @Override
+        public void handleGameEvent(PropertyChanged aEvent) {
+            changed = true;
+        }
+
+        boolean needsUpdate(TextExpression aExpression, long aGameTime) {
+            if (changed || !aExpression.equals(expression)) {
+                return true;
+            }
+            return untracked && evaluatedAt + UNTRACKED_REFRESH_INTERVAL <= aGameTime;
+        }
+
+        void release() {
+            for (Property theProperty : dependencies) {
+                theProperty.removeChangeListener(this);
+            }
+            dependencies.clear();
+        }
+    }
+
+    private final GameScene scene;
+    private final Map<GameObjectInstance, Entry> entries;
+
+    ScriptedTextCache(GameScene aScene) {
+        scene = aScene;
+        entries = new HashMap<>();
+    }
+
+    public static ScriptedTextCache forScene(final GameScene aScene) {
+        ScriptedTextCache theCache = aScene.getObjectForKey(ScriptedTextCache.class);
+        if (theCache == null) {
+            final ScriptedTextCache theNewCache = new ScriptedTextCache(aScene);
+            aScene.getRuntime().getEventManager().register(aScene, GameObjectInstanceRemovedFromScene.TYPE, new GameEventListener<GameObjectInstanceRemovedFromScene>() {
+                @Override
+                public void handleGameEvent(GameObjectInstanceRemovedFromScene aEvent) {
+                    if (aEvent.scene == aScene) {
+                        theNewCache.remove(aEvent.instance);
+                    }
+                }
+            });
+            aScene.setObjectForKey(ScriptedTextCache.class, theNewCache);
+            theCache = theNewCache;
+        }
+        return theCache;
+    }
+
+    public String textFor(GameObjectInstance aInstance, TextExpression aExpression, long aGameTime) {
+        Entry theEntry = entries.get(aInstance);
+        if (theEntry == null) {
+            theEntry = new Entry();
+            entries.put(aInstance, theEntry);
+        }
+        if (theEntry.needsUpdate(aExpression, aGameTime)) {
+            theEntry.release();
+            theEntry.expression = aExpression;
+            theEntry.changed = false;
+            theEntry.untracked = false;
+            theEntry.evaluatedAt = aGameTime;
+            Logger theLogger = scene.getRuntime().getLogger();
+            boolean theTracing = theLogger != null && theLogger.isTracing();
+            if (theTracing) {
+                theLogger.beginSpan(Logger.SPAN_SCRIPT, TEXT_SPAN);
+            }
+            try {
+                LUAScriptEngine theEngine = scene.getRuntime().getScriptEngineFactory().createNewEngine(scene, aExpression);
+                theEntry.value = theEngine.evaluateSimpleExpressionFor(aInstance, theEntry);
+            } catch (Exception e) {
+                // Failed to process the script
+                // can be IOException
+                // or more likely compile errors
+                theEntry.value = "Processing error : " + e.getMessage();
+                theEntry.untracked = true;
+            } finally {
+                if (theTracing) {
+                    theLogger.endSpan(Logger.SPAN_SCRIPT, TEXT_SPAN);
+                }
+            }
+        }
+        return theEntry.value;
+    }
+
+    void remove(GameObjectInstance aInstance) {
+        Entry theEntry = entries.remove(aInstance);
+        if (theEntry != null) {
+            theEntry.release();
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+}
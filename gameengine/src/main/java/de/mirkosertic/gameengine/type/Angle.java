@@ -30,10 +30,14 @@ public class Angle implements Reflectable, Distributable {
     private Angle inverted;
 
     public Angle(int aAngleInDegrees) {
+        angleInDegrees = normalize(aAngleInDegrees);
+    }
+
+    public static int normalize(int aAngleInDegrees) {
         while (aAngleInDegrees < 0) {
             aAngleInDegrees += 360;
         }
-        angleInDegrees = aAngleInDegrees % 360;
+        return aAngleInDegrees % 360;
     }
 
     public Integer get() {
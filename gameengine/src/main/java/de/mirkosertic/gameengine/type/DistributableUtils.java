@@ -30,6 +30,10 @@ public final class DistributableUtils {
     }
 
     public static Object convertToType(Object aData, Class aTargetType) {
+        if (aData == null || aData.getClass() == aTargetType) {
+            // Already decoded, for instance by the binary network codec
+            return aData;
+        }
         if (Position.class == aTargetType) {
             return Position.deserialize((Map<String, Object>) aData);
         }
@@ -17,10 +17,40 @@ package de.mirkosertic.gameengine.type;
 
 public class UUID {
 
+    // Ids are the decimal form of a long made of a per peer prefix in the upper and a
+    // sequence number in the lower 32 bits. So they are unique within a peer, and do not
+    // collide with ids of other peers of a networked game as long as the prefixes differ.
+    // The random prefix is never zero, so ids of older projects never collide either.
+    private static int peerPrefix = 1 + (int) (Math.random() * (Integer.MAX_VALUE - 1));
+    private static long sequence;
+
     private UUID() {
     }
 
+    public static synchronized long nextId() {
+        sequence++;
+        return ((long) peerPrefix << 32) | (sequence & 0xffffffffL);
+    }
+
     public static String randomUID() {
-        return Long.toString((long)(Math.random() * 1000000));
+        return Long.toString(nextId());
+    }
+
+    public static synchronized int getPeerPrefix() {
+        return peerPrefix;
+    }
+
+    // A server can assign distinct prefixes to its peers to rule out collisions completely.
+    // The sequence is never reset, so switching back to a prefix used before does not
+    // hand out an id twice
+    public static synchronized void setPeerPrefix(int aPeerPrefix) {
+        if (aPeerPrefix <= 0) {
+            throw new IllegalArgumentException("Peer prefix must be positive : " + aPeerPrefix);
+        }
+        peerPrefix = aPeerPrefix;
+    }
+
+    public static int peerPrefixOf(long aId) {
+        return (int) (aId >>> 32);
     }
-}
\ No newline at end of file
+}
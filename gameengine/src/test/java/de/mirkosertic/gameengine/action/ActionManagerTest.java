@@ -0,0 +1,273 @@
+package de.mirkosertic.gameengine.action;
+
+import de.mirkosertic.gameengine.core.Condition;
+import de.mirkosertic.gameengine.core.ConditionResult;
+import de.mirkosertic.gameengine.core.EventSheet;
+import de.mirkosertic.gameengine.core.GameRule;
+import de.mirkosertic.gameengine.core.GameRuntime;
+import de.mirkosertic.gameengine.core.GameScene;
+import de.mirkosertic.gameengine.core.SceneStarted;
+import de.mirkosertic.gameengine.core.SceneStartedCondition;
+import de.mirkosertic.gameengine.event.GameEvent;
+import de.mirkosertic.gameengine.event.GameEventManager;
+import de.mirkosertic.gameengine.event.GameEventType;
+import de.mirkosertic.gameengine.input.KeyEventCondition;
+import de.mirkosertic.gameengine.input.KeyPressed;
+
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ActionManagerTest {
+
+    private GameScene createScene(EventSheet... aSheets) {
+        GameScene theScene = mock(GameScene.class);
+        GameRuntime theRuntime = mock(GameRuntime.class);
+        when(theScene.getRuntime()).thenReturn(theRuntime);
+        when(theRuntime.getEventManager()).thenReturn(mock(GameEventManager.class));
+        when(theScene.getEventSheets()).thenReturn(aSheets);
+        return theScene;
+    }
+
+    private EventSheet createSheet(GameScene aScene, GameRule... aRules) {
+        EventSheet theSheet = mock(EventSheet.class);
+        when(theSheet.getGameScene()).thenReturn(aScene);
+        when(theSheet.getRules()).thenReturn(aRules);
+        return theSheet;
+    }
+
+    private GameRule createRule(Condition aCondition) {
+        GameRule theRule = new GameRule();
+        theRule.conditionProperty().setQuietly(aCondition);
+        return theRule;
+    }
+
+    @Test
+    public void testIndexIsBuiltFromEventSheets() throws Exception {
+        GameRule theTickRule = createRule(new SystemTickCondition());
+        GameRule theKeyRule = createRule(new KeyEventCondition());
+        GameRule theEmptyRule = new GameRule();
+
+        GameScene theScene = createScene();
+        EventSheet theSheet = createSheet(theScene, theTickRule, theKeyRule, theEmptyRule);
+        when(theScene.getEventSheets()).thenReturn(new EventSheet[] {theSheet});
+
+        ActionManager theManager = new ActionManager(theScene);
+        assertEquals(1, theManager.getCandidateRulesFor(SystemTick.TYPE).length);
+        assertSame(theTickRule, theManager.getCandidateRulesFor(SystemTick.TYPE)[0]);
+        assertEquals(1, theManager.getCandidateRulesFor(KeyPressed.TYPE).length);
+        assertSame(theKeyRule, theManager.getCandidateRulesFor(KeyPressed.TYPE)[0]);
+        assertEquals(0, theManager.getCandidateRulesFor(SceneStarted.TYPE).length);
+    }
+
+    @Test
+    public void testOnlyMatchingConditionsAreEvaluated() throws Exception {
+        Condition theTickCondition = mock(Condition.class);
+        when(theTickCondition.getMatchingEventTypes()).thenReturn(new GameEventType[] {SystemTick.TYPE});
+        Condition theStartCondition = mock(Condition.class);
+        when(theStartCondition.getMatchingEventTypes()).thenReturn(new GameEventType[] {SceneStarted.TYPE});
+        when(theStartCondition.appliesTo(any(GameScene.class), any(SceneStarted.class))).thenReturn(ConditionResult.NOT_FULFILLED);
+
+        GameScene theScene = createScene();
+        EventSheet theSheet = createSheet(theScene, createRule(theTickCondition), createRule(theStartCondition));
+        when(theScene.getEventSheets()).thenReturn(new EventSheet[] {theSheet});
+
+        ActionManager theManager = new ActionManager(theScene);
+        SceneStarted theEvent = new SceneStarted();
+        theManager.onEvent(theEvent);
+
+        verify(theTickCondition, never()).appliesTo(theScene, theEvent);
+        verify(theStartCondition).appliesTo(theScene, theEvent);
+    }
+
+    @Test
+    public void testCatchAllConditionSeesEveryEvent() throws Exception {
+        Condition theCondition = mock(Condition.class);
+        when(theCondition.getMatchingEventTypes()).thenReturn(new GameEventType[] {GameEventType.CATCH_ALL});
+        when(theCondition.appliesTo(any(GameScene.class), any(SceneStarted.class))).thenReturn(ConditionResult.NOT_FULFILLED);
+
+        GameScene theScene = createScene();
+        EventSheet theSheet = createSheet(theScene, createRule(theCondition));
+        when(theScene.getEventSheets()).thenReturn(new EventSheet[] {theSheet});
+
+        ActionManager theManager = new ActionManager(theScene);
+        SceneStarted theEvent = new SceneStarted();
+        theManager.onEvent(theEvent);
+
+        verify(theCondition).appliesTo(theScene, theEvent);
+    }
+
+    private Condition createRecordingCondition(final String aName, final List<String> aEvaluated, GameEventType... aTypes) {
+        Condition theCondition = mock(Condition.class);
+        when(theCondition.getMatchingEventTypes()).thenReturn(aTypes);
+        when(theCondition.appliesTo(any(GameScene.class), any(GameEvent.class))).thenAnswer(new Answer<ConditionResult>() {
+            @Override
+            public ConditionResult answer(InvocationOnMock aInvocation) throws Throwable {
+                aEvaluated.add(aName);
+                return ConditionResult.NOT_FULFILLED;
+            }
+        });
+        return theCondition;
+    }
+
+    @Test
+    public void testRulesAreEvaluatedInEventSheetOrder() throws Exception {
+        List<String> theEvaluated = new ArrayList<>();
+        GameRule theRule1 = createRule(createRecordingCondition("1", theEvaluated, GameEventType.CATCH_ALL));
+        GameRule theRule2 = createRule(createRecordingCondition("2", theEvaluated, SceneStarted.TYPE));
+        GameRule theRule3 = createRule(createRecordingCondition("3", theEvaluated, GameEventType.CATCH_ALL));
+        GameRule theRule4 = createRule(createRecordingCondition("4", theEvaluated, SceneStarted.TYPE));
+        GameRule theRule5 = createRule(createRecordingCondition("5", theEvaluated, SceneStarted.TYPE));
+
+        GameScene theScene = createScene();
+        EventSheet theSheet1 = createSheet(theScene, theRule1, theRule2, theRule3);
+        EventSheet theSheet2 = createSheet(theScene, theRule4);
+        when(theScene.getEventSheets()).thenReturn(new EventSheet[] {theSheet1, theSheet2});
+
+        ActionManager theManager = new ActionManager(theScene);
+        theManager.onEvent(new SceneStarted());
+        assertEquals(Arrays.asList("1", "2", "3", "4"), theEvaluated);
+
+        // A rule added to the first sheet later is still evaluated before the second sheet
+        when(theSheet1.getRules()).thenReturn(new GameRule[] {theRule1, theRule2, theRule3, theRule5});
+        theManager.ruleAdded(theSheet1, theRule5);
+        theEvaluated.clear();
+        theManager.onEvent(new SceneStarted());
+        assertEquals(Arrays.asList("1", "2", "3", "5", "4"), theEvaluated);
+    }
+
+    @Test
+    public void testParkedTickRulesKeepEventSheetOrder() throws Exception {
+        final List<String> theEvaluated = new ArrayList<>();
+        SystemTickCondition theParkedCondition = new SystemTickCondition() {
+            @Override
+            public ConditionResult appliesTo(GameScene aScene, GameEvent aEvent) {
+                theEvaluated.add("parked");
+                return ConditionResult.NOT_FULFILLED;
+            }
+        };
+        theParkedCondition.everyTicksProperty().setQuietly(2l);
+        GameRule theFirst = createRule(createRecordingCondition("first", theEvaluated, SystemTick.TYPE));
+        GameRule theParked = createRule(theParkedCondition);
+        GameRule theLast = createRule(createRecordingCondition("last", theEvaluated, GameEventType.CATCH_ALL));
+
+        GameScene theScene = createScene();
+        EventSheet theSheet = createSheet(theScene, theFirst, theParked, theLast);
+        when(theScene.getEventSheets()).thenReturn(new EventSheet[] {theSheet});
+
+        ActionManager theManager = new ActionManager(theScene);
+        theManager.onEvent(new SystemTick(0, 0, 10));
+        assertEquals(Arrays.asList("first", "parked", "last"), theEvaluated);
+    }
+
+    @Test
+    public void testRulesAreAddedAndRemovedIncrementally() throws Exception {
+        GameScene theScene = createScene();
+        ActionManager theManager = new ActionManager(theScene);
+
+        GameRule theRule = createRule(new SceneStartedCondition());
+        EventSheet theSheet = createSheet(theScene, theRule);
+
+        theManager.ruleAdded(theSheet, theRule);
+        assertEquals(1, theManager.getCandidateRulesFor(SceneStarted.TYPE).length);
+
+        // Adding the same rule twice does not duplicate it
+        theManager.eventSheetAdded(theSheet);
+        assertEquals(1, theManager.getCandidateRulesFor(SceneStarted.TYPE).length);
+
+        theManager.ruleRemoved(theSheet, theRule);
+        assertEquals(0, theManager.getCandidateRulesFor(SceneStarted.TYPE).length);
+
+        theManager.eventSheetAdded(theSheet);
+        assertEquals(1, theManager.getCandidateRulesFor(SceneStarted.TYPE).length);
+
+        theManager.eventSheetRemoved(theSheet);
+        assertEquals(0, theManager.getCandidateRulesFor(SceneStarted.TYPE).length);
+    }
+
+    @Test
+    public void testRulesOfOtherScenesAreIgnored() throws Exception {
+        GameScene theScene = createScene();
+        ActionManager theManager = new ActionManager(theScene);
+
+        GameRule theRule = createRule(new SceneStartedCondition());
+        EventSheet theSheet = createSheet(createScene(), theRule);
+
+        theManager.ruleAdded(theSheet, theRule);
+        assertEquals(0, theManager.getCandidateRulesFor(SceneStarted.TYPE).length);
+    }
+
+    @Test
+    public void testChangedConditionIsReindexed() throws Exception {
+        GameRule theRule = createRule(new SceneStartedCondition());
+
+        GameScene theScene = createScene();
+        EventSheet theSheet = createSheet(theScene, theRule);
+        when(theScene.getEventSheets()).thenReturn(new EventSheet[] {theSheet});
+
+        ActionManager theManager = new ActionManager(theScene);
+        assertEquals(1, theManager.getCandidateRulesFor(SceneStarted.TYPE).length);
+
+        theRule.conditionProperty().set(new SystemTickCondition());
+        assertEquals(0, theManager.getCandidateRulesFor(SceneStarted.TYPE).length);
+        assertEquals(1, theManager.getCandidateRulesFor(SystemTick.TYPE).length);
+
+        theRule.conditionProperty().set(null);
+        assertEquals(0, theManager.getCandidateRulesFor(SystemTick.TYPE).length);
+    }
+
+    @Test
+    public void testRulesWithLargeTickIntervalAreParked() throws Exception {
+        final List<Long> theEvaluatedTicks = new ArrayList<>();
+        SystemTickCondition theCondition = new SystemTickCondition() {
+            @Override
+            public ConditionResult appliesTo(GameScene aScene, GameEvent aEvent) {
+                theEvaluatedTicks.add(((SystemTick) aEvent).totalTicks);
+                return super.appliesTo(aScene, aEvent);
+            }
+        };
+        theCondition.everyTicksProperty().setQuietly(3l);
+        GameRule theRule = createRule(theCondition);
+
+        GameScene theScene = createScene();
+        EventSheet theSheet = createSheet(theScene, theRule);
+        when(theScene.getEventSheets()).thenReturn(new EventSheet[] {theSheet});
+
+        ActionManager theManager = new ActionManager(theScene);
+        assertEquals(0, theManager.getCandidateRulesFor(SystemTick.TYPE).length);
+        assertEquals(1, theManager.getParkedRuleCount());
+
+        for (long i = 0; i < 10; i++) {
+            theManager.onEvent(new SystemTick(i, i * 10, 10));
+        }
+        assertEquals(Arrays.asList(0l, 3l, 6l, 9l), theEvaluatedTicks);
+
+        // Changing the interval moves the rule back to the regular index
+        theCondition.everyTicksProperty().set(1l);
+        assertEquals(0, theManager.getParkedRuleCount());
+        assertEquals(1, theManager.getCandidateRulesFor(SystemTick.TYPE).length);
+
+        theCondition.everyTicksProperty().set(4l);
+        assertEquals(1, theManager.getParkedRuleCount());
+        theEvaluatedTicks.clear();
+        for (long i = 10; i < 17; i++) {
+            theManager.onEvent(new SystemTick(i, i * 10, 10));
+        }
+        assertEquals(Arrays.asList(12l, 16l), theEvaluatedTicks);
+
+        theManager.ruleRemoved(theSheet, theRule);
+        assertEquals(0, theManager.getParkedRuleCount());
+    }
+}
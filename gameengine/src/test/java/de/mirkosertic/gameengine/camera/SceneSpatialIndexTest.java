@@ -0,0 +1,134 @@
+package de.mirkosertic.gameengine.camera;
+
+import de.mirkosertic.gameengine.core.Game;
+import de.mirkosertic.gameengine.core.GameObject;
+import de.mirkosertic.gameengine.core.GameObjectInstance;
+import de.mirkosertic.gameengine.core.GameRuntime;
+import de.mirkosertic.gameengine.core.GameScene;
+import de.mirkosertic.gameengine.core.Logger;
+import de.mirkosertic.gameengine.event.GameEventManager;
+import de.mirkosertic.gameengine.type.Position;
+import de.mirkosertic.gameengine.type.PositionAnchor;
+import de.mirkosertic.gameengine.type.Size;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SceneSpatialIndexTest {
+
+    private GameScene createScene() {
+        GameRuntime theRuntime = mock(GameRuntime.class);
+        when(theRuntime.getEventManager()).thenReturn(new GameEventManager(mock(Logger.class)));
+        return new GameScene(mock(Game.class), theRuntime);
+    }
+
+    private GameObjectInstance createInstance(GameScene aScene, GameObject aObject, float aX, float aY) {
+        GameObjectInstance theInstance = aScene.createFrom(aObject);
+        theInstance.positionProperty().set(new Position(aX, aY));
+        aScene.addInstance(theInstance);
+        return theInstance;
+    }
+
+    private List<GameObjectInstance> query(SceneSpatialIndex aIndex, float aMinX, float aMinY, float aMaxX, float aMaxY) {
+        List<GameObjectInstance> theResult = new ArrayList<>();
+        aIndex.query(aMinX, aMinY, aMaxX, aMaxY, theResult);
+        return theResult;
+    }
+
+    @Test
+    public void testQueryFindsOnlyNearbyInstancesInSceneOrder() throws Exception {
+        GameScene theScene = createScene();
+        GameObject theObject = theScene.createNewGameObject("Object");
+
+        GameObjectInstance theFar = createInstance(theScene, theObject, 5000, 5000);
+        GameObjectInstance theFirst = createInstance(theScene, theObject, 100, 100);
+        GameObjectInstance theSecond = createInstance(theScene, theObject, 10, 10);
+
+        SceneSpatialIndex theIndex = SceneSpatialIndex.forScene(theScene);
+        assertSame(theIndex, SceneSpatialIndex.forScene(theScene));
+        assertEquals(3, theIndex.size());
+
+        List<GameObjectInstance> theResult = query(theIndex, 0, 0, 200, 200);
+        assertEquals(2, theResult.size());
+        assertSame(theFirst, theResult.get(0));
+        assertSame(theSecond, theResult.get(1));
+
+        theResult = query(theIndex, 5010, 5010, 5010, 5010);
+        assertEquals(1, theResult.size());
+        assertSame(theFar, theResult.get(0));
+    }
+
+    @Test
+    public void testIndexFollowsChanges() throws Exception {
+        GameScene theScene = createScene();
+        GameObject theObject = theScene.createNewGameObject("Object");
+        GameObjectInstance theInstance = createInstance(theScene, theObject, 10, 10);
+
+        SceneSpatialIndex theIndex = SceneSpatialIndex.forScene(theScene);
+        assertEquals(1, query(theIndex, 0, 0, 100, 100).size());
+
+        theInstance.positionProperty().set(new Position(2000, 2000));
+        assertTrue(query(theIndex, 0, 0, 100, 100).isEmpty());
+        assertEquals(1, query(theIndex, 1990, 1990, 2000, 2000).size());
+
+        // Growing the object makes it reach into the queried area again
+        theObject.sizeProperty().set(new Size(3000, 3000));
+        assertEquals(1, query(theIndex, 4000, 4000, 4100, 4100).size());
+
+        theObject.sizeProperty().set(new Size(64, 64));
+        GameObjectInstance theAdded = createInstance(theScene, theObject, -500, -500);
+        assertEquals(1, query(theIndex, -480, -480, -480, -480).size());
+
+        theScene.removeGameObjectInstance(theAdded);
+        assertTrue(query(theIndex, -480, -480, -480, -480).isEmpty());
+        assertEquals(1, theIndex.size());
+    }
+
+    @Test
+    public void testScreenAnchoredInstancesAreAlwaysCandidates() throws Exception {
+        GameScene theScene = createScene();
+        GameObject theObject = theScene.createNewGameObject("Object");
+        GameObjectInstance theInstance = createInstance(theScene, theObject, 10000, 10000);
+
+        SceneSpatialIndex theIndex = SceneSpatialIndex.forScene(theScene);
+        assertTrue(query(theIndex, 0, 0, 100, 100).isEmpty());
+
+        theInstance.positionAnchorProperty().set(PositionAnchor.TOP_LEFT);
+        assertEquals(1, query(theIndex, 0, 0, 100, 100).size());
+
+        theInstance.positionAnchorProperty().set(PositionAnchor.SCENE);
+        assertTrue(query(theIndex, 0, 0, 100, 100).isEmpty());
+    }
+
+    @Test
+    public void testSizeListenerIsRemovedWithTheLastInstance() throws Exception {
+        GameScene theScene = createScene();
+        GameObject theObject = theScene.createNewGameObject("Object");
+        int theListenerCount = theObject.sizeProperty().getChangeListener().size();
+        GameObjectInstance theFirst = createInstance(theScene, theObject, 10, 10);
+        GameObjectInstance theSecond = createInstance(theScene, theObject, 20, 20);
+
+        SceneSpatialIndex theIndex = SceneSpatialIndex.forScene(theScene);
+        assertEquals(1, theIndex.getSizeListenerCount());
+        assertEquals(theListenerCount + 1, theObject.sizeProperty().getChangeListener().size());
+
+        theScene.removeGameObjectInstance(theFirst);
+        assertEquals(1, theIndex.getSizeListenerCount());
+
+        theScene.removeGameObjectInstance(theSecond);
+        assertEquals(0, theIndex.getSizeListenerCount());
+        assertEquals(theListenerCount, theObject.sizeProperty().getChangeListener().size());
+
+        // Adding an instance again registers a new listener
+        createInstance(theScene, theObject, 10, 10);
+        assertEquals(1, theIndex.getSizeListenerCount());
+        assertEquals(theListenerCount + 1, theObject.sizeProperty().getChangeListener().size());
+    }
+}
@@ -0,0 +1,47 @@
+package de.mirkosertic.gameengine.core;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class BehaviorTableTest {
+
+    @Test
+    public void testOrdinals() throws Exception {
+        BehaviorType theFirst = new BehaviorType("BehaviorTableTest.First");
+        BehaviorType theSecond = new BehaviorType("BehaviorTableTest.Second");
+        assertEquals(theFirst.ordinal(), new BehaviorType("BehaviorTableTest.First").ordinal());
+        assertNotEquals(theFirst.ordinal(), theSecond.ordinal());
+        assertEquals(theSecond.ordinal(), BehaviorType.ordinalOf("BehaviorTableTest.Second"));
+        assertEquals(-1, BehaviorType.ordinalOf("BehaviorTableTest.Unknown"));
+    }
+
+    @Test
+    public void testPutGetRemove() throws Exception {
+        BehaviorType theFirst = new BehaviorType("BehaviorTableTest.First");
+        BehaviorType theSecond = new BehaviorType("BehaviorTableTest.Second");
+
+        BehaviorTable<String> theTable = new BehaviorTable<>();
+        assertNull(theTable.get(theFirst));
+        assertNull(theTable.get(-1));
+
+        theTable.put(theSecond, "second");
+        theTable.put(theFirst, "first");
+        theTable.put(new BehaviorType("BehaviorTableTest.First"), "replaced");
+        assertEquals(2, theTable.size());
+        assertSame("replaced", theTable.get(theFirst));
+        assertSame("second", theTable.get(theSecond.ordinal()));
+        assertEquals(Arrays.asList("replaced", "second"), theTable.values());
+
+        theTable.remove(theFirst);
+        theTable.remove(theFirst);
+        assertEquals(1, theTable.size());
+        assertNull(theTable.get(theFirst));
+        assertEquals(Arrays.asList("second"), theTable.values());
+    }
+}
@@ -0,0 +1,78 @@
+package de.mirkosertic.gameengine.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FrameTimeHistogramTest {
+
+    @Test
+    public void testEmpty() throws Exception {
+        FrameTimeHistogram theHistogram = new FrameTimeHistogram();
+        assertEquals(0, theHistogram.getCount());
+        assertEquals(0, theHistogram.getMax());
+        assertEquals(0, theHistogram.getMean());
+        assertEquals(0, theHistogram.getPercentile(99));
+    }
+
+    @Test
+    public void testBuckets() throws Exception {
+        for (long theValue = 0; theValue < 100000; theValue++) {
+            long theUpperBound = FrameTimeHistogram.upperBoundOf(FrameTimeHistogram.bucketOf(theValue));
+            assertTrue(theUpperBound >= theValue);
+            // A bucket is never wider than a sixteenth of its values
+            assertTrue(theUpperBound - theValue <= theValue / 16);
+        }
+        assertEquals(FrameTimeHistogram.MAX_TRACKABLE, FrameTimeHistogram.upperBoundOf(FrameTimeHistogram.bucketOf(FrameTimeHistogram.MAX_TRACKABLE)));
+    }
+
+    @Test
+    public void testPercentiles() throws Exception {
+        FrameTimeHistogram theHistogram = new FrameTimeHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            theHistogram.record(i * 1000L);
+        }
+        assertEquals(1000, theHistogram.getCount());
+        assertEquals(500500, theHistogram.getMean());
+        assertEquals(1000000, theHistogram.getMax());
+        assertEquals(500000, theHistogram.getPercentile(50), 500000 / 16);
+        assertEquals(950000, theHistogram.getPercentile(95), 950000 / 16);
+        assertEquals(990000, theHistogram.getPercentile(99), 990000 / 16);
+        assertEquals(1000000, theHistogram.getPercentile(100));
+    }
+
+    @Test
+    public void testSingleHitchIsVisibleInMax() throws Exception {
+        FrameTimeHistogram theHistogram = new FrameTimeHistogram();
+        for (int i = 0; i < 999; i++) {
+            theHistogram.record(1000000);
+        }
+        theHistogram.record(50000000);
+        assertEquals(1000000, theHistogram.getPercentile(99), 1000000 / 16);
+        assertEquals(50000000, theHistogram.getPercentile(100));
+        assertEquals(50000000, theHistogram.getMax());
+    }
+
+    @Test
+    public void testOutOfRange() throws Exception {
+        FrameTimeHistogram theHistogram = new FrameTimeHistogram();
+        theHistogram.record(-1);
+        assertEquals(0, theHistogram.getCount());
+
+        theHistogram.record(Long.MAX_VALUE);
+        assertEquals(1, theHistogram.getCount());
+        assertEquals(Long.MAX_VALUE, theHistogram.getMax());
+        assertEquals(FrameTimeHistogram.MAX_TRACKABLE, theHistogram.getPercentile(50));
+    }
+
+    @Test
+    public void testReset() throws Exception {
+        FrameTimeHistogram theHistogram = new FrameTimeHistogram();
+        theHistogram.record(1000);
+        theHistogram.reset();
+        assertEquals(0, theHistogram.getCount());
+        assertEquals(0, theHistogram.getMax());
+        assertEquals(0, theHistogram.getPercentile(50));
+    }
+}
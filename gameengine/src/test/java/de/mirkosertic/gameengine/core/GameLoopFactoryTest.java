@@ -4,6 +4,7 @@ import de.mirkosertic.gameengine.event.GameEventManager;
 
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
@@ -31,4 +32,20 @@ public class GameLoopFactoryTest {
         theEventManager.fire(new SceneShutdown());
         assertTrue(theLoop.isShutdown());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testCreateFixedTimestep() throws Exception {
+
+        GameEventManager theEventManager = new GameEventManager(mock(Logger.class));
+
+        GameRuntime theRuntime = mock(GameRuntime.class);
+        when(theRuntime.getEventManager()).thenReturn(theEventManager);
+
+        ManualGameClock theClock = new ManualGameClock();
+        GameLoopFactory theFactory = new GameLoopFactory(theClock, 30);
+        GameLoop theLoop = theFactory.create(mock(GameScene.class), mock(GameView.class), theRuntime);
+        assertSame(theClock, theLoop.getClock());
+        assertTrue(theLoop.isFixedTimestep());
+        assertEquals(33333333L, theLoop.getFixedStepNanos());
+    }
+}
@@ -1,16 +1,24 @@
 package de.mirkosertic.gameengine.core;
 
 import de.mirkosertic.gameengine.event.GameEvent;
+import de.mirkosertic.gameengine.event.GameEventListener;
 import de.mirkosertic.gameengine.event.GameEventManager;
+import de.mirkosertic.gameengine.event.Property;
+import de.mirkosertic.gameengine.event.PropertyChangeMode;
+import de.mirkosertic.gameengine.event.PropertyChanged;
 import de.mirkosertic.gameengine.event.SystemException;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyFloat;
 import static org.mockito.Mockito.anyLong;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.eq;
@@ -70,7 +78,7 @@ public class GameLoopTest {
         Thread.sleep(10);
         theLoop.singleRunOnlyUpdateGameView();
 
-        verify(theGameView).renderGame(anyLong(), anyLong(), eq(theScene), any(RuntimeStatistics.class));
+        verify(theGameView).renderGame(anyLong(), anyLong(), anyFloat(), eq(theScene), any(RuntimeStatistics.class));
         assertEquals(1, theLoop.getStatistics().getNumberTicks());
     }
 
@@ -79,7 +87,7 @@ public class GameLoopTest {
 
         GameScene theScene = mock(GameScene.class);
         GameView theGameView = mock(GameView.class);
-        doThrow(new RuntimeException()).when(theGameView).renderGame(anyLong(), anyLong(), eq(theScene), any(RuntimeStatistics.class));
+        doThrow(new RuntimeException()).when(theGameView).renderGame(anyLong(), anyLong(), anyFloat(), eq(theScene), any(RuntimeStatistics.class));
         GameRuntime theRuntime = mock(GameRuntime.class);
         GameEventManager theManager = mock(GameEventManager.class);
         when(theRuntime.getEventManager()).thenReturn(theManager);
@@ -128,7 +136,7 @@ public class GameLoopTest {
         theLoop.singleRun();
 
         verify(theSystem).proceedGame(anyLong(), anyLong(), anyLong());
-        verify(theGameView).renderGame(anyLong(), anyLong(), eq(theScene), any(RuntimeStatistics.class));
+        verify(theGameView).renderGame(anyLong(), anyLong(), anyFloat(), eq(theScene), any(RuntimeStatistics.class));
         verify(theWork, times(1)).runInFrame();
         verify(theWork, times(1)).runAfterFrame();
         assertEquals(1, theLoop.getStatistics().getNumberTicks());
@@ -151,6 +159,189 @@ public class GameLoopTest {
         verify(theManager, times(2)).fire(any(GameEvent.class));
     }
 
+    @Test
+    public void testCoalescedChangesAreFlushedWithoutSystems() throws Exception {
+
+        GameScene theScene = mock(GameScene.class);
+        GameView theGameView = mock(GameView.class);
+        GameRuntime theRuntime = mock(GameRuntime.class);
+        GameEventManager theEventManager = new GameEventManager(mock(Logger.class));
+        theEventManager.setPropertyChangeMode(PropertyChangeMode.COALESCED);
+        when(theRuntime.getEventManager()).thenReturn(theEventManager);
+        when(theRuntime.getSystems()).thenReturn(new GameSystem[0]);
+
+        final List<PropertyChanged> theEvents = new ArrayList<>();
+        theEventManager.register(null, PropertyChanged.TYPE, new GameEventListener<PropertyChanged>() {
+            @Override
+            public void handleGameEvent(PropertyChanged aEvent) {
+                theEvents.add(aEvent);
+            }
+        });
+        Property<String> theProperty = new Property<>(String.class, this, "property", "value", theEventManager);
+
+        ManualGameClock theClock = new ManualGameClock();
+        GameLoop theLoop = new GameLoop(theScene, theGameView, theRuntime, theClock, 50);
+        theLoop.singleRun();
+
+        theProperty.set("value1");
+        assertTrue(theEvents.isEmpty());
+
+        theClock.advanceMillis(20);
+        theLoop.singleRun();
+        assertEquals(1, theEvents.size());
+        assertEquals("value", theEvents.get(0).oldValue);
+    }
+
+    @Test
+    public void testFixedTimestepCatchesUp() throws Exception {
+
+        GameScene theScene = mock(GameScene.class);
+        GameView theGameView = mock(GameView.class);
+        GameRuntime theRuntime = mock(GameRuntime.class);
+        GameEventManager theEventManager = mock(GameEventManager.class);
+        when(theRuntime.getEventManager()).thenReturn(theEventManager);
+
+        GameSystemWork theWork = mock(GameSystemWork.class);
+        GameSystem theSystem = mock(GameSystem.class);
+        when(theSystem.proceedGame(anyLong(), anyLong(), anyLong())).thenReturn(theWork);
+        when(theRuntime.getSystems()).thenReturn(new GameSystem[] {theSystem});
+
+        ManualGameClock theClock = new ManualGameClock();
+        GameLoop theLoop = new GameLoop(theScene, theGameView, theRuntime, theClock, 50);
+        assertTrue(theLoop.isFixedTimestep());
+        theLoop.singleRun();
+
+        // 50 ticks per second means 20 ms per step, so we need three steps and have 10ms left
+        theClock.advanceMillis(70);
+        theLoop.singleRun();
+
+        verify(theSystem).proceedGame(1, 20, 20);
+        verify(theSystem).proceedGame(2, 40, 20);
+        verify(theSystem).proceedGame(3, 60, 20);
+        verify(theWork, times(3)).runInFrame();
+        verify(theWork, times(3)).runAfterFrame();
+        verify(theGameView).renderGame(eq(60L), eq(60L), eq(0.5f), eq(theScene), any(RuntimeStatistics.class));
+        assertEquals(3, theLoop.getStatistics().getNumberTicks());
+    }
+
+    @Test
+    public void testFixedTimestepRecordsPhaseTimings() throws Exception {
+
+        GameScene theScene = mock(GameScene.class);
+        GameView theGameView = mock(GameView.class);
+        GameRuntime theRuntime = mock(GameRuntime.class);
+        GameEventManager theEventManager = mock(GameEventManager.class);
+        when(theRuntime.getEventManager()).thenReturn(theEventManager);
+
+        GameSystemWork theWork = mock(GameSystemWork.class);
+        GameSystem theSystem = mock(GameSystem.class);
+        when(theSystem.proceedGame(anyLong(), anyLong(), anyLong())).thenReturn(theWork);
+        when(theRuntime.getSystems()).thenReturn(new GameSystem[] {theSystem});
+
+        ManualGameClock theClock = new ManualGameClock();
+        GameLoop theLoop = new GameLoop(theScene, theGameView, theRuntime, theClock, 50);
+        theLoop.singleRun();
+
+        theClock.advanceMillis(70);
+        theLoop.singleRun();
+
+        RuntimeStatistics theStatistics = theLoop.getStatistics();
+        assertEquals(1, theStatistics.getFrameTimes().getCount());
+        assertEquals(3, theStatistics.getPhaseTiming(theSystem, FramePhase.RUN_IN_FRAME).getHistogram().getCount());
+        assertEquals(3, theStatistics.getPhaseTiming(theSystem, FramePhase.RUN_AFTER_FRAME).getHistogram().getCount());
+        assertEquals(1, theStatistics.getPhaseTiming(theGameView, FramePhase.RENDER_GAME).getHistogram().getCount());
+        assertEquals(3, theStatistics.getPhaseTimings().length);
+    }
+
+    @Test
+    public void testFixedTimestepRendersWithoutStep() throws Exception {
+
+        GameScene theScene = mock(GameScene.class);
+        GameView theGameView = mock(GameView.class);
+        GameRuntime theRuntime = mock(GameRuntime.class);
+        GameEventManager theEventManager = mock(GameEventManager.class);
+        when(theRuntime.getEventManager()).thenReturn(theEventManager);
+
+        GameSystem theSystem = mock(GameSystem.class);
+        when(theRuntime.getSystems()).thenReturn(new GameSystem[] {theSystem});
+
+        ManualGameClock theClock = new ManualGameClock();
+        GameLoop theLoop = new GameLoop(theScene, theGameView, theRuntime, theClock, 50);
+        theLoop.singleRun();
+
+        theClock.advanceMillis(5);
+        theLoop.singleRun();
+
+        verify(theSystem, times(0)).proceedGame(anyLong(), anyLong(), anyLong());
+        verify(theGameView).renderGame(eq(0L), eq(0L), eq(0.25f), eq(theScene), any(RuntimeStatistics.class));
+        assertEquals(0, theLoop.getStatistics().getNumberTicks());
+    }
+
+    @Test
+    public void testFixedTimestepBoundsSpiralOfDeath() throws Exception {
+
+        GameScene theScene = mock(GameScene.class);
+        GameView theGameView = mock(GameView.class);
+        GameRuntime theRuntime = mock(GameRuntime.class);
+        GameEventManager theEventManager = mock(GameEventManager.class);
+        when(theRuntime.getEventManager()).thenReturn(theEventManager);
+
+        GameSystemWork theWork = mock(GameSystemWork.class);
+        GameSystem theSystem = mock(GameSystem.class);
+        when(theSystem.proceedGame(anyLong(), anyLong(), anyLong())).thenReturn(theWork);
+        when(theRuntime.getSystems()).thenReturn(new GameSystem[] {theSystem});
+
+        ManualGameClock theClock = new ManualGameClock();
+        GameLoop theLoop = new GameLoop(theScene, theGameView, theRuntime, theClock, 50);
+        theLoop.setMaxStepsPerFrame(4);
+        theLoop.singleRun();
+
+        theClock.advanceMillis(1000);
+        theLoop.singleRun();
+
+        verify(theSystem, times(4)).proceedGame(anyLong(), anyLong(), anyLong());
+        assertEquals(4, theLoop.getStatistics().getNumberTicks());
+        assertEquals(920 * GameLoop.NANOS_PER_MILLI, theLoop.getStatistics().getDroppedSimulationTime());
+    }
+
+    @Test
+    public void testRunWithManualClockIsDeterministic() throws Exception {
+
+        GameScene theScene = mock(GameScene.class);
+        final GameRuntime theRuntime = mock(GameRuntime.class);
+        GameEventManager theEventManager = mock(GameEventManager.class);
+        when(theRuntime.getEventManager()).thenReturn(theEventManager);
+        when(theRuntime.getSystems()).thenReturn(new GameSystem[0]);
+
+        ManualGameClock theClock = new ManualGameClock();
+        final GameLoop[] theLoop = new GameLoop[1];
+        GameView theGameView = new GameView() {
+            @Override
+            public void renderGame(long aGameTime, long aElapsedTimeSinceLastLoop, float aInterpolationAlpha, GameScene aScene, RuntimeStatistics aStatistics) {
+                assertEquals(0f, aInterpolationAlpha, 0f);
+                if (aStatistics.getNumberTicks() == 100) {
+                    theLoop[0].shutdown();
+                }
+            }
+
+            @Override
+            public GestureDetector getGestureDetector() {
+                return null;
+            }
+        };
+
+        theLoop[0] = new GameLoop(theScene, theGameView, theRuntime, theClock, 60);
+        theLoop[0].run();
+
+        assertEquals(100, theLoop[0].getStatistics().getNumberTicks());
+        assertEquals(100 * theLoop[0].getFixedStepNanos(), theClock.nanoTime());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidTicksPerSecond() throws Exception {
+        new GameLoop(mock(GameScene.class), mock(GameView.class), mock(GameRuntime.class), new ManualGameClock(), -1);
+    }
+
     @Test
     public void testShutdown() throws Exception {
         GameScene theScene = mock(GameScene.class);
@@ -0,0 +1,197 @@
+package de.mirkosertic.gameengine.core;
+
+import de.mirkosertic.gameengine.event.GameEventManager;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class GameObjectInstanceRegistryTest {
+
+    private GameObject createObject() {
+        GameRuntime theRuntime = mock(GameRuntime.class);
+        when(theRuntime.getEventManager()).thenReturn(mock(GameEventManager.class));
+        GameScene theScene = mock(GameScene.class);
+        when(theScene.getRuntime()).thenReturn(theRuntime);
+        return new GameObject(theScene, "Object");
+    }
+
+    private GameObjectInstance createInstance(GameObject aObject, String aName) {
+        GameObjectInstance theInstance = new GameObjectInstance(mock(GameEventManager.class), aObject);
+        theInstance.nameProperty().setQuietly(aName);
+        return theInstance;
+    }
+
+    @Test
+    public void testAddAndRemoveKeepsOrder() throws Exception {
+        GameObject theObject = createObject();
+        GameObjectInstance theFirst = createInstance(theObject, "first");
+        GameObjectInstance theSecond = createInstance(theObject, "second");
+        GameObjectInstance theThird = createInstance(theObject, "third");
+
+        GameObjectInstanceRegistry theRegistry = new GameObjectInstanceRegistry(mock(Logger.class));
+        assertTrue(theRegistry.add(theFirst));
+        assertTrue(theRegistry.add(theSecond));
+        assertTrue(theRegistry.add(theThird));
+        assertFalse(theRegistry.add(theSecond));
+        assertEquals(3, theRegistry.size());
+
+        assertTrue(theRegistry.remove(theSecond));
+        assertFalse(theRegistry.remove(theSecond));
+        assertFalse(theRegistry.contains(theSecond));
+        assertArrayEquals(new GameObjectInstance[] {theFirst, theThird}, theRegistry.snapshot());
+
+        theRegistry.add(theSecond);
+        assertArrayEquals(new GameObjectInstance[] {theFirst, theThird, theSecond}, theRegistry.snapshot());
+    }
+
+    @Test
+    public void testSnapshotIsStable() throws Exception {
+        GameObject theObject = createObject();
+        GameObjectInstance theFirst = createInstance(theObject, "first");
+        GameObjectInstance theSecond = createInstance(theObject, "second");
+
+        GameObjectInstanceRegistry theRegistry = new GameObjectInstanceRegistry(mock(Logger.class));
+        theRegistry.add(theFirst);
+
+        GameObjectInstance[] theSnapshot = theRegistry.snapshot();
+        assertSame(theSnapshot, theRegistry.snapshot());
+
+        theRegistry.add(theSecond);
+        theRegistry.remove(theFirst);
+        assertArrayEquals(new GameObjectInstance[] {theFirst}, theSnapshot);
+        assertArrayEquals(new GameObjectInstance[] {theSecond}, theRegistry.snapshot());
+    }
+
+    @Test
+    public void testLookupById() throws Exception {
+        GameObject theObject = createObject();
+        GameObjectInstance theInstance = createInstance(theObject, "first");
+        String theId = theInstance.uuidProperty().get();
+
+        GameObjectInstanceRegistry theRegistry = new GameObjectInstanceRegistry(mock(Logger.class));
+        theRegistry.add(theInstance);
+        assertSame(theInstance, theRegistry.findById(theId));
+
+        theInstance.uuidProperty().set("newid");
+        assertNull(theRegistry.findById(theId));
+        assertSame(theInstance, theRegistry.findById("newid"));
+
+        theRegistry.remove(theInstance);
+        assertNull(theRegistry.findById("newid"));
+    }
+
+    @Test
+    public void testDuplicateIds() throws Exception {
+        GameObject theObject = createObject();
+        GameObjectInstance theFirst = createInstance(theObject, "first");
+        GameObjectInstance theSecond = createInstance(theObject, "second");
+        GameObjectInstance theThird = createInstance(theObject, "third");
+        String theId = theFirst.uuidProperty().get();
+        theSecond.uuidProperty().set(theId);
+
+        Logger theLogger = mock(Logger.class);
+        GameObjectInstanceRegistry theRegistry = new GameObjectInstanceRegistry(theLogger);
+        theRegistry.add(theFirst);
+        theRegistry.add(theSecond);
+        verify(theLogger).error("Duplicate instance id " + theId + " for second");
+        assertSame(theFirst, theRegistry.findById(theId));
+
+        // The duplicate takes over once the first one is gone
+        theRegistry.remove(theFirst);
+        assertSame(theSecond, theRegistry.findById(theId));
+
+        theRegistry.add(theThird);
+        theThird.uuidProperty().set(theId);
+        verify(theLogger).error("Duplicate instance id " + theId + " for third");
+        theThird.uuidProperty().set("otherid");
+        theRegistry.remove(theSecond);
+        assertNull(theRegistry.findById(theId));
+        assertSame(theThird, theRegistry.findById("otherid"));
+        verify(theLogger, never()).error("Duplicate instance id otherid for third");
+    }
+
+    @Test
+    public void testLookupByName() throws Exception {
+        GameObject theObject = createObject();
+        GameObjectInstance theFirst = createInstance(theObject, "name");
+        GameObjectInstance theSecond = createInstance(theObject, "name");
+
+        GameObjectInstanceRegistry theRegistry = new GameObjectInstanceRegistry(mock(Logger.class));
+        theRegistry.add(theFirst);
+        theRegistry.add(theSecond);
+        assertSame(theFirst, theRegistry.findByName("name"));
+
+        theFirst.nameProperty().set("renamed");
+        assertSame(theSecond, theRegistry.findByName("name"));
+        assertSame(theFirst, theRegistry.findByName("renamed"));
+
+        theRegistry.remove(theSecond);
+        assertNull(theRegistry.findByName("name"));
+    }
+
+    @Test
+    public void testManyAddsAndRemoves() throws Exception {
+        GameObject theObject = createObject();
+        GameObjectInstanceRegistry theRegistry = new GameObjectInstanceRegistry(mock(Logger.class));
+        GameObjectInstance[] theInstances = new GameObjectInstance[1000];
+        for (int i = 0; i < theInstances.length; i++) {
+            theInstances[i] = createInstance(theObject, "instance" + i);
+            theRegistry.add(theInstances[i]);
+        }
+        for (int i = 0; i < theInstances.length; i++) {
+            if (i % 10 != 0) {
+                theRegistry.remove(theInstances[i]);
+            }
+        }
+        assertEquals(100, theRegistry.size());
+        GameObjectInstance[] theSnapshot = theRegistry.snapshot();
+        for (int i = 0; i < theSnapshot.length; i++) {
+            assertSame(theInstances[i * 10], theSnapshot[i]);
+        }
+        assertSame(theInstances[990], theRegistry.findByName("instance990"));
+    }
+
+    @Test
+    public void testHandlesAreDenseAndReused() throws Exception {
+        GameObject theObject = createObject();
+        GameObjectInstance theFirst = createInstance(theObject, "first");
+        GameObjectInstance theSecond = createInstance(theObject, "second");
+        GameObjectInstance theThird = createInstance(theObject, "third");
+        assertEquals(-1, theFirst.getHandle());
+
+        GameObjectInstanceRegistry theRegistry = new GameObjectInstanceRegistry(mock(Logger.class));
+        theRegistry.add(theFirst);
+        theRegistry.add(theSecond);
+        assertEquals(0, theFirst.getHandle());
+        assertEquals(1, theSecond.getHandle());
+        assertSame(theSecond, theRegistry.findByHandle(1));
+        assertEquals(2, theRegistry.handleCapacity());
+
+        theRegistry.remove(theFirst);
+        assertEquals(-1, theFirst.getHandle());
+        assertNull(theRegistry.findByHandle(0));
+        assertNull(theRegistry.findByHandle(-1));
+        assertNull(theRegistry.findByHandle(5));
+
+        theRegistry.add(theThird);
+        assertEquals(0, theThird.getHandle());
+        assertSame(theThird, theRegistry.findByHandle(0));
+        assertEquals(2, theRegistry.handleCapacity());
+
+        for (int i = 0; i < 100; i++) {
+            GameObjectInstance theInstance = createInstance(theObject, "instance" + i);
+            theRegistry.add(theInstance);
+            assertSame(theInstance, theRegistry.findByHandle(theInstance.getHandle()));
+        }
+        assertEquals(102, theRegistry.handleCapacity());
+    }
+}
@@ -159,6 +159,7 @@ public class GameObjectTest {
         when(theScene.getRuntime()).thenReturn(theRuntime);
 
         BehaviorTemplate theBehavior = mock(BehaviorTemplate.class);
+        when(theBehavior.getType()).thenReturn(new BehaviorType("behav"));
 
         GameObject theObject = new GameObject(theScene, "Test");
         Set<BehaviorTemplate> theBehaviors = theObject.getBehaviorTemplates();
@@ -178,6 +179,7 @@ public class GameObjectTest {
         when(theScene.getRuntime()).thenReturn(theRuntime);
 
         BehaviorTemplate theBehavior = mock(BehaviorTemplate.class);
+        when(theBehavior.getType()).thenReturn(new BehaviorType("behav"));
 
         GameObject theObject = new GameObject(theScene, "Test");
         theObject.add(theBehavior);
@@ -200,6 +202,7 @@ public class GameObjectTest {
     public void testDeserialize() throws Exception {
 
         BehaviorTemplate theBehavior = mock(BehaviorTemplate.class);
+        when(theBehavior.getType()).thenReturn(new BehaviorType("behav"));
 
         BehaviorTemplateUnmarshaller theUnmarshaller = mock(BehaviorTemplateUnmarshaller.class);
         when(theUnmarshaller.deserialize(any(GameEventManager.class), any(GameObject.class), anyMap())).thenReturn(theBehavior);
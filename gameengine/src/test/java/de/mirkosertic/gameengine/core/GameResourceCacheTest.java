@@ -0,0 +1,244 @@
+package de.mirkosertic.gameengine.core;
+
+import de.mirkosertic.gameengine.event.Property;
+import de.mirkosertic.gameengine.type.ResourceName;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class GameResourceCacheTest {
+
+    private static Promise resolved(Object aValue) {
+        Promise thePromise = new Promise();
+        thePromise.resolve(aValue);
+        return thePromise;
+    }
+
+    private static Spritesheet sheet(String aJSONFile) {
+        Spritesheet theSheet = mock(Spritesheet.class);
+        Property<ResourceName> theProperty = mock(Property.class);
+        when(theProperty.get()).thenReturn(new ResourceName(aJSONFile));
+        when(theSheet.jsonFileProperty()).thenReturn(theProperty);
+        return theSheet;
+    }
+
+    private static GameResource resource(long aSize) {
+        GameResource theResource = mock(GameResource.class);
+        when(theResource.getSizeInBytes()).thenReturn(aSize);
+        return theResource;
+    }
+
+    private static GameResourceCache cacheWith(GameResourceLoader aLoader, String... aNames) {
+        GameResourceCache theCache = new GameResourceCache(aLoader, mock(Logger.class));
+        for (String theName : aNames) {
+            GameResource theResource = resource(100);
+            when(aLoader.load(new ResourceName(theName))).thenReturn(resolved(theResource));
+        }
+        return theCache;
+    }
+
+    @Test
+    public void testSingleResourcesAreLoadedOnce() throws Exception {
+        GameResourceLoader theLoader = mock(GameResourceLoader.class);
+        GameResource theResource = mock(GameResource.class);
+        ResourceName theName = new ResourceName("/images/test.png");
+        when(theLoader.load(theName)).thenReturn(resolved(theResource));
+
+        GameResourceCache theCache = new GameResourceCache(theLoader, mock(Logger.class));
+        assertNull(theCache.getIfLoaded(theName));
+
+        Promise<GameResource, String> thePromise = theCache.getResourceFor(theName);
+        assertEquals(Promise.State.resolved, thePromise.getState());
+        assertSame(theResource, thePromise.getResolvedValue());
+
+        assertSame(theResource, theCache.getIfLoaded(new ResourceName("/images/test.png")));
+        assertSame(theResource, theCache.getResourceFor(theName).getResolvedValue());
+        verify(theLoader, times(1)).load(any(ResourceName.class));
+
+        theCache.flush();
+        assertNull(theCache.getIfLoaded(theName));
+    }
+
+    @Test
+    public void testSpriteSheetFramesAreIndexed() throws Exception {
+        GameResourceLoader theLoader = mock(GameResourceLoader.class);
+        GameResource theSingle = mock(GameResource.class);
+        GameResource theFirstFrame = mock(GameResource.class);
+        GameResource theOverriddenFrame = mock(GameResource.class);
+        GameResource theSecondFrame = mock(GameResource.class);
+        ResourceName theName = new ResourceName("/images/frame1.png");
+        when(theLoader.load(theName)).thenReturn(resolved(theSingle));
+
+        GameResourceCache theCache = new GameResourceCache(theLoader, mock(Logger.class));
+        theCache.getResourceFor(theName);
+        assertSame(theSingle, theCache.getIfLoaded(theName));
+
+        Map<String, GameResource> theFirstFrames = new HashMap<>();
+        theFirstFrames.put("frame1.png", theFirstFrame);
+        LoadedSpriteSheet theFirstSheet = mock(LoadedSpriteSheet.class);
+        when(theFirstSheet.getResources()).thenReturn(theFirstFrames);
+        when(theLoader.loadSpriteSheet(new ResourceName("first.json"))).thenReturn(resolved(theFirstSheet));
+
+        Map<String, GameResource> theSecondFrames = new HashMap<>();
+        theSecondFrames.put("frame1.png", theOverriddenFrame);
+        theSecondFrames.put("frame2.png", theSecondFrame);
+        LoadedSpriteSheet theSecondSheet = mock(LoadedSpriteSheet.class);
+        when(theSecondSheet.getResources()).thenReturn(theSecondFrames);
+        when(theLoader.loadSpriteSheet(new ResourceName("second.json"))).thenReturn(resolved(theSecondSheet));
+
+        theCache.loadIntoCache(sheet("first.json"));
+        theCache.loadIntoCache(sheet("second.json"));
+
+        // Frames are found by file name, and the first sheet wins
+        assertSame(theFirstFrame, theCache.getIfLoaded(theName));
+        assertSame(theFirstFrame, theCache.getIfLoaded(new ResourceName("frame1.png")));
+        assertSame(theSecondFrame, theCache.getIfLoaded(new ResourceName("/other/frame2.png")));
+        assertSame(theSecondFrame, theCache.getResourceFor(new ResourceName("frame2.png")).getResolvedValue());
+        assertNull(theCache.getIfLoaded(new ResourceName("frame3.png")));
+    }
+
+    @Test
+    public void testEvictionRespectsBudgetAndReferences() throws Exception {
+        GameResourceLoader theLoader = mock(GameResourceLoader.class);
+        GameResourceCache theCache = cacheWith(theLoader, "a", "b", "c", "d");
+        theCache.setBudgetInBytes(300);
+
+        theCache.getResourceFor(new ResourceName("a"));
+        theCache.getResourceFor(new ResourceName("b"));
+        theCache.getResourceFor(new ResourceName("c"));
+        assertEquals(300, theCache.getUsedBytes());
+        assertEquals(3, theCache.getMisses());
+
+        // The first sweep clears all reference bits, so a, which was added first, is the victim
+        theCache.getResourceFor(new ResourceName("d"));
+        assertEquals(300, theCache.getUsedBytes());
+        assertEquals(1, theCache.getEvictions());
+        assertNull(theCache.getIfLoaded(new ResourceName("a")));
+
+        // b is used again, so c goes next
+        assertNotNull(theCache.getIfLoaded(new ResourceName("b")));
+        theCache.getResourceFor(new ResourceName("a"));
+        assertEquals(2, theCache.getEvictions());
+        assertNull(theCache.getIfLoaded(new ResourceName("c")));
+        assertNotNull(theCache.getIfLoaded(new ResourceName("b")));
+        assertNotNull(theCache.getIfLoaded(new ResourceName("d")));
+        assertEquals(3, theCache.getCachedResourceCount());
+
+        theCache.setBudgetInBytes(100);
+        assertEquals(100, theCache.getUsedBytes());
+        assertEquals(1, theCache.getCachedResourceCount());
+    }
+
+    @Test
+    public void testPinnedResourcesAreNotEvicted() throws Exception {
+        GameResourceLoader theLoader = mock(GameResourceLoader.class);
+        GameResourceCache theCache = cacheWith(theLoader, "a", "b", "c");
+        theCache.pin(new ResourceName("a"));
+        theCache.pin(new ResourceName("a"));
+        theCache.pin(new ResourceName("b"));
+
+        theCache.getResourceFor(new ResourceName("a"));
+        theCache.getResourceFor(new ResourceName("b"));
+        theCache.getResourceFor(new ResourceName("c"));
+        theCache.setBudgetInBytes(100);
+        assertEquals(200, theCache.getUsedBytes());
+        assertNull(theCache.getIfLoaded(new ResourceName("c")));
+
+        // Nothing left to evict, so the budget is exceeded
+        theCache.setBudgetInBytes(0);
+        assertEquals(200, theCache.getUsedBytes());
+
+        theCache.unpin(new ResourceName("a"));
+        assertTrue(theCache.isPinned(new ResourceName("a")));
+        theCache.unpin(new ResourceName("a"));
+        assertFalse(theCache.isPinned(new ResourceName("a")));
+        theCache.setBudgetInBytes(100);
+        assertEquals(100, theCache.getUsedBytes());
+        assertNotNull(theCache.getIfLoaded(new ResourceName("b")));
+    }
+
+    @Test
+    public void testPinResourcesOfScene() throws Exception {
+        GameResourceLoader theLoader = mock(GameResourceLoader.class);
+        GameResourceCache theCache = cacheWith(theLoader);
+
+        Map<String, GameResource> theFrames = new HashMap<>();
+        theFrames.put("frame.png", mock(GameResource.class));
+        LoadedSpriteSheet theSheet = mock(LoadedSpriteSheet.class);
+        when(theSheet.getResources()).thenReturn(theFrames);
+        when(theLoader.loadSpriteSheet(new ResourceName("old.json"))).thenReturn(resolved(theSheet));
+        theCache.loadIntoCache(sheet("old.json"));
+        assertEquals(1, theCache.getLoadedSpriteSheetCount());
+
+        Set<ResourceName> theResources = new LinkedHashSet<>();
+        theResources.add(new ResourceName("walk1.png"));
+        theResources.add(new ResourceName("walk2.png"));
+        GameScene theScene = mock(GameScene.class);
+        when(theScene.getReferencedResources()).thenReturn(theResources);
+        when(theScene.getSpriteSheets()).thenReturn(new Spritesheet[0]);
+
+        theCache.pinResourcesOf(theScene);
+        assertTrue(theCache.isPinned(new ResourceName("walk1.png")));
+        assertTrue(theCache.isPinned(new ResourceName("walk2.png")));
+        assertEquals(0, theCache.getLoadedSpriteSheetCount());
+        assertNull(theCache.getIfLoaded(new ResourceName("frame.png")));
+
+        // Pinning the next scene releases the pins of the previous one
+        when(theScene.getReferencedResources()).thenReturn(new LinkedHashSet<ResourceName>());
+        theCache.pinResourcesOf(theScene);
+        assertFalse(theCache.isPinned(new ResourceName("walk1.png")));
+    }
+
+    @Test
+    public void testEvictedResourcesAreReleased() throws Exception {
+        GameResourceLoader theLoader = mock(GameResourceLoader.class);
+        GameResourceCache theCache = cacheWith(theLoader, "a", "b");
+        theCache.setBudgetInBytes(100);
+
+        GameResource theFirst = theCache.getResourceFor(new ResourceName("a")).getResolvedValue();
+        GameResource theSecond = theCache.getResourceFor(new ResourceName("b")).getResolvedValue();
+        verify(theLoader).release(theFirst);
+        verify(theLoader, never()).release(theSecond);
+
+        theCache.flush();
+        verify(theLoader).release(theSecond);
+    }
+
+    @Test
+    public void testResourcesAreMeasuredOnceLoaded() throws Exception {
+        GameResourceLoader theLoader = mock(GameResourceLoader.class);
+        GameResourceCache theCache = cacheWith(theLoader, "b");
+        GameResource thePending = resource(0);
+        when(theLoader.load(new ResourceName("a"))).thenReturn(resolved(thePending));
+        theCache.setBudgetInBytes(150);
+
+        theCache.getResourceFor(new ResourceName("a"));
+        assertEquals(0, theCache.getUsedBytes());
+
+        // The image is available now, so it counts against the budget
+        when(thePending.getSizeInBytes()).thenReturn(100L);
+        assertSame(thePending, theCache.getIfLoaded(new ResourceName("a")));
+        assertEquals(100, theCache.getUsedBytes());
+
+        theCache.getResourceFor(new ResourceName("b"));
+        assertEquals(100, theCache.getUsedBytes());
+        assertNull(theCache.getIfLoaded(new ResourceName("a")));
+        verify(theLoader).release(thePending);
+    }
+}
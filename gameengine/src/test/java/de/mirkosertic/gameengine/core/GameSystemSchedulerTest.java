@@ -0,0 +1,221 @@
+package de.mirkosertic.gameengine.core;
+
+import de.mirkosertic.gameengine.action.ActionManagerFactory;
+import de.mirkosertic.gameengine.event.GameEventManager;
+import de.mirkosertic.gameengine.process.GameProcessManagerFactory;
+import de.mirkosertic.gameengine.sound.GameSoundManagerFactory;
+import de.mirkosertic.gameengine.sound.GameSoundSystem;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class GameSystemSchedulerTest {
+
+    private static class TestSystem implements GameSystem, GameSystemDependencies {
+
+        private final String name;
+        private final List<String> log;
+        private final GameSystemResource[] reads;
+        private final GameSystemResource[] writes;
+
+        TestSystem(String aName, List<String> aLog, GameSystemResource[] aReads, GameSystemResource[] aWrites) {
+            name = aName;
+            log = aLog;
+            reads = aReads;
+            writes = aWrites;
+        }
+
+        @Override
+        public GameSystemResource[] getReadResources() {
+            return reads;
+        }
+
+        @Override
+        public GameSystemResource[] getWriteResources() {
+            return writes;
+        }
+
+        @Override
+        public GameSystemWork proceedGame(long aTotalTicks, long aGameTime, long aElapsedTime) {
+            return new GameSystemWork() {
+                @Override
+                public void runInFrame() {
+                    log.add(name);
+                }
+
+                @Override
+                public void runAfterFrame() {
+                }
+            };
+        }
+    }
+
+    private static GameSystemResource[] resources(GameSystemResource... aResources) {
+        return aResources;
+    }
+
+    @Test
+    public void testConflicts() throws Exception {
+        List<String> theLog = new ArrayList<>();
+        TestSystem theWriter = new TestSystem("writer", theLog, resources(), resources(GameSystemResource.INSTANCES));
+        TestSystem theReader = new TestSystem("reader", theLog, resources(GameSystemResource.INSTANCES), resources());
+        TestSystem theOtherReader = new TestSystem("reader2", theLog, resources(GameSystemResource.INSTANCES), resources());
+        TestSystem thePhysics = new TestSystem("physics", theLog, resources(), resources(GameSystemResource.PHYSICS));
+
+        assertTrue(GameSystemScheduler.conflicts(theWriter, theReader));
+        assertTrue(GameSystemScheduler.conflicts(theReader, theWriter));
+        assertFalse(GameSystemScheduler.conflicts(theReader, theOtherReader));
+        assertFalse(GameSystemScheduler.conflicts(theWriter, thePhysics));
+        assertTrue(GameSystemScheduler.conflicts(theWriter, mock(GameSystem.class)));
+    }
+
+    @Test
+    public void testStagesKeepRegistrationOrderOfConflictingSystems() throws Exception {
+        List<String> theLog = new ArrayList<>();
+        GameSystem[] theSystems = new GameSystem[] {
+                new TestSystem("process", theLog, resources(), resources(GameSystemResource.INSTANCES, GameSystemResource.EVENTS)),
+                new TestSystem("physics", theLog, resources(), resources(GameSystemResource.PHYSICS)),
+                new TestSystem("sound", theLog, resources(), resources()),
+                new TestSystem("action", theLog, resources(), resources(GameSystemResource.INSTANCES, GameSystemResource.EVENTS)),
+        };
+
+        GameSystemScheduler theScheduler = new GameSystemScheduler();
+        GameSystemWork[] theWork = theScheduler.proceedGame(theSystems, new NoThreadingThreadingManager(), 1, 10, 10);
+
+        assertEquals(4, theWork.length);
+        assertEquals(2, theScheduler.getStages().length);
+        assertArrayEquals(new int[] {0, 1, 2}, theScheduler.getStages()[0]);
+        assertArrayEquals(new int[] {3}, theScheduler.getStages()[1]);
+
+        // Without threading, the systems run in registration order
+        assertEquals(4, theLog.size());
+        assertEquals("process", theLog.get(0));
+        assertEquals("physics", theLog.get(1));
+        assertEquals("sound", theLog.get(2));
+        assertEquals("action", theLog.get(3));
+    }
+
+    @Test
+    public void testSystemsWithoutDependenciesRunExclusive() throws Exception {
+        List<String> theLog = new ArrayList<>();
+        GameSystemWork theWork = mock(GameSystemWork.class);
+        GameSystem theUndeclared = mock(GameSystem.class);
+        when(theUndeclared.proceedGame(1, 10, 10)).thenReturn(theWork);
+
+        GameSystem[] theSystems = new GameSystem[] {
+                new TestSystem("sound", theLog, resources(), resources()),
+                theUndeclared,
+                new TestSystem("sound2", theLog, resources(), resources()),
+        };
+
+        ThreadingManager theThreadingManager = mock(ThreadingManager.class);
+
+        GameSystemScheduler theScheduler = new GameSystemScheduler();
+        theScheduler.proceedGame(theSystems, theThreadingManager, 1, 10, 10);
+
+        assertEquals(3, theScheduler.getStages().length);
+        verify(theWork).runInFrame();
+        verify(theThreadingManager, never()).submit(any(Job.class));
+    }
+
+    @Test
+    public void testParallelStageIsSubmitted() throws Exception {
+        final List<String> theLog = new ArrayList<>();
+        GameSystem[] theSystems = new GameSystem[] {
+                new TestSystem("physics", theLog, resources(), resources(GameSystemResource.PHYSICS)),
+                new TestSystem("sound", theLog, resources(), resources()),
+        };
+
+        final List<FutureResult> theResults = new ArrayList<>();
+        ThreadingManager theThreadingManager = new ThreadingManager() {
+            @Override
+            public FutureResult submit(Job aJob) {
+                aJob.run();
+                FutureResult theResult = mock(FutureResult.class);
+                theResults.add(theResult);
+                return theResult;
+            }
+        };
+
+        GameSystemScheduler theScheduler = new GameSystemScheduler();
+        theScheduler.proceedGame(theSystems, theThreadingManager, 1, 10, 10);
+        theScheduler.proceedGame(theSystems, theThreadingManager, 2, 20, 10);
+
+        assertEquals(2, theResults.size());
+        for (FutureResult theResult : theResults) {
+            verify(theResult, times(1)).waitForCompletion();
+        }
+        assertEquals(4, theLog.size());
+    }
+
+    @Test
+    public void testRunInFrameIsRecorded() throws Exception {
+        final ManualGameClock theTimer = new ManualGameClock();
+        RuntimeStatistics theStatistics = new RuntimeStatistics(theTimer);
+        GameSystem theSlowSystem = new TestSystem("physics", new ArrayList<String>(), resources(), resources(GameSystemResource.PHYSICS)) {
+            @Override
+            public GameSystemWork proceedGame(long aTotalTicks, long aGameTime, long aElapsedTime) {
+                return new GameSystemWork() {
+                    @Override
+                    public void runInFrame() {
+                        theTimer.advance(5000);
+                    }
+
+                    @Override
+                    public void runAfterFrame() {
+                    }
+                };
+            }
+        };
+        GameSystem theFastSystem = new TestSystem("sound", new ArrayList<String>(), resources(), resources());
+        GameSystem[] theSystems = new GameSystem[] {theSlowSystem, theFastSystem};
+
+        GameSystemScheduler theScheduler = new GameSystemScheduler(theStatistics);
+        theScheduler.proceedGame(theSystems, new NoThreadingThreadingManager(), 1, 10, 10);
+
+        // Parallel stages measure in the jobs, but record on the calling thread
+        theScheduler.proceedGame(theSystems, new ThreadingManager() {
+            @Override
+            public FutureResult submit(Job aJob) {
+                aJob.run();
+                return mock(FutureResult.class);
+            }
+        }, 2, 20, 10);
+
+        FrameTimeHistogram theSlow = theStatistics.getPhaseTiming(theSlowSystem, FramePhase.RUN_IN_FRAME).getHistogram();
+        assertEquals(2, theSlow.getCount());
+        assertEquals(5000, theSlow.getMax());
+        FrameTimeHistogram theFast = theStatistics.getPhaseTiming(theFastSystem, FramePhase.RUN_IN_FRAME).getHistogram();
+        assertEquals(2, theFast.getCount());
+        assertEquals(0, theFast.getMax());
+    }
+
+    @Test
+    public void testSystemsUsingEventsNeverShareAStage() throws Exception {
+        GameEventManager theEventManager = new GameEventManager(mock(Logger.class));
+        GameSystem theProcesses = new GameProcessManagerFactory().create(mock(Logger.class), theEventManager);
+        GameScene theScene = mock(GameScene.class);
+        when(theScene.getEventSheets()).thenReturn(new EventSheet[0]);
+        GameSystem theActions = new ActionManagerFactory().create(theScene, theEventManager);
+        GameSystem theSound = GameSoundManagerFactory.create(theEventManager, mock(GameSoundSystem.class));
+        GameSystem theEvents = new TestSystem("events", new ArrayList<String>(), resources(), resources(GameSystemResource.EVENTS));
+
+        assertTrue(GameSystemScheduler.conflicts(theProcesses, theActions));
+        assertTrue(GameSystemScheduler.conflicts(theProcesses, theEvents));
+        assertTrue(GameSystemScheduler.conflicts(theActions, theEvents));
+        // The sound manager does nothing in frame
+        assertFalse(GameSystemScheduler.conflicts(theSound, theEvents));
+    }
+}
@@ -0,0 +1,152 @@
+package de.mirkosertic.gameengine.core;
+
+import de.mirkosertic.gameengine.type.ResourceName;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ResourcePrefetcherTest {
+
+    private static GameResource resource(long aSize) {
+        GameResource theResource = mock(GameResource.class);
+        when(theResource.getSizeInBytes()).thenReturn(aSize);
+        return theResource;
+    }
+
+    private static Promise resolved(Object aValue) {
+        Promise thePromise = new Promise();
+        thePromise.resolve(aValue);
+        return thePromise;
+    }
+
+    @Test
+    public void testPrefetchLoadsMissingResources() throws Exception {
+        GameResourceLoader theLoader = mock(GameResourceLoader.class);
+        GameResource theFirst = resource(100);
+        GameResource theSecond = resource(50);
+        Promise theRejected = new Promise();
+        theRejected.reject("Not found", null);
+        when(theLoader.load(new ResourceName("first.png"))).thenReturn(resolved(theFirst));
+        when(theLoader.load(new ResourceName("second.wav"))).thenReturn(resolved(theSecond));
+        when(theLoader.load(new ResourceName("missing.png"))).thenReturn(theRejected);
+
+        GameResourceCache theCache = new GameResourceCache(theLoader, mock(Logger.class));
+        ResourcePrefetcher thePrefetcher = new ResourcePrefetcher(theCache, new NoThreadingThreadingManager(), mock(Logger.class));
+        final List<Integer> theProgress = new ArrayList<>();
+        Promise<ResourcePrefetcher, String> theResult = thePrefetcher.prefetch(Arrays.asList(
+                new ResourceName("first.png"), new ResourceName("second.wav"), new ResourceName("first.png"),
+                new ResourceName("missing.png"), null), new ResourcePrefetcher.Listener() {
+            @Override
+            public void progress(int aFinished, int aTotal, long aLoadedBytes) {
+                theProgress.add(aFinished);
+                assertEquals(3, aTotal);
+            }
+        });
+
+        assertEquals(Promise.State.resolved, theResult.getState());
+        assertSame(thePrefetcher, theResult.getResolvedValue());
+        assertEquals(3, thePrefetcher.getTotal());
+        assertEquals(3, thePrefetcher.getFinished());
+        assertEquals(1, thePrefetcher.getFailed());
+        assertEquals(150, thePrefetcher.getLoadedBytes());
+        assertEquals(Arrays.asList(1, 2, 3), theProgress);
+
+        assertSame(theFirst, theCache.getIfLoaded(new ResourceName("first.png")));
+        assertSame(theSecond, theCache.getIfLoaded(new ResourceName("second.wav")));
+        assertNull(theCache.getIfLoaded(new ResourceName("missing.png")));
+        verify(theLoader, times(1)).load(new ResourceName("first.png"));
+
+        // Everything loaded is skipped the next time
+        ResourcePrefetcher.Listener theListener = mock(ResourcePrefetcher.Listener.class);
+        theResult = thePrefetcher.prefetch(Arrays.asList(new ResourceName("first.png")), theListener);
+        assertEquals(Promise.State.resolved, theResult.getState());
+        assertEquals(0, thePrefetcher.getTotal());
+        verify(theListener, never()).progress(any(Integer.class), any(Integer.class), any(Long.class));
+        verify(theLoader, times(1)).load(new ResourceName("first.png"));
+    }
+
+    @Test
+    public void testPrefetchWaitsForAsynchronousLoads() throws Exception {
+        GameResourceLoader theLoader = mock(GameResourceLoader.class);
+        Promise thePending = new Promise();
+        when(theLoader.load(new ResourceName("slow.png"))).thenReturn(thePending);
+
+        GameResourceCache theCache = new GameResourceCache(theLoader, mock(Logger.class));
+        ResourcePrefetcher thePrefetcher = new ResourcePrefetcher(theCache, new NoThreadingThreadingManager(), mock(Logger.class));
+        Promise<ResourcePrefetcher, String> theResult = thePrefetcher.prefetch(Arrays.asList(new ResourceName("slow.png")), mock(ResourcePrefetcher.Listener.class));
+        assertEquals(Promise.State.pending, theResult.getState());
+
+        thePending.resolve(resource(10));
+        assertEquals(Promise.State.resolved, theResult.getState());
+        assertNotNull(theCache.getIfLoaded(new ResourceName("slow.png")));
+    }
+
+    @Test
+    public void testUnknownResourceTypesAreSkipped() throws Exception {
+        GameResourceLoader theLoader = mock(GameResourceLoader.class);
+        Promise theLoaded = resolved(resource(10));
+        // A loader that never settles for anything but bitmaps
+        when(theLoader.load(any(ResourceName.class))).thenReturn(new Promise());
+        when(theLoader.load(new ResourceName("first.png"))).thenReturn(theLoaded);
+
+        GameResourceCache theCache = new GameResourceCache(theLoader, mock(Logger.class));
+        ResourcePrefetcher thePrefetcher = new ResourcePrefetcher(theCache, new NoThreadingThreadingManager(), mock(Logger.class));
+        Promise<ResourcePrefetcher, String> theResult = thePrefetcher.prefetch(Arrays.asList(
+                new ResourceName("notes.txt"), new ResourceName("first.png"), new ResourceName("level")), mock(ResourcePrefetcher.Listener.class));
+
+        assertEquals(Promise.State.resolved, theResult.getState());
+        assertEquals(1, thePrefetcher.getTotal());
+        assertEquals(2, thePrefetcher.getSkipped());
+        verify(theLoader, never()).load(new ResourceName("notes.txt"));
+        verify(theLoader, never()).load(new ResourceName("level"));
+    }
+
+    @Test
+    public void testPrefetchDoesNotWaitForTheJobs() throws Exception {
+        GameResourceLoader theLoader = mock(GameResourceLoader.class);
+        Promise theLoaded = resolved(resource(10));
+        when(theLoader.load(new ResourceName("first.png"))).thenReturn(theLoaded);
+        when(theLoader.load(new ResourceName("second.wav"))).thenThrow(new IllegalStateException("Broken"));
+
+        final List<Job> theJobs = new ArrayList<>();
+        ThreadingManager theThreadingManager = new ThreadingManager() {
+            @Override
+            public FutureResult submit(Job aJob) {
+                theJobs.add(aJob);
+                return new FutureResult() {
+                    @Override
+                    public void waitForCompletion() {
+                        throw new IllegalStateException("Must not wait");
+                    }
+                };
+            }
+        };
+
+        GameResourceCache theCache = new GameResourceCache(theLoader, mock(Logger.class));
+        ResourcePrefetcher thePrefetcher = new ResourcePrefetcher(theCache, theThreadingManager, mock(Logger.class));
+        Promise<ResourcePrefetcher, String> theResult = thePrefetcher.prefetch(Arrays.asList(
+                new ResourceName("first.png"), new ResourceName("second.wav")), mock(ResourcePrefetcher.Listener.class));
+        assertEquals(Promise.State.pending, theResult.getState());
+        assertEquals(2, theJobs.size());
+
+        theJobs.get(0).run();
+        assertEquals(Promise.State.pending, theResult.getState());
+        theJobs.get(1).run();
+        assertEquals(Promise.State.resolved, theResult.getState());
+        assertEquals(1, thePrefetcher.getFailed());
+        assertNotNull(theCache.getIfLoaded(new ResourceName("first.png")));
+    }
+}
@@ -0,0 +1,64 @@
+package de.mirkosertic.gameengine.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class RuntimeStatisticsTest {
+
+    @Test
+    public void testFrameTimes() throws Exception {
+        ManualGameClock theTimer = new ManualGameClock();
+        RuntimeStatistics theStatistics = new RuntimeStatistics(theTimer);
+
+        theStatistics.beginGameLoop();
+        theTimer.advance(16000000);
+        theStatistics.endGameLoop();
+
+        assertEquals(1, theStatistics.getFrameTimes().getCount());
+        assertEquals(16000000, theStatistics.getFrameTimes().getMax());
+    }
+
+    @Test
+    public void testPhaseTimings() throws Exception {
+        ManualGameClock theTimer = new ManualGameClock();
+        RuntimeStatistics theStatistics = new RuntimeStatistics(theTimer);
+        String theSystem = "system";
+        Integer theView = 42;
+
+        long theStart = theStatistics.nanoTime();
+        theTimer.advance(300);
+        theStatistics.recordPhase(theSystem, FramePhase.RUN_IN_FRAME, theStart);
+        theStatistics.recordPhaseDuration(theView, FramePhase.RENDER_GAME, 200);
+        theStatistics.recordPhaseDuration(theSystem, FramePhase.RUN_IN_FRAME, 100);
+
+        PhaseTiming[] theTimings = theStatistics.getPhaseTimings();
+        assertEquals(2, theTimings.length);
+        assertSame(theSystem, theTimings[0].getSource());
+        assertEquals(FramePhase.RUN_IN_FRAME, theTimings[0].getPhase());
+        assertEquals("String.runInFrame", theTimings[0].getName());
+        assertEquals(2, theTimings[0].getHistogram().getCount());
+        assertEquals(300, theTimings[0].getHistogram().getMax());
+        assertEquals("Integer.renderGame", theTimings[1].getName());
+
+        assertSame(theTimings[0], theStatistics.getPhaseTiming(theSystem, FramePhase.RUN_IN_FRAME));
+        assertNull(theStatistics.getPhaseTiming(theSystem, FramePhase.RUN_AFTER_FRAME));
+        assertNull(theStatistics.getPhaseTiming("unknown", FramePhase.RUN_IN_FRAME));
+    }
+
+    @Test
+    public void testResetTimings() throws Exception {
+        RuntimeStatistics theStatistics = new RuntimeStatistics(new ManualGameClock());
+        theStatistics.beginGameLoop();
+        theStatistics.endGameLoop();
+        theStatistics.recordPhaseDuration("system", FramePhase.RUN_AFTER_FRAME, 100);
+
+        theStatistics.resetTimings();
+
+        assertEquals(0, theStatistics.getFrameTimes().getCount());
+        assertEquals(1, theStatistics.getPhaseTimings().length);
+        assertEquals(0, theStatistics.getPhaseTimings()[0].getHistogram().getCount());
+    }
+}
@@ -0,0 +1,109 @@
+package de.mirkosertic.gameengine.event;
+
+import de.mirkosertic.gameengine.core.Logger;
+import de.mirkosertic.gameengine.core.SceneStarted;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class GameEventManagerTest {
+
+    @Test
+    public void testFireToTypedAndCatchAllListener() throws Exception {
+        GameEventManager theManager = new GameEventManager(mock(Logger.class));
+        GameEventListener theTyped = mock(GameEventListener.class);
+        GameEventListener theCatchAll = mock(GameEventListener.class);
+        GameEventListener theOther = mock(GameEventListener.class);
+        theManager.register(null, SceneStarted.TYPE, theTyped);
+        theManager.register(null, GameEventType.CATCH_ALL, theCatchAll);
+        theManager.register(null, PropertyChanged.TYPE, theOther);
+
+        theManager.fire(new SceneStarted());
+
+        verify(theTyped).handleGameEvent(any(SceneStarted.class));
+        verify(theCatchAll).handleGameEvent(any(SceneStarted.class));
+        verify(theOther, never()).handleGameEvent(any(GameEvent.class));
+    }
+
+    @Test
+    public void testUnregister() throws Exception {
+        GameEventManager theManager = new GameEventManager(mock(Logger.class));
+        GameEventListener theListener = mock(GameEventListener.class);
+        theManager.register(null, SceneStarted.TYPE, theListener);
+        theManager.fire(new SceneStarted());
+        theManager.unregister(SceneStarted.TYPE, theListener);
+        theManager.fire(new SceneStarted());
+
+        verify(theListener, times(1)).handleGameEvent(any(SceneStarted.class));
+        assertEquals(0, theManager.getListenerCount(SceneStarted.TYPE));
+    }
+
+    @Test
+    public void testUnregisterAllOfOwner() throws Exception {
+        GameEventManager theManager = new GameEventManager(mock(Logger.class));
+        Object theOwner = new Object();
+        Object theOtherOwner = new Object();
+        GameEventListener theListener1 = mock(GameEventListener.class);
+        GameEventListener theListener2 = mock(GameEventListener.class);
+        GameEventListener theListener3 = mock(GameEventListener.class);
+        theManager.register(theOwner, SceneStarted.TYPE, theListener1);
+        theManager.register(theOwner, GameEventType.CATCH_ALL, theListener2);
+        theManager.register(theOtherOwner, SceneStarted.TYPE, theListener3);
+
+        theManager.unregisterAll(theOwner);
+        theManager.fire(new SceneStarted());
+
+        verify(theListener1, never()).handleGameEvent(any(GameEvent.class));
+        verify(theListener2, never()).handleGameEvent(any(GameEvent.class));
+        verify(theListener3).handleGameEvent(any(SceneStarted.class));
+        assertEquals(1, theManager.getListenerCount(SceneStarted.TYPE));
+        assertEquals(0, theManager.getListenerCount(GameEventType.CATCH_ALL));
+    }
+
+    @Test
+    public void testUnregisterForgetsTheOwner() throws Exception {
+        GameEventManager theManager = new GameEventManager(mock(Logger.class));
+        Object theOwner = new Object();
+        Object theOtherOwner = new Object();
+        GameEventListener theListener = mock(GameEventListener.class);
+        theManager.register(theOwner, SceneStarted.TYPE, theListener);
+        assertEquals(1, theManager.getRegistrationCount(theOwner));
+
+        theManager.unregister(SceneStarted.TYPE, theListener);
+        assertEquals(0, theManager.getRegistrationCount(theOwner));
+
+        // Registered again under another owner, the former owner must not remove it
+        theManager.register(theOtherOwner, SceneStarted.TYPE, theListener);
+        theManager.unregisterAll(theOwner);
+        theManager.fire(new SceneStarted());
+
+        verify(theListener).handleGameEvent(any(SceneStarted.class));
+        assertEquals(1, theManager.getRegistrationCount(theOtherOwner));
+
+        theManager.unregisterAll(theOtherOwner);
+        assertEquals(0, theManager.getListenerCount(SceneStarted.TYPE));
+    }
+
+    @Test
+    public void testRegisterWhileDispatching() throws Exception {
+        final GameEventManager theManager = new GameEventManager(mock(Logger.class));
+        final GameEventListener theLateListener = mock(GameEventListener.class);
+        theManager.register(null, SceneStarted.TYPE, new GameEventListener<SceneStarted>() {
+            @Override
+            public void handleGameEvent(SceneStarted aEvent) {
+                theManager.register(null, SceneStarted.TYPE, theLateListener);
+            }
+        });
+
+        // The listener registered during dispatch is only notified about the next event
+        theManager.fire(new SceneStarted());
+        verify(theLateListener, never()).handleGameEvent(any(GameEvent.class));
+        theManager.fire(new SceneStarted());
+        verify(theLateListener, times(1)).handleGameEvent(any(SceneStarted.class));
+    }
+}
@@ -1,11 +1,16 @@
 package de.mirkosertic.gameengine.event;
 
+import de.mirkosertic.gameengine.core.Logger;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 
@@ -87,4 +92,63 @@ public class PropertyTest {
 
         assertTrue(theProperty.getChangeListener().isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testCoalescedChanges() throws Exception {
+        GameEventManager theManager = new GameEventManager(mock(Logger.class));
+        theManager.setPropertyChangeMode(PropertyChangeMode.COALESCED);
+        final List<Object> theOldValues = new ArrayList<>();
+        theManager.register(null, PropertyChanged.TYPE, new GameEventListener<PropertyChanged>() {
+            @Override
+            public void handleGameEvent(PropertyChanged aEvent) {
+                theOldValues.add(aEvent.oldValue);
+            }
+        });
+        GameEventListener theDirectListener = mock(GameEventListener.class);
+
+        Property<String> theProperty = new Property<String>(String.class, this, "property", "value", theManager);
+        theProperty.addChangeListener(theDirectListener);
+        theProperty.set("value1");
+        theProperty.set("value2");
+
+        // Direct listener are still notified synchronously
+        verify(theDirectListener, times(2)).handleGameEvent(any(PropertyChanged.class));
+        assertTrue(theOldValues.isEmpty());
+
+        theManager.flushPropertyChanges();
+        assertEquals(1, theOldValues.size());
+        assertEquals("value", theOldValues.get(0));
+
+        theManager.flushPropertyChanges();
+        assertEquals(1, theOldValues.size());
+    }
+
+    @Test
+    public void testCoalescedRevertedChange() throws Exception {
+        GameEventManager theManager = new GameEventManager(mock(Logger.class));
+        theManager.setPropertyChangeMode(PropertyChangeMode.COALESCED);
+        GameEventListener theListener = mock(GameEventListener.class);
+        theManager.register(null, PropertyChanged.TYPE, theListener);
+
+        Property<String> theProperty = new Property<String>(String.class, this, "property", "value", theManager);
+        theProperty.set("value1");
+        theProperty.set("value");
+        theManager.flushPropertyChanges();
+
+        verifyZeroInteractions(theListener);
+    }
+
+    @Test
+    public void testLogicalTimestamps() throws Exception {
+        GameEventManager theManager = new GameEventManager(mock(Logger.class));
+        theManager.setLogicalTimestamps(true);
+        theManager.beginTick(5);
+
+        Property<String> theProperty = new Property<String>(String.class, this, "property", "value", theManager);
+        assertEquals(5, theProperty.getLastChanged());
+
+        theManager.beginTick(6);
+        theProperty.set("value1");
+        assertEquals(6, theProperty.getLastChanged());
+    }
+}
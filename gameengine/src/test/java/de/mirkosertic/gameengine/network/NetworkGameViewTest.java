@@ -0,0 +1,186 @@
+package de.mirkosertic.gameengine.network;
+
+import de.mirkosertic.gameengine.core.Game;
+import de.mirkosertic.gameengine.core.GameObject;
+import de.mirkosertic.gameengine.core.GameObjectInstance;
+import de.mirkosertic.gameengine.core.GameRuntime;
+import de.mirkosertic.gameengine.core.GameScene;
+import de.mirkosertic.gameengine.core.Logger;
+import de.mirkosertic.gameengine.core.RuntimeStatistics;
+import de.mirkosertic.gameengine.event.GameEventManager;
+import de.mirkosertic.gameengine.type.Angle;
+import de.mirkosertic.gameengine.type.Position;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class NetworkGameViewTest {
+
+    private static class FrameConnector extends DefaultNetworkConnector {
+
+        private final List<byte[]> frames = new ArrayList<>();
+        private final List<byte[]> received = new ArrayList<>();
+        private boolean running = true;
+
+        @Override
+        public boolean isRunning() {
+            return running;
+        }
+
+        @Override
+        public boolean supportsFrames() {
+            return true;
+        }
+
+        @Override
+        public void sendFrame(byte[] aData, int aOffset, int aLength) {
+            byte[] theFrame = new byte[aLength];
+            System.arraycopy(aData, aOffset, theFrame, 0, aLength);
+            frames.add(theFrame);
+        }
+
+        @Override
+        public byte[] receiveFrame() {
+            return received.isEmpty() ? null : received.remove(0);
+        }
+    }
+
+    private static class MapConnector extends DefaultNetworkConnector {
+
+        private final List<List<Map<String, Object>>> sent = new ArrayList<>();
+
+        @Override
+        public int send(List<Map<String, Object>> aEventsToSend) {
+            sent.add(aEventsToSend);
+            return aEventsToSend.size();
+        }
+    }
+
+    private GameScene createScene() {
+        GameEventManager theEventManager = new GameEventManager(mock(Logger.class));
+        GameRuntime theRuntime = mock(GameRuntime.class);
+        when(theRuntime.getEventManager()).thenReturn(theEventManager);
+        return new GameScene(new Game(), theRuntime);
+    }
+
+    @Test
+    public void testPropertyChangesAreCoalescedPerCycle() throws Exception {
+        GameScene theScene = createScene();
+        GameObjectInstance theInstance = theScene.createFrom(new GameObject(theScene, "Test"));
+
+        MapConnector theConnector = new MapConnector();
+        NetworkGameView theView = new NetworkGameViewFactory(theConnector, new DefaultEventInterpreter()).createNetworkViewFor(theScene.getRuntime().getEventManager());
+
+        theInstance.positionProperty().set(new Position(1, 1));
+        theInstance.positionProperty().set(new Position(2, 2));
+        theInstance.positionProperty().set(new Position(3, 3));
+        theInstance.rotationAngleProperty().set(new Angle(45));
+        assertEquals(2, theView.getQueuedEventCount());
+
+        theView.renderGame(0, 0, 0, theScene, new RuntimeStatistics());
+        assertEquals(1, theConnector.sent.size());
+        assertEquals(2, theConnector.sent.get(0).size());
+        assertEquals(new Position(3, 3).serialize(), theConnector.sent.get(0).get(0).get("newValue"));
+
+        theInstance.positionProperty().set(new Position(4, 4));
+        assertEquals(1, theView.getQueuedEventCount());
+    }
+
+    @Test
+    public void testFramesAreAppliedOnTheOtherSide() throws Exception {
+        GameScene theSenderScene = createScene();
+        GameObject theObject = new GameObject(theSenderScene, "Test");
+        GameObjectInstance theSenderInstance = theSenderScene.createFrom(theObject);
+
+        FrameConnector theConnector = new FrameConnector();
+        NetworkGameView theView = new NetworkGameViewFactory(theConnector, new DefaultEventInterpreter()).createNetworkViewFor(theSenderScene.getRuntime().getEventManager());
+
+        theSenderInstance.positionProperty().set(new Position(10, 20));
+        theSenderInstance.positionProperty().set(new Position(11.5f, -20));
+        theSenderInstance.rotationAngleProperty().set(new Angle(90));
+        theSenderInstance.nameProperty().set("Player");
+        RuntimeStatistics theStatistics = new RuntimeStatistics();
+        theView.renderGame(0, 0, 0, theSenderScene, theStatistics);
+        assertEquals(1, theConnector.frames.size());
+
+        GameScene theReceiverScene = createScene();
+        GameObjectInstance theReceiverInstance = theReceiverScene.createFrom(theObject);
+        theReceiverInstance.uuidProperty().set(theSenderInstance.uuidProperty().get());
+        theReceiverScene.addInstance(theReceiverInstance);
+
+        byte[] theFrame = theConnector.frames.get(0);
+        int theCount = new NetworkEventCodec().decode(theFrame, 0, theFrame.length, theReceiverScene, new DefaultEventInterpreter());
+        assertEquals(3, theCount);
+        assertEquals(new Position(11.5f, -20), theReceiverInstance.positionProperty().get());
+        assertEquals(new Angle(90), theReceiverInstance.rotationAngleProperty().get());
+        assertEquals("Player", theReceiverInstance.nameProperty().get());
+    }
+
+    @Test
+    public void testNothingIsSentToAStoppedConnector() throws Exception {
+        GameScene theScene = createScene();
+        GameObjectInstance theInstance = theScene.createFrom(new GameObject(theScene, "Test"));
+
+        FrameConnector theConnector = new FrameConnector();
+        theConnector.running = false;
+        NetworkGameView theView = new NetworkGameViewFactory(theConnector, new DefaultEventInterpreter()).createNetworkViewFor(theScene.getRuntime().getEventManager());
+
+        theInstance.positionProperty().set(new Position(1, 1));
+        assertEquals(1, theView.getQueuedEventCount());
+
+        theView.renderGame(0, 0, 0, theScene, new RuntimeStatistics());
+        assertTrue(theConnector.frames.isEmpty());
+        assertEquals(0, theView.getQueuedEventCount());
+    }
+
+    @Test
+    public void testBrokenFramesAreDropped() throws Exception {
+        GameScene theSenderScene = createScene();
+        GameObject theObject = new GameObject(theSenderScene, "Test");
+        GameObjectInstance theSenderInstance = theSenderScene.createFrom(theObject);
+
+        FrameConnector theSender = new FrameConnector();
+        NetworkGameView theSenderView = new NetworkGameViewFactory(theSender, new DefaultEventInterpreter()).createNetworkViewFor(theSenderScene.getRuntime().getEventManager());
+        theSenderInstance.positionProperty().set(new Position(10, 20));
+        theSenderView.renderGame(0, 0, 0, theSenderScene, new RuntimeStatistics());
+        byte[] theValidFrame = theSender.frames.get(0);
+
+        GameScene theReceiverScene = createScene();
+        GameObjectInstance theReceiverInstance = theReceiverScene.createFrom(theObject);
+        theReceiverInstance.uuidProperty().set(theSenderInstance.uuidProperty().get());
+        theReceiverScene.addInstance(theReceiverInstance);
+
+        WireEncoder theOversized = new WireEncoder();
+        theOversized.writeByte(NetworkEventCodec.VERSION);
+        theOversized.writeVarLong(0);
+        theOversized.writeByte(NetworkEventCodec.EVENT_GENERIC);
+        theOversized.writeByte(NetworkEventCodec.VALUE_LIST);
+        theOversized.writeVarInt(Integer.MAX_VALUE);
+
+        byte[] theTruncated = new byte[theValidFrame.length - 3];
+        System.arraycopy(theValidFrame, 0, theTruncated, 0, theTruncated.length);
+        byte[] theUnknownVersion = theValidFrame.clone();
+        theUnknownVersion[0] = 99;
+
+        FrameConnector theReceiver = new FrameConnector();
+        theReceiver.received.add(theTruncated);
+        theReceiver.received.add(Arrays.copyOf(theOversized.getData(), theOversized.getLength()));
+        theReceiver.received.add(theUnknownVersion);
+        theReceiver.received.add(theValidFrame);
+        NetworkGameView theReceiverView = new NetworkGameViewFactory(theReceiver, new DefaultEventInterpreter()).createNetworkViewFor(theReceiverScene.getRuntime().getEventManager());
+
+        RuntimeStatistics theStatistics = new RuntimeStatistics();
+        theReceiverView.renderGame(0, 0, 0, theReceiverScene, theStatistics);
+        assertEquals(3, theStatistics.getNumberOfDroppedNetworkframes());
+        assertTrue(theReceiver.received.isEmpty());
+        assertEquals(new Position(10, 20), theReceiverInstance.positionProperty().get());
+    }
+}
@@ -0,0 +1,125 @@
+package de.mirkosertic.gameengine.network;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class WireEncoderTest {
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        WireEncoder theEncoder = new WireEncoder();
+        theEncoder.writeVarInt(0);
+        theEncoder.writeVarInt(300);
+        theEncoder.writeSignedVarInt(-1);
+        theEncoder.writeSignedVarInt(Integer.MIN_VALUE);
+        theEncoder.writeSignedVarLong(-1234567890123L);
+        theEncoder.writeVarLong(Long.MAX_VALUE);
+        theEncoder.writeFloat(-12.5f);
+        theEncoder.writeDouble(Math.PI);
+        theEncoder.writeString("instance");
+        theEncoder.writeString(null);
+        theEncoder.writeString("instance");
+        theEncoder.writeString("ä€");
+
+        WireDecoder theDecoder = new WireDecoder();
+        theDecoder.reset(theEncoder.getData(), 0, theEncoder.getLength());
+        assertEquals(0, theDecoder.readVarInt());
+        assertEquals(300, theDecoder.readVarInt());
+        assertEquals(-1, theDecoder.readSignedVarInt());
+        assertEquals(Integer.MIN_VALUE, theDecoder.readSignedVarInt());
+        assertEquals(-1234567890123L, theDecoder.readSignedVarLong());
+        assertEquals(Long.MAX_VALUE, theDecoder.readVarLong());
+        assertEquals(-12.5f, theDecoder.readFloat(), 0);
+        assertEquals(Math.PI, theDecoder.readDouble(), 0);
+        String theFirst = theDecoder.readString();
+        assertEquals("instance", theFirst);
+        assertNull(theDecoder.readString());
+        assertSame(theFirst, theDecoder.readString());
+        assertEquals("ä€", theDecoder.readString());
+        assertFalse(theDecoder.hasRemaining());
+    }
+
+    @Test
+    public void testRepeatedStringsAreWrittenOnce() throws Exception {
+        WireEncoder theEncoder = new WireEncoder();
+        theEncoder.writeString("a-long-instance-id");
+        int theLength = theEncoder.getLength();
+        theEncoder.writeString("a-long-instance-id");
+        assertEquals(theLength + 1, theEncoder.getLength());
+
+        theEncoder.reset();
+        assertEquals(0, theEncoder.getLength());
+    }
+
+    @Test
+    public void testBufferGrows() throws Exception {
+        WireEncoder theEncoder = new WireEncoder();
+        for (int i = 0; i < 1000; i++) {
+            theEncoder.writeFloat(i);
+        }
+        WireDecoder theDecoder = new WireDecoder();
+        theDecoder.reset(theEncoder.getData(), 0, theEncoder.getLength());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, theDecoder.readFloat(), 0);
+        }
+    }
+
+    @Test
+    public void testTruncatedFrameIsRejected() throws Exception {
+        WireEncoder theEncoder = new WireEncoder();
+        theEncoder.writeFloat(1);
+        theEncoder.writeString("instance");
+
+        WireDecoder theDecoder = new WireDecoder();
+        theDecoder.reset(theEncoder.getData(), 0, theEncoder.getLength() - 2);
+        assertEquals(1, theDecoder.readFloat(), 0);
+        try {
+            theDecoder.readString();
+            fail();
+        } catch (WireFormatException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testOversizedLengthsAreRejected() throws Exception {
+        WireEncoder theEncoder = new WireEncoder();
+        // A string header announcing 100 million characters, a list of 1 million elements,
+        // and a list of one element which is really there
+        theEncoder.writeVarInt((100000000 << 1) | 1);
+        theEncoder.writeVarInt(1000000);
+        theEncoder.writeVarInt(1);
+        theEncoder.writeByte(NetworkEventCodec.VALUE_NULL);
+
+        WireDecoder theDecoder = new WireDecoder();
+        theDecoder.reset(theEncoder.getData(), 0, theEncoder.getLength());
+        try {
+            theDecoder.readString();
+            fail();
+        } catch (WireFormatException e) {
+            // Expected
+        }
+
+        theDecoder.reset(theEncoder.getData(), 4, theEncoder.getLength() - 4);
+        try {
+            theDecoder.readLength();
+            fail();
+        } catch (WireFormatException e) {
+            // Expected
+        }
+        assertEquals(1, theDecoder.readLength());
+    }
+
+    @Test(expected = WireFormatException.class)
+    public void testOverlongVarIntIsRejected() throws Exception {
+        byte[] theData = new byte[] {(byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 1};
+        WireDecoder theDecoder = new WireDecoder();
+        theDecoder.reset(theData, 0, theData.length);
+        theDecoder.readVarInt();
+    }
+}
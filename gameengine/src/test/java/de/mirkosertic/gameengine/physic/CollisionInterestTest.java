@@ -0,0 +1,115 @@
+package de.mirkosertic.gameengine.physic;
+
+import de.mirkosertic.gameengine.core.Condition;
+import de.mirkosertic.gameengine.core.EventSheet;
+import de.mirkosertic.gameengine.core.GameObject;
+import de.mirkosertic.gameengine.core.GameRule;
+import de.mirkosertic.gameengine.core.GameRuntime;
+import de.mirkosertic.gameengine.core.GameScene;
+import de.mirkosertic.gameengine.event.GameEventListener;
+import de.mirkosertic.gameengine.event.GameEventManager;
+import de.mirkosertic.gameengine.event.PropertyChanged;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CollisionInterestTest {
+
+    private GameScene createScene(GameObject[] aObjects, GameRule... aRules) {
+        EventSheet theSheet = mock(EventSheet.class);
+        when(theSheet.getRules()).thenReturn(aRules);
+        GameScene theScene = mock(GameScene.class);
+        when(theScene.getEventSheets()).thenReturn(new EventSheet[] {theSheet});
+        when(theScene.getObjects()).thenReturn(aObjects);
+        return theScene;
+    }
+
+    private GameObject createObject(String aName) {
+        GameRuntime theRuntime = mock(GameRuntime.class);
+        when(theRuntime.getEventManager()).thenReturn(mock(GameEventManager.class));
+        GameScene theScene = mock(GameScene.class);
+        when(theScene.getRuntime()).thenReturn(theRuntime);
+        return new GameObject(theScene, aName);
+    }
+
+    private GameRule createCollisionRule(GameObject aPrimary, GameObject aSecondary) {
+        ObjectCollisionCondition theCondition = new ObjectCollisionCondition();
+        theCondition.primaryObjectProperty().set(aPrimary);
+        theCondition.secondaryObjectProperty().set(aSecondary);
+        GameRule theRule = new GameRule();
+        theRule.conditionProperty().set(theCondition);
+        return theRule;
+    }
+
+    @Test
+    public void testAll() {
+        assertTrue(CollisionInterest.ALL.isInteresting(createObject("a"), createObject("b")));
+    }
+
+    @Test
+    public void testOnlyRulePairsAreInteresting() {
+        GameObject theA = createObject("a");
+        GameObject theB = createObject("b");
+        GameObject theC = createObject("c");
+        GameScene theScene = createScene(new GameObject[] {theA, theB, theC}, createCollisionRule(theA, theB));
+
+        CollisionInterest theInterest = CollisionInterest.compute(theScene, mock(GameEventListener.class));
+        assertTrue(theInterest.isInteresting(theA, theB));
+        assertTrue(theInterest.isInteresting(theB, theA));
+        assertFalse(theInterest.isInteresting(theA, theC));
+        assertFalse(theInterest.isInteresting(theC, theB));
+    }
+
+    @Test
+    public void testPlatformBehaviorIsInterestedInEverything() {
+        GameObject theA = createObject("a");
+        GameObject theB = createObject("b");
+        GameObject thePlayer = createObject("player");
+        thePlayer.add(new PlatformBehaviorTemplate(mock(GameEventManager.class), thePlayer));
+        GameScene theScene = createScene(new GameObject[] {theA, theB, thePlayer});
+
+        CollisionInterest theInterest = CollisionInterest.compute(theScene, mock(GameEventListener.class));
+        assertTrue(theInterest.isInteresting(theA, thePlayer));
+        assertTrue(theInterest.isInteresting(thePlayer, theB));
+        assertFalse(theInterest.isInteresting(theA, theB));
+    }
+
+    @Test
+    public void testConditionChangesAreReported() {
+        GameObject theA = createObject("a");
+        GameObject theB = createObject("b");
+        GameRule theRule = createCollisionRule(theA, theB);
+        GameScene theScene = createScene(new GameObject[] {theA, theB}, theRule);
+
+        GameEventListener<PropertyChanged> theListener = mock(GameEventListener.class);
+        CollisionInterest theInterest = CollisionInterest.compute(theScene, theListener);
+
+        ObjectCollisionCondition theCondition = (ObjectCollisionCondition) theRule.conditionProperty().get();
+        theCondition.secondaryObjectProperty().set(theA);
+        verify(theListener, times(1)).handleGameEvent(any(PropertyChanged.class));
+
+        theInterest.release();
+        theCondition.secondaryObjectProperty().set(theB);
+        verify(theListener, times(1)).handleGameEvent(any(PropertyChanged.class));
+        assertEquals(0, theCondition.secondaryObjectProperty().getChangeListener().size());
+    }
+
+    @Test
+    public void testUnknownCollisionConditionMeansAll() {
+        GameObject theA = createObject("a");
+        GameObject theB = createObject("b");
+        GameRule theRule = new GameRule();
+        theRule.conditionProperty().set(mock(Condition.class));
+        GameScene theScene = createScene(new GameObject[] {theA, theB}, theRule);
+
+        assertSame(CollisionInterest.ALL, CollisionInterest.compute(theScene, mock(GameEventListener.class)));
+    }
+}
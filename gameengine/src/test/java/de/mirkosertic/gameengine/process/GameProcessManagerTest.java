@@ -0,0 +1,291 @@
+package de.mirkosertic.gameengine.process;
+
+import de.mirkosertic.gameengine.core.GameObjectInstance;
+import de.mirkosertic.gameengine.core.Logger;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class GameProcessManagerTest {
+
+    private static class TestProcess extends AbstractGameProcess {
+
+        private final GameObjectInstance[] instances;
+        private final List<String> log;
+        private final String name;
+        ProceedResult result;
+        private Runnable onProceed;
+        boolean killed;
+
+        TestProcess(String aName, List<String> aLog, GameObjectInstance... aInstances) {
+            name = aName;
+            log = aLog;
+            instances = aInstances;
+            result = ProceedResult.CONTINUE_RUNNING;
+        }
+
+        @Override
+        public GameObjectInstance[] getAffectedInstances() {
+            return instances;
+        }
+
+        @Override
+        public ProceedResult proceedGame(long aGameTime, long aElapsedTimeSinceLastLoop) {
+            log.add(name);
+            if (onProceed != null) {
+                onProceed.run();
+            }
+            return result;
+        }
+
+        @Override
+        public void killed() {
+            killed = true;
+        }
+    }
+
+    private static class ParkingProcess extends TestProcess implements ParkableGameProcess {
+
+        private long wakeupTime;
+
+        ParkingProcess(String aName, List<String> aLog, GameObjectInstance... aInstances) {
+            super(aName, aLog, aInstances);
+            result = ProceedResult.PARKED;
+        }
+
+        @Override
+        public ProceedResult proceedGame(long aGameTime, long aElapsedTimeSinceLastLoop) {
+            wakeupTime = aGameTime + 100;
+            return super.proceedGame(aGameTime, aElapsedTimeSinceLastLoop);
+        }
+
+        @Override
+        public long getWakeupTime() {
+            return wakeupTime;
+        }
+    }
+
+    private static void proceed(GameProcessManager aManager) {
+        aManager.proceedGame(1, 10, 10).runInFrame();
+    }
+
+    private static void proceedAt(GameProcessManager aManager, long aGameTime) {
+        aManager.proceedGame(1, aGameTime, 10).runInFrame();
+    }
+
+    @Test
+    public void testKillProcessesForInstance() throws Exception {
+        GameProcessManager theManager = new GameProcessManager(mock(Logger.class));
+        GameObjectInstance theFirstInstance = mock(GameObjectInstance.class);
+        GameObjectInstance theSecondInstance = mock(GameObjectInstance.class);
+        List<String> theLog = new ArrayList<>();
+
+        TestProcess theFirst = new TestProcess("first", theLog, theFirstInstance);
+        TestProcess theBoth = new TestProcess("both", theLog, theFirstInstance, theSecondInstance);
+        TestProcess theSecond = new TestProcess("second", theLog, theSecondInstance);
+        TestProcess theNone = new TestProcess("none", theLog);
+        theManager.start(theFirst);
+        theManager.start(theBoth);
+        theManager.start(theSecond);
+        theManager.start(theNone);
+        assertEquals(4, theManager.getRunningProcessCount());
+
+        theManager.killProcessesForInstance(theFirstInstance);
+        assertTrue(theFirst.killed);
+        assertTrue(theBoth.killed);
+        assertFalse(theSecond.killed);
+        assertEquals(2, theManager.getRunningProcessCount());
+
+        proceed(theManager);
+        assertEquals(2, theLog.size());
+        assertTrue(theLog.contains("second"));
+        assertTrue(theLog.contains("none"));
+
+        theManager.instanceRemovedFromScene(theSecondInstance);
+        assertTrue(theSecond.killed);
+        assertEquals(1, theManager.getRunningProcessCount());
+
+        // Killing twice has no effect
+        theSecond.killed = false;
+        theManager.kill(theSecond);
+        assertFalse(theSecond.killed);
+    }
+
+    @Test
+    public void testProcessIsStartedOnlyOnce() throws Exception {
+        Logger theLogger = mock(Logger.class);
+        GameProcessManager theManager = new GameProcessManager(theLogger);
+        GameObjectInstance theInstance = mock(GameObjectInstance.class);
+        List<String> theLog = new ArrayList<>();
+
+        TestProcess theProcess = new TestProcess("process", theLog, theInstance);
+        theManager.start(theProcess);
+        theManager.start(theProcess);
+        assertEquals(1, theManager.getRunningProcessCount());
+        verify(theLogger, times(1)).error("Process of type " + TestProcess.class.getName() + " is already running");
+
+        proceed(theManager);
+        assertEquals(1, theLog.size());
+
+        // Parked processes are running as well
+        ParkingProcess theParking = new ParkingProcess("parking", theLog);
+        theManager.start(theParking);
+        proceedAt(theManager, 10);
+        theManager.start(theParking);
+        assertEquals(1, theManager.getParkedProcessCount());
+
+        // No entry is left behind after killing
+        theManager.killProcessesForInstance(theInstance);
+        theManager.kill(theParking);
+        assertEquals(0, theManager.getRunningProcessCount());
+        assertEquals(0, theManager.getParkedProcessCount());
+        theLog.clear();
+        proceedAt(theManager, 1000);
+        assertTrue(theLog.isEmpty());
+    }
+
+    @Test
+    public void testKillWhileProceeding() throws Exception {
+        final GameProcessManager theManager = new GameProcessManager(mock(Logger.class));
+        final GameObjectInstance theInstance = mock(GameObjectInstance.class);
+        List<String> theLog = new ArrayList<>();
+
+        TestProcess theKiller = new TestProcess("killer", theLog);
+        TestProcess theFirst = new TestProcess("first", theLog, theInstance);
+        TestProcess theSecond = new TestProcess("second", theLog, theInstance);
+        TestProcess theSurvivor = new TestProcess("survivor", theLog);
+        theKiller.onProceed = new Runnable() {
+            @Override
+            public void run() {
+                theManager.killProcessesForInstance(theInstance);
+            }
+        };
+        theKiller.result = GameProcess.ProceedResult.STOPPED;
+        theManager.start(theKiller);
+        theManager.start(theFirst);
+        theManager.start(theSecond);
+        theManager.start(theSurvivor);
+
+        proceed(theManager);
+        assertEquals(2, theLog.size());
+        assertEquals("killer", theLog.get(0));
+        assertEquals("survivor", theLog.get(1));
+        assertEquals(1, theManager.getRunningProcessCount());
+        assertFalse(theKiller.killed);
+
+        theLog.clear();
+        proceed(theManager);
+        assertEquals(1, theLog.size());
+        assertEquals("survivor", theLog.get(0));
+    }
+
+    @Test
+    public void testChildProcessIsStartedWhenStopped() throws Exception {
+        GameProcessManager theManager = new GameProcessManager(mock(Logger.class));
+        List<String> theLog = new ArrayList<>();
+
+        TestProcess theParent = new TestProcess("parent", theLog);
+        TestProcess theChild = new TestProcess("child", theLog);
+        theParent.result = GameProcess.ProceedResult.STOPPED;
+        theParent.setChildProcess(theChild);
+        theManager.start(theParent);
+
+        proceed(theManager);
+        assertEquals(1, theLog.size());
+        assertEquals(1, theManager.getRunningProcessCount());
+
+        proceed(theManager);
+        assertEquals("child", theLog.get(1));
+    }
+
+    @Test
+    public void testManyProcesses() throws Exception {
+        GameProcessManager theManager = new GameProcessManager(mock(Logger.class));
+        List<String> theLog = new ArrayList<>();
+        List<GameObjectInstance> theInstances = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            GameObjectInstance theInstance = mock(GameObjectInstance.class);
+            theInstances.add(theInstance);
+            theManager.start(new TestProcess("p" + i, theLog, theInstance));
+        }
+        for (int i = 0; i < 1000; i += 2) {
+            theManager.instanceRemovedFromScene(theInstances.get(i));
+        }
+        assertEquals(500, theManager.getRunningProcessCount());
+        proceed(theManager);
+        assertEquals(500, theLog.size());
+        for (int i = 1; i < 1000; i += 2) {
+            assertTrue(theLog.contains("p" + i));
+        }
+    }
+
+    @Test
+    public void testParkedProcessIsWokenAtDeadline() throws Exception {
+        GameProcessManager theManager = new GameProcessManager(mock(Logger.class));
+        List<String> theLog = new ArrayList<>();
+
+        ParkingProcess theParked = new ParkingProcess("parked", theLog);
+        theManager.start(theParked);
+        proceedAt(theManager, 10);
+        assertEquals(1, theLog.size());
+        // Parked processes are still alive
+        assertEquals(1, theManager.getRunningProcessCount());
+        assertEquals(1, theManager.getParkedProcessCount());
+
+        proceedAt(theManager, 50);
+        proceedAt(theManager, 109);
+        assertEquals(1, theLog.size());
+
+        proceedAt(theManager, 110);
+        assertEquals(2, theLog.size());
+        assertEquals(1, theManager.getParkedProcessCount());
+
+        theParked.result = GameProcess.ProceedResult.CONTINUE_RUNNING;
+        proceedAt(theManager, 210);
+        proceedAt(theManager, 211);
+        assertEquals(4, theLog.size());
+        assertEquals(1, theManager.getRunningProcessCount());
+        assertEquals(0, theManager.getParkedProcessCount());
+    }
+
+    @Test
+    public void testKillParkedProcess() throws Exception {
+        GameProcessManager theManager = new GameProcessManager(mock(Logger.class));
+        GameObjectInstance theInstance = mock(GameObjectInstance.class);
+        List<String> theLog = new ArrayList<>();
+
+        ParkingProcess theParked = new ParkingProcess("parked", theLog, theInstance);
+        theManager.start(theParked);
+        proceedAt(theManager, 10);
+        assertEquals(1, theManager.getParkedProcessCount());
+
+        theManager.instanceRemovedFromScene(theInstance);
+        assertTrue(theParked.killed);
+        assertEquals(0, theManager.getParkedProcessCount());
+
+        proceedAt(theManager, 500);
+        assertEquals(1, theLog.size());
+    }
+
+    @Test
+    public void testParkedIsIgnoredForOtherProcesses() throws Exception {
+        GameProcessManager theManager = new GameProcessManager(mock(Logger.class));
+        List<String> theLog = new ArrayList<>();
+
+        TestProcess theProcess = new TestProcess("plain", theLog);
+        theProcess.result = GameProcess.ProceedResult.PARKED;
+        theManager.start(theProcess);
+        proceedAt(theManager, 10);
+        proceedAt(theManager, 20);
+        assertEquals(2, theLog.size());
+        assertEquals(0, theManager.getParkedProcessCount());
+    }
+}
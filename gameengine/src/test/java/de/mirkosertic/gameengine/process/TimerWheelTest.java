@@ -0,0 +1,101 @@
+package de.mirkosertic.gameengine.process;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TimerWheelTest {
+
+    @Test
+    public void testExpireInOrderOfDeadline() throws Exception {
+        TimerWheel<String> theWheel = new TimerWheel<>(0);
+        theWheel.schedule("c", 5000);
+        theWheel.schedule("a", 3);
+        theWheel.schedule("b", 100);
+        assertEquals(3, theWheel.size());
+
+        List<String> theExpired = new ArrayList<>();
+        theWheel.advanceTo(2, theExpired);
+        assertTrue(theExpired.isEmpty());
+        theWheel.advanceTo(3, theExpired);
+        assertEquals(1, theExpired.size());
+        assertEquals("a", theExpired.get(0));
+
+        theWheel.advanceTo(99, theExpired);
+        assertEquals(1, theExpired.size());
+        theWheel.advanceTo(4999, theExpired);
+        assertEquals(2, theExpired.size());
+        assertEquals("b", theExpired.get(1));
+        theWheel.advanceTo(6000, theExpired);
+        assertEquals(3, theExpired.size());
+        assertEquals("c", theExpired.get(2));
+        assertEquals(0, theWheel.size());
+        assertEquals(6000, theWheel.getCurrentTime());
+    }
+
+    @Test
+    public void testCascadeKeepsExactDeadlines() throws Exception {
+        TimerWheel<Long> theWheel = new TimerWheel<>(17);
+        long[] theDeadlines = new long[] {18, 81, 145, 4096, 4113, 262161, 300000};
+        for (long theDeadline : theDeadlines) {
+            theWheel.schedule(theDeadline, theDeadline);
+        }
+        List<Long> theExpired = new ArrayList<>();
+        for (long theDeadline : theDeadlines) {
+            theWheel.advanceTo(theDeadline - 1, theExpired);
+            assertFalse(theExpired.contains(theDeadline));
+            theWheel.advanceTo(theDeadline, theExpired);
+            assertEquals(Long.valueOf(theDeadline), theExpired.get(theExpired.size() - 1));
+        }
+        assertEquals(theDeadlines.length, theExpired.size());
+    }
+
+    @Test
+    public void testOverflow() throws Exception {
+        TimerWheel<String> theWheel = new TimerWheel<>(0);
+        long theDeadline = (1L << 24) * 2 + 5;
+        TimerWheel.Timer<String> theTimer = theWheel.schedule("far", theDeadline);
+
+        List<String> theExpired = new ArrayList<>();
+        // Keep another timer alive so the wheel has to turn
+        theWheel.schedule("near", 1);
+        theWheel.advanceTo(theDeadline - 1, theExpired);
+        assertEquals(1, theExpired.size());
+        assertTrue(theTimer.isScheduled());
+        theWheel.advanceTo(theDeadline, theExpired);
+        assertEquals("far", theExpired.get(1));
+        assertFalse(theTimer.isScheduled());
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        TimerWheel<String> theWheel = new TimerWheel<>(0);
+        TimerWheel.Timer<String> theTimer = theWheel.schedule("a", 10);
+        theWheel.schedule("b", 10);
+        assertTrue(theWheel.cancel(theTimer));
+        assertFalse(theWheel.cancel(theTimer));
+        assertEquals(1, theWheel.size());
+
+        List<String> theExpired = new ArrayList<>();
+        theWheel.advanceTo(10, theExpired);
+        assertEquals(1, theExpired.size());
+        assertEquals("b", theExpired.get(0));
+    }
+
+    @Test
+    public void testPastDeadlineIsDueImmediately() throws Exception {
+        TimerWheel<String> theWheel = new TimerWheel<>(0);
+        List<String> theExpired = new ArrayList<>();
+        theWheel.advanceTo(50, theExpired);
+        theWheel.schedule("late", 20);
+        theWheel.schedule("now", 50);
+        theWheel.advanceTo(50, theExpired);
+        assertEquals(2, theExpired.size());
+        assertEquals(0, theWheel.size());
+    }
+}
@@ -0,0 +1,77 @@
+package de.mirkosertic.gameengine.script;
+
+import de.mirkosertic.gameengine.core.GameRuntime;
+import de.mirkosertic.gameengine.core.GameScene;
+import de.mirkosertic.gameengine.core.Logger;
+import de.mirkosertic.gameengine.process.GameProcess;
+import de.mirkosertic.gameengine.scriptengine.LUAScriptEngine;
+import de.mirkosertic.gameengine.scriptengine.LUAScriptEngineFactory;
+import de.mirkosertic.gameengine.type.Script;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ScriptProcessTest {
+
+    private static ScriptProcess createProcess(LUAScriptEngine aEngine) throws Exception {
+        GameRuntime theRuntime = mock(GameRuntime.class);
+        when(theRuntime.getLogger()).thenReturn(mock(Logger.class));
+        GameScene theScene = mock(GameScene.class);
+        when(theScene.getRuntime()).thenReturn(theRuntime);
+        Script theScript = new Script("");
+        LUAScriptEngineFactory theFactory = mock(LUAScriptEngineFactory.class);
+        when(theFactory.createNewEngine(theScene, theScript)).thenReturn(aEngine);
+
+        ScriptProcess theProcess = new ScriptProcess(null, theScene, theFactory, theScript);
+        theProcess.started();
+        return theProcess;
+    }
+
+    @Test
+    public void testScriptSleepsForTheReturnedTime() throws Exception {
+        LUAScriptEngine theEngine = mock(LUAScriptEngine.class);
+        when(theEngine.proceedGame(100, 10)).thenReturn(50);
+        ScriptProcess theProcess = createProcess(theEngine);
+
+        assertEquals(GameProcess.ProceedResult.PARKED, theProcess.proceedGame(100, 10));
+        assertEquals(150, theProcess.getWakeupTime());
+    }
+
+    @Test
+    public void testParkingWithoutWakeupIsRejected() throws Exception {
+        LUAScriptEngine theEngine = mock(LUAScriptEngine.class);
+        when(theEngine.proceedGame(100, 10)).thenReturn(50);
+        when(theEngine.proceedGame(200, 10)).thenReturn("PARKED");
+        when(theEngine.proceedGame(300, 10)).thenReturn(GameProcess.ProceedResult.PARKED);
+        ScriptProcess theProcess = createProcess(theEngine);
+        theProcess.proceedGame(100, 10);
+
+        // The wakeup of the earlier call would wake the process at once
+        try {
+            theProcess.proceedGame(200, 10);
+            fail();
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+        try {
+            theProcess.proceedGame(300, 10);
+            fail();
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testOtherResults() throws Exception {
+        LUAScriptEngine theEngine = mock(LUAScriptEngine.class);
+        when(theEngine.proceedGame(100, 10)).thenReturn("CONTINUE_RUNNING");
+        when(theEngine.proceedGame(200, 10)).thenReturn(null);
+        ScriptProcess theProcess = createProcess(theEngine);
+
+        assertEquals(GameProcess.ProceedResult.CONTINUE_RUNNING, theProcess.proceedGame(100, 10));
+        assertEquals(GameProcess.ProceedResult.STOPPED, theProcess.proceedGame(200, 10));
+    }
+}
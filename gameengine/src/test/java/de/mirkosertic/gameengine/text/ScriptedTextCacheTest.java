@@ -0,0 +1,124 @@
+package de.mirkosertic.gameengine.text;
+
+import de.mirkosertic.gameengine.core.GameObjectInstance;
+import de.mirkosertic.gameengine.core.GameRuntime;
+import de.mirkosertic.gameengine.core.GameScene;
+import de.mirkosertic.gameengine.event.GameEventManager;
+import de.mirkosertic.gameengine.event.Property;
+import de.mirkosertic.gameengine.scriptengine.ExpressionDependencies;
+import de.mirkosertic.gameengine.scriptengine.LUAScriptEngine;
+import de.mirkosertic.gameengine.scriptengine.LUAScriptEngineFactory;
+import de.mirkosertic.gameengine.type.TextExpression;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ScriptedTextCacheTest {
+
+    private GameScene createScene(LUAScriptEngineFactory aFactory) {
+        GameRuntime theRuntime = mock(GameRuntime.class);
+        when(theRuntime.getEventManager()).thenReturn(mock(GameEventManager.class));
+        when(theRuntime.getScriptEngineFactory()).thenReturn(aFactory);
+        GameScene theScene = mock(GameScene.class);
+        when(theScene.getRuntime()).thenReturn(theRuntime);
+        return theScene;
+    }
+
+    private LUAScriptEngine createEngineReading(final Property<String> aProperty, final boolean aUntracked) {
+        LUAScriptEngine theEngine = mock(LUAScriptEngine.class);
+        when(theEngine.evaluateSimpleExpressionFor(any(GameObjectInstance.class), any(ExpressionDependencies.class))).thenAnswer(new Answer<String>() {
+            @Override
+            public String answer(InvocationOnMock aInvocation) throws Throwable {
+                ExpressionDependencies theDependencies = (ExpressionDependencies) aInvocation.getArguments()[1];
+                theDependencies.propertyRead(aProperty);
+                if (aUntracked) {
+                    theDependencies.untrackedRead();
+                }
+                return aProperty.get();
+            }
+        });
+        return theEngine;
+    }
+
+    @Test
+    public void testEvaluatedAgainOnlyIfDependencyChanged() throws Exception {
+        Property<String> theProperty = new Property<>(String.class, this, "score", "1");
+        LUAScriptEngine theEngine = createEngineReading(theProperty, false);
+        LUAScriptEngineFactory theFactory = mock(LUAScriptEngineFactory.class);
+        TextExpression theExpression = new TextExpression("score");
+        GameScene theScene = createScene(theFactory);
+        when(theFactory.createNewEngine(theScene, theExpression)).thenReturn(theEngine);
+        GameObjectInstance theInstance = mock(GameObjectInstance.class);
+
+        ScriptedTextCache theCache = new ScriptedTextCache(theScene);
+        assertEquals("1", theCache.textFor(theInstance, theExpression, 0));
+        assertEquals("1", theCache.textFor(theInstance, theExpression, 1000));
+        verify(theEngine, times(1)).evaluateSimpleExpressionFor(eq(theInstance), any(ExpressionDependencies.class));
+
+        theProperty.set("2");
+        assertEquals("2", theCache.textFor(theInstance, theExpression, 1001));
+        assertEquals("2", theCache.textFor(theInstance, theExpression, 2000));
+        verify(theEngine, times(2)).evaluateSimpleExpressionFor(eq(theInstance), any(ExpressionDependencies.class));
+        assertEquals(1, theProperty.getChangeListener().size());
+    }
+
+    @Test
+    public void testUntrackedExpressionsAreRefreshedPeriodically() throws Exception {
+        Property<String> theProperty = new Property<>(String.class, this, "score", "1");
+        LUAScriptEngine theEngine = createEngineReading(theProperty, true);
+        LUAScriptEngineFactory theFactory = mock(LUAScriptEngineFactory.class);
+        TextExpression theExpression = new TextExpression("score");
+        GameScene theScene = createScene(theFactory);
+        when(theFactory.createNewEngine(theScene, theExpression)).thenReturn(theEngine);
+        GameObjectInstance theInstance = mock(GameObjectInstance.class);
+
+        ScriptedTextCache theCache = new ScriptedTextCache(theScene);
+        theCache.textFor(theInstance, theExpression, 0);
+        theCache.textFor(theInstance, theExpression, ScriptedTextCache.UNTRACKED_REFRESH_INTERVAL - 1);
+        verify(theEngine, times(1)).evaluateSimpleExpressionFor(eq(theInstance), any(ExpressionDependencies.class));
+        theCache.textFor(theInstance, theExpression, ScriptedTextCache.UNTRACKED_REFRESH_INTERVAL);
+        verify(theEngine, times(2)).evaluateSimpleExpressionFor(eq(theInstance), any(ExpressionDependencies.class));
+    }
+
+    @Test
+    public void testRemoveReleasesDependencies() throws Exception {
+        Property<String> theProperty = new Property<>(String.class, this, "score", "1");
+        LUAScriptEngine theEngine = createEngineReading(theProperty, false);
+        LUAScriptEngineFactory theFactory = mock(LUAScriptEngineFactory.class);
+        TextExpression theExpression = new TextExpression("score");
+        GameScene theScene = createScene(theFactory);
+        when(theFactory.createNewEngine(theScene, theExpression)).thenReturn(theEngine);
+        GameObjectInstance theInstance = mock(GameObjectInstance.class);
+
+        ScriptedTextCache theCache = new ScriptedTextCache(theScene);
+        theCache.textFor(theInstance, theExpression, 0);
+        assertEquals(1, theCache.size());
+
+        theCache.remove(theInstance);
+        assertEquals(0, theCache.size());
+        assertEquals(0, theProperty.getChangeListener().size());
+    }
+
+    @Test
+    public void testChangedExpressionIsEvaluated() throws Exception {
+        Property<String> theProperty = new Property<>(String.class, this, "score", "1");
+        LUAScriptEngine theEngine = createEngineReading(theProperty, false);
+        LUAScriptEngineFactory theFactory = mock(LUAScriptEngineFactory.class);
+        GameScene theScene = createScene(theFactory);
+        when(theFactory.createNewEngine(any(GameScene.class), any(TextExpression.class))).thenReturn(theEngine);
+        GameObjectInstance theInstance = mock(GameObjectInstance.class);
+
+        ScriptedTextCache theCache = new ScriptedTextCache(theScene);
+        theCache.textFor(theInstance, new TextExpression("a"), 0);
+        theCache.textFor(theInstance, new TextExpression("b"), 0);
+        verify(theEngine, times(2)).evaluateSimpleExpressionFor(eq(theInstance), any(ExpressionDependencies.class));
+    }
+}
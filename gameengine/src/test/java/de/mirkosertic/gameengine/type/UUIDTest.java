@@ -2,6 +2,10 @@ package de.mirkosertic.gameengine.type;
 
 import org.junit.Test;
 
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
@@ -14,4 +18,54 @@ public class UUIDTest {
         assertTrue(theUUID.length() > 0);
         Long.valueOf(theUUID);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testIdsAreUnique() throws Exception {
+        Set<String> theIds = new HashSet<>();
+        for (int i = 0; i < 100000; i++) {
+            assertTrue(theIds.add(UUID.randomUID()));
+        }
+    }
+
+    @Test
+    public void testPeerPrefix() throws Exception {
+        int thePrefix = UUID.getPeerPrefix();
+        try {
+            UUID.setPeerPrefix(42);
+            long theId = UUID.nextId();
+            assertEquals(42, UUID.peerPrefixOf(theId));
+            long theNextId = Long.valueOf(UUID.randomUID());
+            assertEquals(42, UUID.peerPrefixOf(theNextId));
+            assertEquals(theId + 1, theNextId);
+        } finally {
+            UUID.setPeerPrefix(thePrefix);
+        }
+    }
+
+    @Test
+    public void testSwitchingBackToAPrefixKeepsIdsUnique() throws Exception {
+        int thePrefix = UUID.getPeerPrefix();
+        try {
+            Set<Long> theIds = new HashSet<>();
+            UUID.setPeerPrefix(42);
+            for (int i = 0; i < 100; i++) {
+                assertTrue(theIds.add(UUID.nextId()));
+            }
+            UUID.setPeerPrefix(43);
+            for (int i = 0; i < 100; i++) {
+                assertTrue(theIds.add(UUID.nextId()));
+            }
+            UUID.setPeerPrefix(42);
+            for (int i = 0; i < 100; i++) {
+                assertTrue(theIds.add(UUID.nextId()));
+            }
+        } finally {
+            UUID.setPeerPrefix(thePrefix);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPeerPrefixMustBePositive() throws Exception {
+        UUID.setPeerPrefix(0);
+    }
+}